@@ -18,6 +18,7 @@ package com.linkedin.pinot.broker.broker;
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.broker.broker.helix.LiveInstancesChangeListenerImpl;
 import com.linkedin.pinot.broker.pruner.SegmentZKMetadataPrunerService;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
 import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.requesthandler.BrokerRequestHandler;
 import com.linkedin.pinot.broker.routing.CfgBasedRouting;
@@ -34,15 +35,17 @@ import com.linkedin.pinot.core.query.reduce.BrokerReduceService;
 import com.linkedin.pinot.transport.conf.TransportClientConf;
 import com.linkedin.pinot.transport.conf.TransportClientConf.RoutingMode;
 import com.linkedin.pinot.transport.config.ConnectionPoolConfig;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
+import com.linkedin.pinot.transport.netty.NettyTransportUtils;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
 import com.linkedin.pinot.transport.scattergather.ScatterGather;
 import com.linkedin.pinot.transport.scattergather.ScatterGatherImpl;
+import com.linkedin.pinot.transport.scattergather.ServerPerformanceTracker;
 import com.yammer.metrics.core.MetricsRegistry;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import java.net.URI;
 import java.util.concurrent.ExecutorService;
@@ -79,6 +82,7 @@ public class BrokerServerBuilder {
   private TimeBoundaryService _timeBoundaryService;
 
   private RoutingTable _routingTable;
+  private final ServerPerformanceTracker _serverPerformanceTracker;
 
   private ScatterGather _scatterGather;
 
@@ -97,6 +101,7 @@ public class BrokerServerBuilder {
   private final LiveInstancesChangeListenerImpl listener;
 
   private final TableQueryQuotaManager _tableQueryQuotaManager;
+  private final BrokerResultCache _resultCache;
 
   public static enum State {
     INIT,
@@ -111,14 +116,17 @@ public class BrokerServerBuilder {
 
   public BrokerServerBuilder(Configuration configuration, HelixExternalViewBasedRouting helixExternalViewBasedRouting,
       TimeBoundaryService timeBoundaryService, LiveInstancesChangeListenerImpl listener,
-      TableQueryQuotaManager tableQueryQuotaManager) throws ConfigurationException {
+      TableQueryQuotaManager tableQueryQuotaManager, BrokerResultCache resultCache) throws ConfigurationException {
     _config = configuration;
     if (_config.containsKey(BROKER_DELAY_SHUTDOWN_TIME_CONFIG)) {
       delayedShutdownTimeMs = _config.getLong(BROKER_DELAY_SHUTDOWN_TIME_CONFIG, DEFAULT_BROKER_DELAY_SHUTDOWN_TIME_MS);
     }
     _routingTable = helixExternalViewBasedRouting;
+    _serverPerformanceTracker =
+        helixExternalViewBasedRouting != null ? helixExternalViewBasedRouting.getServerPerformanceTracker() : null;
     _timeBoundaryService = timeBoundaryService;
     _tableQueryQuotaManager = tableQueryQuotaManager;
+    _resultCache = resultCache;
     this.listener = listener;
   }
 
@@ -134,7 +142,9 @@ public class BrokerServerBuilder {
     _brokerMetrics = new BrokerMetrics(_registry, !emitTableLevelMetrics());
     _brokerMetrics.initializeGlobalMeters();
     _state.set(State.INIT);
-    _eventLoopGroup = new NioEventLoopGroup();
+    final NettyChannelConfig nettyConfig = conf.getNettyConfig();
+    _eventLoopGroup = NettyTransportUtils.newEventLoopGroup(nettyConfig.getNumWorkerThreads(),
+        NettyTransportUtils.useEpoll(nettyConfig));
     /**
      * Some of the client metrics uses histogram which is doing synchronous operation.
      * These are fixed overhead per request/response.
@@ -143,7 +153,8 @@ public class BrokerServerBuilder {
     final NettyClientMetrics clientMetrics = new NettyClientMetrics(_registry, "client_");
 
     // Setup Netty Connection Pool
-    _resourceManager = new PooledNettyClientResourceManager(_eventLoopGroup, new HashedWheelTimer(), clientMetrics);
+    _resourceManager = new PooledNettyClientResourceManager(_eventLoopGroup, new HashedWheelTimer(), clientMetrics,
+        nettyConfig);
     _poolTimeoutExecutor = new ScheduledThreadPoolExecutor(50);
     // _requestSenderPool = MoreExecutors.sameThreadExecutor();
 
@@ -167,7 +178,8 @@ public class BrokerServerBuilder {
     }
 
     // Setup ScatterGather
-    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool);
+    _scatterGather = new ScatterGatherImpl(_connPool, _requestSenderPool, conf.getHedgeConfig(), _poolTimeoutExecutor,
+        _serverPerformanceTracker);
 
     // Setup the broker pruner service
     String[] prunerNames = _config.getStringArray(BROKER_SEGMENT_PRUNERS);
@@ -181,7 +193,7 @@ public class BrokerServerBuilder {
     _accessControlFactory = AccessControlFactory.loadFactory(_config.subset(BROKER_ACCESS_CONTROL_PREFIX));
     _requestHandler = new BrokerRequestHandler(_routingTable, _timeBoundaryService, _scatterGather,
         reduceServiceRegistry, brokerPrunerService, _brokerMetrics, _config, _accessControlFactory,
-        _tableQueryQuotaManager);
+        _tableQueryQuotaManager, _resultCache, _requestSenderPool);
 
     LOGGER.info("Network initialized !!");
   }
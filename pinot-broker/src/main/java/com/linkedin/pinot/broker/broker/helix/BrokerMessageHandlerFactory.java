@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.broker.helix;
+
+import com.linkedin.pinot.broker.routing.HelixExternalViewBasedRouting;
+import com.linkedin.pinot.common.messages.SegmentRefreshMessage;
+import org.apache.helix.NotificationContext;
+import org.apache.helix.messaging.handling.HelixTaskResult;
+import org.apache.helix.messaging.handling.MessageHandler;
+import org.apache.helix.messaging.handling.MessageHandlerFactory;
+import org.apache.helix.model.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Handler factory for the user defined messages sent from the controller to the broker.
+ */
+public class BrokerMessageHandlerFactory implements MessageHandlerFactory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerMessageHandlerFactory.class);
+
+  private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
+
+  public BrokerMessageHandlerFactory(HelixExternalViewBasedRouting helixExternalViewBasedRouting) {
+    _helixExternalViewBasedRouting = helixExternalViewBasedRouting;
+  }
+
+  // Called each time a message is received.
+  @Override
+  public MessageHandler createHandler(Message message, NotificationContext context) {
+    String msgSubType = message.getMsgSubType();
+    switch (msgSubType) {
+      case SegmentRefreshMessage.REFRESH_SEGMENT_MSG_SUB_TYPE:
+        return new SegmentRefreshMessageHandler(new SegmentRefreshMessage(message), context);
+      default:
+        throw new UnsupportedOperationException("Unsupported user defined message sub type: " + msgSubType);
+    }
+  }
+
+  // Gets called once during start up. We must return the same message type that this factory is registered for.
+  @Override
+  public String getMessageType() {
+    return Message.MessageType.USER_DEFINE_MSG.toString();
+  }
+
+  @Override
+  public void reset() {
+    LOGGER.info("Reset called");
+  }
+
+  private class SegmentRefreshMessageHandler extends MessageHandler {
+    private final String _tableName;
+    private final String _segmentName;
+
+    public SegmentRefreshMessageHandler(SegmentRefreshMessage refreshMessage, NotificationContext context) {
+      super(refreshMessage, context);
+      _tableName = refreshMessage.getTableName();
+      _segmentName = refreshMessage.getSegmentName();
+    }
+
+    @Override
+    public HelixTaskResult handleMessage() {
+      HelixTaskResult result = new HelixTaskResult();
+      LOGGER.info("Handling message: {}", _message);
+      _helixExternalViewBasedRouting.refreshSegment(_tableName, _segmentName);
+      result.setSuccess(true);
+      return result;
+    }
+
+    @Override
+    public void onError(Exception e, ErrorCode code, ErrorType type) {
+      LOGGER.error("onError: {}, {}", type, code, e);
+    }
+  }
+}
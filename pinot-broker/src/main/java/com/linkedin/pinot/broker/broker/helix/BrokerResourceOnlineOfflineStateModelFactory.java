@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.broker.broker.helix;
 
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
 import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.routing.HelixExternalViewBasedRouting;
 import com.linkedin.pinot.common.Utils;
@@ -55,17 +56,19 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
   private final HelixAdmin _helixAdmin;
   private final HelixExternalViewBasedRouting _helixExternalViewBasedRouting;
   private final TableQueryQuotaManager _tableQueryQuotaManager;
+  private final BrokerResultCache _resultCache;
 
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
 
   public BrokerResourceOnlineOfflineStateModelFactory(HelixManager helixManager,
       ZkHelixPropertyStore<ZNRecord> propertyStore, HelixExternalViewBasedRouting helixExternalViewBasedRouting,
-      TableQueryQuotaManager tableQueryQuotaManager) {
+      TableQueryQuotaManager tableQueryQuotaManager, BrokerResultCache resultCache) {
     _helixManager = helixManager;
     _propertyStore = propertyStore;
     _helixAdmin = helixManager.getClusterManagmentTool();
     _helixExternalViewBasedRouting = helixExternalViewBasedRouting;
     _tableQueryQuotaManager = tableQueryQuotaManager;
+    _resultCache = resultCache;
   }
 
   public static String getStateModelDef() {
@@ -97,6 +100,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         _tableQueryQuotaManager.initTableQueryQuota(
             tableConfig,
             HelixHelper.getExternalViewForResource(_helixAdmin, _helixManager.getClusterName(), BROKER_RESOURCE_INSTANCE));
+        _resultCache.initTableResultCache(tableConfig);
       } catch (Exception e) {
         LOGGER.error("Caught exception during OFFLINE -> ONLINE transition", e);
         Utils.rethrowException(e);
@@ -111,6 +115,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
         _tableQueryQuotaManager.dropTableQueryQuota(tableName);
+        _resultCache.dropTableResultCache(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during ONLINE -> OFFLINE transition", e);
         Utils.rethrowException(e);
@@ -125,6 +130,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
         _tableQueryQuotaManager.dropTableQueryQuota(tableName);
+        _resultCache.dropTableResultCache(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during OFFLINE -> DROPPED transition", e);
         Utils.rethrowException(e);
@@ -139,6 +145,7 @@ public class BrokerResourceOnlineOfflineStateModelFactory extends StateModelFact
         String tableName = message.getPartitionName();
         _helixExternalViewBasedRouting.markDataResourceOffline(tableName);
         _tableQueryQuotaManager.dropTableQueryQuota(tableName);
+        _resultCache.dropTableResultCache(tableName);
       } catch (Exception e) {
         LOGGER.error("Caught exception during ONLINE -> DROPPED transition", e);
         Utils.rethrowException(e);
@@ -18,6 +18,7 @@ package com.linkedin.pinot.broker.broker.helix;
 import com.google.common.collect.ImmutableList;
 import com.linkedin.pinot.broker.broker.AccessControlFactory;
 import com.linkedin.pinot.broker.broker.BrokerServerBuilder;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
 import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
 import com.linkedin.pinot.broker.routing.HelixExternalViewBasedRouting;
 import com.linkedin.pinot.common.config.TagNameUtils;
@@ -41,6 +42,7 @@ import org.apache.helix.InstanceType;
 import org.apache.helix.PreConnectCallback;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.InstanceConfig;
+import org.apache.helix.model.Message;
 import org.apache.helix.participant.StateMachineEngine;
 import org.apache.helix.participant.statemachine.StateModelFactory;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -67,6 +69,7 @@ public class HelixBrokerStarter {
   private final LiveInstancesChangeListenerImpl _liveInstancesListener;
   private final MetricsRegistry _metricsRegistry;
   private final TableQueryQuotaManager _tableQueryQuotaManager;
+  private final BrokerResultCache _resultCache;
 
   // Set after broker is started, which is actually in the constructor.
   private AccessControlFactory _accessControlFactory;
@@ -118,6 +121,7 @@ public class HelixBrokerStarter {
     _helixExternalViewBasedRouting = new HelixExternalViewBasedRouting(_propertyStore, _spectatorHelixManager,
         pinotHelixProperties.subset(ROUTING_TABLE_PARAMS_SUBSET_KEY));
     _tableQueryQuotaManager = new TableQueryQuotaManager(_spectatorHelixManager);
+    _resultCache = new BrokerResultCache(_pinotHelixProperties);
     _brokerServerBuilder = startBroker(_pinotHelixProperties);
     _metricsRegistry = _brokerServerBuilder.getMetricsRegistry();
     ClusterChangeMediator clusterChangeMediator =
@@ -132,11 +136,14 @@ public class HelixBrokerStarter {
     StateMachineEngine stateMachineEngine = _helixManager.getStateMachineEngine();
     StateModelFactory<?> stateModelFactory =
         new BrokerResourceOnlineOfflineStateModelFactory(_spectatorHelixManager, _propertyStore,
-            _helixExternalViewBasedRouting, _tableQueryQuotaManager);
+            _helixExternalViewBasedRouting, _tableQueryQuotaManager, _resultCache);
     stateMachineEngine.registerStateModelFactory(BrokerResourceOnlineOfflineStateModelFactory.getStateModelDef(),
         stateModelFactory);
     _helixManager.connect();
     addInstanceTagIfNeeded(helixClusterName, brokerId);
+    BrokerMessageHandlerFactory messageHandlerFactory = new BrokerMessageHandlerFactory(_helixExternalViewBasedRouting);
+    _helixManager.getMessagingService()
+        .registerMessageHandlerFactory(Message.MessageType.USER_DEFINE_MSG.toString(), messageHandlerFactory);
 
     // Register the service status handler
     ServiceStatus.setServiceStatusCallback(
@@ -189,7 +196,8 @@ public class HelixBrokerStarter {
     }
     final BrokerServerBuilder brokerServerBuilder =
         new BrokerServerBuilder(config, _helixExternalViewBasedRouting,
-            _helixExternalViewBasedRouting.getTimeBoundaryService(), _liveInstancesListener, _tableQueryQuotaManager);
+            _helixExternalViewBasedRouting.getTimeBoundaryService(), _liveInstancesListener, _tableQueryQuotaManager,
+            _resultCache);
     brokerServerBuilder.buildNetwork();
     brokerServerBuilder.buildHTTP();
     _accessControlFactory = brokerServerBuilder.getAccessControlFactory();
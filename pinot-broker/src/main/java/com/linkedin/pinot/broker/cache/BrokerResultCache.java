@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.linkedin.pinot.common.config.RoutingConfig;
+import com.linkedin.pinot.common.config.TableConfig;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.linkedin.pinot.common.utils.CommonConstants.Broker.*;
+
+
+/**
+ * The <code>BrokerResultCache</code> class caches the serialized broker responses for repeated queries.
+ * <p>The cache is bounded by the total size of the cached responses, and each entry expires after the time to live
+ * configured in the {@link RoutingConfig} of the tables hit by the query. Tables without a positive time to live are
+ * never cached.
+ * <p>The cache key contains the routing table versions of the tables hit by the query, so any change of the routing
+ * table (e.g. segments added or removed, time boundary changed) makes the previously cached results unreachable.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Rough per-entry overhead (key, entry object and cache bookkeeping) in bytes
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final Map<String, Long> _tableTtlMsMap = new ConcurrentHashMap<>();
+  private final Cache<Key, Entry> _cache;
+
+  public BrokerResultCache(@Nonnull Configuration config) {
+    this(config.getLong(CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES, DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES));
+  }
+
+  public BrokerResultCache(long maxSizeBytes) {
+    if (maxSizeBytes > 0) {
+      _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes).weigher(new Weigher<Key, Entry>() {
+        @Override
+        public int weigh(@Nonnull Key key, @Nonnull Entry entry) {
+          // Java strings take 2 bytes per char
+          return 2 * entry._responseJson.length() + ENTRY_OVERHEAD_BYTES;
+        }
+      }).build();
+      LOGGER.info("Broker result cache enabled with max size: {} bytes", maxSizeBytes);
+    } else {
+      _cache = null;
+      LOGGER.info("Broker result cache disabled");
+    }
+  }
+
+  public boolean isEnabled() {
+    return _cache != null;
+  }
+
+  /**
+   * Initialize the result cache time to live for a table.
+   *
+   * @param tableConfig table config.
+   */
+  public void initTableResultCache(@Nonnull TableConfig tableConfig) {
+    String tableNameWithType = tableConfig.getTableName();
+    RoutingConfig routingConfig = tableConfig.getRoutingConfig();
+    long ttlMs = routingConfig != null ? routingConfig.getResultCacheTtlMs() : 0L;
+    if (ttlMs > 0) {
+      LOGGER.info("Result cache time to live for table: {} is {}ms", tableNameWithType, ttlMs);
+      _tableTtlMsMap.put(tableNameWithType, ttlMs);
+    } else {
+      _tableTtlMsMap.remove(tableNameWithType);
+    }
+  }
+
+  /**
+   * Drop the result cache time to live for a table. Cached results of the table become unreachable and get evicted
+   * eventually.
+   *
+   * @param tableNameWithType table name with type.
+   */
+  public void dropTableResultCache(@Nonnull String tableNameWithType) {
+    _tableTtlMsMap.remove(tableNameWithType);
+  }
+
+  /**
+   * Get the time to live of the results for a query hitting the given tables.
+   *
+   * @param offlineTableName offline table hit by the query.
+   * @param realtimeTableName realtime table hit by the query.
+   * @return minimum time to live of the tables hit, or 0 if the results should not be cached.
+   */
+  public long getTtlMs(@Nullable String offlineTableName, @Nullable String realtimeTableName) {
+    if (_cache == null) {
+      return 0L;
+    }
+    long ttlMs = Long.MAX_VALUE;
+    if (offlineTableName != null) {
+      Long offlineTtlMs = _tableTtlMsMap.get(offlineTableName);
+      if (offlineTtlMs == null) {
+        return 0L;
+      }
+      ttlMs = offlineTtlMs;
+    }
+    if (realtimeTableName != null) {
+      Long realtimeTtlMs = _tableTtlMsMap.get(realtimeTableName);
+      if (realtimeTtlMs == null) {
+        return 0L;
+      }
+      ttlMs = Math.min(ttlMs, realtimeTtlMs);
+    }
+    return ttlMs == Long.MAX_VALUE ? 0L : ttlMs;
+  }
+
+  /**
+   * Get the cached serialized broker response for the given key.
+   *
+   * @return serialized broker response, or null if not cached or already expired.
+   */
+  @Nullable
+  public String get(@Nonnull Key key) {
+    if (_cache == null) {
+      return null;
+    }
+    Entry entry = _cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() >= entry._expirationTimeMs) {
+      _cache.invalidate(key);
+      return null;
+    }
+    return entry._responseJson;
+  }
+
+  /**
+   * Cache the serialized broker response for the given key.
+   */
+  public void put(@Nonnull Key key, @Nonnull String responseJson, long ttlMs) {
+    if (_cache == null || ttlMs <= 0) {
+      return;
+    }
+    _cache.put(key, new Entry(responseJson, System.currentTimeMillis() + ttlMs));
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache != null ? _cache.size() : 0L;
+  }
+
+  private static final class Entry {
+    private final String _responseJson;
+    private final long _expirationTimeMs;
+
+    private Entry(String responseJson, long expirationTimeMs) {
+      _responseJson = responseJson;
+      _expirationTimeMs = expirationTimeMs;
+    }
+  }
+
+  /**
+   * Cache key of the optimized broker requests sent to the offline and realtime tables, together with the versions of
+   * the routing tables used to route them.
+   * <p>The broker requests are copied so that later modifications won't affect the key.
+   */
+  public static final class Key {
+    private final BrokerRequest _offlineBrokerRequest;
+    private final BrokerRequest _realtimeBrokerRequest;
+    private final long _offlineRoutingTableVersion;
+    private final long _realtimeRoutingTableVersion;
+    private final int _hashCode;
+
+    public Key(@Nullable BrokerRequest offlineBrokerRequest, @Nullable BrokerRequest realtimeBrokerRequest,
+        long offlineRoutingTableVersion, long realtimeRoutingTableVersion) {
+      _offlineBrokerRequest = offlineBrokerRequest != null ? offlineBrokerRequest.deepCopy() : null;
+      _realtimeBrokerRequest = realtimeBrokerRequest != null ? realtimeBrokerRequest.deepCopy() : null;
+      _offlineRoutingTableVersion = offlineRoutingTableVersion;
+      _realtimeRoutingTableVersion = realtimeRoutingTableVersion;
+
+      int hashCode = EqualityUtils.hashCodeOf(_offlineBrokerRequest);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _realtimeBrokerRequest);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _offlineRoutingTableVersion);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _realtimeRoutingTableVersion);
+      _hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (EqualityUtils.isSameReference(this, o)) {
+        return true;
+      }
+
+      if (EqualityUtils.isNullOrNotSameClass(this, o)) {
+        return false;
+      }
+
+      Key that = (Key) o;
+
+      return _hashCode == that._hashCode && _offlineRoutingTableVersion == that._offlineRoutingTableVersion
+          && _realtimeRoutingTableVersion == that._realtimeRoutingTableVersion && EqualityUtils.isEqual(
+          _offlineBrokerRequest, that._offlineBrokerRequest) && EqualityUtils.isEqual(_realtimeBrokerRequest,
+          that._realtimeBrokerRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
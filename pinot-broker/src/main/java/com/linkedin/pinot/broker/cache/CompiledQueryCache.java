@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.linkedin.pinot.common.utils.CommonConstants.Broker.*;
+
+
+/**
+ * The <code>CompiledQueryCache</code> class caches the compiled broker requests keyed by the query string, so that
+ * repeated queries skip the PQL parsing and AST walk.
+ * <p>The cache is bounded by the number of entries and evicts the least recently used ones. The cached broker requests
+ * are never handed out: {@link #put(String, BrokerRequest)} stores a copy, and {@link #get(String)} returns a new copy
+ * which the caller is free to modify.
+ */
+@ThreadSafe
+public class CompiledQueryCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CompiledQueryCache.class);
+
+  private final Cache<String, BrokerRequest> _cache;
+
+  public CompiledQueryCache(@Nonnull Configuration config) {
+    this(config.getInt(CONFIG_OF_BROKER_COMPILED_QUERY_CACHE_MAX_SIZE, DEFAULT_BROKER_COMPILED_QUERY_CACHE_MAX_SIZE));
+  }
+
+  public CompiledQueryCache(int maxSize) {
+    if (maxSize > 0) {
+      _cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+      LOGGER.info("Compiled query cache enabled with max size: {}", maxSize);
+    } else {
+      _cache = null;
+      LOGGER.info("Compiled query cache disabled");
+    }
+  }
+
+  public boolean isEnabled() {
+    return _cache != null;
+  }
+
+  /**
+   * Get a copy of the cached compiled broker request for the given query.
+   *
+   * @return copy of the compiled broker request, or null if not cached.
+   */
+  @Nullable
+  public BrokerRequest get(@Nonnull String query) {
+    if (_cache == null) {
+      return null;
+    }
+    BrokerRequest brokerRequest = _cache.getIfPresent(query);
+    return brokerRequest != null ? brokerRequest.deepCopy() : null;
+  }
+
+  /**
+   * Cache a copy of the compiled broker request for the given query.
+   * <p>Should be called before the broker request gets modified (e.g. table name or options set).
+   */
+  public void put(@Nonnull String query, @Nonnull BrokerRequest brokerRequest) {
+    if (_cache == null) {
+      return;
+    }
+    _cache.put(query, brokerRequest.deepCopy());
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache != null ? _cache.size() : 0L;
+  }
+}
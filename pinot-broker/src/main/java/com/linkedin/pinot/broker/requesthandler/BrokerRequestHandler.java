@@ -18,6 +18,8 @@ package com.linkedin.pinot.broker.requesthandler;
 import com.google.common.base.Splitter;
 import com.linkedin.pinot.broker.api.RequesterIdentity;
 import com.linkedin.pinot.broker.broker.AccessControlFactory;
+import com.linkedin.pinot.broker.cache.BrokerResultCache;
+import com.linkedin.pinot.broker.cache.CompiledQueryCache;
 import com.linkedin.pinot.broker.pruner.SegmentZKMetadataPrunerService;
 
 import com.linkedin.pinot.broker.queryquota.TableQueryQuotaManager;
@@ -42,6 +44,7 @@ import com.linkedin.pinot.common.response.BrokerResponseFactory;
 import com.linkedin.pinot.common.response.BrokerResponseFactory.ResponseType;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableFactory;
@@ -59,6 +62,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
@@ -98,11 +107,15 @@ public class BrokerRequestHandler {
   private final AtomicLong _requestIdGenerator;
   private final String _brokerId;
   private final TableQueryQuotaManager _tableQueryQuotaManager;
+  private final BrokerResultCache _resultCache;
+  private final CompiledQueryCache _compiledQueryCache;
+  private final ExecutorService _deserializationExecutor;
 
   public BrokerRequestHandler(RoutingTable table, TimeBoundaryService timeBoundaryService,
       ScatterGather scatterGatherer, ReduceServiceRegistry reduceServiceRegistry,
       SegmentZKMetadataPrunerService segmentPrunerService, BrokerMetrics brokerMetrics, Configuration config,
-      AccessControlFactory accessControlFactory, TableQueryQuotaManager tableQueryQuotaManager) {
+      AccessControlFactory accessControlFactory, TableQueryQuotaManager tableQueryQuotaManager,
+      @Nullable BrokerResultCache resultCache, @Nullable ExecutorService deserializationExecutor) {
     _routingTable = table;
     _timeBoundaryService = timeBoundaryService;
     _reduceServiceRegistry = reduceServiceRegistry;
@@ -117,6 +130,9 @@ public class BrokerRequestHandler {
     _segmentPrunerService = segmentPrunerService;
     _accessControlFactory = accessControlFactory;
     _tableQueryQuotaManager = tableQueryQuotaManager;
+    _resultCache = resultCache;
+    _compiledQueryCache = new CompiledQueryCache(config);
+    _deserializationExecutor = deserializationExecutor;
 
     LOGGER.info("Broker response limit is: " + _queryResponseLimit);
     LOGGER.info("Broker timeout is - " + _brokerTimeOutMs + " ms");
@@ -150,14 +166,22 @@ public class BrokerRequestHandler {
 
     // Compile the request
     final long compilationStartTime = System.nanoTime();
-    BrokerRequest brokerRequest;
-    try {
-      brokerRequest = REQUEST_COMPILER.compileToBrokerRequest(query);
-    } catch (Exception e) {
-      LOGGER.info("Parsing error on requestId {}: {}, {}", requestId, query, e.getMessage());
-      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1L);
-      return BrokerResponseFactory.getBrokerResponseWithException(DEFAULT_BROKER_RESPONSE_TYPE,
-          QueryException.getException(QueryException.PQL_PARSING_ERROR, e));
+    BrokerRequest brokerRequest = _compiledQueryCache.get(query);
+    if (brokerRequest != null) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.COMPILED_QUERY_CACHE_HITS, 1L);
+    } else {
+      try {
+        brokerRequest = REQUEST_COMPILER.compileToBrokerRequest(query);
+      } catch (Exception e) {
+        LOGGER.info("Parsing error on requestId {}: {}, {}", requestId, query, e.getMessage());
+        _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1L);
+        return BrokerResponseFactory.getBrokerResponseWithException(DEFAULT_BROKER_RESPONSE_TYPE,
+            QueryException.getException(QueryException.PQL_PARSING_ERROR, e));
+      }
+      if (_compiledQueryCache.isEnabled()) {
+        _brokerMetrics.addMeteredGlobalValue(BrokerMeter.COMPILED_QUERY_CACHE_MISSES, 1L);
+        _compiledQueryCache.put(query, brokerRequest);
+      }
     }
     final String tableName = brokerRequest.getQuerySource().getTableName();
     final String rawTableName = TableNameBuilder.extractRawTableName(tableName);
@@ -325,10 +349,28 @@ public class BrokerRequestHandler {
     ResponseType responseType = BrokerResponseFactory.getResponseType(brokerRequest.getResponseFormat());
     LOGGER.debug("Broker Response Type: {}", responseType.name());
 
+    // Read the routing table versions before reading the time boundary and routing the request, so that the results
+    // are never cached under a newer version than the one used to compute them
+    long ttlMs = 0L;
+    long offlineRoutingTableVersion = 0L;
+    long realtimeRoutingTableVersion = 0L;
+    if (_resultCache != null && !brokerRequest.isEnableTrace()
+        && responseType == ResponseType.BROKER_RESPONSE_TYPE_NATIVE) {
+      ttlMs = _resultCache.getTtlMs(offlineTableName, realtimeTableName);
+      if (offlineTableName != null) {
+        offlineRoutingTableVersion = _routingTable.getRoutingTableVersion(offlineTableName);
+      }
+      if (realtimeTableName != null) {
+        realtimeRoutingTableVersion = _routingTable.getRoutingTableVersion(realtimeTableName);
+      }
+    }
+
     // TODO: get time column name from schema or table config so that we can apply it in realtime only use case.
     // We get timeColumnName from time boundary service currently, which only exists for offline table.
     String timeColumnName = (offlineTableName != null) ? getTimeColumnName(offlineTableName) : null;
 
+    String rawTableName = TableNameBuilder.extractRawTableName(brokerRequest.getQuerySource().getTableName());
+    long optimizationStartTime = System.nanoTime();
     BrokerRequest offlineBrokerRequest = null;
     BrokerRequest realtimeBrokerRequest = null;
     if ((offlineTableName != null) && (realtimeTableName != null)) {
@@ -344,10 +386,47 @@ public class BrokerRequestHandler {
       brokerRequest.getQuerySource().setTableName(realtimeTableName);
       realtimeBrokerRequest = _optimizer.optimize(brokerRequest, timeColumnName);
     }
+    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REQUEST_OPTIMIZATION,
+        System.nanoTime() - optimizationStartTime);
 
     ReduceService reduceService = _reduceServiceRegistry.get(responseType);
-    return processOptimizedBrokerRequests(brokerRequest, offlineBrokerRequest, realtimeBrokerRequest, reduceService,
-        scatterGatherStats, requestId);
+    if (ttlMs <= 0) {
+      return processOptimizedBrokerRequests(brokerRequest, offlineBrokerRequest, realtimeBrokerRequest, reduceService,
+          scatterGatherStats, requestId);
+    }
+
+    // Look up the result cache
+    BrokerResultCache.Key cacheKey = new BrokerResultCache.Key(offlineBrokerRequest, realtimeBrokerRequest,
+        offlineRoutingTableVersion, realtimeRoutingTableVersion);
+    String cachedResponse = _resultCache.get(cacheKey);
+    if (cachedResponse != null) {
+      try {
+        BrokerResponse brokerResponse = BrokerResponseNative.fromJsonString(cachedResponse);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1L);
+        return brokerResponse;
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while deserializing cached response for requestId {}", requestId, e);
+      }
+    }
+    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1L);
+
+    BrokerResponse brokerResponse =
+        processOptimizedBrokerRequests(brokerRequest, offlineBrokerRequest, realtimeBrokerRequest, reduceService,
+            scatterGatherStats, requestId);
+
+    // Only cache complete results without any exception
+    if (brokerResponse instanceof BrokerResponseNative) {
+      BrokerResponseNative brokerResponseNative = (BrokerResponseNative) brokerResponse;
+      if (brokerResponseNative.getExceptionsSize() == 0
+          && brokerResponseNative.getNumServersQueried() == brokerResponseNative.getNumServersResponded()) {
+        try {
+          _resultCache.put(cacheKey, brokerResponseNative.toJsonString(), ttlMs);
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while caching response for requestId {}", requestId, e);
+        }
+      }
+    }
+    return brokerResponse;
   }
 
   /**
@@ -491,6 +570,19 @@ public class BrokerRequestHandler {
       return BrokerResponseFactory.getStaticEmptyBrokerResponse(serverResponseType);
     }
 
+    // Start deserializing the server responses as soon as they arrive, so that the deserialization overlaps with
+    // waiting for the slower servers.
+    ServerResponseDeserializer offlineResponseDeserializer = null;
+    if (offlineCompositeFuture != null) {
+      offlineResponseDeserializer = new ServerResponseDeserializer(_deserializationExecutor);
+      offlineCompositeFuture.setResponseListener(offlineResponseDeserializer);
+    }
+    ServerResponseDeserializer realtimeResponseDeserializer = null;
+    if (realtimeCompositeFuture != null) {
+      realtimeResponseDeserializer = new ServerResponseDeserializer(_deserializationExecutor);
+      realtimeCompositeFuture.setResponseListener(realtimeResponseDeserializer);
+    }
+
     // Step 3: gather response from the servers.
     int numServersQueried = 0;
     long gatherStartTime = System.nanoTime();
@@ -515,7 +607,7 @@ public class BrokerRequestHandler {
       return BrokerResponseFactory.getBrokerResponseWithExceptions(serverResponseType, processingExceptions);
     }
 
-    //Step 4: deserialize the server responses.
+    // Step 4: deserialize the server responses (wait for the deserialization started in the background).
     int numServersResponded = 0;
     long deserializationStartTime = System.nanoTime();
     Map<ServerInstance, DataTable> dataTableMap = new HashMap<>();
@@ -524,14 +616,14 @@ public class BrokerRequestHandler {
     if (offlineServerResponseMap != null) {
       numServersResponded += offlineServerResponseMap.size();
       totalServerResponseSize +=
-          deserializeServerResponses(offlineServerResponseMap, true, dataTableMap, offlineTableName,
-              processingExceptions);
+          deserializeServerResponses(offlineServerResponseMap, offlineResponseDeserializer, true, dataTableMap,
+              offlineTableName, processingExceptions);
     }
     if (realtimeServerResponseMap != null) {
       numServersResponded += realtimeServerResponseMap.size();
       totalServerResponseSize +=
-          deserializeServerResponses(realtimeServerResponseMap, false, dataTableMap, realtimeTableName,
-              processingExceptions);
+          deserializeServerResponses(realtimeServerResponseMap, realtimeResponseDeserializer, false, dataTableMap,
+              realtimeTableName, processingExceptions);
     }
     phaseTimes.addToDeserializationTime(System.nanoTime() - deserializationStartTime);
 
@@ -587,7 +679,8 @@ public class BrokerRequestHandler {
     // Step 2: select servers for each segment set and scatter request to the servers.
     long scatterStartTime = System.nanoTime();
     ScatterGatherRequestImpl scatterRequest =
-        new ScatterGatherRequestImpl(brokerRequest, routingTable, requestId, _brokerTimeOutMs, _brokerId);
+        new ScatterGatherRequestImpl(brokerRequest, routingTable, requestId, _brokerTimeOutMs, _brokerId,
+            _routingTable);
     CompositeFuture<byte[]> compositeFuture =
         _scatterGatherer.scatterGather(scatterRequest, scatterGatherStats, isOfflineTable, _brokerMetrics);
     phaseTimes.addToScatterTime(System.nanoTime() - scatterStartTime);
@@ -636,28 +729,30 @@ public class BrokerRequestHandler {
    * them.
    *
    * @param responseMap map from server to response.
+   * @param responseDeserializer deserializer that might have already deserialized the responses in the background.
    * @param isOfflineTable whether the responses are from an OFFLINE table.
    * @param dataTableMap map from server to data table.
    * @param tableNameWithType table name with type suffix.
    * @param processingExceptions list of processing exceptions.
    * @return total server response size.
    */
-  private long deserializeServerResponses(@Nonnull Map<ServerInstance, byte[]> responseMap, boolean isOfflineTable,
+  private long deserializeServerResponses(@Nonnull Map<ServerInstance, byte[]> responseMap,
+      @Nonnull ServerResponseDeserializer responseDeserializer, boolean isOfflineTable,
       @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull String tableNameWithType,
-      @Nonnull List<ProcessingException> processingExceptions) {
+      @Nonnull List<ProcessingException> processingExceptions) throws InterruptedException {
     long totalResponseSize = 0L;
     for (Entry<ServerInstance, byte[]> entry : responseMap.entrySet()) {
       ServerInstance serverInstance = entry.getKey();
-      if (!isOfflineTable) {
-        serverInstance = serverInstance.withSeq(1);
-      }
+      ServerInstance dataTableKey = isOfflineTable ? serverInstance : serverInstance.withSeq(1);
       byte[] responseInBytes = entry.getValue();
       totalResponseSize += responseInBytes.length;
       try {
-        dataTableMap.put(serverInstance, DataTableFactory.getDataTable(responseInBytes));
+        dataTableMap.put(dataTableKey, responseDeserializer.getDataTable(serverInstance, responseInBytes));
+      } catch (InterruptedException e) {
+        throw e;
       } catch (Exception e) {
         LOGGER.error("Caught exceptions while deserializing response for table: {} from server: {}", tableNameWithType,
-            serverInstance, e);
+            dataTableKey, e);
         _brokerMetrics.addMeteredTableValue(tableNameWithType, BrokerMeter.DATA_TABLE_DESERIALIZATION_EXCEPTIONS, 1L);
         processingExceptions.add(QueryException.getException(QueryException.DATA_TABLE_DESERIALIZATION_ERROR, e));
       }
@@ -665,6 +760,53 @@ public class BrokerRequestHandler {
     return totalResponseSize;
   }
 
+  /**
+   * Response listener that deserializes each server response in the background as soon as it arrives.
+   * <p>Responses not handed to the executor (no executor configured, executor rejected the task, or response not
+   * delivered to the listener) are deserialized in the caller thread when requested.
+   */
+  private static class ServerResponseDeserializer implements CompositeFuture.ResponseListener<byte[]> {
+    private final ExecutorService _executorService;
+    private final Map<ServerInstance, Future<DataTable>> _dataTableFutureMap = new ConcurrentHashMap<>();
+
+    public ServerResponseDeserializer(@Nullable ExecutorService executorService) {
+      _executorService = executorService;
+    }
+
+    @Override
+    public void onResponse(ServerInstance server, final byte[] response) {
+      if (_executorService == null || response.length == 0) {
+        return;
+      }
+      try {
+        _dataTableFutureMap.put(server, _executorService.submit(new Callable<DataTable>() {
+          @Override
+          public DataTable call()
+              throws Exception {
+            return DataTableFactory.getDataTable(response);
+          }
+        }));
+      } catch (RejectedExecutionException e) {
+        // Fall back to deserializing in the caller thread
+      }
+    }
+
+    @Nonnull
+    public DataTable getDataTable(@Nonnull ServerInstance server, @Nonnull byte[] response)
+        throws Exception {
+      Future<DataTable> dataTableFuture = _dataTableFutureMap.get(server);
+      if (dataTableFuture == null) {
+        return DataTableFactory.getDataTable(response);
+      }
+      try {
+        return dataTableFuture.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        throw cause instanceof Exception ? (Exception) cause : e;
+      }
+    }
+  }
+
   /**
    * Container for time statistics in all phases.
    */
@@ -709,14 +851,16 @@ public class BrokerRequestHandler {
     private final long _requestId;
     private final long _requestTimeoutMs;
     private final String _brokerId;
+    private final RoutingTable _routingTableManager;
 
     public ScatterGatherRequestImpl(BrokerRequest request, Map<String, List<String>> routingTable, long requestId,
-        long requestTimeoutMs, String brokerId) {
+        long requestTimeoutMs, String brokerId, RoutingTable routingTableManager) {
       _brokerRequest = request;
       _routingTable = routingTable;
       _requestId = requestId;
       _requestTimeoutMs = requestTimeoutMs;
       _brokerId = brokerId;
+      _routingTableManager = routingTableManager;
     }
 
     @Override
@@ -736,6 +880,11 @@ public class BrokerRequestHandler {
       return new SerDe(new TCompactProtocol.Factory()).serialize(r);
     }
 
+    @Override
+    public String getHedgeServer(String server, List<String> segments) {
+      return _routingTableManager.getHedgeServer(_brokerRequest.getQuerySource().getTableName(), server, segments);
+    }
+
     @Override
     public long getRequestId() {
       return _requestId;
@@ -53,6 +53,18 @@ public class CfgBasedRouting implements RoutingTable {
     return _cfg.getPerTableRoutingCfg().containsKey(tableName);
   }
 
+  @Override
+  public long getRoutingTableVersion(String tableName) {
+    // Config based routing table never changes
+    return 0L;
+  }
+
+  @Override
+  public String getHedgeServer(String tableName, String server, List<String> segments) {
+    // Config based routing does not keep track of the replicas
+    return null;
+  }
+
   @Override
   public String dumpSnapshot(String tableName) throws Exception {
     return null;
@@ -27,15 +27,18 @@ import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.common.utils.NetUtil;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
+import com.linkedin.pinot.transport.scattergather.ServerPerformanceTracker;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixDataAccessor;
@@ -68,10 +71,14 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
   private final Map<String, Map<String, InstanceConfig>> _lastKnownInstanceConfigsForTable = new ConcurrentHashMap<>();
   private final Map<String, InstanceConfig> _lastKnownInstanceConfigs = new ConcurrentHashMap<>();
   private final Map<String, Set<String>> _tablesForInstance = new ConcurrentHashMap<>();
+  private final Map<String, Long> _routingTableVersionMap = new ConcurrentHashMap<>();
+  private final AtomicLong _routingTableVersionGenerator = new AtomicLong();
+  private final Random _random = new Random();
 
   private final HelixExternalViewBasedTimeBoundaryService _timeBoundaryService;
   private final HelixManager _helixManager;
   private static final int INVALID_EXTERNAL_VIEW_VERSION = Integer.MIN_VALUE;
+  private static final long INVALID_ROUTING_TABLE_VERSION = -1L;
 
   private BrokerMetrics _brokerMetrics;
 
@@ -81,6 +88,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
 
   private RoutingTableBuilderFactory _routingTableBuilderFactory;
 
+  // Shared by the scatter-gather (which feeds it) and the adaptive routing table builders (which read it)
+  private final ServerPerformanceTracker _serverPerformanceTracker = new ServerPerformanceTracker();
+
   public HelixExternalViewBasedRouting(ZkHelixPropertyStore<ZNRecord> propertyStore, HelixManager helixManager,
       Configuration configuration) {
     _propertyStore = propertyStore;
@@ -88,7 +98,8 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _timeBoundaryService = new HelixExternalViewBasedTimeBoundaryService(propertyStore);
     _routingTableBuilderMap = new HashMap<>();
     _helixManager = helixManager;
-    _routingTableBuilderFactory = new RoutingTableBuilderFactory(_configuration, propertyStore);
+    _routingTableBuilderFactory =
+        new RoutingTableBuilderFactory(_configuration, propertyStore, _serverPerformanceTracker);
   }
 
   @Override
@@ -103,6 +114,81 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     return _routingTableBuilderMap.containsKey(tableName);
   }
 
+  @Override
+  public long getRoutingTableVersion(String tableName) {
+    Long version = _routingTableVersionMap.get(tableName);
+    return version != null ? version : INVALID_ROUTING_TABLE_VERSION;
+  }
+
+  @Override
+  public String getHedgeServer(String tableName, String server, List<String> segments) {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilderMap.get(tableName);
+    if (routingTableBuilder == null) {
+      return null;
+    }
+    List<Map<String, List<String>>> routingTables;
+    try {
+      routingTables = routingTableBuilder.getRoutingTables();
+    } catch (UnsupportedOperationException e) {
+      // Routing tables are not pre-computed (e.g. partition aware routing)
+      return null;
+    }
+
+    // Collect the given segments hosted by the other servers across all the pre-computed routing tables
+    Set<String> segmentSet = new HashSet<>(segments);
+    Map<String, Set<String>> serverToSegmentsMap = new HashMap<>();
+    for (Map<String, List<String>> routingTable : routingTables) {
+      for (Map.Entry<String, List<String>> entry : routingTable.entrySet()) {
+        String instance = entry.getKey();
+        if (instance.equals(server)) {
+          continue;
+        }
+        for (String segment : entry.getValue()) {
+          if (segmentSet.contains(segment)) {
+            Set<String> hostedSegments = serverToSegmentsMap.get(instance);
+            if (hostedSegments == null) {
+              hostedSegments = new HashSet<>();
+              serverToSegmentsMap.put(instance, hostedSegments);
+            }
+            hostedSegments.add(segment);
+          }
+        }
+      }
+    }
+
+    List<String> candidates = new ArrayList<>();
+    for (Map.Entry<String, Set<String>> entry : serverToSegmentsMap.entrySet()) {
+      if (entry.getValue().size() == segmentSet.size()) {
+        candidates.add(entry.getKey());
+      }
+    }
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    return candidates.get(_random.nextInt(candidates.size()));
+  }
+
+  private void updateRoutingTableVersion(String tableName) {
+    _routingTableVersionMap.put(tableName, _routingTableVersionGenerator.incrementAndGet());
+  }
+
+  /**
+   * Handles a segment refreshed in place (same segment name, new CRC). The routing table does not change, but the
+   * routing table version is bumped so that results cached on the old segment are no longer served.
+   */
+  public void refreshSegment(String tableName, String segmentName) {
+    if (!_routingTableVersionMap.containsKey(tableName)) {
+      LOGGER.info("Ignoring refresh of segment {} for table {} not served by this broker", segmentName, tableName);
+      return;
+    }
+    LOGGER.info("Updating routing table version for table {} due to refresh of segment {}", tableName, segmentName);
+    updateRoutingTableVersion(tableName);
+  }
+
+
+  public ServerPerformanceTracker getServerPerformanceTracker() {
+    return _serverPerformanceTracker;
+  }
 
   public void setBrokerMetrics(BrokerMetrics brokerMetrics) {
     _brokerMetrics = brokerMetrics;
@@ -116,6 +202,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     routingTableBuilder.init(_configuration, tableConfig, _propertyStore);
     LOGGER.info("Initialized routingTableBuilder: {} for table {}", routingTableBuilder.getClass().getName(), tableName);
     _routingTableBuilderMap.put(tableName, routingTableBuilder);
+    updateRoutingTableVersion(tableName);
 
     // Build the routing table
     if (externalView == null) {
@@ -315,6 +402,9 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
       LOGGER.error("Failed to update the TimeBoundaryService for {}", tableNameWithType, e);
     }
 
+    // Bump the routing table version after both routing table and time boundary are updated
+    updateRoutingTableVersion(tableNameWithType);
+
     long updateTime = System.currentTimeMillis() - startTimeMillis;
 
     if (_brokerMetrics != null) {
@@ -361,6 +451,7 @@ public class HelixExternalViewBasedRouting implements RoutingTable {
     _lastKnownExternalViewVersionMap.remove(tableName);
     _lastKnownInstanceConfigsForTable.remove(tableName);
     _timeBoundaryService.remove(tableName);
+    _routingTableVersionMap.remove(tableName);
 
     // Remove table from all instances
     synchronized (_tablesForInstance) {
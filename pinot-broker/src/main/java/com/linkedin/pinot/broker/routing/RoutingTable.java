@@ -17,6 +17,7 @@ package com.linkedin.pinot.broker.routing;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -40,6 +41,28 @@ public interface RoutingTable {
    */
   boolean routingTableExists(String tableName);
 
+  /**
+   * Get the version of the routing table for the given table. The version changes whenever the routing table (or the
+   * time boundary) for the table gets updated, so it can be used to detect stale results computed with an older routing
+   * table.
+   *
+   * @param tableName Table name
+   * @return Version of the routing table
+   */
+  long getRoutingTableVersion(String tableName);
+
+  /**
+   * Get another server (replica) hosting all the given segments of the given table, which can be used to send a hedged
+   * request when the given server does not respond in time.
+   *
+   * @param tableName Table name
+   * @param server Server the segments were routed to
+   * @param segments List of segments
+   * @return Another server hosting all the segments, or null if there is no such server
+   */
+  @Nullable
+  String getHedgeServer(String tableName, String server, List<String> segments);
+
   /**
    * Dump a snapshot of all the routing tables for the given table.
    *
@@ -15,11 +15,14 @@
  */
 package com.linkedin.pinot.broker.routing;
 
+import com.linkedin.pinot.broker.routing.builder.AdaptiveRoutingTableBuilder;
 import com.linkedin.pinot.broker.routing.builder.PartitionAwareOfflineRoutingTableBuilder;
 import com.linkedin.pinot.broker.routing.builder.PartitionAwareRealtimeRoutingTableBuilder;
 import com.linkedin.pinot.common.config.SegmentsValidationAndRetentionConfig;
 import com.linkedin.pinot.core.realtime.stream.StreamMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.transport.scattergather.ServerPerformanceTracker;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -43,6 +46,8 @@ public class RoutingTableBuilderFactory {
 
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
 
+  private ServerPerformanceTracker _serverPerformanceTracker;
+
   enum RoutingTableBuilderName {
     DefaultOffline,
     DefaultRealtime,
@@ -50,12 +55,19 @@ public class RoutingTableBuilderFactory {
     KafkaLowLevel,
     KafkaHighLevel,
     PartitionAwareOffline,
-    PartitionAwareRealtime
+    PartitionAwareRealtime,
+    Adaptive
   }
 
   public RoutingTableBuilderFactory(Configuration configuration, ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    this(configuration, propertyStore, null);
+  }
+
+  public RoutingTableBuilderFactory(Configuration configuration, ZkHelixPropertyStore<ZNRecord> propertyStore,
+      @Nullable ServerPerformanceTracker serverPerformanceTracker) {
     _configuration = configuration;
     _propertyStore = propertyStore;
+    _serverPerformanceTracker = serverPerformanceTracker;
   }
 
   public RoutingTableBuilder createRoutingTableBuilder(TableConfig tableConfig) {
@@ -89,6 +101,9 @@ public class RoutingTableBuilderFactory {
       case BalancedRandom:
         builder = new BalancedRandomRoutingTableBuilder();
         break;
+      case Adaptive:
+        builder = new AdaptiveRoutingTableBuilder(_serverPerformanceTracker);
+        break;
       case DefaultOffline:
         builder = new DefaultOfflineRoutingTableBuilder();
         break;
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing.builder;
+
+import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import com.linkedin.pinot.transport.scattergather.ServerPerformanceTracker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+
+
+/**
+ * Latency-aware routing table builder.
+ * <p>Segments are grouped by the set of servers serving them. At query time, the segments of each group are split
+ * across the servers of the group proportionally to the inverse of the server scores from the
+ * {@link ServerPerformanceTracker} (latency EWMA, in-flight requests and error rate), so that slow or overloaded
+ * servers get less (or no) segments while all the segments are still covered.
+ * <p>The balanced pre-computed routing tables are kept for the servers without performance stats and for
+ * {@link #getRoutingTables()}.
+ */
+public class AdaptiveRoutingTableBuilder extends BalancedRandomRoutingTableBuilder {
+  private final ServerPerformanceTracker _serverPerformanceTracker;
+
+  // Set variable as volatile so all threads can get the up-to-date segment groups
+  private volatile List<SegmentGroup> _segmentGroups = Collections.emptyList();
+
+  public AdaptiveRoutingTableBuilder(@Nullable ServerPerformanceTracker serverPerformanceTracker) {
+    _serverPerformanceTracker = serverPerformanceTracker;
+  }
+
+  @Override
+  public void computeRoutingTableFromExternalView(String tableName, ExternalView externalView,
+      List<InstanceConfig> instanceConfigs) {
+    super.computeRoutingTableFromExternalView(tableName, externalView, instanceConfigs);
+
+    RoutingTableInstancePruner instancePruner = new RoutingTableInstancePruner(instanceConfigs);
+    Map<List<String>, List<String>> serversToSegmentsMap = new HashMap<>();
+    for (String segmentName : externalView.getPartitionSet()) {
+      // List of servers that are active and are serving the segment
+      List<String> servers = new ArrayList<>();
+      for (Map.Entry<String, String> entry : externalView.getStateMap(segmentName).entrySet()) {
+        String serverName = entry.getKey();
+        if (entry.getValue().equals(CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE)
+            && !instancePruner.isInactive(serverName)) {
+          servers.add(serverName);
+        }
+      }
+      if (!servers.isEmpty()) {
+        Collections.sort(servers);
+        List<String> segments = serversToSegmentsMap.get(servers);
+        if (segments == null) {
+          segments = new ArrayList<>();
+          serversToSegmentsMap.put(servers, segments);
+        }
+        segments.add(segmentName);
+      }
+    }
+
+    List<SegmentGroup> segmentGroups = new ArrayList<>(serversToSegmentsMap.size());
+    for (Map.Entry<List<String>, List<String>> entry : serversToSegmentsMap.entrySet()) {
+      List<String> segments = entry.getValue();
+      // Shuffle the segments so that the segments assigned to each server are not correlated with the segment names
+      Collections.shuffle(segments, _random);
+      segmentGroups.add(new SegmentGroup(entry.getKey().toArray(new String[0]), segments));
+    }
+    _segmentGroups = segmentGroups;
+  }
+
+  @Override
+  public Map<String, List<String>> getRoutingTable(RoutingTableLookupRequest request) {
+    if (_serverPerformanceTracker == null) {
+      return super.getRoutingTable(request);
+    }
+
+    Map<String, List<String>> routingTable = new HashMap<>();
+    for (SegmentGroup segmentGroup : _segmentGroups) {
+      String[] servers = segmentGroup._servers;
+      List<String> segments = segmentGroup._segments;
+      int[] numSegmentsToAssign = computeNumSegmentsToAssign(servers, segments.size());
+      int startIndex = 0;
+      for (int i = 0; i < servers.length; i++) {
+        int numSegments = numSegmentsToAssign[i];
+        if (numSegments > 0) {
+          List<String> serverSegments = routingTable.get(servers[i]);
+          if (serverSegments == null) {
+            serverSegments = new ArrayList<>();
+            routingTable.put(servers[i], serverSegments);
+          }
+          serverSegments.addAll(segments.subList(startIndex, startIndex + numSegments));
+          startIndex += numSegments;
+        }
+      }
+    }
+    return routingTable;
+  }
+
+  /**
+   * Splits the segments across the servers proportionally to the inverse of the server scores (largest remainder
+   * method). Servers without up-to-date stats get the average weight of the other servers, so that they are probed.
+   */
+  private int[] computeNumSegmentsToAssign(String[] servers, int numSegments) {
+    int numServers = servers.length;
+    double[] weights = new double[numServers];
+    double weightSum = 0;
+    int numServersWithStats = 0;
+    for (int i = 0; i < numServers; i++) {
+      double score = _serverPerformanceTracker.getScore(servers[i]);
+      if (score > 0) {
+        weights[i] = 1 / score;
+        weightSum += weights[i];
+        numServersWithStats++;
+      } else {
+        weights[i] = -1;
+      }
+    }
+    double defaultWeight = numServersWithStats > 0 ? weightSum / numServersWithStats : 1;
+    for (int i = 0; i < numServers; i++) {
+      if (weights[i] < 0) {
+        weights[i] = defaultWeight;
+        weightSum += defaultWeight;
+      }
+    }
+
+    int[] numSegmentsToAssign = new int[numServers];
+    double[] remainders = new double[numServers];
+    int numSegmentsAssigned = 0;
+    for (int i = 0; i < numServers; i++) {
+      double share = numSegments * weights[i] / weightSum;
+      numSegmentsToAssign[i] = (int) share;
+      remainders[i] = share - numSegmentsToAssign[i];
+      numSegmentsAssigned += numSegmentsToAssign[i];
+    }
+    // Assign the remaining segments to the servers with the largest remainders, starting from a random server to break
+    // the ties
+    int offset = _random.nextInt(numServers);
+    while (numSegmentsAssigned < numSegments) {
+      int selectedServer = -1;
+      for (int j = 0; j < numServers; j++) {
+        int i = (j + offset) % numServers;
+        if (selectedServer == -1 || remainders[i] > remainders[selectedServer]) {
+          selectedServer = i;
+        }
+      }
+      numSegmentsToAssign[selectedServer]++;
+      remainders[selectedServer] = -1;
+      numSegmentsAssigned++;
+    }
+    return numSegmentsToAssign;
+  }
+
+  private static class SegmentGroup {
+    private final String[] _servers;
+    private final List<String> _segments;
+
+    private SegmentGroup(String[] servers, List<String> segments) {
+      _servers = servers;
+      _segments = segments;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.linkedin.pinot.common.config.RoutingConfig;
+import com.linkedin.pinot.common.config.TableConfig;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static com.linkedin.pinot.common.utils.CommonConstants.Helix.TableType;
+
+
+public class BrokerResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String REALTIME_TABLE_NAME = "testTable_REALTIME";
+  private static final String RESPONSE = "{\"numDocsScanned\":10}";
+
+  @Test
+  public void testDisabled()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(0L);
+    Assert.assertFalse(resultCache.isEnabled());
+    resultCache.initTableResultCache(getTableConfig(TableType.OFFLINE, OFFLINE_TABLE_NAME, 60_000L));
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, null), 0L);
+
+    BrokerResultCache.Key key = new BrokerResultCache.Key(getBrokerRequest(OFFLINE_TABLE_NAME), null, 1L, 0L);
+    resultCache.put(key, RESPONSE, 60_000L);
+    Assert.assertNull(resultCache.get(key));
+  }
+
+  @Test
+  public void testTtl()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024L);
+    Assert.assertTrue(resultCache.isEnabled());
+
+    // No TTL configured
+    resultCache.initTableResultCache(getTableConfig(TableType.OFFLINE, OFFLINE_TABLE_NAME, 0L));
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, null), 0L);
+
+    resultCache.initTableResultCache(getTableConfig(TableType.OFFLINE, OFFLINE_TABLE_NAME, 60_000L));
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, null), 60_000L);
+
+    // Hybrid table requires both tables to be cacheable
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, REALTIME_TABLE_NAME), 0L);
+    resultCache.initTableResultCache(getTableConfig(TableType.REALTIME, REALTIME_TABLE_NAME, 10_000L));
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, REALTIME_TABLE_NAME), 10_000L);
+    Assert.assertEquals(resultCache.getTtlMs(null, REALTIME_TABLE_NAME), 10_000L);
+
+    resultCache.dropTableResultCache(REALTIME_TABLE_NAME);
+    Assert.assertEquals(resultCache.getTtlMs(OFFLINE_TABLE_NAME, REALTIME_TABLE_NAME), 0L);
+  }
+
+  @Test
+  public void testGetAndPut()
+      throws Exception {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024L);
+
+    BrokerRequest brokerRequest = getBrokerRequest(OFFLINE_TABLE_NAME);
+    BrokerResultCache.Key key = new BrokerResultCache.Key(brokerRequest, null, 1L, 0L);
+    Assert.assertNull(resultCache.get(key));
+    resultCache.put(key, RESPONSE, 60_000L);
+
+    // Same query and routing table version
+    Assert.assertEquals(resultCache.get(new BrokerResultCache.Key(getBrokerRequest(OFFLINE_TABLE_NAME), null, 1L, 0L)),
+        RESPONSE);
+
+    // Modifying the broker request after creating the key should not affect the key
+    brokerRequest.getQuerySource().setTableName(REALTIME_TABLE_NAME);
+    Assert.assertEquals(resultCache.get(key), RESPONSE);
+
+    // Routing table version changed
+    Assert.assertNull(resultCache.get(new BrokerResultCache.Key(getBrokerRequest(OFFLINE_TABLE_NAME), null, 2L, 0L)));
+
+    // Different query
+    BrokerRequest otherBrokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM " + OFFLINE_TABLE_NAME + " WHERE column = 'b'");
+    Assert.assertNull(resultCache.get(new BrokerResultCache.Key(otherBrokerRequest, null, 1L, 0L)));
+
+    // Expired entry
+    BrokerResultCache.Key expiredKey = new BrokerResultCache.Key(otherBrokerRequest, null, 1L, 0L);
+    resultCache.put(expiredKey, RESPONSE, 1L);
+    Thread.sleep(10L);
+    Assert.assertNull(resultCache.get(expiredKey));
+  }
+
+  @Test
+  public void testMaxSize()
+      throws Exception {
+    // Each entry takes at least 2 * 1000 bytes
+    BrokerResultCache resultCache = new BrokerResultCache(10_000L);
+    StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      stringBuilder.append('a');
+    }
+    String response = stringBuilder.toString();
+    for (int i = 0; i < 100; i++) {
+      resultCache.put(new BrokerResultCache.Key(getBrokerRequest(OFFLINE_TABLE_NAME), null, i, 0L), response,
+          60_000L);
+    }
+    Assert.assertTrue(resultCache.size() <= 5);
+  }
+
+  private static BrokerRequest getBrokerRequest(String tableName) {
+    return COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM " + tableName + " WHERE column = 'a'");
+  }
+
+  private static TableConfig getTableConfig(TableType tableType, String tableName, long resultCacheTtlMs)
+      throws Exception {
+    RoutingConfig routingConfig = new RoutingConfig();
+    routingConfig.setResultCacheTtlMs(resultCacheTtlMs);
+    return new TableConfig.Builder(tableType).setTableName(tableName).setRoutingConfig(routingConfig).build();
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.cache;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class CompiledQueryCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable WHERE column1 = 'value1' AND column2 > 10";
+
+  @Test
+  public void testDisabled() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(0);
+    Assert.assertFalse(compiledQueryCache.isEnabled());
+    compiledQueryCache.put(QUERY, COMPILER.compileToBrokerRequest(QUERY));
+    Assert.assertNull(compiledQueryCache.get(QUERY));
+  }
+
+  @Test
+  public void testGetAndPut() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(10);
+    Assert.assertTrue(compiledQueryCache.isEnabled());
+    Assert.assertNull(compiledQueryCache.get(QUERY));
+
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    compiledQueryCache.put(QUERY, brokerRequest);
+    BrokerRequest cachedBrokerRequest = compiledQueryCache.get(QUERY);
+    Assert.assertEquals(cachedBrokerRequest, brokerRequest);
+
+    // Modifications on the original or the returned broker request should not affect the cached one
+    brokerRequest.getQuerySource().setTableName("testTable_OFFLINE");
+    cachedBrokerRequest.setEnableTrace(true);
+    BrokerRequest expectedBrokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    Assert.assertEquals(compiledQueryCache.get(QUERY), expectedBrokerRequest);
+
+    // Different query
+    Assert.assertNull(compiledQueryCache.get(QUERY + " LIMIT 5"));
+  }
+
+  @Test
+  public void testEviction() {
+    int maxSize = 10;
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(maxSize);
+    for (int i = 0; i < 100; i++) {
+      String query = "SELECT * FROM testTable LIMIT " + i;
+      compiledQueryCache.put(query, COMPILER.compileToBrokerRequest(query));
+    }
+    Assert.assertTrue(compiledQueryCache.size() <= maxSize);
+  }
+}
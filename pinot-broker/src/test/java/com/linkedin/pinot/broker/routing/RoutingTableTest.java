@@ -94,6 +94,56 @@ public class RoutingTableTest {
   }
 
 
+  @Test
+  public void testHedgeServer() throws Exception {
+    HelixExternalViewBasedRouting routingTable = new HelixExternalViewBasedRouting(null, null, new BaseConfiguration());
+
+    ExternalView externalView = new ExternalView("testResource_OFFLINE");
+    externalView.setState("segment0", "dataServer_instance_0", "ONLINE");
+    externalView.setState("segment0", "dataServer_instance_1", "ONLINE");
+    externalView.setState("segment0", "dataServer_instance_2", "ONLINE");
+    externalView.setState("segment1", "dataServer_instance_0", "ONLINE");
+    List<InstanceConfig> instanceConfigs = generateInstanceConfigs("dataServer_instance", 0, 2);
+    routingTable.markDataResourceOnline(generateTableConfig("testResource_OFFLINE"), externalView, instanceConfigs);
+
+    // Segment hosted by other replicas
+    String hedgeServer =
+        routingTable.getHedgeServer("testResource_OFFLINE", "dataServer_instance_0", Arrays.asList("segment0"));
+    Assert.assertNotNull(hedgeServer);
+    Assert.assertTrue(hedgeServer.equals("dataServer_instance_1") || hedgeServer.equals("dataServer_instance_2"));
+
+    // Segment only hosted by the server itself
+    Assert.assertNull(routingTable.getHedgeServer("testResource_OFFLINE", "dataServer_instance_0",
+        Arrays.asList("segment0", "segment1")));
+
+    // Unknown table
+    Assert.assertNull(
+        routingTable.getHedgeServer("unknown_OFFLINE", "dataServer_instance_0", Arrays.asList("segment0")));
+  }
+
+  @Test
+  public void testRoutingTableVersionOnSegmentRefresh() throws Exception {
+    HelixExternalViewBasedRouting routingTable = new HelixExternalViewBasedRouting(null, null, new BaseConfiguration());
+
+    ExternalView externalView = new ExternalView("testResource_OFFLINE");
+    externalView.setState("segment0", "dataServer_instance_0", "ONLINE");
+    List<InstanceConfig> instanceConfigs = generateInstanceConfigs("dataServer_instance", 0, 0);
+    routingTable.markDataResourceOnline(generateTableConfig("testResource_OFFLINE"), externalView, instanceConfigs);
+    long version = routingTable.getRoutingTableVersion("testResource_OFFLINE");
+
+    // Refreshing a segment in place does not change the external view, but should bump the routing table version
+    routingTable.refreshSegment("testResource_OFFLINE", "segment0");
+    long versionAfterRefresh = routingTable.getRoutingTableVersion("testResource_OFFLINE");
+    Assert.assertTrue(versionAfterRefresh > version);
+    assertResourceRequest(routingTable, "testResource_OFFLINE", "[segment0]", 1);
+
+    // Refreshing a segment of an unknown table should be a no-op
+    long unknownTableVersion = routingTable.getRoutingTableVersion("unknown_OFFLINE");
+    routingTable.refreshSegment("unknown_OFFLINE", "segment0");
+    Assert.assertEquals(routingTable.getRoutingTableVersion("unknown_OFFLINE"), unknownTableVersion);
+    Assert.assertEquals(routingTable.getRoutingTableVersion("testResource_OFFLINE"), versionAfterRefresh);
+  }
+
   @Test
   public void testTimeBoundaryRegression() throws Exception {
     final FakePropertyStore propertyStore = new FakePropertyStore();
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.broker.routing.builder;
+
+import com.linkedin.pinot.broker.routing.RoutingTableLookupRequest;
+import com.linkedin.pinot.transport.scattergather.ServerPerformanceTracker;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.InstanceConfig;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class AdaptiveRoutingTableBuilderTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String SLOW_SERVER = "Server_1.2.3.4_1234";
+  private static final String FAST_SERVER_1 = "Server_1.2.3.5_2345";
+  private static final String FAST_SERVER_2 = "Server_1.2.3.6_3456";
+  private static final int NUM_REPLICATED_SEGMENTS = 90;
+  private static final int NUM_SLOW_SERVER_ONLY_SEGMENTS = 10;
+
+  @Test
+  public void testAdaptiveRouting() {
+    ServerPerformanceTracker serverPerformanceTracker = new ServerPerformanceTracker();
+    AdaptiveRoutingTableBuilder routingTableBuilder = new AdaptiveRoutingTableBuilder(serverPerformanceTracker);
+
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    for (int i = 0; i < NUM_REPLICATED_SEGMENTS; i++) {
+      String segmentName = "segment_" + i;
+      externalView.setState(segmentName, SLOW_SERVER, "ONLINE");
+      externalView.setState(segmentName, FAST_SERVER_1, "ONLINE");
+      externalView.setState(segmentName, FAST_SERVER_2, "ONLINE");
+    }
+    for (int i = 0; i < NUM_SLOW_SERVER_ONLY_SEGMENTS; i++) {
+      externalView.setState("slowServerOnlySegment_" + i, SLOW_SERVER, "ONLINE");
+    }
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    instanceConfigs.add(new InstanceConfig(SLOW_SERVER));
+    instanceConfigs.add(new InstanceConfig(FAST_SERVER_1));
+    instanceConfigs.add(new InstanceConfig(FAST_SERVER_2));
+    routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, externalView, instanceConfigs);
+
+    // Without stats, the replicated segments should be evenly split
+    Map<String, List<String>> routingTable =
+        routingTableBuilder.getRoutingTable(new RoutingTableLookupRequest(TABLE_NAME));
+    checkCoverage(routingTable);
+    Assert.assertEquals(routingTable.get(SLOW_SERVER).size(),
+        NUM_REPLICATED_SEGMENTS / 3 + NUM_SLOW_SERVER_ONLY_SEGMENTS);
+    Assert.assertEquals(routingTable.get(FAST_SERVER_1).size(), NUM_REPLICATED_SEGMENTS / 3);
+    Assert.assertEquals(routingTable.get(FAST_SERVER_2).size(), NUM_REPLICATED_SEGMENTS / 3);
+
+    // Slow server should only get a small share of the replicated segments
+    for (int i = 0; i < 10; i++) {
+      for (String server : new String[]{SLOW_SERVER, FAST_SERVER_1, FAST_SERVER_2}) {
+        serverPerformanceTracker.onRequestSent(server);
+        serverPerformanceTracker.onResponse(server, server.equals(SLOW_SERVER) ? 1000L : 10L);
+      }
+    }
+    routingTable = routingTableBuilder.getRoutingTable(new RoutingTableLookupRequest(TABLE_NAME));
+    checkCoverage(routingTable);
+    Assert.assertTrue(routingTable.get(SLOW_SERVER).size() - NUM_SLOW_SERVER_ONLY_SEGMENTS <= 1);
+    Assert.assertTrue(routingTable.get(FAST_SERVER_1).size() >= 44);
+    Assert.assertTrue(routingTable.get(FAST_SERVER_2).size() >= 44);
+
+    // Server with in-flight requests and errors should get a smaller share
+    for (int i = 0; i < 10; i++) {
+      serverPerformanceTracker.onRequestSent(FAST_SERVER_1);
+      serverPerformanceTracker.onError(FAST_SERVER_1, 10L);
+    }
+    serverPerformanceTracker.onRequestSent(FAST_SERVER_1);
+    routingTable = routingTableBuilder.getRoutingTable(new RoutingTableLookupRequest(TABLE_NAME));
+    checkCoverage(routingTable);
+    Assert.assertTrue(routingTable.get(FAST_SERVER_1).size() < routingTable.get(FAST_SERVER_2).size());
+  }
+
+  @Test
+  public void testWithoutTracker() {
+    AdaptiveRoutingTableBuilder routingTableBuilder = new AdaptiveRoutingTableBuilder(null);
+    ExternalView externalView = new ExternalView(TABLE_NAME);
+    externalView.setState("segment_0", SLOW_SERVER, "ONLINE");
+    externalView.setState("segment_0", FAST_SERVER_1, "ONLINE");
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    instanceConfigs.add(new InstanceConfig(SLOW_SERVER));
+    instanceConfigs.add(new InstanceConfig(FAST_SERVER_1));
+    routingTableBuilder.computeRoutingTableFromExternalView(TABLE_NAME, externalView, instanceConfigs);
+
+    Map<String, List<String>> routingTable =
+        routingTableBuilder.getRoutingTable(new RoutingTableLookupRequest(TABLE_NAME));
+    Assert.assertEquals(routingTable.size(), 1);
+    Assert.assertEquals(routingTable.values().iterator().next().get(0), "segment_0");
+  }
+
+  private void checkCoverage(Map<String, List<String>> routingTable) {
+    Set<String> segments = new HashSet<>();
+    int numSegments = 0;
+    for (List<String> serverSegments : routingTable.values()) {
+      segments.addAll(serverSegments);
+      numSegments += serverSegments.size();
+    }
+    Assert.assertEquals(numSegments, NUM_REPLICATED_SEGMENTS + NUM_SLOW_SERVER_ONLY_SEGMENTS);
+    Assert.assertEquals(segments.size(), NUM_REPLICATED_SEGMENTS + NUM_SLOW_SERVER_ONLY_SEGMENTS);
+    for (int i = 0; i < NUM_SLOW_SERVER_ONLY_SEGMENTS; i++) {
+      Assert.assertTrue(routingTable.get(SLOW_SERVER).contains("slowServerOnlySegment_" + i));
+    }
+  }
+}
@@ -75,6 +75,12 @@ public class IndexingConfig {
   @ConfigKey("aggregateMetrics")
   private boolean _aggregateMetrics;
 
+  @ConfigKey("bloomFilterColumns")
+  private List<String> _bloomFilterColumns;
+
+  @ConfigKey("rangeIndexColumns")
+  private List<String> _rangeIndexColumns;
+
   public List<String> getInvertedIndexColumns() {
     return _invertedIndexColumns;
   }
@@ -187,6 +193,22 @@ public class IndexingConfig {
     return _aggregateMetrics;
   }
 
+  public List<String> getBloomFilterColumns() {
+    return _bloomFilterColumns;
+  }
+
+  public void setBloomFilterColumns(List<String> bloomFilterColumns) {
+    _bloomFilterColumns = bloomFilterColumns;
+  }
+
+  public List<String> getRangeIndexColumns() {
+    return _rangeIndexColumns;
+  }
+
+  public void setRangeIndexColumns(List<String> rangeIndexColumns) {
+    _rangeIndexColumns = rangeIndexColumns;
+  }
+
   @Override
   public String toString() {
     final StringBuilder result = new StringBuilder();
@@ -243,7 +265,9 @@ public class IndexingConfig {
         EqualityUtils.isEqual(_noDictionaryConfig, that._noDictionaryConfig) &&
         EqualityUtils.isEqual(_onHeapDictionaryColumns, that._onHeapDictionaryColumns) &&
         EqualityUtils.isEqual(_starTreeIndexSpec, that._starTreeIndexSpec) &&
-        EqualityUtils.isEqual(_segmentPartitionConfig, that._segmentPartitionConfig);
+        EqualityUtils.isEqual(_segmentPartitionConfig, that._segmentPartitionConfig) &&
+        EqualityUtils.isEqual(_bloomFilterColumns, that._bloomFilterColumns) &&
+        EqualityUtils.isEqual(_rangeIndexColumns, that._rangeIndexColumns);
   }
 
   @Override
@@ -260,6 +284,8 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _onHeapDictionaryColumns);
     result = EqualityUtils.hashCodeOf(result, _starTreeIndexSpec);
     result = EqualityUtils.hashCodeOf(result, _segmentPartitionConfig);
+    result = EqualityUtils.hashCodeOf(result, _bloomFilterColumns);
+    result = EqualityUtils.hashCodeOf(result, _rangeIndexColumns);
     return result;
   }
 }
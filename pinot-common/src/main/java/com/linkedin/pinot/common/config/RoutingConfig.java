@@ -39,6 +39,10 @@ public class RoutingConfig {
   // TODO jfim: This seems unused, maybe remove it?
   private Map<String,String> _routingTableBuilderOptions = new HashMap<>();
 
+  // Time to live for the query results cached on the broker, results are not cached if it is not positive
+  @ConfigKey("resultCacheTtlMs")
+  private long _resultCacheTtlMs;
+
 
   public String getRoutingTableBuilderName() {
     return _routingTableBuilderName;
@@ -59,6 +63,14 @@ public class RoutingConfig {
     _routingTableBuilderOptions = routingTableBuilderOptions;
   }
 
+  public long getResultCacheTtlMs() {
+    return _resultCacheTtlMs;
+  }
+
+  public void setResultCacheTtlMs(long resultCacheTtlMs) {
+    _resultCacheTtlMs = resultCacheTtlMs;
+  }
+
   public String toString() {
     try {
       return OBJECT_MAPPER.writeValueAsString(this);
@@ -81,13 +93,15 @@ public class RoutingConfig {
     RoutingConfig that = (RoutingConfig) o;
 
     return EqualityUtils.isEqual(_routingTableBuilderName, that._routingTableBuilderName) && EqualityUtils.isEqual(
-        _routingTableBuilderOptions, that._routingTableBuilderOptions);
+        _routingTableBuilderOptions, that._routingTableBuilderOptions) && EqualityUtils.isEqual(_resultCacheTtlMs,
+        that._resultCacheTtlMs);
   }
 
   @Override
   public int hashCode() {
     int result = EqualityUtils.hashCodeOf(_routingTableBuilderName);
     result = EqualityUtils.hashCodeOf(result, _routingTableBuilderOptions);
+    result = EqualityUtils.hashCodeOf(result, _resultCacheTtlMs);
     return result;
   }
 }
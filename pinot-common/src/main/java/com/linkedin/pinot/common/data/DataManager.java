@@ -77,4 +77,15 @@ public interface DataManager {
   String getSegmentFileDirectory();
 
   int getMaxParallelRefreshThreads();
+
+  /**
+   * Returns the maximum number of segments of the same table to be downloaded in parallel, or a non-positive value if
+   * unlimited.
+   */
+  int getTableLevelMaxParallelSegmentDownloads();
+
+  /**
+   * Returns whether to untar the segments on the fly while downloading them.
+   */
+  boolean isStreamingSegmentDownloadEnabled();
 }
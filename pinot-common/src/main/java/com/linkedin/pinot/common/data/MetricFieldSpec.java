@@ -133,7 +133,11 @@ public final class MetricFieldSpec extends FieldSpec {
    */
   public enum DerivedMetricType {
     // HLL derived metric type.
-    HLL
+    HLL,
+    // Numeric derived metric types pre-aggregated by the star tree with MIN, MAX and COUNT respectively.
+    MIN,
+    MAX,
+    COUNT
   }
 
   @Nonnull
@@ -34,6 +34,7 @@ import org.codehaus.jackson.map.ObjectMapper;
 public class StarTreeIndexSpec {
   public static final int DEFAULT_MAX_LEAF_RECORDS = 100000; // TODO: determine a good number via experiment
   public static final int DEFAULT_SKIP_MATERIALIZATION_CARDINALITY_THRESHOLD = 10000;
+  public static final String FUNCTION_COLUMN_PAIR_DELIMITER = "__";
 
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
@@ -58,6 +59,13 @@ public class StarTreeIndexSpec {
   @ConfigKey("excludeSkipMaterializationDimensionsForStarTreeIndex")
   private boolean _excludeSkipMaterializationDimensionsForStarTreeIndex;
 
+  /**
+   * Aggregation function and metric column pairs (e.g. MAX__latency) to pre-aggregate on top of the default SUM of all
+   * metrics. Supported functions are MIN, MAX, MINMAXRANGE and AVG.
+   */
+  @ConfigKey("functionColumnPairs")
+  private List<String> _functionColumnPairs;
+
   public int getMaxLeafRecords() {
     return _maxLeafRecords;
   }
@@ -107,6 +115,14 @@ public class StarTreeIndexSpec {
     _excludeSkipMaterializationDimensionsForStarTreeIndex = excludeSkipMaterializationDimensionsForStarTreeIndex;
   }
 
+  public List<String> getFunctionColumnPairs() {
+    return _functionColumnPairs;
+  }
+
+  public void setFunctionColumnPairs(List<String> functionColumnPairs) {
+    _functionColumnPairs = functionColumnPairs;
+  }
+
   @Override
   public String toString() {
     return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
@@ -160,7 +176,8 @@ public class StarTreeIndexSpec {
         EqualityUtils.isEqual(_excludeSkipMaterializationDimensionsForStarTreeIndex, that._excludeSkipMaterializationDimensionsForStarTreeIndex) &&
         EqualityUtils.isEqual(_dimensionsSplitOrder, that._dimensionsSplitOrder) &&
         EqualityUtils.isEqual(_skipStarNodeCreationForDimensions, that._skipStarNodeCreationForDimensions) &&
-        EqualityUtils.isEqual(_skipMaterializationForDimensions, that._skipMaterializationForDimensions);
+        EqualityUtils.isEqual(_skipMaterializationForDimensions, that._skipMaterializationForDimensions) &&
+        EqualityUtils.isEqual(_functionColumnPairs, that._functionColumnPairs);
   }
 
   @Override
@@ -171,6 +188,7 @@ public class StarTreeIndexSpec {
     result = EqualityUtils.hashCodeOf(result, _skipMaterializationForDimensions);
     result = EqualityUtils.hashCodeOf(result, _skipMaterializationCardinalityThreshold);
     result = EqualityUtils.hashCodeOf(result, _excludeSkipMaterializationDimensionsForStarTreeIndex);
+    result = EqualityUtils.hashCodeOf(result, _functionColumnPairs);
     return result;
   }
 }
@@ -21,9 +21,12 @@ import org.apache.helix.model.Message;
 
 /**
  * This (helix) message is sent from the controller to the server when a request is received to refresh
- * an existing segment.
+ * an existing segment. It is also sent to the brokers serving the table, so that they stop serving cached results
+ * computed on the old segment.
  *
  * There is one mandatory field in the message -- the CRC of the new segment.
+ * The table name and segment name are also kept in optional fields, as the resource and partition names of the
+ * message are set from the recipient criteria (which are the broker resource and the table name for the brokers).
  *
  * @note
  * Changing this class to include new fields is a change in the protocol, so the new fields must be made optional,
@@ -33,6 +36,8 @@ public class SegmentRefreshMessage extends Message {
   public static final String REFRESH_SEGMENT_MSG_SUB_TYPE = "REFRESH_SEGMENT";
 
   private static final String SIMPLE_FIELD_CRC = "PINOT_SEGMENT_CRC";
+  private static final String SIMPLE_FIELD_TABLE_NAME = "PINOT_TABLE_NAME";
+  private static final String SIMPLE_FIELD_SEGMENT_NAME = "PINOT_SEGMENT_NAME";
 
   /**
    *
@@ -48,6 +53,8 @@ public class SegmentRefreshMessage extends Message {
     // Give it infinite time to process the message, as long as session is alive
     setExecutionTimeout(-1);
     getRecord().setSimpleField(SIMPLE_FIELD_CRC, Long.toString(crc));
+    getRecord().setSimpleField(SIMPLE_FIELD_TABLE_NAME, tableName);
+    getRecord().setSimpleField(SIMPLE_FIELD_SEGMENT_NAME, segmentName);
   }
 
   /**
@@ -64,4 +71,20 @@ public class SegmentRefreshMessage extends Message {
   public long getCrc() {
     return Long.valueOf(getRecord().getSimpleField(SIMPLE_FIELD_CRC));
   }
+
+  /**
+   * Returns the offline table name, falls back to the resource name for messages from older controllers.
+   */
+  public String getTableName() {
+    String tableName = getRecord().getSimpleField(SIMPLE_FIELD_TABLE_NAME);
+    return (tableName != null) ? tableName : getResourceName();
+  }
+
+  /**
+   * Returns the segment name, falls back to the partition name for messages from older controllers.
+   */
+  public String getSegmentName() {
+    String segmentName = getRecord().getSimpleField(SIMPLE_FIELD_SEGMENT_NAME);
+    return (segmentName != null) ? segmentName : getPartitionName();
+  }
 }
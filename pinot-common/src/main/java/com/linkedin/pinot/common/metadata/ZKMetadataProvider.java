@@ -144,6 +144,25 @@ public class ZKMetadataProvider {
         offlineSegmentZKMetadata.getSegmentName()), offlineSegmentZKMetadata.toZNRecord(), AccessOption.PERSISTENT);
   }
 
+  /**
+   * Writes the ZK metadata for a batch of offline segments with one asynchronous bulk write to the property store.
+   *
+   * @return Per segment result of the write, in the same order as the given ZK metadata
+   */
+  public static boolean[] setOfflineSegmentZKMetadata(ZkHelixPropertyStore<ZNRecord> propertyStore,
+      List<OfflineSegmentZKMetadata> offlineSegmentZKMetadataList) {
+    int numSegments = offlineSegmentZKMetadataList.size();
+    List<String> paths = new ArrayList<>(numSegments);
+    List<ZNRecord> znRecords = new ArrayList<>(numSegments);
+    for (OfflineSegmentZKMetadata offlineSegmentZKMetadata : offlineSegmentZKMetadataList) {
+      paths.add(constructPropertyStorePathForSegment(
+          TableNameBuilder.OFFLINE.tableNameWithType(offlineSegmentZKMetadata.getTableName()),
+          offlineSegmentZKMetadata.getSegmentName()));
+      znRecords.add(offlineSegmentZKMetadata.toZNRecord());
+    }
+    return propertyStore.setChildren(paths, znRecords, AccessOption.PERSISTENT);
+  }
+
   public static boolean setRealtimeSegmentZKMetadata(ZkHelixPropertyStore<ZNRecord> propertyStore,
       RealtimeSegmentZKMetadata realtimeSegmentZKMetadata) {
     return propertyStore.set(constructPropertyStorePathForSegment(
@@ -424,6 +424,36 @@ public abstract class AbstractMetrics<QP extends AbstractMetrics.QueryPhase, M e
     });
   }
 
+  /**
+   * Adds a new table gauge whose values are retrieved from a callback function, if the table gauge does not already
+   * exist.
+   *
+   * @param tableName The table name
+   * @param gauge The gauge to use
+   * @param valueCallback The callback function used to retrieve the value of the gauge
+   */
+  public void addCallbackTableGaugeIfNeeded(final String tableName, final G gauge,
+      final Callable<Long> valueCallback) {
+    final String fullGaugeName;
+    String gaugeName = gauge.getGaugeName();
+    fullGaugeName = gaugeName + "." + getTableName(tableName);
+
+    // The metrics registry keeps the existing gauge if one is already registered under the same name
+    addCallbackGauge(fullGaugeName, valueCallback);
+  }
+
+  /**
+   * Removes a table gauge, e.g. a callback gauge whose callback should not be kept after the table is dropped.
+   *
+   * @param tableName The table name
+   * @param gauge The gauge to remove
+   */
+  public void removeTableGauge(final String tableName, final G gauge) {
+    final String fullGaugeName = gauge.getGaugeName() + "." + getTableName(tableName);
+    MetricsHelper.removeMetric(_metricsRegistry, new MetricName(_clazz, _metricPrefix + fullGaugeName));
+    _gaugeValues.remove(fullGaugeName);
+  }
+
   protected abstract QP[] getQueryPhases();
 
   protected abstract M[] getMeters();
@@ -74,6 +74,11 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
 
   REQUEST_DROPPED_DUE_TO_ACCESS_ERROR("requestsDropped", false),
 
+  // Number of hedged requests sent to another replica because the server did not respond within the hedge delay, and
+  // number of them which responded before the original request. Both are counted on a per-table basis.
+  HEDGED_REQUESTS("requests", false),
+  HEDGED_REQUESTS_WON("requests", false),
+
   // Number of queries served by LLC and HLC routing tables
   LLC_QUERY_COUNT("queries", false),
   HLC_QUERY_COUNT("queries", false),
@@ -83,7 +88,15 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   GROUP_BY_SIZE("queries", false),
   TOTAL_SERVER_RESPONSE_SIZE("queries", false),
 
-  QUERY_QUOTA_EXCEEDED("exceptions", false);
+  QUERY_QUOTA_EXCEEDED("exceptions", false),
+
+  // Number of queries served from/missed in the broker result cache
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+
+  // Number of queries whose compiled broker request was served from/missed in the compiled query cache
+  COMPILED_QUERY_CACHE_HITS("queries", true),
+  COMPILED_QUERY_CACHE_MISSES("queries", true);
 
 
   private final String brokerMeterName;
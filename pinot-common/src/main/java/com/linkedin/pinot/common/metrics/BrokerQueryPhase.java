@@ -24,6 +24,7 @@ import com.linkedin.pinot.common.Utils;
 */
 public enum BrokerQueryPhase implements AbstractMetrics.QueryPhase {
   REQUEST_COMPILATION,
+  REQUEST_OPTIMIZATION,
   QUERY_EXECUTION,
   QUERY_ROUTING,
   SCATTER_GATHER,
@@ -36,7 +36,10 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
   RUNNING_QUERIES("runningQueries", false),
   NUM_SEGMENTS_SEARCHED("numSegmentsSearched", false),
-  REALTIME_SEGMENT_PARTITION_WIDTH("realtimeSegmentPartitionWidth", false);
+  REALTIME_SEGMENT_PARTITION_WIDTH("realtimeSegmentPartitionWidth", false),
+  SEGMENTS_PENDING_PRELOAD("segments", false),
+  LAZILY_LOADED_COLUMNS("columns", false),
+  LAZY_COLUMN_INDEX_ACCESSES("accesses", false);
 
   private final String gaugeName;
   private final String unit;
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.query.context.TimerContext;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.common.utils.request.FilterQueryTree;
 import com.linkedin.pinot.common.utils.request.RequestUtils;
 import javax.annotation.Nonnull;
@@ -41,6 +42,9 @@ public class ServerQueryRequest {
 
   private int _segmentCountAfterPruning = -1;
 
+  // Allocator for the buffer the response data table is serialized into
+  private DataTable.BufferAllocator _responseBufferAllocator = DataTable.HEAP_BUFFER_ALLOCATOR;
+
   public ServerQueryRequest(@Nonnull InstanceRequest instanceRequest, @Nonnull ServerMetrics serverMetrics) {
     _instanceRequest = instanceRequest;
     _serverMetrics = serverMetrics;
@@ -110,4 +114,20 @@ public class ServerQueryRequest {
   public void setSegmentCountAfterPruning(int segmentCountAfterPruning) {
     _segmentCountAfterPruning = segmentCountAfterPruning;
   }
+
+  /**
+   * Get the allocator for the buffer the response data table is serialized into.
+   */
+  @Nonnull
+  public DataTable.BufferAllocator getResponseBufferAllocator() {
+    return _responseBufferAllocator;
+  }
+
+  /**
+   * Set the allocator for the buffer the response data table is serialized into, e.g. to serialize the response
+   * directly into a pooled direct buffer owned by the transport.
+   */
+  public void setResponseBufferAllocator(@Nonnull DataTable.BufferAllocator responseBufferAllocator) {
+    _responseBufferAllocator = responseBufferAllocator;
+  }
 }
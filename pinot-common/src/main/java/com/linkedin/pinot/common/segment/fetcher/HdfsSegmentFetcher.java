@@ -16,12 +16,15 @@
 package com.linkedin.pinot.common.segment.fetcher;
 
 import com.google.common.base.Strings;
+import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.common.utils.retry.RetryPolicies;
 import com.linkedin.pinot.common.utils.retry.RetryPolicy;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.Set;
+import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -33,7 +36,7 @@ import static com.linkedin.pinot.common.utils.CommonConstants.SegmentOperations.
 import static com.linkedin.pinot.common.utils.CommonConstants.SegmentOperations.*;
 
 
-public class HdfsSegmentFetcher implements SegmentFetcher {
+public class HdfsSegmentFetcher implements StreamingSegmentFetcher {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(HdfsSegmentFetcher.class);
   private FileSystem hadoopFS = null;
@@ -115,6 +118,38 @@ public class HdfsSegmentFetcher implements SegmentFetcher {
     }
   }
 
+  @Override
+  public void fetchAndUntarSegmentToLocal(final String uri, final File destDir) throws Exception {
+    LOGGER.debug("starting to fetch and untar segment from hdfs");
+    try {
+      final Path remoteFile = new Path(uri);
+
+      RetryPolicy fixDelayRetryPolicy = RetryPolicies.fixedDelayRetryPolicy(retryCount, retryWaitMs);
+      fixDelayRetryPolicy.attempt(() -> {
+        try {
+          if (hadoopFS == null) {
+            throw new RuntimeException("hadoopFS client is not initialized when trying to copy files");
+          }
+          // Clean up the partially untarred files from the previous attempt
+          FileUtils.deleteQuietly(destDir);
+          long startMs = System.currentTimeMillis();
+          try (InputStream inputStream = hadoopFS.open(remoteFile)) {
+            TarGzCompressionUtils.unTar(inputStream, destDir);
+          }
+          LOGGER.debug("copied and untarred {} from hdfs to {} in local, take {} ms", uri, destDir,
+              System.currentTimeMillis() - startMs);
+          return true;
+        } catch (IOException ex) {
+          LOGGER.warn(String.format("failed to fetch segment %s from hdfs, might retry", uri), ex);
+          return false;
+        }
+      });
+    } catch (Exception ex) {
+      LOGGER.error(String.format("failed to fetch and untar %s from hdfs to local %s", uri, destDir), ex);
+      throw ex;
+    }
+  }
+
   @Override
   public Set<String> getProtectedConfigKeys() {
     return Collections.emptySet();
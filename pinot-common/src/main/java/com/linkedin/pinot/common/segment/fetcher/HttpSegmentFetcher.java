@@ -23,13 +23,14 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.Set;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.linkedin.pinot.common.utils.CommonConstants.SegmentOperations.*;
 
 
-public class HttpSegmentFetcher implements SegmentFetcher {
+public class HttpSegmentFetcher implements StreamingSegmentFetcher {
   protected final Logger _logger = LoggerFactory.getLogger(getClass().getSimpleName());
 
   protected FileUploadDownloadClient _httpClient;
@@ -49,11 +50,28 @@ public class HttpSegmentFetcher implements SegmentFetcher {
 
   @Override
   public void fetchSegmentToLocal(final String uri, final File tempFile) throws Exception {
+    fetchWithRetry(uri, tempFile, false);
+  }
+
+  @Override
+  public void fetchAndUntarSegmentToLocal(final String uri, final File destDir) throws Exception {
+    fetchWithRetry(uri, destDir, true);
+  }
+
+  private void fetchWithRetry(final String uri, final File dest, final boolean untar) throws Exception {
     RetryPolicies.exponentialBackoffRetryPolicy(_retryCount, _retryWaitMs, 5).attempt(() -> {
       try {
-        int statusCode = _httpClient.downloadFile(new URI(uri), tempFile);
-        _logger.info("Downloaded file from: {} to: {}; Length of downloaded file: {}; Response status code: {}", uri,
-            tempFile, tempFile.length(), statusCode);
+        if (untar) {
+          // Clean up the partially untarred files from the previous attempt
+          FileUtils.deleteQuietly(dest);
+          int statusCode = _httpClient.downloadAndUntarFile(new URI(uri), dest);
+          _logger.info("Downloaded and untarred file from: {} to: {}; Response status code: {}", uri, dest,
+              statusCode);
+        } else {
+          int statusCode = _httpClient.downloadFile(new URI(uri), dest);
+          _logger.info("Downloaded file from: {} to: {}; Length of downloaded file: {}; Response status code: {}", uri,
+              dest, dest.length(), statusCode);
+        }
         return true;
       } catch (HttpErrorStatusException e) {
         int statusCode = e.getStatusCode();
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.common.segment.fetcher;
 
+import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import java.io.File;
 import java.util.Collections;
 import java.util.Set;
@@ -24,7 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-public class LocalFileSegmentFetcher implements SegmentFetcher {
+public class LocalFileSegmentFetcher implements StreamingSegmentFetcher {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileSegmentFetcher.class);
 
@@ -38,6 +39,12 @@ public class LocalFileSegmentFetcher implements SegmentFetcher {
     LOGGER.info("Copy file from {} to {}; Length of file: {}", uri, tempFile, tempFile.length());
   }
 
+  @Override
+  public void fetchAndUntarSegmentToLocal(String uri, File destDir) throws Exception {
+    TarGzCompressionUtils.unTar(new File(uri), destDir);
+    LOGGER.info("Untarred file from {} to {}", uri, destDir);
+  }
+
   @Override
   public Set<String> getProtectedConfigKeys() {
     return Collections.emptySet();
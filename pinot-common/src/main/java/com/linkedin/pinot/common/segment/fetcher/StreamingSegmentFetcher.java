@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.common.segment.fetcher;
+
+import java.io.File;
+
+
+/**
+ * Segment fetcher that is able to untar the tar.gz segment on the fly while fetching it, instead of first fetching the
+ * whole tar.gz file to local disk and untarring it in a second pass.
+ */
+public interface StreamingSegmentFetcher extends SegmentFetcher {
+
+  /**
+   * Fetch the tar.gz segment from the given URI and untar it into the given directory.
+   * <p>On failure, the content of the directory is undefined and should be cleaned up by the caller.
+   *
+   * @param uri URI of the tar.gz segment
+   * @param destDir Directory to untar the segment into
+   * @throws Exception
+   */
+  void fetchAndUntarSegmentToLocal(String uri, File destDir) throws Exception;
+}
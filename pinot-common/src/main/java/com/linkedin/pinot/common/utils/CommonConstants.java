@@ -208,6 +208,13 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.id";
+    // Result cache is disabled when the max size is not positive
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = "pinot.broker.result.cache.maxSizeBytes";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = 0L;
+    // Compiled query cache is disabled when the max number of entries is not positive
+    public static final String CONFIG_OF_BROKER_COMPILED_QUERY_CACHE_MAX_SIZE =
+        "pinot.broker.compiled.query.cache.maxSize";
+    public static final int DEFAULT_BROKER_COMPILED_QUERY_CACHE_MAX_SIZE = 1000;
     public static final BrokerResponseFactory.ResponseType DEFAULT_BROKER_RESPONSE_TYPE =
         BrokerResponseFactory.ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
     public static class Request {
@@ -237,6 +244,13 @@ public class CommonConstants {
     public static final String CONFIG_OF_SEGMENT_FORMAT_VERSION = "pinot.server.instance.segment.format.version";
     public static final String CONFIG_OF_ENABLE_DEFAULT_COLUMNS = "pinot.server.instance.enable.default.columns";
     public static final String CONFIG_OF_ENABLE_SHUTDOWN_DELAY = "pinot.server.instance.enable.shutdown.delay";
+    // Number of threads preloading the local segments at startup, preloading is disabled when not positive
+    public static final String CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PARALLELISM =
+        "pinot.server.instance.startup.segment.preload.parallelism";
+    public static final int DEFAULT_STARTUP_SEGMENT_PRELOAD_PARALLELISM = 0;
+    // Comma separated list of tables whose segments get preloaded first at startup, in order of priority
+    public static final String CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PRIORITY_TABLES =
+        "pinot.server.instance.startup.segment.preload.priority.tables";
     public static final String CONFIG_OF_ENABLE_SPLIT_COMMIT = "pinot.server.instance.enable.split.commit";
     public static final String CONFIG_OF_REALTIME_OFFHEAP_ALLOCATION = "pinot.server.instance.realtime.alloc.offheap";
     public static final String CONFIG_OF_REALTIME_OFFHEAP_DIRECT_ALLOCATION = "pinot.server.instance.realtime.alloc.offheap.direct";
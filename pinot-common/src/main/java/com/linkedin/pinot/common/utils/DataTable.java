@@ -17,6 +17,7 @@ package com.linkedin.pinot.common.utils;
 
 import com.linkedin.pinot.common.response.ProcessingException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import javax.annotation.Nonnull;
 
@@ -34,11 +35,42 @@ public interface DataTable {
   String TRACE_INFO_METADATA_KEY = "traceInfo";
   String REQUEST_ID_METADATA_KEY = "requestId";
 
+  /**
+   * Allocator for the buffer a data table is serialized into.
+   */
+  interface BufferAllocator {
+    /**
+     * Returns a buffer with position 0 and at least <code>size</code> bytes remaining.
+     */
+    @Nonnull
+    ByteBuffer allocate(int size);
+  }
+
+  /**
+   * Allocator for heap buffers backed by a byte array of the exact requested size.
+   */
+  BufferAllocator HEAP_BUFFER_ALLOCATOR = new BufferAllocator() {
+    @Nonnull
+    @Override
+    public ByteBuffer allocate(int size) {
+      return ByteBuffer.allocate(size);
+    }
+  };
+
   void addException(@Nonnull ProcessingException processingException);
 
   @Nonnull
   byte[] toBytes() throws IOException;
 
+  /**
+   * Serializes the data table into a single buffer of the exact serialized size obtained from the given allocator, so
+   * that the caller controls where the serialized bytes live (e.g. a pooled direct buffer on the server).
+   *
+   * @return Buffer allocated from the allocator, flipped for read
+   */
+  @Nonnull
+  ByteBuffer toByteBuffer(@Nonnull BufferAllocator allocator) throws IOException;
+
   @Nonnull
   Map<String, String> getMetadata();
 
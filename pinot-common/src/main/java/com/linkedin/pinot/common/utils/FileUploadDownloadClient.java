@@ -17,6 +17,7 @@ package com.linkedin.pinot.common.utils;
 
 import com.google.common.base.Preconditions;
 import com.linkedin.pinot.common.exception.HttpErrorStatusException;
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
@@ -27,8 +28,10 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -51,6 +54,7 @@ import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +92,7 @@ public class FileUploadDownloadClient implements Closeable {
   private static final String HTTPS = "https";
   private static final String SCHEMA_PATH = "/schemas";
   private static final String SEGMENT_PATH = "/segments";
+  private static final String SEGMENT_BATCH_PATH = "/segments/batch";
 
   private final CloseableHttpClient _httpClient;
 
@@ -127,6 +132,14 @@ public class FileUploadDownloadClient implements Closeable {
     return getURI(HTTPS, host, port, SEGMENT_PATH);
   }
 
+  public static URI getBatchUploadSegmentHttpURI(String host, int port) throws URISyntaxException {
+    return getURI(HTTP, host, port, SEGMENT_BATCH_PATH);
+  }
+
+  public static URI getBatchUploadSegmentHttpsURI(String host, int port) throws URISyntaxException {
+    return getURI(HTTPS, host, port, SEGMENT_BATCH_PATH);
+  }
+
   private static HttpUriRequest getUploadFileRequest(String method, URI uri, ContentBody contentBody,
       @Nullable List<Header> headers, @Nullable List<NameValuePair> parameters, int socketTimeoutMs) {
     // Build the Http entity
@@ -165,6 +178,36 @@ public class FileUploadDownloadClient implements Closeable {
         parameters, socketTimeoutMs);
   }
 
+  private static HttpUriRequest getUploadSegmentsRequest(URI uri, Map<String, File> segmentFiles,
+      @Nullable List<Header> headers, @Nullable List<NameValuePair> parameters, int socketTimeoutMs) {
+    // Build the Http entity with one part per segment
+    MultipartEntityBuilder entityBuilder =
+        MultipartEntityBuilder.create().setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
+    for (Map.Entry<String, File> entry : segmentFiles.entrySet()) {
+      entityBuilder.addPart(entry.getKey(), getContentBody(entry.getKey(), entry.getValue()));
+    }
+
+    // Build the request
+    RequestBuilder requestBuilder = RequestBuilder.post(uri)
+        .setVersion(HttpVersion.HTTP_1_1)
+        .setHeader(CustomHeaders.UPLOAD_TYPE, FileUploadType.TAR.toString())
+        .setEntity(entityBuilder.build());
+    addHeadersAndParameters(requestBuilder, headers, parameters);
+    setTimeout(requestBuilder, socketTimeoutMs);
+    return requestBuilder.build();
+  }
+
+  private static HttpUriRequest getSendSegmentUrisRequest(URI uri, List<String> downloadUris,
+      @Nullable List<Header> headers, @Nullable List<NameValuePair> parameters, int socketTimeoutMs) {
+    RequestBuilder requestBuilder = RequestBuilder.post(uri)
+        .setVersion(HttpVersion.HTTP_1_1)
+        .setHeader(CustomHeaders.UPLOAD_TYPE, FileUploadType.URI.toString())
+        .setEntity(new StringEntity(new JSONArray(downloadUris).toString(), ContentType.APPLICATION_JSON));
+    addHeadersAndParameters(requestBuilder, headers, parameters);
+    setTimeout(requestBuilder, socketTimeoutMs);
+    return requestBuilder.build();
+  }
+
   private static HttpUriRequest getSendSegmentUriRequest(URI uri, String downloadUri, @Nullable List<Header> headers,
       @Nullable List<NameValuePair> parameters, int socketTimeoutMs) {
     RequestBuilder requestBuilder = RequestBuilder.post(uri)
@@ -365,6 +408,70 @@ public class FileUploadDownloadClient implements Closeable {
     return uploadSegment(uri, segmentName, inputStream, null, null, DEFAULT_SOCKET_TIMEOUT_MS);
   }
 
+  /**
+   * Upload a batch of segments of the same table with segment files in one request. The controller adds all new
+   * segments with a single ideal state update.
+   *
+   * @param uri URI
+   * @param segmentFiles Map from segment name to segment file
+   * @param headers Optional http headers
+   * @param parameters Optional query parameters
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @return Response
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public SimpleHttpResponse uploadSegments(URI uri, Map<String, File> segmentFiles, @Nullable List<Header> headers,
+      @Nullable List<NameValuePair> parameters, int socketTimeoutMs) throws IOException, HttpErrorStatusException {
+    return sendRequest(getUploadSegmentsRequest(uri, segmentFiles, headers, parameters, socketTimeoutMs));
+  }
+
+  /**
+   * Upload a batch of segments of the same table with segment files in one request using default settings.
+   *
+   * @param uri URI
+   * @param segmentFiles Map from segment name to segment file
+   * @return Response
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public SimpleHttpResponse uploadSegments(URI uri, Map<String, File> segmentFiles)
+      throws IOException, HttpErrorStatusException {
+    return uploadSegments(uri, segmentFiles, null, null, DEFAULT_SOCKET_TIMEOUT_MS);
+  }
+
+  /**
+   * Send segment uris of a batch of segments of the same table in one request. The controller adds all new segments
+   * with a single ideal state update.
+   *
+   * @param uri URI
+   * @param downloadUris Segment download uris
+   * @param headers Optional http headers
+   * @param parameters Optional query parameters
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @return Response
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public SimpleHttpResponse sendSegmentUris(URI uri, List<String> downloadUris, @Nullable List<Header> headers,
+      @Nullable List<NameValuePair> parameters, int socketTimeoutMs) throws IOException, HttpErrorStatusException {
+    return sendRequest(getSendSegmentUrisRequest(uri, downloadUris, headers, parameters, socketTimeoutMs));
+  }
+
+  /**
+   * Send segment uris of a batch of segments of the same table in one request using default settings.
+   *
+   * @param uri URI
+   * @param downloadUris Segment download uris
+   * @return Response
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   */
+  public SimpleHttpResponse sendSegmentUris(URI uri, List<String> downloadUris)
+      throws IOException, HttpErrorStatusException {
+    return sendSegmentUris(uri, downloadUris, null, null, DEFAULT_SOCKET_TIMEOUT_MS);
+  }
+
   /**
    * Send segment uri.
    *
@@ -490,6 +597,51 @@ public class FileUploadDownloadClient implements Closeable {
     return downloadFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, dest);
   }
 
+  /**
+   * Download a tar.gz file and untar it into a directory on the fly, without writing the tar.gz file to disk.
+   *
+   * @param uri URI
+   * @param socketTimeoutMs Socket timeout in milliseconds
+   * @param destDir Directory destination
+   * @return Response status code
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   * @throws ArchiveException
+   */
+  public int downloadAndUntarFile(URI uri, int socketTimeoutMs, File destDir)
+      throws IOException, HttpErrorStatusException, ArchiveException {
+    HttpUriRequest request = getDownloadFileRequest(uri, socketTimeoutMs);
+    try (CloseableHttpResponse response = _httpClient.execute(request)) {
+      StatusLine statusLine = response.getStatusLine();
+      int statusCode = statusLine.getStatusCode();
+      if (statusCode >= 300) {
+        throw new HttpErrorStatusException(getErrorMessage(request, response), statusCode);
+      }
+
+      // The integrity of the content is verified by the gzip trailer while untarring
+      try (InputStream inputStream = new BufferedInputStream(response.getEntity().getContent())) {
+        TarGzCompressionUtils.unTar(inputStream, destDir);
+      }
+
+      return statusCode;
+    }
+  }
+
+  /**
+   * Download a tar.gz file and untar it into a directory on the fly.
+   *
+   * @param uri URI
+   * @param destDir Directory destination
+   * @return Response status code
+   * @throws IOException
+   * @throws HttpErrorStatusException
+   * @throws ArchiveException
+   */
+  public int downloadAndUntarFile(URI uri, File destDir)
+      throws IOException, HttpErrorStatusException, ArchiveException {
+    return downloadAndUntarFile(uri, DEFAULT_SOCKET_TIMEOUT_MS, destDir);
+  }
+
   @Override
   public void close() throws IOException {
     _httpClient.close();
@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
@@ -172,14 +173,31 @@ public class TarGzCompressionUtils {
    */
   public static List<File> unTar(final File inputFile, final File outputDir)
       throws FileNotFoundException, IOException, ArchiveException {
+    LOGGER.debug(String.format("Untaring %s to dir %s.", inputFile.getAbsolutePath(), outputDir.getAbsolutePath()));
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(inputFile))) {
+      return unTar(inputStream, outputDir);
+    }
+  }
 
+  /**
+   * Untar a tar.gz input stream into an output directory, without buffering the compressed content on disk.
+   * <p>The input stream is closed after untarring.
+   *
+   * @param tarGzInputStream the input tar.gz stream
+   * @param outputDir the output directory file.
+   * @throws IOException
+   *
+   * @return The {@link List} of {@link File}s with the untared content.
+   * @throws ArchiveException
+   */
+  public static List<File> unTar(final InputStream tarGzInputStream, final File outputDir)
+      throws IOException, ArchiveException {
     String outputDirectoryPath = outputDir.getCanonicalPath();
-    LOGGER.debug(String.format("Untaring %s to dir %s.", inputFile.getAbsolutePath(), outputDirectoryPath));
     TarArchiveInputStream debInputStream = null;
     InputStream is = null;
     final List<File> untaredFiles = new LinkedList<File>();
     try {
-      is = new GzipCompressorInputStream(new BufferedInputStream(new FileInputStream(inputFile)));
+      is = new GzipCompressorInputStream(tarGzInputStream);
       debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is);
       TarArchiveEntry entry = null;
       while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
@@ -216,6 +234,8 @@ public class TarGzCompressionUtils {
         }
         untaredFiles.add(outputFile);
       }
+      // Read the gzip stream to the end so that its CRC32 and size trailer gets verified
+      IOUtils.skip(is, Long.MAX_VALUE);
     } finally {
       IOUtils.closeQuietly(debInputStream);
       IOUtils.closeQuietly(is);
@@ -223,6 +243,60 @@ public class TarGzCompressionUtils {
     return untaredFiles;
   }
 
+  /**
+   * Streams through a tar.gz input stream and only untars the files with the given names (at any depth, keeping their
+   * relative path) into an output directory, without writing the other files to disk.
+   * <p>The input stream is fully consumed, so that the gzip CRC32 and size trailer gets verified, and so that any
+   * stream teeing the input (e.g. to persist the tar.gz file) sees all of it. The input stream is closed afterwards.
+   *
+   * @param tarGzInputStream the input tar.gz stream
+   * @param outputDir the output directory file.
+   * @param fileNames names of the files to untar
+   * @throws IOException
+   *
+   * @return The total size in bytes of all the files in the tar.gz, i.e. the size on disk if fully untarred.
+   * @throws ArchiveException
+   */
+  public static long unTarFiles(final InputStream tarGzInputStream, final File outputDir, final Set<String> fileNames)
+      throws IOException, ArchiveException {
+    String outputDirectoryPath = outputDir.getCanonicalPath();
+    TarArchiveInputStream debInputStream = null;
+    InputStream is = null;
+    long totalFileSize = 0L;
+    try {
+      is = new GzipCompressorInputStream(tarGzInputStream);
+      debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is);
+      TarArchiveEntry entry;
+      while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
+        if (entry.isDirectory()) {
+          continue;
+        }
+        totalFileSize += entry.getSize();
+        final File outputFile = new File(outputDir, entry.getName());
+        if (!fileNames.contains(outputFile.getName())) {
+          // Content of the entry is skipped when moving to the next entry
+          continue;
+        }
+        // Check whether the untarred file will be put outside of the target output directory.
+        if (!outputFile.getCanonicalPath().startsWith(outputDirectoryPath)) {
+          throw new IOException(EXTRACT_FILE_OUTSIDE_OF_TARGET_DIR);
+        }
+        FileUtils.forceMkdir(outputFile.getParentFile());
+        try (OutputStream outputFileStream = new FileOutputStream(outputFile)) {
+          IOUtils.copy(debInputStream, outputFileStream);
+        }
+      }
+      // Read the gzip stream to the end so that its CRC32 and size trailer gets verified
+      IOUtils.skip(is, Long.MAX_VALUE);
+      // Read the remaining bytes after the gzip trailer if any
+      IOUtils.skip(tarGzInputStream, Long.MAX_VALUE);
+    } finally {
+      IOUtils.closeQuietly(debInputStream);
+      IOUtils.closeQuietly(is);
+    }
+    return totalFileSize;
+  }
+
   public static InputStream unTarOneFile(InputStream tarGzInputStream, final String filename)
       throws FileNotFoundException, IOException, ArchiveException {
     TarArchiveInputStream debInputStream = null;
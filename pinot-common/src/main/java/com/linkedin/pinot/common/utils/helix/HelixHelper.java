@@ -21,6 +21,7 @@ import com.linkedin.pinot.common.utils.EqualityUtils;
 import com.linkedin.pinot.common.utils.retry.RetryPolicies;
 import com.linkedin.pinot.common.utils.retry.RetryPolicy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -368,25 +369,47 @@ public class HelixHelper {
    */
   public static void addSegmentToIdealState(HelixManager helixManager, final String tableNameWithType,
       final String segmentName, final List<String> assignedInstances) {
+    addSegmentsToIdealState(helixManager, tableNameWithType,
+        Collections.singletonMap(segmentName, assignedInstances));
+  }
+
+  /**
+   * Add the new specified segments to the idealState of the specified table in the specified cluster with a single
+   * idealState update.
+   *
+   * @param helixManager The HelixManager object to access the helix cluster.
+   * @param tableNameWithType Name of the table to which the new segments are to be added.
+   * @param segmentAssignment Map from name of the new segment to be added to the list of assigned instances
+   */
+  public static void addSegmentsToIdealState(HelixManager helixManager, final String tableNameWithType,
+      final Map<String, List<String>> segmentAssignment) {
 
     Function<IdealState, IdealState> updater = new Function<IdealState, IdealState>() {
       @Override
       public IdealState apply(IdealState idealState) {
         Set<String> partitions = idealState.getPartitionSet();
-        if (partitions.contains(segmentName)) {
-          LOGGER.warn("Segment already exists in the ideal state for segment: {} of table: {}, do not update",
-              segmentName, tableNameWithType);
-        } else {
-          if (assignedInstances.isEmpty()) {
-            LOGGER.warn("No instance assigned for segment: {} of table: {}", segmentName, tableNameWithType);
+        int numPartitions = partitions.size();
+        int numSegmentsAdded = 0;
+        for (Map.Entry<String, List<String>> entry : segmentAssignment.entrySet()) {
+          String segmentName = entry.getKey();
+          List<String> assignedInstances = entry.getValue();
+          if (partitions.contains(segmentName)) {
+            LOGGER.warn("Segment already exists in the ideal state for segment: {} of table: {}, do not update",
+                segmentName, tableNameWithType);
           } else {
-            int numPartitions = partitions.size() + 1;
-            for (String instance : assignedInstances) {
-              idealState.setPartitionState(segmentName, instance, ONLINE);
+            if (assignedInstances.isEmpty()) {
+              LOGGER.warn("No instance assigned for segment: {} of table: {}", segmentName, tableNameWithType);
+            } else {
+              for (String instance : assignedInstances) {
+                idealState.setPartitionState(segmentName, instance, ONLINE);
+              }
+              numSegmentsAdded++;
             }
-            idealState.setNumPartitions(numPartitions);
           }
         }
+        if (numSegmentsAdded > 0) {
+          idealState.setNumPartitions(numPartitions + numSegmentsAdded);
+        }
         return idealState;
       }
     };
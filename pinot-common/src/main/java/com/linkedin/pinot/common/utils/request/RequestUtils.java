@@ -17,6 +17,8 @@ package com.linkedin.pinot.common.utils.request;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec.DerivedMetricType;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.FilterOperator;
@@ -175,14 +177,19 @@ public class RequestUtils {
 
   public static final Set<String> STAR_TREE_AGGREGATION_FUNCTIONS = ImmutableSet.of("sum", "fasthll");
 
+  /**
+   * Origin column of the star tree COUNT derived column, which counts the raw documents behind each document.
+   */
+  public static final String STAR_TREE_COUNT_ORIGIN_COLUMN = "*";
+
   /**
    * Return whether the query is fit for star tree index.
    * <p>The query is fit for star tree index if the following conditions are met:
    * <ul>
    *   <li>Segment contains star tree</li>
    *   <li>BrokerRequest debug options have not explicitly disabled use of star tree</li>
-   *   <li>Query is aggregation/group-by with all aggregation functions in {@link #STAR_TREE_AGGREGATION_FUNCTIONS}</li>
-   *   <li>The aggregations must apply on metric column</li>
+   *   <li>Query is aggregation/group-by with all aggregation functions in {@link #STAR_TREE_AGGREGATION_FUNCTIONS}
+   *   applied on metric columns, or served by star tree derived columns (see {@link #getStarTreeDerivedColumns})</li>
    *   <li>All predicate columns and group-by columns are materialized dimensions</li>
    *   <li>All predicates are conjoined by AND</li>
    * </ul>
@@ -210,10 +217,13 @@ public class RequestUtils {
       return false;
     }
     for (AggregationInfo aggregationInfo : aggregationsInfo) {
-      if (!STAR_TREE_AGGREGATION_FUNCTIONS.contains(aggregationInfo.getAggregationType().toLowerCase())) {
-        return false;
-      }
-      if (!metrics.contains(aggregationInfo.getAggregationParams().get("column").trim())) {
+      String functionName = aggregationInfo.getAggregationType();
+      String column = aggregationInfo.getAggregationParams().get("column").trim();
+      if (STAR_TREE_AGGREGATION_FUNCTIONS.contains(functionName.toLowerCase())) {
+        if (!metrics.contains(column)) {
+          return false;
+        }
+      } else if (getStarTreeDerivedColumns(functionName, column, segmentMetadata) == null) {
         return false;
       }
     }
@@ -238,6 +248,56 @@ public class RequestUtils {
     return rootFilterNode == null || checkPredicatesForStarTree(rootFilterNode, metrics, unMaterializedDimensions);
   }
 
+  /**
+   * Returns the star tree derived columns holding the pre-aggregated values for the given aggregation function on the
+   * given column, or <code>null</code> if the segment does not have them.
+   * <p>Derived columns hold the origin value for raw documents, so they can be read instead of the origin column
+   * regardless of whether the star tree is used to solve the query. The returned columns are:
+   * <ul>
+   *   <li>MIN, MAX: the MIN or MAX derived column</li>
+   *   <li>MINMAXRANGE: the MIN and MAX derived columns</li>
+   *   <li>AVG: the (summed) metric column and the COUNT derived column</li>
+   * </ul>
+   */
+  @Nullable
+  public static String[] getStarTreeDerivedColumns(String functionName, String column,
+      SegmentMetadata segmentMetadata) {
+    switch (functionName.toLowerCase()) {
+      case "min":
+        return getDerivedColumns(segmentMetadata, column, DerivedMetricType.MIN);
+      case "max":
+        return getDerivedColumns(segmentMetadata, column, DerivedMetricType.MAX);
+      case "minmaxrange":
+        return getDerivedColumns(segmentMetadata, column, DerivedMetricType.MIN, DerivedMetricType.MAX);
+      case "avg":
+        String countColumn = segmentMetadata.getDerivedColumn(STAR_TREE_COUNT_ORIGIN_COLUMN, DerivedMetricType.COUNT);
+        if (countColumn == null) {
+          return null;
+        }
+        MetricFieldSpec metricFieldSpec = segmentMetadata.getSchema().getMetricSpec(column);
+        if (metricFieldSpec == null || metricFieldSpec.isDerivedMetric()) {
+          return null;
+        }
+        return new String[]{column, countColumn};
+      default:
+        return null;
+    }
+  }
+
+  @Nullable
+  private static String[] getDerivedColumns(SegmentMetadata segmentMetadata, String column,
+      DerivedMetricType... derivedMetricTypes) {
+    String[] derivedColumns = new String[derivedMetricTypes.length];
+    for (int i = 0; i < derivedMetricTypes.length; i++) {
+      String derivedColumn = segmentMetadata.getDerivedColumn(column, derivedMetricTypes[i]);
+      if (derivedColumn == null) {
+        return null;
+      }
+      derivedColumns[i] = derivedColumn;
+    }
+    return derivedColumns;
+  }
+
   /**
    * Helper method to check whether all columns in predicates are materialized dimensions, and all predicates are
    * conjoined by AND. This is a pre-requisite in order to use star tree.
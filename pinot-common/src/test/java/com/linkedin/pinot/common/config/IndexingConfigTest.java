@@ -46,6 +46,8 @@ public class IndexingConfigTest {
     json.put("loadMode", "MMAP");
     json.put("keyThatIsUnknown", "randomValue");
     json.put("aggregateMetrics", "true");
+    json.put("bloomFilterColumns", Arrays.asList("g", "h"));
+    json.put("rangeIndexColumns", Arrays.asList("i"));
 
     JSONObject noDictConfig = new JSONObject();
     noDictConfig.put("a", "SNAPPY");
@@ -82,6 +84,15 @@ public class IndexingConfigTest {
     }
 
     Assert.assertTrue(indexingConfig.getAggregateMetrics());
+
+    List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
+    Assert.assertEquals(bloomFilterColumns.size(), 2);
+    Assert.assertEquals(bloomFilterColumns.get(0), "g");
+    Assert.assertEquals(bloomFilterColumns.get(1), "h");
+
+    List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
+    Assert.assertEquals(rangeIndexColumns.size(), 1);
+    Assert.assertEquals(rangeIndexColumns.get(0), "i");
   }
 
   @Test
@@ -143,6 +154,9 @@ public class IndexingConfigTest {
     Set<String> expectedSkipStarNodeCreationForDimension = new HashSet<>(Arrays.asList(new String[]{"col6", "col7"}));
     expectedStarTreeSpec.setSkipStarNodeCreationForDimensions(expectedSkipStarNodeCreationForDimension);
 
+    List<String> expectedFunctionColumnPairs = Arrays.asList("MAX__col8", "AVG__col9");
+    expectedStarTreeSpec.setFunctionColumnPairs(expectedFunctionColumnPairs);
+
     IndexingConfig expectedIndexingConfig = new IndexingConfig();
     expectedIndexingConfig.setStarTreeIndexSpec(expectedStarTreeSpec);
 
@@ -161,5 +175,7 @@ public class IndexingConfigTest {
         expectedSkipMaterializationDimensions);
     Assert.assertEquals(actualStarTreeSpec.getSkipStarNodeCreationForDimensions(),
         expectedSkipStarNodeCreationForDimension);
+    Assert.assertEquals(actualStarTreeSpec.getFunctionColumnPairs(), expectedFunctionColumnPairs);
+    Assert.assertEquals(actualStarTreeSpec, expectedStarTreeSpec);
   }
 }
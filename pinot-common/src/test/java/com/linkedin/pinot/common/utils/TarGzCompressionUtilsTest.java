@@ -16,17 +16,22 @@
 package com.linkedin.pinot.common.utils;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -129,6 +134,73 @@ public class TarGzCompressionUtilsTest {
 
   }
 
+  @Test
+  public void testInputStream()
+      throws IOException, ArchiveException {
+    File metaFile = new File(segmentDir, "metadata.properties");
+    FileUtils.writeStringToFile(metaFile, "segment.name = " + SEGMENT_NAME);
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+    try (InputStream inputStream = new FileInputStream(tarGzPath)) {
+      TarGzCompressionUtils.unTar(inputStream, untarDir);
+    }
+    File[] segments = untarDir.listFiles();
+    Assert.assertNotNull(segments);
+    Assert.assertEquals(segments.length, 1);
+    File[] segmentFiles = segments[0].listFiles();
+    Assert.assertNotNull(segmentFiles);
+    Assert.assertEquals(segmentFiles.length, 1);
+    Assert.assertEquals(FileUtils.readFileToString(segmentFiles[0]), "segment.name = " + SEGMENT_NAME);
+  }
+
+  @Test
+  public void testTruncatedInputStream()
+      throws IOException, ArchiveException {
+    File metaFile = new File(segmentDir, "metadata.properties");
+    FileUtils.writeStringToFile(metaFile, "segment.name = " + SEGMENT_NAME);
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+
+    // Drop the gzip trailer
+    byte[] bytes = FileUtils.readFileToByteArray(tarGzPath);
+    try (InputStream inputStream = new ByteArrayInputStream(bytes, 0, bytes.length - 4)) {
+      TarGzCompressionUtils.unTar(inputStream, untarDir);
+      Assert.fail("Did not get exception!!");
+    } catch (IOException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testUnTarFiles()
+      throws IOException, ArchiveException {
+    FileUtils.writeStringToFile(new File(segmentDir, "metadata.properties"), "segment.name = " + SEGMENT_NAME);
+    File v3Dir = new File(segmentDir, "v3");
+    FileUtils.forceMkdir(v3Dir);
+    FileUtils.writeStringToFile(new File(v3Dir, "creation.meta"), "crc");
+    FileUtils.writeStringToFile(new File(v3Dir, "columns.psf"), "columns");
+    File tarGzPath = new File(tarDir, SEGMENT_NAME + ".tar.gz");
+    TarGzCompressionUtils.createTarGzOfDirectory(segmentDir.getPath(), tarGzPath.getPath());
+
+    // Untar the selected files while copying the tar.gz file
+    File copiedTarGzPath = new File(tarDir, "copied.tar.gz");
+    long totalFileSize;
+    try (InputStream inputStream = new TeeInputStream(new FileInputStream(tarGzPath),
+        new FileOutputStream(copiedTarGzPath), true)) {
+      totalFileSize = TarGzCompressionUtils.unTarFiles(inputStream, untarDir,
+          new HashSet<>(Arrays.asList("metadata.properties", "creation.meta")));
+    }
+    Assert.assertEquals(totalFileSize, FileUtils.sizeOfDirectory(segmentDir));
+    Assert.assertTrue(FileUtils.contentEquals(copiedTarGzPath, tarGzPath));
+
+    File untarredSegmentDir = new File(untarDir, SEGMENT_NAME);
+    Assert.assertEquals(FileUtils.readFileToString(new File(untarredSegmentDir, "metadata.properties")),
+        "segment.name = " + SEGMENT_NAME);
+    File untarredV3Dir = new File(untarredSegmentDir, "v3");
+    Assert.assertEquals(FileUtils.readFileToString(new File(untarredV3Dir, "creation.meta")), "crc");
+    Assert.assertFalse(new File(untarredV3Dir, "columns.psf").exists());
+  }
+
   @Test
   public void testBadFilePath() throws Exception {
     File metaFile = new File(segmentDir, "metadata.properties");
@@ -17,6 +17,7 @@
 package com.linkedin.pinot.controller.api.resources;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.exception.InvalidConfigException;
@@ -41,22 +42,29 @@ import com.linkedin.pinot.controller.helix.core.PinotHelixResourceManager;
 import com.linkedin.pinot.controller.helix.core.PinotHelixSegmentOnlineOfflineStateModelGenerator;
 import com.linkedin.pinot.controller.util.TableSizeReader;
 import com.linkedin.pinot.controller.validation.StorageQuotaChecker;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.InetAddress;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -77,9 +85,11 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.httpclient.HttpConnectionManager;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.helix.AccessOption;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.IdealState;
 import org.glassfish.grizzly.http.server.Request;
@@ -99,6 +109,9 @@ import org.slf4j.LoggerFactory;
 @Path("/")
 public class PinotSegmentUploadRestletResource {
   private static final Logger LOGGER = LoggerFactory.getLogger(PinotSegmentUploadRestletResource.class);
+  // Files needed to build the segment metadata, the other files of the uploaded segment are not untarred
+  private static final Set<String> SEGMENT_METADATA_FILE_NAMES =
+      ImmutableSet.of(V1Constants.MetadataKeys.METADATA_FILE_NAME, V1Constants.SEGMENT_CREATION_META);
 
   @Inject
   PinotHelixResourceManager _pinotHelixResourceManager;
@@ -305,6 +318,7 @@ public class PinotSegmentUploadRestletResource {
       }
 
       String downloadURI = null;
+      long segmentSizeBytes;
       switch (uploadType) {
         case JSON:
         case URI:
@@ -316,21 +330,7 @@ public class PinotSegmentUploadRestletResource {
                 e);
           }
 
-          // Get segment fetcher based on the download URI
-          SegmentFetcher segmentFetcher;
-          try {
-            segmentFetcher = SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(downloadURI);
-          } catch (URISyntaxException e) {
-            throw new ControllerApplicationException(LOGGER,
-                "Caught exception while parsing download URI: " + downloadURI, Response.Status.BAD_REQUEST, e);
-          }
-          if (segmentFetcher == null) {
-            throw new ControllerApplicationException(LOGGER,
-                "Failed to get segment fetcher for download URI: " + downloadURI, Response.Status.BAD_REQUEST);
-          }
-
-          // Download segment tar file to local
-          segmentFetcher.fetchSegmentToLocal(downloadURI, tempTarredSegmentFile);
+          segmentSizeBytes = fetchSegmentAndUnTarMetadataFiles(downloadURI, tempTarredSegmentFile, tempSegmentDir);
           break;
 
         case TAR:
@@ -340,9 +340,10 @@ public class PinotSegmentUploadRestletResource {
               throw new ControllerApplicationException(LOGGER, "Invalid multi-part form", Response.Status.BAD_REQUEST);
             }
             FormDataBodyPart bodyPart = map.values().iterator().next().get(0);
-            try (InputStream inputStream = bodyPart.getValueAs(InputStream.class);
-                OutputStream outputStream = new FileOutputStream(tempTarredSegmentFile)) {
-              IOUtils.copyLarge(inputStream, outputStream);
+            // Untar the segment metadata files while writing the tar file
+            try (InputStream inputStream = new TeeInputStream(bodyPart.getValueAs(InputStream.class),
+                new BufferedOutputStream(new FileOutputStream(tempTarredSegmentFile)), true)) {
+              segmentSizeBytes = unTarSegmentMetadataFiles(inputStream, tempSegmentDir);
             }
           } finally {
             multiPart.cleanup();
@@ -353,20 +354,13 @@ public class PinotSegmentUploadRestletResource {
           throw new UnsupportedOperationException("Unsupported upload type: " + uploadType);
       }
 
-      // While there is TarGzCompressionUtils.unTarOneFile, we use unTar here to unpack all files
-      // in the segment in order to ensure the segment is not corrupted
-      TarGzCompressionUtils.unTar(tempTarredSegmentFile, tempSegmentDir);
-      File[] files = tempSegmentDir.listFiles();
-      Preconditions.checkState(files != null && files.length == 1);
-      File indexDir = files[0];
-
-      SegmentMetadata segmentMetadata = new SegmentMetadataImpl(indexDir);
+      SegmentMetadata segmentMetadata = getSegmentMetadata(tempSegmentDir);
       String segmentName = segmentMetadata.getName();
       String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadata.getTableName());
       String clientAddress = InetAddress.getByName(request.getRemoteAddr()).getHostName();
       LOGGER.info("Processing upload request for segment: {} of table: {} from client: {}", segmentName,
           offlineTableName, clientAddress);
-      uploadSegment(indexDir, segmentMetadata, tempTarredSegmentFile, downloadURI, provider,
+      uploadSegment(segmentSizeBytes, segmentMetadata, tempTarredSegmentFile, downloadURI, provider,
           enableParallelPushProtection, headers);
 
       return new SuccessResponse("Successfully uploaded segment: " + segmentName + " of table: " + offlineTableName);
@@ -382,6 +376,272 @@ public class PinotSegmentUploadRestletResource {
     }
   }
 
+  @POST
+  @ManagedAsync
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.MULTIPART_FORM_DATA)
+  @Path("/segments/batch")
+  @ApiOperation(value = "Upload a batch of segments",
+      notes = "Upload a batch of segments of the same table as binary, one part per segment")
+  public void uploadSegmentsAsMultiPart(FormDataMultiPart multiPart,
+      @ApiParam(value = "Whether to enable parallel push protection") @DefaultValue("false") @QueryParam(FileUploadDownloadClient.QueryParameters.ENABLE_PARALLEL_PUSH_PROTECTION) boolean enableParallelPushProtection,
+      @Context HttpHeaders headers, @Context Request request, @Suspended final AsyncResponse asyncResponse) {
+    try {
+      asyncResponse.resume(uploadSegmentsInternal(multiPart, null, enableParallelPushProtection, headers, request));
+    } catch (Throwable t) {
+      asyncResponse.resume(t);
+    }
+  }
+
+  @POST
+  @ManagedAsync
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Path("/segments/batch")
+  @ApiOperation(value = "Upload a batch of segments",
+      notes = "Upload a batch of segments of the same table as a json array of download URIs")
+  public void uploadSegmentsAsJson(String downloadUrisJsonStr,
+      @ApiParam(value = "Whether to enable parallel push protection") @DefaultValue("false") @QueryParam(FileUploadDownloadClient.QueryParameters.ENABLE_PARALLEL_PUSH_PROTECTION) boolean enableParallelPushProtection,
+      @Context HttpHeaders headers, @Context Request request, @Suspended final AsyncResponse asyncResponse) {
+    try {
+      asyncResponse.resume(
+          uploadSegmentsInternal(null, downloadUrisJsonStr, enableParallelPushProtection, headers, request));
+    } catch (Throwable t) {
+      asyncResponse.resume(t);
+    }
+  }
+
+  private SuccessResponse uploadSegmentsInternal(FormDataMultiPart multiPart, String downloadUrisJsonStr,
+      boolean enableParallelPushProtection, HttpHeaders headers, Request request) {
+    // The IF-MATCH CRC is for a single segment, which is ambiguous for a batch
+    if (headers.getHeaderString(HttpHeaders.IF_MATCH) != null) {
+      throw new ControllerApplicationException(LOGGER, "IF-MATCH header is not supported for batch segment upload",
+          Response.Status.BAD_REQUEST);
+    }
+
+    List<File> tempFiles = new ArrayList<>();
+    try {
+      FileUploadPathProvider provider = new FileUploadPathProvider(_controllerConf);
+      List<UploadedSegment> uploadedSegments = new ArrayList<>();
+
+      if (multiPart != null) {
+        try {
+          for (List<FormDataBodyPart> bodyParts : multiPart.getFields().values()) {
+            for (FormDataBodyPart bodyPart : bodyParts) {
+              String tempSegmentName = "tmp-" + System.nanoTime();
+              File tempTarredSegmentFile = new File(provider.getFileUploadTmpDir(), tempSegmentName);
+              File tempSegmentDir = new File(provider.getTmpUntarredPath(), tempSegmentName);
+              tempFiles.add(tempTarredSegmentFile);
+              tempFiles.add(tempSegmentDir);
+              // Untar the segment metadata files while writing the tar file
+              long segmentSizeBytes;
+              try (InputStream inputStream = new TeeInputStream(bodyPart.getValueAs(InputStream.class),
+                  new BufferedOutputStream(new FileOutputStream(tempTarredSegmentFile)), true)) {
+                segmentSizeBytes = unTarSegmentMetadataFiles(inputStream, tempSegmentDir);
+              }
+              uploadedSegments.add(
+                  new UploadedSegment(getSegmentMetadata(tempSegmentDir), tempTarredSegmentFile, null,
+                      segmentSizeBytes));
+            }
+          }
+        } finally {
+          multiPart.cleanup();
+        }
+      } else {
+        JSONArray downloadUris;
+        try {
+          downloadUris = new JSONArray(downloadUrisJsonStr);
+        } catch (Exception e) {
+          throw new ControllerApplicationException(LOGGER, "Failed to get download URIs", Response.Status.BAD_REQUEST,
+              e);
+        }
+        for (int i = 0; i < downloadUris.length(); i++) {
+          String downloadURI = downloadUris.getString(i);
+          String tempSegmentName = "tmp-" + System.nanoTime();
+          File tempTarredSegmentFile = new File(provider.getFileUploadTmpDir(), tempSegmentName);
+          File tempSegmentDir = new File(provider.getTmpUntarredPath(), tempSegmentName);
+          tempFiles.add(tempTarredSegmentFile);
+          tempFiles.add(tempSegmentDir);
+          long segmentSizeBytes =
+              fetchSegmentAndUnTarMetadataFiles(downloadURI, tempTarredSegmentFile, tempSegmentDir);
+          uploadedSegments.add(
+              new UploadedSegment(getSegmentMetadata(tempSegmentDir), tempTarredSegmentFile, downloadURI,
+                  segmentSizeBytes));
+        }
+      }
+
+      if (uploadedSegments.isEmpty()) {
+        throw new ControllerApplicationException(LOGGER, "No segment in the batch upload request",
+            Response.Status.BAD_REQUEST);
+      }
+      String rawTableName = uploadedSegments.get(0)._segmentMetadata.getTableName();
+      String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(rawTableName);
+      String clientAddress = InetAddress.getByName(request.getRemoteAddr()).getHostName();
+      LOGGER.info("Processing batch upload request for {} segments of table: {} from client: {}",
+          uploadedSegments.size(), offlineTableName, clientAddress);
+      uploadSegments(uploadedSegments, provider, enableParallelPushProtection, headers);
+
+      return new SuccessResponse(
+          "Successfully uploaded " + uploadedSegments.size() + " segments of table: " + offlineTableName);
+    } catch (WebApplicationException e) {
+      throw e;
+    } catch (Exception e) {
+      _controllerMetrics.addMeteredGlobalValue(ControllerMeter.CONTROLLER_SEGMENT_UPLOAD_ERROR, 1L);
+      throw new ControllerApplicationException(LOGGER, "Caught internal server exception while uploading segments",
+          Response.Status.INTERNAL_SERVER_ERROR, e);
+    } finally {
+      for (File tempFile : tempFiles) {
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+
+  /**
+   * Helper method to upload a batch of segments of the same table with the following steps:
+   * <ul>
+   *   <li>Check segment start/end time for all segments before making any change</li>
+   *   <li>Check storage quota once for all new segments</li>
+   *   <li>Add all new segments (non-refresh) with a single bulk ZK metadata write and a single ideal state update</li>
+   *   <li>Refresh the existing segments one by one the same way as the single segment upload</li>
+   * </ul>
+   */
+  private void uploadSegments(List<UploadedSegment> uploadedSegments, FileUploadPathProvider provider,
+      boolean enableParallelPushProtection, HttpHeaders headers) throws IOException, JSONException {
+    String rawTableName = uploadedSegments.get(0)._segmentMetadata.getTableName();
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(rawTableName);
+
+    Set<String> segmentNames = new HashSet<>();
+    for (UploadedSegment uploadedSegment : uploadedSegments) {
+      SegmentMetadata segmentMetadata = uploadedSegment._segmentMetadata;
+      String segmentName = segmentMetadata.getName();
+      if (!segmentMetadata.getTableName().equals(rawTableName)) {
+        throw new ControllerApplicationException(LOGGER,
+            "All segments in a batch must belong to the same table, got segment: " + segmentName + " of table: "
+                + segmentMetadata.getTableName() + " in batch for table: " + rawTableName,
+            Response.Status.BAD_REQUEST);
+      }
+      if (!segmentNames.add(segmentName)) {
+        throw new ControllerApplicationException(LOGGER,
+            "Duplicate segment: " + segmentName + " in batch for table: " + offlineTableName,
+            Response.Status.BAD_REQUEST);
+      }
+      if (!isSegmentTimeValid(segmentMetadata)) {
+        throw new ControllerApplicationException(LOGGER,
+            "Invalid segment start/end time for segment: " + segmentName + " of table: " + offlineTableName,
+            Response.Status.NOT_ACCEPTABLE);
+      }
+    }
+
+    TableConfig offlineTableConfig =
+        ZKMetadataProvider.getOfflineTableConfig(_pinotHelixResourceManager.getPropertyStore(), offlineTableName);
+    if (offlineTableConfig == null) {
+      throw new ControllerApplicationException(LOGGER, "Failed to find table config for table: " + offlineTableName,
+          Response.Status.NOT_FOUND);
+    }
+
+    // Split the batch into new segments and existing segments with one read of the segment ZK metadata names
+    List<String> existingSegmentNames = _pinotHelixResourceManager.getPropertyStore()
+        .getChildNames(ZKMetadataProvider.constructPropertyStorePathForResource(offlineTableName),
+            AccessOption.PERSISTENT);
+    Set<String> existingSegments =
+        existingSegmentNames != null ? new HashSet<>(existingSegmentNames) : Collections.<String>emptySet();
+    List<UploadedSegment> newSegments = new ArrayList<>();
+    List<UploadedSegment> refreshedSegments = new ArrayList<>();
+    long newSegmentsSizeBytes = 0;
+    for (UploadedSegment uploadedSegment : uploadedSegments) {
+      if (existingSegments.contains(uploadedSegment._segmentMetadata.getName())) {
+        refreshedSegments.add(uploadedSegment);
+      } else {
+        newSegments.add(uploadedSegment);
+        newSegmentsSizeBytes += uploadedSegment._segmentSizeBytes;
+      }
+    }
+
+    if (!newSegments.isEmpty()) {
+      // Check quota for all new segments together, none of them exists in the table yet
+      StorageQuotaChecker.QuotaCheckerResponse quotaResponse;
+      try {
+        quotaResponse =
+            checkStorageQuota(newSegmentsSizeBytes, newSegments.get(0)._segmentMetadata, offlineTableConfig);
+      } catch (InvalidConfigException e) {
+        // Admin port is missing, return response with 500 status code.
+        throw new ControllerApplicationException(LOGGER,
+            "Quota check failed for " + newSegments.size() + " new segments of table: " + offlineTableName
+                + ", reason: " + e.getMessage(), Response.Status.INTERNAL_SERVER_ERROR);
+      }
+      if (!quotaResponse.isSegmentWithinQuota) {
+        throw new ControllerApplicationException(LOGGER,
+            "Quota check failed for " + newSegments.size() + " new segments of table: " + offlineTableName
+                + ", reason: " + quotaResponse.reason, Response.Status.FORBIDDEN);
+      }
+
+      List<SegmentMetadata> segmentMetadataList = new ArrayList<>(newSegments.size());
+      List<String> downloadUrls = new ArrayList<>(newSegments.size());
+      for (UploadedSegment newSegment : newSegments) {
+        String downloadUrl = newSegment._downloadUri;
+        if (downloadUrl == null) {
+          downloadUrl = moveSegmentToPermanentDirectory(provider, rawTableName, newSegment._segmentMetadata.getName(),
+              newSegment._tempTarredSegmentFile);
+        }
+        segmentMetadataList.add(newSegment._segmentMetadata);
+        downloadUrls.add(downloadUrl);
+      }
+      _pinotHelixResourceManager.addNewSegments(segmentMetadataList, downloadUrls);
+    }
+
+    // NOTE: refresh needs to reload the segment on the servers, which cannot be shared across segments
+    for (UploadedSegment refreshedSegment : refreshedSegments) {
+      uploadSegment(refreshedSegment._segmentSizeBytes, refreshedSegment._segmentMetadata,
+          refreshedSegment._tempTarredSegmentFile, refreshedSegment._downloadUri, provider,
+          enableParallelPushProtection, headers);
+    }
+  }
+
+  /**
+   * Helper method to download the segment tar file from the given URI, and untar the segment metadata files.
+   *
+   * @return Size in bytes of the untarred segment
+   */
+  private static long fetchSegmentAndUnTarMetadataFiles(String downloadURI, File tempTarredSegmentFile,
+      File tempSegmentDir) throws Exception {
+    // Get segment fetcher based on the download URI
+    SegmentFetcher segmentFetcher;
+    try {
+      segmentFetcher = SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(downloadURI);
+    } catch (URISyntaxException e) {
+      throw new ControllerApplicationException(LOGGER, "Caught exception while parsing download URI: " + downloadURI,
+          Response.Status.BAD_REQUEST, e);
+    }
+    if (segmentFetcher == null) {
+      throw new ControllerApplicationException(LOGGER, "Failed to get segment fetcher for download URI: " + downloadURI,
+          Response.Status.BAD_REQUEST);
+    }
+
+    // Download segment tar file to local
+    segmentFetcher.fetchSegmentToLocal(downloadURI, tempTarredSegmentFile);
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(tempTarredSegmentFile))) {
+      return unTarSegmentMetadataFiles(inputStream, tempSegmentDir);
+    }
+  }
+
+  private static SegmentMetadata getSegmentMetadata(File tempSegmentDir) throws Exception {
+    File[] files = tempSegmentDir.listFiles();
+    Preconditions.checkState(files != null && files.length == 1);
+    File indexDir = files[0];
+    return new SegmentMetadataImpl(indexDir);
+  }
+
+  /**
+   * Helper method to untar only the segment metadata files needed to build the {@link SegmentMetadataImpl}, while
+   * still streaming through the whole tar file so that a corrupted tar file gets rejected.
+   *
+   * @return Size in bytes of the untarred segment
+   */
+  private static long unTarSegmentMetadataFiles(InputStream inputStream, File tempSegmentDir)
+      throws IOException, ArchiveException {
+    return TarGzCompressionUtils.unTarFiles(inputStream, tempSegmentDir, SEGMENT_METADATA_FILE_NAMES);
+  }
+
   /**
    * Helper method to upload segment with the following steps:
    * <ul>
@@ -399,7 +659,7 @@ public class PinotSegmentUploadRestletResource {
    *   </li>
    * </ul>
    */
-  private void uploadSegment(File indexDir, SegmentMetadata segmentMetadata, File tempTarredSegmentFile,
+  private void uploadSegment(long segmentSizeBytes, SegmentMetadata segmentMetadata, File tempTarredSegmentFile,
       String downloadUrl, FileUploadPathProvider provider, boolean enableParallelPushProtection, HttpHeaders headers)
       throws IOException, JSONException {
     String rawTableName = segmentMetadata.getTableName();
@@ -416,7 +676,7 @@ public class PinotSegmentUploadRestletResource {
     // Check quota
     StorageQuotaChecker.QuotaCheckerResponse quotaResponse;
     try {
-      quotaResponse = checkStorageQuota(indexDir, segmentMetadata, offlineTableConfig);
+      quotaResponse = checkStorageQuota(segmentSizeBytes, segmentMetadata, offlineTableConfig);
     } catch (InvalidConfigException e) {
       // Admin port is missing, return response with 500 status code.
       throw new ControllerApplicationException(LOGGER, "Quota check failed for segment: " + segmentName + " of table: " + offlineTableName + ", reason: "
@@ -620,18 +880,17 @@ public class PinotSegmentUploadRestletResource {
   }
 
   /**
-   * check if the segment represented by segmentFile is within the storage quota
-   * @param segmentFile untarred segment. This should not be null.
-   *                    segmentFile must exist on disk and must be a directory
+   * check if the segment is within the storage quota
+   * @param segmentSizeBytes size of the untarred segment in bytes
    * @param metadata segment metadata. This should not be null.
    * @param offlineTableConfig offline table configuration. This should not be null.
    */
-  private StorageQuotaChecker.QuotaCheckerResponse checkStorageQuota(@Nonnull File segmentFile,
+  private StorageQuotaChecker.QuotaCheckerResponse checkStorageQuota(long segmentSizeBytes,
       @Nonnull SegmentMetadata metadata, @Nonnull TableConfig offlineTableConfig) throws InvalidConfigException {
     TableSizeReader tableSizeReader = new TableSizeReader(_executor, _connectionManager, _pinotHelixResourceManager);
     StorageQuotaChecker quotaChecker = new StorageQuotaChecker(offlineTableConfig, tableSizeReader, _controllerMetrics);
     String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(metadata.getTableName());
-    return quotaChecker.isSegmentStorageWithinQuota(segmentFile, offlineTableName, metadata.getName(),
+    return quotaChecker.isSegmentStorageWithinQuota(segmentSizeBytes, offlineTableName, metadata.getName(),
         _controllerConf.getServerAdminRequestTimeoutSeconds() * 1000);
   }
 
@@ -664,4 +923,22 @@ public class PinotSegmentUploadRestletResource {
 
     return true;
   }
+
+  /**
+   * Segment received in a batch upload request, with its local tar file and optional external download URI.
+   */
+  private static class UploadedSegment {
+    final SegmentMetadata _segmentMetadata;
+    final File _tempTarredSegmentFile;
+    final String _downloadUri;
+    final long _segmentSizeBytes;
+
+    UploadedSegment(SegmentMetadata segmentMetadata, File tempTarredSegmentFile, String downloadUri,
+        long segmentSizeBytes) {
+      _segmentMetadata = segmentMetadata;
+      _tempTarredSegmentFile = tempTarredSegmentFile;
+      _downloadUri = downloadUri;
+      _segmentSizeBytes = segmentSizeBytes;
+    }
+  }
 }
@@ -1482,6 +1482,52 @@ public class PinotHelixResourceManager {
     LOGGER.info("Added segment: {} of table: {} to ideal state", segmentName, offlineTableName);
   }
 
+  /**
+   * Adds a batch of new segments of the same offline table. The segment ZK metadata is written with one bulk write to
+   * the property store, and all segments are assigned and added to the ideal state with a single ideal state update.
+   *
+   * @param segmentMetadataList Meta-data of the new segments
+   * @param downloadUrls Download URLs of the new segments, in the same order as the segment meta-data
+   */
+  public void addNewSegments(@Nonnull List<SegmentMetadata> segmentMetadataList, @Nonnull List<String> downloadUrls) {
+    Preconditions.checkArgument(!segmentMetadataList.isEmpty(), "No segment to add");
+    Preconditions.checkArgument(segmentMetadataList.size() == downloadUrls.size(),
+        "Number of segments does not match number of download URLs");
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadataList.get(0).getTableName());
+    int numSegments = segmentMetadataList.size();
+
+    // NOTE: must first set the segment ZK metadata before trying to update ideal state because server will need the
+    // segment ZK metadata to download and load the segment
+    List<OfflineSegmentZKMetadata> offlineSegmentZKMetadataList = new ArrayList<>(numSegments);
+    long pushTime = System.currentTimeMillis();
+    for (int i = 0; i < numSegments; i++) {
+      SegmentMetadata segmentMetadata = segmentMetadataList.get(i);
+      Preconditions.checkArgument(
+          TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadata.getTableName()).equals(offlineTableName),
+          "Segment: %s does not belong to table: %s", segmentMetadata.getName(), offlineTableName);
+      OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
+      offlineSegmentZKMetadata = ZKMetadataUtils.updateSegmentMetadata(offlineSegmentZKMetadata, segmentMetadata);
+      offlineSegmentZKMetadata.setDownloadUrl(downloadUrls.get(i));
+      offlineSegmentZKMetadata.setPushTime(pushTime);
+      offlineSegmentZKMetadataList.add(offlineSegmentZKMetadata);
+    }
+    boolean[] results = ZKMetadataProvider.setOfflineSegmentZKMetadata(_propertyStore, offlineSegmentZKMetadataList);
+    List<String> failedSegments = new ArrayList<>();
+    for (int i = 0; i < numSegments; i++) {
+      if (!results[i]) {
+        failedSegments.add(segmentMetadataList.get(i).getName());
+      }
+    }
+    if (!failedSegments.isEmpty()) {
+      throw new RuntimeException(
+          "Failed to set segment ZK metadata for table: " + offlineTableName + ", segments: " + failedSegments);
+    }
+    LOGGER.info("Added {} segments of table: {} to property store", numSegments, offlineTableName);
+
+    addNewOfflineSegments(offlineTableName, segmentMetadataList);
+    LOGGER.info("Added {} segments of table: {} to ideal state", numSegments, offlineTableName);
+  }
+
   public ZNRecord getSegmentMetadataZnRecord(String tableNameWithType, String segmentName) {
     return ZKMetadataProvider.getZnRecord(_propertyStore,
         ZKMetadataProvider.constructPropertyStorePathForSegment(tableNameWithType, segmentName));
@@ -1628,6 +1674,25 @@ public class PinotHelixResourceManager {
       LOGGER.warn("Unable to send segment refresh message for {} of table {}, nMsgs={}", segmentName, offlineTableName,
           nMsgsSent);
     }
+
+    // Send a message to the brokers serving the table, so that they do not serve cached results of the old segment. The
+    // external view does not change when the segment is refreshed in place, so the brokers would not notice otherwise.
+    Criteria brokerRecipientCriteria = new Criteria();
+    brokerRecipientCriteria.setRecipientInstanceType(InstanceType.PARTICIPANT);
+    brokerRecipientCriteria.setInstanceName("%");
+    brokerRecipientCriteria.setResource(CommonConstants.Helix.BROKER_RESOURCE_INSTANCE);
+    brokerRecipientCriteria.setPartition(offlineTableName);
+    brokerRecipientCriteria.setSessionSpecific(true);
+    SegmentRefreshMessage brokerRefreshMessage =
+        new SegmentRefreshMessage(offlineTableName, segmentName, segmentZKMetadata.getCrc());
+    int nBrokerMsgsSent = messagingService.send(brokerRecipientCriteria, brokerRefreshMessage, null, timeoutMs);
+    if (nBrokerMsgsSent > 0) {
+      LOGGER.info("Sent {} msgs to brokers to refresh segment {} of table {}", nBrokerMsgsSent, segmentName,
+          rawTableName);
+    } else {
+      LOGGER.warn("Unable to send segment refresh message to brokers for {} of table {}, nMsgs={}", segmentName,
+          offlineTableName, nBrokerMsgsSent);
+    }
   }
 
   /**
@@ -1643,9 +1708,19 @@ public class PinotHelixResourceManager {
   // NOTE: method should be thread-safe
   private void addNewOfflineSegment(SegmentMetadata segmentMetadata) {
     String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadata.getTableName());
-    String segmentName = segmentMetadata.getName();
+    addNewOfflineSegments(offlineTableName, Collections.singletonList(segmentMetadata));
+  }
 
-    // Assign new segment to instances
+  /**
+   * Helper method to add the passed in offline segments of the same table to the helix cluster. The assignment for all
+   * segments is computed in one pass of the segment assignment strategy, and applied with a single ideal state update.
+   *
+   * @param offlineTableName Name of the offline table to which the segments belong.
+   * @param segmentMetadataList Meta-data for the segments, used to access segmentName.
+   */
+  // NOTE: method should be thread-safe
+  private void addNewOfflineSegments(String offlineTableName, List<SegmentMetadata> segmentMetadataList) {
+    // Assign new segments to instances
     TableConfig offlineTableConfig = ZKMetadataProvider.getOfflineTableConfig(_propertyStore, offlineTableName);
     Preconditions.checkNotNull(offlineTableConfig);
     int numReplicas = Integer.parseInt(offlineTableConfig.getValidationConfig().getReplication());
@@ -1653,11 +1728,11 @@ public class PinotHelixResourceManager {
         TagNameUtils.getOfflineTagForTenant(offlineTableConfig.getTenantConfig().getServer());
     SegmentAssignmentStrategy segmentAssignmentStrategy = SegmentAssignmentStrategyFactory.getSegmentAssignmentStrategy(
         offlineTableConfig.getValidationConfig().getSegmentAssignmentStrategy());
-    List<String> assignedInstances =
-        segmentAssignmentStrategy.getAssignedInstances(_helixAdmin, _propertyStore, _helixClusterName, segmentMetadata,
-            numReplicas, serverTenant);
+    Map<String, List<String>> segmentAssignment =
+        segmentAssignmentStrategy.getAssignedInstances(_helixAdmin, _propertyStore, _helixClusterName,
+            segmentMetadataList, numReplicas, serverTenant);
 
-    HelixHelper.addSegmentToIdealState(_helixZkManager, offlineTableName, segmentName, assignedInstances);
+    HelixHelper.addSegmentsToIdealState(_helixZkManager, offlineTableName, segmentAssignment);
   }
 
   private boolean updateExistedSegment(SegmentZKMetadata segmentZKMetadata) {
@@ -23,6 +23,7 @@ import com.linkedin.pinot.common.utils.Pairs.Number2ObjectPair;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,10 +45,18 @@ public class BalanceNumSegmentAssignmentStrategy implements SegmentAssignmentStr
   @Override
   public List<String> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
       String helixClusterName, SegmentMetadata segmentMetadata, int numReplicas, String tenantName) {
-    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadata.getTableName());
+    return getAssignedInstances(helixAdmin, propertyStore, helixClusterName,
+        Collections.singletonList(segmentMetadata), numReplicas, tenantName).get(segmentMetadata.getName());
+  }
+
+  @Override
+  public Map<String, List<String>> getAssignedInstances(HelixAdmin helixAdmin,
+      ZkHelixPropertyStore<ZNRecord> propertyStore, String helixClusterName, List<SegmentMetadata> segmentMetadataList,
+      int numReplicas, String tenantName) {
+    String rawTableName = segmentMetadataList.get(0).getTableName();
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(rawTableName);
     String serverTenantName = TagNameUtils.getOfflineTagForTenant(tenantName);
 
-    List<String> selectedInstances = new ArrayList<>();
     Map<String, Integer> currentNumSegmentsPerInstanceMap = new HashMap<>();
     List<String> allTaggedInstances =
         HelixHelper.getEnabledInstancesWithTag(helixAdmin, helixClusterName, serverTenantName);
@@ -74,22 +83,32 @@ public class BalanceNumSegmentAssignmentStrategy implements SegmentAssignmentStr
       }
     }
 
-    // Select up to numReplicas instances with the fewest segments assigned
-    PriorityQueue<Number2ObjectPair<String>> priorityQueue =
-        new PriorityQueue<>(numReplicas, Pairs.getDescendingnumber2ObjectPairComparator());
-    for (String key : currentNumSegmentsPerInstanceMap.keySet()) {
-      priorityQueue.add(new Number2ObjectPair<>(currentNumSegmentsPerInstanceMap.get(key), key));
-      if (priorityQueue.size() > numReplicas) {
-        priorityQueue.poll();
+    Map<String, List<String>> assignment = new HashMap<>();
+    for (SegmentMetadata segmentMetadata : segmentMetadataList) {
+      // Select up to numReplicas instances with the fewest segments assigned
+      PriorityQueue<Number2ObjectPair<String>> priorityQueue =
+          new PriorityQueue<>(numReplicas, Pairs.getDescendingnumber2ObjectPairComparator());
+      for (String key : currentNumSegmentsPerInstanceMap.keySet()) {
+        priorityQueue.add(new Number2ObjectPair<>(currentNumSegmentsPerInstanceMap.get(key), key));
+        if (priorityQueue.size() > numReplicas) {
+          priorityQueue.poll();
+        }
       }
-    }
 
-    while (!priorityQueue.isEmpty()) {
-      selectedInstances.add(priorityQueue.poll().getB());
-    }
+      List<String> selectedInstances = new ArrayList<>();
+      while (!priorityQueue.isEmpty()) {
+        selectedInstances.add(priorityQueue.poll().getB());
+      }
 
-    LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
-        + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(selectedInstances.toArray()));
-    return selectedInstances;
+      // Account for this assignment so that the rest of the batch stays balanced
+      for (String instance : selectedInstances) {
+        currentNumSegmentsPerInstanceMap.put(instance, currentNumSegmentsPerInstanceMap.get(instance) + 1);
+      }
+
+      LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : " + rawTableName
+          + ", selected instances: " + Arrays.toString(selectedInstances.toArray()));
+      assignment.put(segmentMetadata.getName(), selectedInstances);
+    }
+    return assignment;
   }
 }
@@ -20,7 +20,10 @@ import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.helix.HelixAdmin;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -39,24 +42,40 @@ public class BucketizedSegmentStrategy implements SegmentAssignmentStrategy {
   @Override
   public List<String> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
       String helixClusterName, SegmentMetadata segmentMetadata, int numReplicas, String tenantName) {
+    return getAssignedInstances(helixAdmin, propertyStore, helixClusterName,
+        Collections.singletonList(segmentMetadata), numReplicas, tenantName).get(segmentMetadata.getName());
+  }
+
+  @Override
+  public Map<String, List<String>> getAssignedInstances(HelixAdmin helixAdmin,
+      ZkHelixPropertyStore<ZNRecord> propertyStore, String helixClusterName, List<SegmentMetadata> segmentMetadataList,
+      int numReplicas, String tenantName) {
     String serverTenantName = TagNameUtils.getOfflineTagForTenant(tenantName);
 
+    // Fetch the sharding key of each instance once for the whole batch
     List<String> allInstances = HelixHelper.getEnabledInstancesWithTag(helixAdmin, helixClusterName, serverTenantName);
-    List<String> selectedInstanceList = new ArrayList<>();
-    if (segmentMetadata.getShardingKey() != null) {
+    Map<String, String> instanceToShardingKeyMap = new HashMap<>();
+    for (String instance : allInstances) {
+      instanceToShardingKeyMap.put(instance,
+          HelixHelper.getInstanceConfigsMapFor(instance, helixClusterName, helixAdmin).get("shardingKey"));
+    }
+
+    Map<String, List<String>> assignment = new HashMap<>();
+    for (SegmentMetadata segmentMetadata : segmentMetadataList) {
+      if (segmentMetadata.getShardingKey() == null) {
+        throw new RuntimeException("Segment missing sharding key!");
+      }
+      List<String> selectedInstanceList = new ArrayList<>();
       for (String instance : allInstances) {
-        if (HelixHelper.getInstanceConfigsMapFor(instance, helixClusterName, helixAdmin)
-            .get("shardingKey")
-            .equalsIgnoreCase(segmentMetadata.getShardingKey())) {
+        if (instanceToShardingKeyMap.get(instance).equalsIgnoreCase(segmentMetadata.getShardingKey())) {
           selectedInstanceList.add(instance);
         }
       }
       LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
           + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(
           selectedInstanceList.toArray()));
-      return selectedInstanceList;
-    } else {
-      throw new RuntimeException("Segment missing sharding key!");
+      assignment.put(segmentMetadata.getName(), selectedInstanceList);
     }
+    return assignment;
   }
 }
@@ -20,7 +20,10 @@ import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.helix.HelixHelper;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import org.apache.helix.HelixAdmin;
 import org.apache.helix.ZNRecord;
@@ -41,20 +44,34 @@ public class RandomAssignmentStrategy implements SegmentAssignmentStrategy {
   @Override
   public List<String> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
       String helixClusterName, SegmentMetadata segmentMetadata, int numReplicas, String tenantName) {
+    return getAssignedInstances(helixAdmin, propertyStore, helixClusterName,
+        Collections.singletonList(segmentMetadata), numReplicas, tenantName).get(segmentMetadata.getName());
+  }
+
+  @Override
+  public Map<String, List<String>> getAssignedInstances(HelixAdmin helixAdmin,
+      ZkHelixPropertyStore<ZNRecord> propertyStore, String helixClusterName, List<SegmentMetadata> segmentMetadataList,
+      int numReplicas, String tenantName) {
     String serverTenantName = TagNameUtils.getOfflineTagForTenant(tenantName);
     final Random random = new Random(System.currentTimeMillis());
 
-    List<String> allInstanceList =
+    List<String> allTaggedInstances =
         HelixHelper.getEnabledInstancesWithTag(helixAdmin, helixClusterName, serverTenantName);
-    List<String> selectedInstanceList = new ArrayList<>();
-    for (int i = 0; i < numReplicas; ++i) {
-      final int idx = random.nextInt(allInstanceList.size());
-      selectedInstanceList.add(allInstanceList.get(idx));
-      allInstanceList.remove(idx);
+    Map<String, List<String>> assignment = new HashMap<>();
+    for (SegmentMetadata segmentMetadata : segmentMetadataList) {
+      List<String> allInstanceList = new ArrayList<>(allTaggedInstances);
+      List<String> selectedInstanceList = new ArrayList<>();
+      for (int i = 0; i < numReplicas; ++i) {
+        final int idx = random.nextInt(allInstanceList.size());
+        selectedInstanceList.add(allInstanceList.get(idx));
+        allInstanceList.remove(idx);
+      }
+      LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
+          + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(
+          selectedInstanceList.toArray()));
+      assignment.put(segmentMetadata.getName(), selectedInstanceList);
     }
-    LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
-        + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(selectedInstanceList.toArray()));
 
-    return selectedInstanceList;
+    return assignment;
   }
 }
@@ -25,7 +25,10 @@ import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import org.apache.helix.HelixAdmin;
 import org.apache.helix.ZNRecord;
@@ -49,7 +52,15 @@ public class ReplicaGroupSegmentAssignmentStrategy implements SegmentAssignmentS
   @Override
   public List<String> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
       String helixClusterName, SegmentMetadata segmentMetadata, int numReplicas, String tenantName) {
-    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadata.getTableName());
+    return getAssignedInstances(helixAdmin, propertyStore, helixClusterName,
+        Collections.singletonList(segmentMetadata), numReplicas, tenantName).get(segmentMetadata.getName());
+  }
+
+  @Override
+  public Map<String, List<String>> getAssignedInstances(HelixAdmin helixAdmin,
+      ZkHelixPropertyStore<ZNRecord> propertyStore, String helixClusterName, List<SegmentMetadata> segmentMetadataList,
+      int numReplicas, String tenantName) {
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(segmentMetadataList.get(0).getTableName());
 
     // Fetch the partition mapping table from the property store.
     ReplicaGroupPartitionAssignmentGenerator partitionAssignmentGenerator =
@@ -65,40 +76,45 @@ public class ReplicaGroupSegmentAssignmentStrategy implements SegmentAssignmentS
 
     String partitionColumn = replicaGroupStrategyConfig.getPartitionColumn();
 
-    int partitionNumber = 0;
-    if (partitionColumn != null) {
-      // TODO: Need to address when we have multiple partition numbers.
-      partitionNumber =
-          ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataFor(replicaGroupStrategyConfig.getPartitionColumn())
-              .getPartitionRanges()
-              .get(0)
-              .getMaximumInteger();
-    }
+    Map<String, List<String>> assignment = new HashMap<>();
+    for (SegmentMetadata segmentMetadata : segmentMetadataList) {
+      int partitionNumber = 0;
+      if (partitionColumn != null) {
+        // TODO: Need to address when we have multiple partition numbers.
+        partitionNumber =
+            ((SegmentMetadataImpl) segmentMetadata).getColumnMetadataFor(partitionColumn)
+                .getPartitionRanges()
+                .get(0)
+                .getMaximumInteger();
+      }
 
-    // Perform the segment assignment.
-    // If mirror assignment is on, we randomly pick the index and use the same index for all replica groups.
-    // Else, we randomly pick server from each replica group.
-    List<String> selectedInstanceList = new ArrayList<>();
-    int index = 0;
-    for (int groupId = 0; groupId < numReplicas; groupId++) {
-      List<String> instancesInReplicaGroup =
-          replicaGroupPartitionAssignment.getInstancesfromReplicaGroup(partitionNumber, groupId);
-      int numInstances = instancesInReplicaGroup.size();
-      if (mirrorAssignmentAcrossReplicaGroups) {
-        // Randomly pick the index and use the same index for all replica groups.
-        if (groupId == 0) {
+      // Perform the segment assignment.
+      // If mirror assignment is on, we randomly pick the index and use the same index for all replica groups.
+      // Else, we randomly pick server from each replica group.
+      List<String> selectedInstanceList = new ArrayList<>();
+      int index = 0;
+      for (int groupId = 0; groupId < numReplicas; groupId++) {
+        List<String> instancesInReplicaGroup =
+            replicaGroupPartitionAssignment.getInstancesfromReplicaGroup(partitionNumber, groupId);
+        int numInstances = instancesInReplicaGroup.size();
+        if (mirrorAssignmentAcrossReplicaGroups) {
+          // Randomly pick the index and use the same index for all replica groups.
+          if (groupId == 0) {
+            index = RANDOM.nextInt(numInstances);
+          }
+        } else {
+          // Randomly pick the index for all replica groups.
           index = RANDOM.nextInt(numInstances);
         }
-      } else {
-        // Randomly pick the index for all replica groups.
-        index = RANDOM.nextInt(numInstances);
+        selectedInstanceList.add(instancesInReplicaGroup.get(index));
       }
-      selectedInstanceList.add(instancesInReplicaGroup.get(index));
-    }
 
-    LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
-        + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(selectedInstanceList.toArray()));
+      LOGGER.info("Segment assignment result for : " + segmentMetadata.getName() + ", in resource : "
+          + segmentMetadata.getTableName() + ", selected instances: " + Arrays.toString(
+          selectedInstanceList.toArray()));
+      assignment.put(segmentMetadata.getName(), selectedInstanceList);
+    }
 
-    return selectedInstanceList;
+    return assignment;
   }
 }
@@ -17,6 +17,7 @@ package com.linkedin.pinot.controller.helix.core.sharding;
 
 import com.linkedin.pinot.common.segment.SegmentMetadata;
 import java.util.List;
+import java.util.Map;
 import org.apache.helix.HelixAdmin;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -32,6 +33,14 @@ public interface SegmentAssignmentStrategy {
   List<String> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
       String helixClusterName, SegmentMetadata segmentMetadata, int numReplicas, String tenantName);
 
+  /**
+   * Computes the assigned instances for a batch of segments of the same table in one pass, so that the cluster state
+   * is read only once per batch.
+   *
+   * @return Map from segment name to the assigned instances
+   */
+  Map<String, List<String>> getAssignedInstances(HelixAdmin helixAdmin, ZkHelixPropertyStore<ZNRecord> propertyStore,
+      String helixClusterName, List<SegmentMetadata> segmentMetadataList, int numReplicas, String tenantName);
 }
 
 
@@ -75,6 +75,24 @@ public class StorageQuotaChecker {
     Preconditions.checkArgument(timeoutMsec > 0, "Timeout value must be > 0, input: %s", timeoutMsec);
     Preconditions.checkArgument(segmentFile.exists(), "Segment file: %s does not exist", segmentFile);
     Preconditions.checkArgument(segmentFile.isDirectory(), "Segment file: %s is not a directory", segmentFile);
+    return isSegmentStorageWithinQuota(FileUtils.sizeOfDirectory(segmentFile), tableNameWithType, segmentName,
+        timeoutMsec);
+  }
+
+  /**
+   * check if a segment of the given size is within the storage quota
+   * @param incomingSegmentSizeBytes size of the untarred segment in bytes
+   * @param tableNameWithType table name with type (OFFLINE/REALTIME) information
+   * @param segmentName name of the segment being added
+   * @param timeoutMsec timeout in milliseconds for reading table sizes from server
+   *
+   */
+  public QuotaCheckerResponse isSegmentStorageWithinQuota(@Nonnegative long incomingSegmentSizeBytes,
+      @Nonnull String tableNameWithType, @Nonnull String segmentName, @Nonnegative int timeoutMsec)
+      throws InvalidConfigException {
+    Preconditions.checkNotNull(tableNameWithType);
+    Preconditions.checkNotNull(segmentName);
+    Preconditions.checkArgument(timeoutMsec > 0, "Timeout value must be > 0, input: %s", timeoutMsec);
 
     // 1. Read table config
     // 2. read table size from all the servers
@@ -99,8 +117,6 @@ public class StorageQuotaChecker {
     }
     _controllerMetrics.setValueOfTableGauge(tableName, ControllerGauge.TABLE_QUOTA, allowedStorageBytes);
 
-    long incomingSegmentSizeBytes = FileUtils.sizeOfDirectory(segmentFile);
-
     // read table size
     TableSizeReader.TableSubTypeSizeDetails tableSubtypeSize = null;
     try {
@@ -23,6 +23,7 @@ import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.config.TableNameBuilder;
 import com.linkedin.pinot.common.partition.ReplicaGroupPartitionAssignment;
 import com.linkedin.pinot.common.partition.ReplicaGroupPartitionAssignmentGenerator;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.ZkStarter;
 import com.linkedin.pinot.controller.helix.ControllerRequestBuilderUtil;
@@ -31,7 +32,9 @@ import com.linkedin.pinot.controller.helix.core.util.HelixSetupUtils;
 import com.linkedin.pinot.controller.helix.starter.HelixConfig;
 import com.linkedin.pinot.controller.utils.ReplicaGroupTestUtils;
 import com.linkedin.pinot.controller.utils.SegmentMetadataMockUtils;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -48,6 +51,7 @@ public class SegmentAssignmentStrategyTest {
   private final static String ZK_SERVER = ZkStarter.DEFAULT_ZK_STR;
   private final static String HELIX_CLUSTER_NAME = "TestSegmentAssignmentStrategyHelix";
   private final static String TABLE_NAME_BALANCED = "testResourceBalanced";
+  private final static String TABLE_NAME_BALANCED_BATCH = "testResourceBalancedBatch";
   private final static String TABLE_NAME_RANDOM = "testResourceRandom";
   private final static String TABLE_NAME_REPLICA_GROUP_PARTITION_ASSIGNMENT = "testReplicaGroupPartitionAssignment";
   private final static String TABLE_NAME_TABLE_LEVEL_REPLICA_GROUP = "testTableLevelReplicaGroup";
@@ -195,6 +199,61 @@ public class SegmentAssignmentStrategyTest {
     _helixAdmin.dropResource(HELIX_CLUSTER_NAME, TableNameBuilder.OFFLINE.tableNameWithType(TABLE_NAME_BALANCED));
   }
 
+  @Test
+  public void testBalanceNumSegmentAssignmentStrategyBatch() throws Exception {
+    final int numReplicas = 3;
+
+    // Adding table
+    TableConfig tableConfig =
+        new TableConfig.Builder(CommonConstants.Helix.TableType.OFFLINE).setTableName(TABLE_NAME_BALANCED_BATCH)
+            .setSegmentAssignmentStrategy("BalanceNumSegmentAssignmentStrategy")
+            .setNumReplicas(numReplicas)
+            .build();
+    _pinotHelixResourceManager.addTable(tableConfig);
+
+    // Add all segments in one batch, the assignment should stay balanced within the batch
+    int numSegments = 20;
+    List<SegmentMetadata> segmentMetadataList = new ArrayList<>(numSegments);
+    List<String> downloadUrls = new ArrayList<>(numSegments);
+    for (int i = 0; i < numSegments; ++i) {
+      segmentMetadataList.add(SegmentMetadataMockUtils.mockSegmentMetadata(TABLE_NAME_BALANCED_BATCH));
+      downloadUrls.add("downloadUrl");
+    }
+    _pinotHelixResourceManager.addNewSegments(segmentMetadataList, downloadUrls);
+
+    String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(TABLE_NAME_BALANCED_BATCH);
+    Assert.assertEquals(_pinotHelixResourceManager.getSegmentsFor(offlineTableName).size(), numSegments);
+    Assert.assertTrue(allSegmentsPushedToIdealState(TABLE_NAME_BALANCED_BATCH, numSegments));
+
+    final Set<String> taggedInstances =
+        _pinotHelixResourceManager.getAllInstancesForServerTenant("DefaultTenant_OFFLINE");
+    final Map<String, Integer> instance2NumSegmentsMap = new HashMap<>();
+    for (final String instance : taggedInstances) {
+      instance2NumSegmentsMap.put(instance, 0);
+    }
+    final IdealState idealState = _helixAdmin.getResourceIdealState(HELIX_CLUSTER_NAME, offlineTableName);
+    Assert.assertEquals(idealState.getNumPartitions(), numSegments);
+    for (final String segmentId : idealState.getPartitionSet()) {
+      Assert.assertEquals(idealState.getInstanceStateMap(segmentId).size(), numReplicas);
+      for (final String instance : idealState.getInstanceStateMap(segmentId).keySet()) {
+        instance2NumSegmentsMap.put(instance, instance2NumSegmentsMap.get(instance) + 1);
+      }
+    }
+    final int totalSegments = numSegments * numReplicas;
+    final int minNumSegmentsPerInstance = totalSegments / _numServerInstance;
+    int maxNumSegmentsPerInstance = minNumSegmentsPerInstance;
+    if ((minNumSegmentsPerInstance * _numServerInstance) < totalSegments) {
+      maxNumSegmentsPerInstance = maxNumSegmentsPerInstance + 1;
+    }
+    for (final String instance : instance2NumSegmentsMap.keySet()) {
+      Assert.assertTrue(instance2NumSegmentsMap.get(instance) >= minNumSegmentsPerInstance,
+          "expected >=" + minNumSegmentsPerInstance + " actual:" + instance2NumSegmentsMap.get(instance));
+      Assert.assertTrue(instance2NumSegmentsMap.get(instance) <= maxNumSegmentsPerInstance,
+          "expected <=" + maxNumSegmentsPerInstance + " actual:" + instance2NumSegmentsMap.get(instance));
+    }
+    _helixAdmin.dropResource(HELIX_CLUSTER_NAME, offlineTableName);
+  }
+
   @Test
   public void testReplicaGroupPartitionAssignment() throws Exception {
     String tableNameWithType = TableNameBuilder.OFFLINE.tableNameWithType(TABLE_NAME_REPLICA_GROUP_PARTITION_ASSIGNMENT);
@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.common;
 
 import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.segment.index.readers.BitmapRangeIndexReader;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 
@@ -25,5 +26,7 @@ public abstract class DataSource extends BaseOperator {
 
   public abstract InvertedIndexReader getInvertedIndex();
 
+  public abstract BitmapRangeIndexReader getRangeIndex();
+
   public abstract Dictionary getDictionary();
 }
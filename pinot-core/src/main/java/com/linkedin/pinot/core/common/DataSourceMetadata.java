@@ -32,5 +32,7 @@ public interface DataSourceMetadata {
 
   boolean hasInvertedIndex();
 
+  boolean hasRangeIndex();
+
   boolean hasDictionary();
 }
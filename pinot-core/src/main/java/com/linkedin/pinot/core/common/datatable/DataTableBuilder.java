@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.Selection;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import java.io.ByteArrayOutputStream;
@@ -79,6 +80,15 @@ import javax.annotation.Nonnull;
 // TODO:   2. Use one dictionary for all columns (save space).
 // TODO:   3. Given a data schema, write all values one by one instead of using rowId and colId to position (save time).
 public class DataTableBuilder {
+  public static final int VERSION_2 = 2;
+  public static final int VERSION_3 = 3;
+
+  // Version and compression settings of the data tables built on this server
+  private static volatile int _currentVersion = VERSION_2;
+  private static volatile ChunkCompressorFactory.CompressionType _compressionType =
+      ChunkCompressorFactory.CompressionType.LZ4;
+  private static volatile int _compressionThresholdBytes = 0;
+
   private final DataSchema _dataSchema;
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
@@ -267,8 +277,45 @@ public class DataTableBuilder {
   }
 
   public DataTable build() {
-    return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    switch (_currentVersion) {
+      case VERSION_2:
+        return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
+            _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+      case VERSION_3:
+        return new DataTableImplV3(_numRows, _dataSchema, _reverseDictionaryMap,
+            _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray(),
+            _compressionType, _compressionThresholdBytes);
+      default:
+        throw new UnsupportedOperationException("Unsupported data table version: " + _currentVersion);
+    }
+  }
+
+  /**
+   * Set the version of the data tables to build. Version 3 should only be enabled after all the brokers are able to
+   * de-serialize it.
+   */
+  public static void setCurrentDataTableVersion(int version) {
+    if (version != VERSION_2 && version != VERSION_3) {
+      throw new IllegalArgumentException("Unsupported data table version: " + version);
+    }
+    _currentVersion = version;
+  }
+
+  public static int getCurrentDataTableVersion() {
+    return _currentVersion;
+  }
+
+  /**
+   * Set the compression of the data tables to build, only applies to version 3.
+   *
+   * @param compressionType Compression type for the fixed size data and variable size data
+   * @param compressionThresholdBytes Only compress when the total size of the fixed size data and variable size data is
+   *                                  no less than the threshold
+   */
+  public static void setCompression(@Nonnull ChunkCompressorFactory.CompressionType compressionType,
+      int compressionThresholdBytes) {
+    _compressionType = compressionType;
+    _compressionThresholdBytes = compressionThresholdBytes;
   }
 
   /**
@@ -298,7 +345,29 @@ public class DataTableBuilder {
     if (brokerRequest.isSetGroupBy()) {
       // Aggregation group-by query.
 
-      String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
+      if (_currentVersion >= VERSION_3) {
+        // Typed group key columns followed by the intermediate result columns, without any row.
+        // Group key columns are typed as STRING because the data types of the group-by expressions are unknown.
+        List<String> groupByExpressions = brokerRequest.getGroupBy().getExpressions();
+        int numGroupByExpressions = groupByExpressions.size();
+        int numColumns = numGroupByExpressions + numAggregations;
+        String[] columnNames = new String[numColumns];
+        DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numColumns];
+        for (int i = 0; i < numGroupByExpressions; i++) {
+          columnNames[i] = groupByExpressions.get(i);
+          columnDataTypes[i] = DataSchema.ColumnDataType.STRING;
+        }
+        for (int i = 0; i < numAggregations; i++) {
+          AggregationFunctionContext aggregationFunctionContext = aggregationFunctionContexts[i];
+          columnNames[numGroupByExpressions + i] = aggregationFunctionContext.getAggregationColumnName();
+          columnDataTypes[numGroupByExpressions + i] =
+              aggregationFunctionContext.getAggregationFunction().getIntermediateResultColumnType();
+        }
+        return new DataTableBuilder(new DataSchema(columnNames, columnDataTypes)).build();
+      }
+
+      String[] columnNames =
+          new String[]{DataTableUtils.GROUP_BY_FUNCTION_NAME_COLUMN, DataTableUtils.GROUP_BY_RESULT_MAP_COLUMN};
       DataSchema.ColumnDataType[] columnDataTypes =
           new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
 
@@ -20,6 +20,10 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 
+/**
+ * Factory to de-serialize data tables of all supported versions, so that brokers can read responses from servers
+ * running with either version. Brokers must be upgraded before servers are configured to send a newer version.
+ */
 public class DataTableFactory {
   private DataTableFactory() {
   }
@@ -29,8 +33,10 @@ public class DataTableFactory {
     ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
     int version = byteBuffer.getInt();
     switch (version) {
-      case 2:
+      case DataTableBuilder.VERSION_2:
         return new DataTableImplV2(byteBuffer);
+      case DataTableBuilder.VERSION_3:
+        return DataTableImplV3.fromByteBuffer(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
@@ -18,9 +18,7 @@ package com.linkedin.pinot.core.common.datatable;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -47,17 +45,15 @@ public class DataTableImplV2 implements DataTable {
   // VARIABLE_SIZE_DATA (START|SIZE)
   private static final int HEADER_SIZE = (Integer.SIZE / Byte.SIZE) * 13;
 
-  private final int _numRows;
-  private final int _numColumns;
-  private final DataSchema _dataSchema;
+  protected final int _numRows;
+  protected final int _numColumns;
+  protected final DataSchema _dataSchema;
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
-  private final Map<String, Map<Integer, String>> _dictionaryMap;
-  private final byte[] _fixedSizeDataBytes;
-  private final ByteBuffer _fixedSizeData;
-  private final byte[] _variableSizeDataBytes;
-  private final ByteBuffer _variableSizeData;
-  private final Map<String, String> _metadata;
+  protected final Map<String, Map<Integer, String>> _dictionaryMap;
+  protected final ByteBuffer _fixedSizeData;
+  protected final ByteBuffer _variableSizeData;
+  protected final Map<String, String> _metadata;
 
   /**
    * Construct data table with results. (Server side)
@@ -65,38 +61,45 @@ public class DataTableImplV2 implements DataTable {
   public DataTableImplV2(int numRows, @Nonnull DataSchema dataSchema,
       @Nonnull Map<String, Map<Integer, String>> dictionaryMap, @Nonnull byte[] fixedSizeDataBytes,
       @Nonnull byte[] variableSizeDataBytes) {
-    _numRows = numRows;
-    _numColumns = dataSchema.size();
-    _dataSchema = dataSchema;
-    _columnOffsets = new int[_numColumns];
-    _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
-    _dictionaryMap = dictionaryMap;
-    _fixedSizeDataBytes = fixedSizeDataBytes;
-    _fixedSizeData = ByteBuffer.wrap(fixedSizeDataBytes);
-    _variableSizeDataBytes = variableSizeDataBytes;
-    _variableSizeData = ByteBuffer.wrap(variableSizeDataBytes);
-    _metadata = new HashMap<>();
+    this(numRows, dataSchema, dictionaryMap, new HashMap<String, String>(), ByteBuffer.wrap(fixedSizeDataBytes),
+        ByteBuffer.wrap(variableSizeDataBytes));
   }
 
   /**
    * Construct empty data table. (Server side)
    */
   public DataTableImplV2() {
-    _numRows = 0;
-    _numColumns = 0;
-    _dataSchema = null;
-    _columnOffsets = null;
-    _rowSizeInBytes = 0;
-    _dictionaryMap = null;
-    _fixedSizeDataBytes = null;
-    _fixedSizeData = null;
-    _variableSizeDataBytes = null;
-    _variableSizeData = null;
-    _metadata = new HashMap<>();
+    this(0, null, null, new HashMap<String, String>(), null, null);
+  }
+
+  /**
+   * Construct data table from its deserialized parts, used by the data tables of the later versions which share the
+   * same in-memory layout.
+   */
+  protected DataTableImplV2(int numRows, @Nullable DataSchema dataSchema,
+      @Nullable Map<String, Map<Integer, String>> dictionaryMap, @Nonnull Map<String, String> metadata,
+      @Nullable ByteBuffer fixedSizeData, @Nullable ByteBuffer variableSizeData) {
+    _numRows = numRows;
+    _dataSchema = dataSchema;
+    if (dataSchema != null) {
+      _numColumns = dataSchema.size();
+      _columnOffsets = new int[_numColumns];
+      _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+    } else {
+      _numColumns = 0;
+      _columnOffsets = null;
+      _rowSizeInBytes = 0;
+    }
+    _dictionaryMap = dictionaryMap;
+    _metadata = metadata;
+    _fixedSizeData = fixedSizeData;
+    _variableSizeData = variableSizeData;
   }
 
   /**
    * Construct data table from byte array. (broker side)
+   * <p>The fixed size data and variable size data are not copied, but read directly from the given byte buffer, so the
+   * content of the byte buffer should not be modified after the data table is constructed.
    */
   public DataTableImplV2(@Nonnull ByteBuffer byteBuffer) throws IOException {
     // Read header.
@@ -115,19 +118,15 @@ public class DataTableImplV2 implements DataTable {
 
     // Read dictionary.
     if (dictionaryMapLength != 0) {
-      byte[] dictionaryMapBytes = new byte[dictionaryMapLength];
       byteBuffer.position(dictionaryMapStart);
-      byteBuffer.get(dictionaryMapBytes);
-      _dictionaryMap = deserializeDictionaryMap(dictionaryMapBytes);
+      _dictionaryMap = deserializeDictionaryMap(byteBuffer);
     } else {
       _dictionaryMap = null;
     }
 
     // Read metadata.
-    byte[] metadataBytes = new byte[metadataLength];
     byteBuffer.position(metadataStart);
-    byteBuffer.get(metadataBytes);
-    _metadata = deserializeMetadata(metadataBytes);
+    _metadata = deserializeMetadata(byteBuffer);
 
     // Read data schema.
     if (dataSchemaLength != 0) {
@@ -145,73 +144,74 @@ public class DataTableImplV2 implements DataTable {
 
     // Read fixed size data.
     if (fixedSizeDataLength != 0) {
-      _fixedSizeDataBytes = new byte[fixedSizeDataLength];
-      byteBuffer.position(fixedSizeDataStart);
-      byteBuffer.get(_fixedSizeDataBytes);
-      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+      _fixedSizeData = sliceByteBuffer(byteBuffer, fixedSizeDataStart, fixedSizeDataLength);
     } else {
-      _fixedSizeDataBytes = null;
       _fixedSizeData = null;
     }
 
     // Read variable size data.
     if (variableSizeDataLength != 0) {
-      _variableSizeDataBytes = new byte[variableSizeDataLength];
-      byteBuffer.position(variableSizeDataStart);
-      byteBuffer.get(_variableSizeDataBytes);
-      _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+      _variableSizeData = sliceByteBuffer(byteBuffer, variableSizeDataStart, variableSizeDataLength);
     } else {
-      _variableSizeDataBytes = null;
       _variableSizeData = null;
     }
   }
 
-  private Map<String, Map<Integer, String>> deserializeDictionaryMap(byte[] bytes) throws IOException {
-    try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-        DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
-      int numDictionaries = dataInputStream.readInt();
-      Map<String, Map<Integer, String>> dictionaryMap = new HashMap<>(numDictionaries);
-
-      for (int i = 0; i < numDictionaries; i++) {
-        String column = decodeString(dataInputStream);
-        int dictionarySize = dataInputStream.readInt();
-        Map<Integer, String> dictionary = new HashMap<>(dictionarySize);
-        for (int j = 0; j < dictionarySize; j++) {
-          int key = dataInputStream.readInt();
-          String value = decodeString(dataInputStream);
-          dictionary.put(key, value);
-        }
-        dictionaryMap.put(column, dictionary);
-      }
+  /**
+   * Helper method to get a slice (with capacity of the given length) of the byte buffer without copying the content.
+   */
+  protected static ByteBuffer sliceByteBuffer(ByteBuffer byteBuffer, int start, int length) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.position(start);
+    duplicate.limit(start + length);
+    return duplicate.slice();
+  }
 
-      return dictionaryMap;
+  protected static Map<String, Map<Integer, String>> deserializeDictionaryMap(ByteBuffer byteBuffer) {
+    int numDictionaries = byteBuffer.getInt();
+    Map<String, Map<Integer, String>> dictionaryMap = new HashMap<>(numDictionaries);
+
+    for (int i = 0; i < numDictionaries; i++) {
+      String column = decodeString(byteBuffer);
+      int dictionarySize = byteBuffer.getInt();
+      Map<Integer, String> dictionary = new HashMap<>(dictionarySize);
+      for (int j = 0; j < dictionarySize; j++) {
+        int key = byteBuffer.getInt();
+        String value = decodeString(byteBuffer);
+        dictionary.put(key, value);
+      }
+      dictionaryMap.put(column, dictionary);
     }
+
+    return dictionaryMap;
   }
 
-  private Map<String, String> deserializeMetadata(byte[] bytes) throws IOException {
-    try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-        DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
-      int numEntries = dataInputStream.readInt();
-      Map<String, String> metadata = new HashMap<>(numEntries);
+  protected static Map<String, String> deserializeMetadata(ByteBuffer byteBuffer) {
+    int numEntries = byteBuffer.getInt();
+    Map<String, String> metadata = new HashMap<>(numEntries);
 
-      for (int i = 0; i < numEntries; i++) {
-        String key = decodeString(dataInputStream);
-        String value = decodeString(dataInputStream);
-        metadata.put(key, value);
-      }
-
-      return metadata;
+    for (int i = 0; i < numEntries; i++) {
+      String key = decodeString(byteBuffer);
+      String value = decodeString(byteBuffer);
+      metadata.put(key, value);
     }
+
+    return metadata;
   }
 
-  private static String decodeString(DataInputStream dataInputStream) throws IOException {
-    int length = dataInputStream.readInt();
+  private static String decodeString(ByteBuffer byteBuffer) {
+    int length = byteBuffer.getInt();
     if (length == 0) {
       return StringUtils.EMPTY;
+    } else if (byteBuffer.hasArray()) {
+      // Decode directly from the backing array to avoid the extra copy
+      int position = byteBuffer.position();
+      String value = new String(byteBuffer.array(), byteBuffer.arrayOffset() + position, length, UTF_8);
+      byteBuffer.position(position + length);
+      return value;
     } else {
       byte[] buffer = new byte[length];
-      int numBytesRead = dataInputStream.read(buffer);
-      assert numBytesRead == length;
+      byteBuffer.get(buffer);
       return new String(buffer, UTF_8);
     }
   }
@@ -224,77 +224,82 @@ public class DataTableImplV2 implements DataTable {
   @Nonnull
   @Override
   public byte[] toBytes() throws IOException {
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-    dataOutputStream.writeInt(VERSION);
-    dataOutputStream.writeInt(_numRows);
-    dataOutputStream.writeInt(_numColumns);
+    return toByteBuffer(HEAP_BUFFER_ALLOCATOR).array();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The serialized bytes are written into a single pre-sized buffer, so that large data tables are not copied
+   * multiple times while growing the output buffer.
+   */
+  @Nonnull
+  @Override
+  public ByteBuffer toByteBuffer(@Nonnull BufferAllocator allocator) throws IOException {
+    byte[] dictionaryMapBytes = (_dictionaryMap != null) ? serializeDictionaryMap() : null;
+    byte[] metadataBytes = serializeMetadata();
+    byte[] dataSchemaBytes = (_dataSchema != null) ? _dataSchema.toBytes() : null;
+    int dictionaryMapLength = (dictionaryMapBytes != null) ? dictionaryMapBytes.length : 0;
+    int metadataLength = metadataBytes.length;
+    int dataSchemaLength = (dataSchemaBytes != null) ? dataSchemaBytes.length : 0;
+    int fixedSizeDataLength = (_fixedSizeData != null) ? _fixedSizeData.capacity() : 0;
+    int variableSizeDataLength = (_variableSizeData != null) ? _variableSizeData.capacity() : 0;
+
+    ByteBuffer byteBuffer = allocator.allocate(
+        HEADER_SIZE + dictionaryMapLength + metadataLength + dataSchemaLength + fixedSizeDataLength
+            + variableSizeDataLength);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
     int dataOffset = HEADER_SIZE;
 
     // Write dictionary.
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dictionaryMapBytes = null;
-    if (_dictionaryMap != null) {
-      dictionaryMapBytes = serializeDictionaryMap();
-      dataOutputStream.writeInt(dictionaryMapBytes.length);
-      dataOffset += dictionaryMapBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dictionaryMapLength);
+    dataOffset += dictionaryMapLength;
 
     // Write metadata.
-    dataOutputStream.writeInt(dataOffset);
-    byte[] metadataBytes = serializeMetadata();
-    dataOutputStream.writeInt(metadataBytes.length);
-    dataOffset += metadataBytes.length;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataLength);
+    dataOffset += metadataLength;
 
     // Write data schema.
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dataSchemaBytes = null;
-    if (_dataSchema != null) {
-      dataSchemaBytes = _dataSchema.toBytes();
-      dataOutputStream.writeInt(dataSchemaBytes.length);
-      dataOffset += dataSchemaBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
 
     // Write fixed size data.
-    dataOutputStream.writeInt(dataOffset);
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.writeInt(_fixedSizeDataBytes.length);
-      dataOffset += _fixedSizeDataBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(fixedSizeDataLength);
+    dataOffset += fixedSizeDataLength;
 
     // Write variable size data.
-    dataOutputStream.writeInt(dataOffset);
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.writeInt(_variableSizeDataBytes.length);
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(variableSizeDataLength);
 
     // Write actual data.
     if (dictionaryMapBytes != null) {
-      dataOutputStream.write(dictionaryMapBytes);
+      byteBuffer.put(dictionaryMapBytes);
     }
-    dataOutputStream.write(metadataBytes);
+    byteBuffer.put(metadataBytes);
     if (dataSchemaBytes != null) {
-      dataOutputStream.write(dataSchemaBytes);
+      byteBuffer.put(dataSchemaBytes);
     }
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.write(_fixedSizeDataBytes);
+    if (_fixedSizeData != null) {
+      ByteBuffer fixedSizeData = _fixedSizeData.duplicate();
+      fixedSizeData.clear();
+      byteBuffer.put(fixedSizeData);
     }
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.write(_variableSizeDataBytes);
+    if (_variableSizeData != null) {
+      ByteBuffer variableSizeData = _variableSizeData.duplicate();
+      variableSizeData.clear();
+      byteBuffer.put(variableSizeData);
     }
 
-    return byteArrayOutputStream.toByteArray();
+    byteBuffer.flip();
+    return byteBuffer;
   }
 
-  private byte[] serializeDictionaryMap() throws IOException {
+  protected byte[] serializeDictionaryMap() throws IOException {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
 
@@ -318,7 +323,7 @@ public class DataTableImplV2 implements DataTable {
     return byteArrayOutputStream.toByteArray();
   }
 
-  private byte[] serializeMetadata() throws IOException {
+  protected byte[] serializeMetadata() throws IOException {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
 
@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.common.datatable;
+
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.core.io.compression.ChunkCompressor;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
+import com.linkedin.pinot.core.io.compression.ChunkDecompressor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Data table version 3, which shares the in-memory layout with {@link DataTableImplV2}, but compresses the fixed size
+ * data and variable size data on the wire when their total size is above the compression threshold.
+ * <p>The compression type is stored in the header, and the uncompressed size of both compressed sections are stored
+ * along with their start and size so that the broker can allocate the exact buffers to de-compress into.
+ */
+public class DataTableImplV3 extends DataTableImplV2 {
+  private static final int VERSION = 3;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // COMPRESSION_TYPE
+  // DICTIONARY_MAP (START|SIZE)
+  // METADATA (START|SIZE)
+  // DATA_SCHEMA (START|SIZE)
+  // FIXED_SIZE_DATA (START|SIZE|UNCOMPRESSED_SIZE)
+  // VARIABLE_SIZE_DATA (START|SIZE|UNCOMPRESSED_SIZE)
+  private static final int HEADER_SIZE = (Integer.SIZE / Byte.SIZE) * 16;
+
+  private final ChunkCompressorFactory.CompressionType _compressionType;
+  private final int _compressionThresholdBytes;
+
+  /**
+   * Construct data table with results. (Server side)
+   *
+   * @param compressionType Compression type for the fixed size data and variable size data
+   * @param compressionThresholdBytes Only compress when the total size of the fixed size data and variable size data is
+   *                                  no less than the threshold
+   */
+  public DataTableImplV3(int numRows, @Nonnull DataSchema dataSchema,
+      @Nonnull Map<String, Map<Integer, String>> dictionaryMap, @Nonnull byte[] fixedSizeDataBytes,
+      @Nonnull byte[] variableSizeDataBytes, @Nonnull ChunkCompressorFactory.CompressionType compressionType,
+      int compressionThresholdBytes) {
+    super(numRows, dataSchema, dictionaryMap, new HashMap<String, String>(), ByteBuffer.wrap(fixedSizeDataBytes),
+        ByteBuffer.wrap(variableSizeDataBytes));
+    _compressionType = compressionType;
+    _compressionThresholdBytes = compressionThresholdBytes;
+  }
+
+  private DataTableImplV3(int numRows, @Nullable DataSchema dataSchema,
+      @Nullable Map<String, Map<Integer, String>> dictionaryMap, @Nonnull Map<String, String> metadata,
+      @Nullable ByteBuffer fixedSizeData, @Nullable ByteBuffer variableSizeData,
+      @Nonnull ChunkCompressorFactory.CompressionType compressionType) {
+    super(numRows, dataSchema, dictionaryMap, metadata, fixedSizeData, variableSizeData);
+    _compressionType = compressionType;
+    _compressionThresholdBytes = 0;
+  }
+
+  /**
+   * Construct data table from byte buffer positioned right after the version. (Broker side)
+   * <p>Uncompressed fixed size data and variable size data are not copied, but read directly from the given byte
+   * buffer.
+   */
+  @Nonnull
+  public static DataTableImplV3 fromByteBuffer(@Nonnull ByteBuffer byteBuffer) throws IOException {
+    // Read header.
+    int numRows = byteBuffer.getInt();
+    byteBuffer.getInt(); // Number of columns, same as the size of the data schema
+    ChunkCompressorFactory.CompressionType compressionType =
+        ChunkCompressorFactory.CompressionType.values()[byteBuffer.getInt()];
+    int dictionaryMapStart = byteBuffer.getInt();
+    int dictionaryMapLength = byteBuffer.getInt();
+    int metadataStart = byteBuffer.getInt();
+    byteBuffer.getInt(); // Metadata length, metadata is always serialized
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    int fixedSizeDataStart = byteBuffer.getInt();
+    int fixedSizeDataLength = byteBuffer.getInt();
+    int fixedSizeDataUncompressedLength = byteBuffer.getInt();
+    int variableSizeDataStart = byteBuffer.getInt();
+    int variableSizeDataLength = byteBuffer.getInt();
+    int variableSizeDataUncompressedLength = byteBuffer.getInt();
+
+    // Read dictionary.
+    Map<String, Map<Integer, String>> dictionaryMap = null;
+    if (dictionaryMapLength != 0) {
+      byteBuffer.position(dictionaryMapStart);
+      dictionaryMap = deserializeDictionaryMap(byteBuffer);
+    }
+
+    // Read metadata.
+    byteBuffer.position(metadataStart);
+    Map<String, String> metadata = deserializeMetadata(byteBuffer);
+
+    // Read data schema.
+    DataSchema dataSchema = null;
+    if (dataSchemaLength != 0) {
+      byte[] schemaBytes = new byte[dataSchemaLength];
+      byteBuffer.position(dataSchemaStart);
+      byteBuffer.get(schemaBytes);
+      dataSchema = DataSchema.fromBytes(schemaBytes);
+    }
+
+    // Read fixed size data and variable size data.
+    ChunkDecompressor decompressor = ChunkCompressorFactory.getDecompressor(compressionType);
+    ByteBuffer fixedSizeData = null;
+    if (fixedSizeDataLength != 0) {
+      fixedSizeData = readSection(byteBuffer, fixedSizeDataStart, fixedSizeDataLength, fixedSizeDataUncompressedLength,
+          compressionType, decompressor);
+    }
+    ByteBuffer variableSizeData = null;
+    if (variableSizeDataLength != 0) {
+      variableSizeData = readSection(byteBuffer, variableSizeDataStart, variableSizeDataLength,
+          variableSizeDataUncompressedLength, compressionType, decompressor);
+    }
+
+    return new DataTableImplV3(numRows, dataSchema, dictionaryMap, metadata, fixedSizeData, variableSizeData,
+        compressionType);
+  }
+
+  private static ByteBuffer readSection(ByteBuffer byteBuffer, int start, int length, int uncompressedLength,
+      ChunkCompressorFactory.CompressionType compressionType, ChunkDecompressor decompressor) throws IOException {
+    ByteBuffer section = sliceByteBuffer(byteBuffer, start, length);
+    if (compressionType == ChunkCompressorFactory.CompressionType.PASS_THROUGH) {
+      return section;
+    }
+    ByteBuffer uncompressedSection = ByteBuffer.allocate(uncompressedLength);
+    int decompressedLength = decompressor.decompress(section, uncompressedSection);
+    if (decompressedLength != uncompressedLength) {
+      throw new IOException(
+          "Illegal decompressed length: " + decompressedLength + ", expected: " + uncompressedLength);
+    }
+    uncompressedSection.clear();
+    return uncompressedSection;
+  }
+
+  @Nonnull
+  @Override
+  public ByteBuffer toByteBuffer(@Nonnull BufferAllocator allocator) throws IOException {
+    byte[] dictionaryMapBytes = (_dictionaryMap != null) ? serializeDictionaryMap() : null;
+    byte[] metadataBytes = serializeMetadata();
+    byte[] dataSchemaBytes = (_dataSchema != null) ? _dataSchema.toBytes() : null;
+    int dictionaryMapLength = (dictionaryMapBytes != null) ? dictionaryMapBytes.length : 0;
+    int metadataLength = metadataBytes.length;
+    int dataSchemaLength = (dataSchemaBytes != null) ? dataSchemaBytes.length : 0;
+    int fixedSizeDataUncompressedLength = (_fixedSizeData != null) ? _fixedSizeData.capacity() : 0;
+    int variableSizeDataUncompressedLength = (_variableSizeData != null) ? _variableSizeData.capacity() : 0;
+
+    // Compress the fixed size data and variable size data if they are large enough, and only keep the compressed
+    // results if they are actually smaller than the uncompressed data.
+    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.PASS_THROUGH;
+    ByteBuffer fixedSizeData = getSection(_fixedSizeData);
+    ByteBuffer variableSizeData = getSection(_variableSizeData);
+    int uncompressedLength = fixedSizeDataUncompressedLength + variableSizeDataUncompressedLength;
+    if (_compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH && uncompressedLength > 0
+        && uncompressedLength >= _compressionThresholdBytes) {
+      ChunkCompressor compressor = ChunkCompressorFactory.getCompressor(_compressionType);
+      ByteBuffer compressedFixedSizeData = compressSection(fixedSizeData, compressor);
+      ByteBuffer compressedVariableSizeData = compressSection(variableSizeData, compressor);
+      if (getLength(compressedFixedSizeData) + getLength(compressedVariableSizeData) < uncompressedLength) {
+        compressionType = _compressionType;
+        fixedSizeData = compressedFixedSizeData;
+        variableSizeData = compressedVariableSizeData;
+      }
+    }
+    int fixedSizeDataLength = getLength(fixedSizeData);
+    int variableSizeDataLength = getLength(variableSizeData);
+
+    ByteBuffer byteBuffer = allocator.allocate(
+        HEADER_SIZE + dictionaryMapLength + metadataLength + dataSchemaLength + fixedSizeDataLength
+            + variableSizeDataLength);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    byteBuffer.putInt(compressionType.getValue());
+    int dataOffset = HEADER_SIZE;
+
+    // Write dictionary.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dictionaryMapLength);
+    dataOffset += dictionaryMapLength;
+
+    // Write metadata.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataLength);
+    dataOffset += metadataLength;
+
+    // Write data schema.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaLength);
+    dataOffset += dataSchemaLength;
+
+    // Write fixed size data.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(fixedSizeDataLength);
+    byteBuffer.putInt(fixedSizeDataUncompressedLength);
+    dataOffset += fixedSizeDataLength;
+
+    // Write variable size data.
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(variableSizeDataLength);
+    byteBuffer.putInt(variableSizeDataUncompressedLength);
+
+    // Write actual data.
+    if (dictionaryMapBytes != null) {
+      byteBuffer.put(dictionaryMapBytes);
+    }
+    byteBuffer.put(metadataBytes);
+    if (dataSchemaBytes != null) {
+      byteBuffer.put(dataSchemaBytes);
+    }
+    if (fixedSizeData != null) {
+      byteBuffer.put(fixedSizeData);
+    }
+    if (variableSizeData != null) {
+      byteBuffer.put(variableSizeData);
+    }
+
+    byteBuffer.flip();
+    return byteBuffer;
+  }
+
+  /**
+   * Helper method to get the whole content of the section ready for read without modifying the original buffer.
+   */
+  @Nullable
+  private static ByteBuffer getSection(@Nullable ByteBuffer data) {
+    if (data == null) {
+      return null;
+    }
+    ByteBuffer section = data.duplicate();
+    section.clear();
+    return section;
+  }
+
+  @Nullable
+  private static ByteBuffer compressSection(@Nullable ByteBuffer section, ChunkCompressor compressor)
+      throws IOException {
+    if (section == null || !section.hasRemaining()) {
+      return section;
+    }
+    ByteBuffer compressedSection = ByteBuffer.allocate(compressor.maxCompressedSize(section.remaining()));
+    compressor.compress(section.duplicate(), compressedSection);
+    return compressedSection;
+  }
+
+  private static int getLength(@Nullable ByteBuffer section) {
+    return (section != null) ? section.remaining() : 0;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.common.datatable;
 
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.utils.DataSchema;
 import javax.annotation.Nonnull;
 
@@ -23,6 +24,11 @@ import javax.annotation.Nonnull;
  * The <code>DataTableUtils</code> class provides utility methods for data table.
  */
 public class DataTableUtils {
+  // Column names for the aggregation group-by data table with one row per aggregation function, where each row holds
+  // the aggregation column name and a map from string group key to intermediate result
+  public static final String GROUP_BY_FUNCTION_NAME_COLUMN = "functionName";
+  public static final String GROUP_BY_RESULT_MAP_COLUMN = "GroupByResultMap";
+
   private DataTableUtils() {
   }
 
@@ -68,4 +74,39 @@ public class DataTableUtils {
 
     return rowSizeInBytes;
   }
+
+  /**
+   * Returns whether the given aggregation group-by data schema has typed group key columns, i.e. one row per group with
+   * the group key columns followed by one intermediate result column per aggregation function, instead of one row per
+   * aggregation function with a map from string group key to intermediate result.
+   *
+   * @param dataSchema data schema of the aggregation group-by data table.
+   * @return whether the data schema has typed group key columns.
+   */
+  public static boolean hasTypedGroupKeyColumns(@Nonnull DataSchema dataSchema) {
+    return !(dataSchema.size() == 2 && GROUP_BY_RESULT_MAP_COLUMN.equals(dataSchema.getColumnName(1)));
+  }
+
+  /**
+   * Given the data type of a group-by expression, returns the column data type of the group key column. Data types
+   * without a matching numeric column data type are stored as STRING, the same as inside the string group keys.
+   *
+   * @param dataType data type of the group-by expression.
+   * @return column data type of the group key column.
+   */
+  @Nonnull
+  public static DataSchema.ColumnDataType getGroupKeyColumnDataType(@Nonnull FieldSpec.DataType dataType) {
+    switch (dataType) {
+      case INT:
+        return DataSchema.ColumnDataType.INT;
+      case LONG:
+        return DataSchema.ColumnDataType.LONG;
+      case FLOAT:
+        return DataSchema.ColumnDataType.FLOAT;
+      case DOUBLE:
+        return DataSchema.ColumnDataType.DOUBLE;
+      default:
+        return DataSchema.ColumnDataType.STRING;
+    }
+  }
 }
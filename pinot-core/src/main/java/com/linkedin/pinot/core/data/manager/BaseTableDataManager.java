@@ -23,12 +23,16 @@ import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
 import com.linkedin.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -50,6 +54,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
   protected String _tableDataDir;
   protected File _indexDir;
   protected Logger _logger;
+  protected volatile SegmentResultCache _segmentResultCache;
 
   @Override
   public void init(@Nonnull TableDataManagerConfig tableDataManagerConfig, @Nonnull String instanceId,
@@ -90,11 +95,27 @@ public abstract class BaseTableDataManager implements TableDataManager {
   public void shutDown() {
     _logger.info("Shutting down table data manager for table: {}", _tableNameWithType);
     doShutdown();
+    removeLazyColumnLoadingGauges();
     _logger.info("Shut down table data manager for table: {}", _tableNameWithType);
   }
 
   protected abstract void doShutdown();
 
+  @Override
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+  }
+
+  /**
+   * Invalidates the cached results of the given segment, should be called when the segment is replaced or removed.
+   */
+  protected void invalidateSegmentResults(@Nonnull String segmentName) {
+    SegmentResultCache segmentResultCache = _segmentResultCache;
+    if (segmentResultCache != null) {
+      segmentResultCache.invalidate(_tableNameWithType, segmentName);
+    }
+  }
+
   /**
    * {@inheritDoc}
    * <p>If one segment already exists with the same name, replaces it with the new one.
@@ -111,6 +132,10 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _serverMetrics.addValueToTableGauge(_tableNameWithType, ServerGauge.DOCUMENT_COUNT,
         immutableSegment.getSegmentMetadata().getTotalRawDocs());
     _serverMetrics.addValueToTableGauge(_tableNameWithType, ServerGauge.SEGMENT_COUNT, 1L);
+    if (immutableSegment instanceof ImmutableSegmentImpl
+        && ((ImmutableSegmentImpl) immutableSegment).isLazyColumnLoading()) {
+      addLazyColumnLoadingGauges();
+    }
 
     ImmutableSegmentDataManager newSegmentManager = new ImmutableSegmentDataManager(immutableSegment);
     SegmentDataManager oldSegmentManager = _segmentDataManagerMap.put(segmentName, newSegmentManager);
@@ -118,10 +143,78 @@ public abstract class BaseTableDataManager implements TableDataManager {
       _logger.info("Added new immutable segment: {} to table: {}", segmentName, _tableNameWithType);
     } else {
       _logger.info("Replaced immutable segment: {} of table: {}", segmentName, _tableNameWithType);
+      invalidateSegmentResults(segmentName);
       releaseSegment(oldSegmentManager);
     }
   }
 
+  /**
+   * Adds the gauges for the number of loaded columns and the number of column index accesses over the segments whose
+   * column indexes are loaded lazily. The gauges are removed when the table data manager shuts down.
+   */
+  private void addLazyColumnLoadingGauges() {
+    _serverMetrics.addCallbackTableGaugeIfNeeded(_tableNameWithType, ServerGauge.LAZILY_LOADED_COLUMNS,
+        new Callable<Long>() {
+          @Override
+          public Long call() {
+            long numLoadedColumns = 0L;
+            for (SegmentDataManager segmentDataManager : _segmentDataManagerMap.values()) {
+              // Acquire the segment so that it does not get destroyed while being read
+              if (segmentDataManager.increaseReferenceCount()) {
+                try {
+                  ImmutableSegmentImpl segment = getLazilyLoadedSegment(segmentDataManager);
+                  if (segment != null) {
+                    numLoadedColumns += segment.getNumLoadedColumns();
+                  }
+                } finally {
+                  releaseSegment(segmentDataManager);
+                }
+              }
+            }
+            return numLoadedColumns;
+          }
+        });
+    _serverMetrics.addCallbackTableGaugeIfNeeded(_tableNameWithType, ServerGauge.LAZY_COLUMN_INDEX_ACCESSES,
+        new Callable<Long>() {
+          @Override
+          public Long call() {
+            long numAccesses = 0L;
+            for (SegmentDataManager segmentDataManager : _segmentDataManagerMap.values()) {
+              // Acquire the segment so that it does not get destroyed while being read
+              if (segmentDataManager.increaseReferenceCount()) {
+                try {
+                  ImmutableSegmentImpl segment = getLazilyLoadedSegment(segmentDataManager);
+                  if (segment != null) {
+                    for (long numColumnAccesses : segment.getColumnAccessCounts().values()) {
+                      numAccesses += numColumnAccesses;
+                    }
+                  }
+                } finally {
+                  releaseSegment(segmentDataManager);
+                }
+              }
+            }
+            return numAccesses;
+          }
+        });
+  }
+
+  private void removeLazyColumnLoadingGauges() {
+    _serverMetrics.removeTableGauge(_tableNameWithType, ServerGauge.LAZILY_LOADED_COLUMNS);
+    _serverMetrics.removeTableGauge(_tableNameWithType, ServerGauge.LAZY_COLUMN_INDEX_ACCESSES);
+  }
+
+  @Nullable
+  private static ImmutableSegmentImpl getLazilyLoadedSegment(SegmentDataManager segmentDataManager) {
+    if (segmentDataManager.getSegment() instanceof ImmutableSegmentImpl) {
+      ImmutableSegmentImpl segment = (ImmutableSegmentImpl) segmentDataManager.getSegment();
+      if (segment.isLazyColumnLoading()) {
+        return segment;
+      }
+    }
+    return null;
+  }
+
   @Override
   public void addSegment(@Nonnull File indexDir, @Nonnull IndexLoadingConfig indexLoadingConfig) throws Exception {
     throw new UnsupportedOperationException();
@@ -143,6 +236,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
   public void removeSegment(@Nonnull String segmentName) {
     _logger.info("Removing segment: {} from table: {}", segmentName, _tableNameWithType);
     SegmentDataManager segmentDataManager = _segmentDataManagerMap.remove(segmentName);
+    invalidateSegmentResults(segmentName);
     if (segmentDataManager != null) {
       releaseSegment(segmentDataManager);
       _logger.info("Removed segment: {} from table: {}", segmentName, _tableNameWithType);
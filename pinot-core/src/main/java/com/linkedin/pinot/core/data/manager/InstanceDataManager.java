@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.data.manager;
 
 import com.linkedin.pinot.common.data.DataManager;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import java.util.Collection;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -37,4 +38,9 @@ public interface InstanceDataManager extends DataManager {
 
   @Nonnull
   Collection<TableDataManager> getTableDataManagers();
+
+  /**
+   * Sets the segment level result cache on all the existing and future table data managers.
+   */
+  void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache);
 }
@@ -19,10 +19,12 @@ import com.linkedin.pinot.common.config.TableConfig;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
 import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import java.io.File;
 import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
@@ -52,6 +54,12 @@ public interface TableDataManager {
    */
   void shutDown();
 
+  /**
+   * Sets the segment level result cache, whose cached results are invalidated when segments are added, replaced or
+   * removed.
+   */
+  void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache);
+
   /**
    * Adds a loaded immutable segment into the table.
    */
@@ -46,5 +46,9 @@ public interface InstanceDataManagerConfig {
 
   boolean isDirectRealtimeOffheapAllocation();
 
+  int getRealtimeDecodeParallelism();
+
+  boolean isLazyColumnLoading();
+
   int getMaxParallelSegmentBuilds();
 }
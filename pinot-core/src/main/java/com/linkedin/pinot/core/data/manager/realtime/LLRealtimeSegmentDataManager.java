@@ -58,6 +58,8 @@ import com.yammer.metrics.core.Meter;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -177,6 +179,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
   private static final int BUILD_TIME_LEASE_SECONDS = 30;
   private static final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
+  // Rows are indexed into the consuming segment in batches of up to this many rows.
+  private static final int MAX_NUM_ROWS_PER_INDEX_BATCH = 1000;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
@@ -216,6 +220,14 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _segmentName;
   private final PlainFieldExtractor _fieldExtractor;
+  // Decodes and transforms the messages on multiple threads if configured, null to do it on the consumer thread.
+  private final ParallelMessageBatchDecoder _parallelDecoder;
+  private final List<PlainFieldExtractor> _fieldExtractors;
+  // With metrics aggregation, rows can be aggregated into existing documents, so they are indexed one at a time to
+  // keep the count of indexed rows exact.
+  private final int _maxNumRowsPerIndexBatch;
+  private final List<GenericRow> _rowsToIndex;
+  private final GenericRow[] _reusableRows;
   private PinotStreamConsumer _consumerWrapper = null;
   private final File _resourceTmpDir;
   private final String _tableName;
@@ -252,7 +264,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         // We need to consume as much data as available, until we have either reached the max number of rows or
         // the max time we are allowed to consume.
         if (now >= _consumeEndTime) {
-          if (_realtimeSegment.getNumDocsIndexed() == 0) {
+          if (_realtimeSegment.getNumDocsIndexed() == 0 && _rowsToIndex.isEmpty()) {
             segmentLogger.info("No events came in, extending time by {} hours", TIME_EXTENSION_ON_EMPTY_SEGMENT_HOURS);
             _consumeEndTime += TimeUnit.HOURS.toMillis(TIME_EXTENSION_ON_EMPTY_SEGMENT_HOURS);
             return false;
@@ -320,7 +332,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   protected boolean consumeLoop() throws Exception {
-    _fieldExtractor.resetCounters();
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      fieldExtractor.resetCounters();
+    }
     final long idlePipeSleepTimeMillis = 100;
     final long maxIdleCountBeforeStatUpdate = (3 * 60 * 1000)/(idlePipeSleepTimeMillis + _streamMetadata.getKafkaFetchTimeoutMillis());  // 3 minute count
     long lastUpdatedOffset = _currentOffset;  // so that we always update the metric when we enter this method.
@@ -373,14 +387,17 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       }
     }
 
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS,
-        (long) _fieldExtractor.getTotalErrors());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS,
-        (long) _fieldExtractor.getTotalConversions());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNulls());
-    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES,
-        (long) _fieldExtractor.getTotalNullCols());
+    long numErrors = 0, numConversions = 0, numNulls = 0, numNullCols = 0;
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      numErrors += fieldExtractor.getTotalErrors();
+      numConversions += fieldExtractor.getTotalConversions();
+      numNulls += fieldExtractor.getTotalNulls();
+      numNullCols += fieldExtractor.getTotalNullCols();
+    }
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_ERRORS, numErrors);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_NEEDING_CONVERSIONS, numConversions);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.ROWS_WITH_NULL_VALUES, numNulls);
+    _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.COLUMNS_WITH_NULL_VALUES, numNullCols);
     return true;
   }
 
@@ -392,63 +409,97 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     int streamMessageCount = 0;
     boolean canTakeMore = true;
     GenericRow decodedRow = null;
-    GenericRow transformedRow = null;
-    for (int index = 0; index < messagesAndOffsets.getMessageCount(); index ++) {
-      if (_shouldStop || endCriteriaReached()) {
-        break;
-      }
-      if (!canTakeMore) {
-        // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
-        // rows. This can happen in one of two conditions:
-        // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
-        //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
-        //    we hit the row limit.
-        //    Throw an exception.
-        //
-        // 2. We are in CATCHING_UP state, and we legally hit this error due to Kafka unclean leader election where
-        //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
-        //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
-        //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
-        //    is a rare case, and we really don't know how to handle this at this time.
-        //    Throw an exception.
-        //
-        segmentLogger.error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed,
-            _numRowsIndexed, _segmentMaxRowCount);
-        throw new RuntimeException("Realtime segment full");
-      }
-
-      // Index each message
-      decodedRow = GenericRow.createOrReuseRow(decodedRow);
-
-      decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), decodedRow);
+    // With parallel decoding, the messages are decoded and transformed ahead of indexing, and read back in order.
+    ParallelMessageBatchDecoder.DecodedBatch decodedBatch =
+        _parallelDecoder != null ? _parallelDecoder.decode(messagesAndOffsets) : null;
+    try {
+      for (int index = 0; index < messagesAndOffsets.getMessageCount(); index ++) {
+        if (_shouldStop || endCriteriaReached()) {
+          break;
+        }
+        if (!canTakeMore) {
+          // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
+          // rows. This can happen in one of two conditions:
+          // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to
+          //    consume for this row. Something is seriously wrong, because endCriteriaReached() should have returned
+          //    true when we hit the row limit.
+          //    Throw an exception.
+          //
+          // 2. We are in CATCHING_UP state, and we legally hit this error due to Kafka unclean leader election where
+          //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
+          //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
+          //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
+          //    is a rare case, and we really don't know how to handle this at this time.
+          //    Throw an exception.
+          //
+          segmentLogger.error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed,
+              _numRowsIndexed, _segmentMaxRowCount);
+          throw new RuntimeException("Realtime segment full");
+        }
 
-      if (decodedRow != null) {
-        transformedRow = GenericRow.createOrReuseRow(transformedRow);
-        transformedRow = _fieldExtractor.transform(decodedRow, transformedRow);
+        // Index each message
+        GenericRow row;
+        if (decodedBatch != null) {
+          row = decodedBatch.getRow(index);
+        } else {
+          decodedRow = GenericRow.createOrReuseRow(decodedRow);
+
+          decodedRow = _messageDecoder
+              .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
+                  messagesAndOffsets.getMessageLengthAtIndex(index), decodedRow);
+
+          if (decodedRow != null) {
+            // Rows pending in the index batch cannot be reused
+            int rowId = _rowsToIndex.size();
+            row = GenericRow.createOrReuseRow(_reusableRows[rowId]);
+            row = _fieldExtractor.transform(decodedRow, row);
+            _reusableRows[rowId] = row;
+          } else {
+            row = null;
+          }
+        }
 
-        if (transformedRow != null) {
+        if (row != null) {
           realtimeRowsConsumedMeter = _serverMetrics
               .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1, realtimeRowsConsumedMeter);
           indexedMessageCount++;
+
+          _rowsToIndex.add(row);
+          if (_rowsToIndex.size() == _maxNumRowsPerIndexBatch) {
+            canTakeMore = _realtimeSegment.index(_rowsToIndex);
+            _rowsToIndex.clear();
+          }
         } else {
           realtimeRowsDroppedMeter = _serverMetrics
               .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
                   realtimeRowsDroppedMeter);
         }
 
-        canTakeMore = _realtimeSegment.index(transformedRow);
-      } else {
-        realtimeRowsDroppedMeter = _serverMetrics
-            .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                realtimeRowsDroppedMeter);
+        _currentOffset = messagesAndOffsets.getNextStreamMessageOffsetAtIndex(index);
+        // Rows pending in the index batch are counted as indexed, so that the end criteria are checked exactly as if
+        // each row was indexed right away. Each of them makes a new document, as there is no metrics aggregation when
+        // indexing in batches.
+        _numRowsIndexed = _realtimeSegment.getNumDocsIndexed() + _rowsToIndex.size();
+        _numRowsConsumed++;
+        streamMessageCount++;
+      }
+      // Index the pending rows before returning, as the current offset already includes them
+      if (!_rowsToIndex.isEmpty()) {
+        canTakeMore = _realtimeSegment.index(_rowsToIndex);
+        _rowsToIndex.clear();
+        if (!canTakeMore) {
+          // Same as the buffer full check before indexing each message, but there is no next message to check it
+          segmentLogger.error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed,
+              _segmentMaxRowCount, _realtimeSegment.getNumDocsIndexed());
+          throw new RuntimeException("Realtime segment full");
+        }
+      }
+    } finally {
+      _rowsToIndex.clear();
+      if (decodedBatch != null) {
+        // Make sure the decoders are idle before decoding the next batch.
+        decodedBatch.close();
       }
-
-      _currentOffset = messagesAndOffsets.getNextStreamMessageOffsetAtIndex(index);
-      _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
-      _numRowsConsumed++;
-      streamMessageCount++;
     }
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
@@ -928,6 +979,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     } catch (InterruptedException e) {
       segmentLogger.error("Could not stop consumer thread");
     }
+    if (_parallelDecoder != null) {
+      _parallelDecoder.shutDown();
+    }
     _realtimeSegment.destroy();
     try {
       _consumerWrapper.close();
@@ -1050,6 +1104,10 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     _isOffHeap = indexLoadingConfig.isRealtimeOffheapAllocation();
 
+    _maxNumRowsPerIndexBatch = indexingConfig.getAggregateMetrics() ? 1 : MAX_NUM_ROWS_PER_INDEX_BATCH;
+    _rowsToIndex = new ArrayList<>(_maxNumRowsPerIndexBatch);
+    _reusableRows = new GenericRow[_maxNumRowsPerIndexBatch];
+
     // Start new realtime segment
     RealtimeSegmentConfig.Builder realtimeSegmentConfigBuilder =
         new RealtimeSegmentConfig.Builder().setSegmentName(_segmentNameStr)
@@ -1071,6 +1129,25 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     // Create field extractor
     _fieldExtractor = FieldExtractorFactory.getPlainFieldExtractor(schema);
+
+    // Create one decoder and field extractor per worker if decoding runs on multiple threads
+    int decodeParallelism = indexLoadingConfig.getRealtimeDecodeParallelism();
+    if (decodeParallelism > 1) {
+      List<StreamMessageDecoder> messageDecoders = new ArrayList<>(decodeParallelism);
+      List<PlainFieldExtractor> fieldExtractors = new ArrayList<>(decodeParallelism);
+      messageDecoders.add(_messageDecoder);
+      fieldExtractors.add(_fieldExtractor);
+      for (int i = 1; i < decodeParallelism; i++) {
+        messageDecoders.add(_pinotStreamConsumerFactory.getDecoder(kafkaStreamProviderConfig));
+        fieldExtractors.add(FieldExtractorFactory.getPlainFieldExtractor(schema));
+      }
+      segmentLogger.info("Decoding messages with {} threads", decodeParallelism);
+      _parallelDecoder = new ParallelMessageBatchDecoder(messageDecoders, fieldExtractors, _segmentNameStr);
+      _fieldExtractors = _parallelDecoder.getFieldExtractors();
+    } else {
+      _parallelDecoder = null;
+      _fieldExtractors = Collections.singletonList(_fieldExtractor);
+    }
     makeConsumerWrapper("Starting");
 
     SegmentPartitionConfig segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
@@ -1104,28 +1181,39 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   private void logStatistics() {
-    int numErrors, numConversions, numNulls, numNullCols;
-    if ((numErrors = _fieldExtractor.getTotalErrors()) > 0) {
+    int numErrors = 0, numConversions = 0, numNulls = 0, numNullCols = 0;
+    Map<String, Integer> errorCount = new HashMap<>();
+    for (PlainFieldExtractor fieldExtractor : _fieldExtractors) {
+      numErrors += fieldExtractor.getTotalErrors();
+      numConversions += fieldExtractor.getTotalConversions();
+      numNulls += fieldExtractor.getTotalNulls();
+      numNullCols += fieldExtractor.getTotalNullCols();
+      for (Map.Entry<String, Integer> entry : fieldExtractor.getErrorCount().entrySet()) {
+        Integer count = errorCount.get(entry.getKey());
+        errorCount.put(entry.getKey(), count == null ? entry.getValue() : count + entry.getValue());
+      }
+    }
+    if (numErrors > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_ERRORS, (long) numErrors);
     }
-    Map<String, Integer> errorCount = _fieldExtractor.getErrorCount();
     for (String column : errorCount.keySet()) {
-      if ((numErrors = errorCount.get(column)) > 0) {
-        segmentLogger.warn("Column {} had {} rows with errors", column, numErrors);
+      int numColumnErrors = errorCount.get(column);
+      if (numColumnErrors > 0) {
+        segmentLogger.warn("Column {} had {} rows with errors", column, numColumnErrors);
       }
     }
-    if ((numConversions = _fieldExtractor.getTotalConversions()) > 0) {
+    if (numConversions > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_NEEDING_CONVERSIONS, (long) numConversions);
       segmentLogger.info("{} rows needed conversions ", numConversions);
     }
-    if ((numNulls = _fieldExtractor.getTotalNulls()) > 0) {
+    if (numNulls > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.ROWS_WITH_NULL_VALUES, (long) numNulls);
       segmentLogger.info("{} rows had null columns", numNulls);
     }
-    if ((numNullCols = _fieldExtractor.getTotalNullCols()) > 0) {
+    if (numNullCols > 0) {
       _serverMetrics.addMeteredTableValue(_tableStreamName,
           ServerMeter.COLUMNS_WITH_NULL_VALUES, (long) numNullCols);
       segmentLogger.info("{} columns had null values", numNullCols);
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.realtime.stream.MessageBatch;
+import com.linkedin.pinot.core.realtime.stream.StreamMessageDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Decodes and transforms the messages of a {@link MessageBatch} in parallel, ahead of the single threaded indexing
+ * done by the consumer thread.
+ * <p>The batch is split into contiguous chunks which are claimed in stream order by the workers. Each worker owns a
+ * {@link StreamMessageDecoder} and a {@link PlainFieldExtractor}, as neither of them is thread-safe. Rows are read back
+ * in stream order through {@link DecodedBatch#getRow(int)}, so the consumer thread can index the first chunks while
+ * the following ones are still being decoded, and offsets are tracked exactly as with serial consumption.
+ * <p>Only one batch is decoded at a time: the consumer thread fetches the next batch only after closing the current
+ * one, which bounds the decoded rows held in memory to a single batch.
+ */
+public class ParallelMessageBatchDecoder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelMessageBatchDecoder.class);
+
+  // Number of chunks per worker, so that the first rows are available for indexing well before the whole batch is
+  // decoded.
+  private static final int NUM_CHUNKS_PER_WORKER = 4;
+  // Worker threads are released when the partition is idle.
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+  private final StreamMessageDecoder[] _decoders;
+  private final PlainFieldExtractor[] _fieldExtractors;
+  private final ThreadPoolExecutor _executorService;
+
+  public ParallelMessageBatchDecoder(List<StreamMessageDecoder> decoders, List<PlainFieldExtractor> fieldExtractors,
+      String threadNamePrefix) {
+    Preconditions.checkArgument(!decoders.isEmpty() && decoders.size() == fieldExtractors.size(),
+        "Need one decoder and one field extractor per worker");
+    int numWorkers = decoders.size();
+    _decoders = decoders.toArray(new StreamMessageDecoder[numWorkers]);
+    _fieldExtractors = fieldExtractors.toArray(new PlainFieldExtractor[numWorkers]);
+    _executorService = new ThreadPoolExecutor(numWorkers, numWorkers, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat(threadNamePrefix + "-decoder-%d").build());
+    _executorService.allowCoreThreadTimeOut(true);
+  }
+
+  public int getNumWorkers() {
+    return _decoders.length;
+  }
+
+  public List<PlainFieldExtractor> getFieldExtractors() {
+    return Collections.unmodifiableList(Arrays.asList(_fieldExtractors));
+  }
+
+  /**
+   * Starts decoding the given batch, and returns the handle to read the decoded rows in stream order.
+   * <p>The returned {@link DecodedBatch} must be closed before decoding the next batch.
+   */
+  public DecodedBatch decode(MessageBatch messageBatch) {
+    return new DecodedBatch(messageBatch);
+  }
+
+  public void shutDown() {
+    _executorService.shutdownNow();
+  }
+
+  public class DecodedBatch {
+    private final MessageBatch _messageBatch;
+    private final int _numMessages;
+    private final int _chunkSize;
+    private final List<SettableFuture<GenericRow[]>> _chunkFutures;
+    private final List<Future<?>> _workerFutures;
+    private final AtomicInteger _nextChunkId = new AtomicInteger();
+    private volatile boolean _closed;
+
+    private int _currentChunkId = -1;
+    private GenericRow[] _currentChunk;
+
+    private DecodedBatch(MessageBatch messageBatch) {
+      _messageBatch = messageBatch;
+      _numMessages = messageBatch.getMessageCount();
+      int numWorkers = _decoders.length;
+      int maxNumChunks = numWorkers * NUM_CHUNKS_PER_WORKER;
+      _chunkSize = Math.max((_numMessages + maxNumChunks - 1) / maxNumChunks, 1);
+      int numChunks = (_numMessages + _chunkSize - 1) / _chunkSize;
+      _chunkFutures = new ArrayList<>(numChunks);
+      for (int i = 0; i < numChunks; i++) {
+        _chunkFutures.add(SettableFuture.<GenericRow[]>create());
+      }
+      int numWorkersToSubmit = Math.min(numWorkers, numChunks);
+      _workerFutures = new ArrayList<>(numWorkersToSubmit);
+      for (int i = 0; i < numWorkersToSubmit; i++) {
+        final int workerId = i;
+        _workerFutures.add(_executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            decodeChunks(workerId);
+          }
+        }));
+      }
+    }
+
+    private void decodeChunks(int workerId) {
+      StreamMessageDecoder decoder = _decoders[workerId];
+      PlainFieldExtractor fieldExtractor = _fieldExtractors[workerId];
+      GenericRow decodedRow = null;
+      int chunkId;
+      while ((chunkId = _nextChunkId.getAndIncrement()) < _chunkFutures.size()) {
+        SettableFuture<GenericRow[]> chunkFuture = _chunkFutures.get(chunkId);
+        if (_closed) {
+          chunkFuture.cancel(false);
+          continue;
+        }
+        try {
+          int startIndex = chunkId * _chunkSize;
+          int endIndex = Math.min(startIndex + _chunkSize, _numMessages);
+          GenericRow[] rows = new GenericRow[endIndex - startIndex];
+          for (int index = startIndex; index < endIndex; index++) {
+            decodedRow = GenericRow.createOrReuseRow(decodedRow);
+            decodedRow = decoder.decode(_messageBatch.getMessageAtIndex(index),
+                _messageBatch.getMessageOffsetAtIndex(index), _messageBatch.getMessageLengthAtIndex(index),
+                decodedRow);
+            if (decodedRow != null) {
+              rows[index - startIndex] = fieldExtractor.transform(decodedRow, new GenericRow());
+            }
+          }
+          chunkFuture.set(rows);
+        } catch (Throwable t) {
+          chunkFuture.setException(t);
+        }
+      }
+    }
+
+    /**
+     * Returns the decoded and transformed row for the message at the given index, or <code>null</code> if the message
+     * could not be decoded or transformed. Blocks until the chunk containing the message has been decoded.
+     * <p>Should be called by the consumer thread only, with increasing indexes.
+     */
+    @Nullable
+    public GenericRow getRow(int index) {
+      int chunkId = index / _chunkSize;
+      if (chunkId != _currentChunkId) {
+        try {
+          _currentChunk = Uninterruptibles.getUninterruptibly(_chunkFutures.get(chunkId));
+        } catch (ExecutionException e) {
+          throw new RuntimeException("Caught exception while decoding message at index " + index, e.getCause());
+        }
+        _currentChunkId = chunkId;
+      }
+      return _currentChunk[index - chunkId * _chunkSize];
+    }
+
+    /**
+     * Skips the chunks not yet claimed by the workers and waits for the workers to finish, after which the decoders
+     * and field extractors can be reused.
+     */
+    public void close() {
+      _closed = true;
+      for (Future<?> workerFuture : _workerFutures) {
+        try {
+          Uninterruptibles.getUninterruptibly(workerFuture);
+        } catch (Exception e) {
+          // Exceptions from decoding are set into the chunk futures, so this only happens on shut down.
+          LOGGER.warn("Caught exception while waiting for decoder worker to finish", e);
+        }
+      }
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.linkedin.pinot.core.indexsegment.immutable;
 
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 
@@ -47,6 +48,14 @@ public interface ImmutableSegment extends IndexSegment {
    */
   InvertedIndexReader getInvertedIndex(String column);
 
+  /**
+   * Returns the bloom filter for the given column.
+   *
+   * @param column Column name
+   * @return Bloom filter for the given column, or null if the given column does not exist or does not have one
+   */
+  BloomFilterReader getBloomFilter(String column);
+
   /**
    * Returns the total size of the segment in bytes.
    *
@@ -21,12 +21,17 @@ import com.linkedin.pinot.core.indexsegment.IndexSegmentUtils;
 import com.linkedin.pinot.core.io.reader.DataFileReader;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.column.LazyColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.data.source.ColumnDataSource;
+import com.linkedin.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
 import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
 import com.linkedin.pinot.core.segment.store.SegmentDirectory;
 import com.linkedin.pinot.core.startree.StarTree;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import org.slf4j.Logger;
@@ -39,6 +44,9 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   private final SegmentDirectory _segmentDirectory;
   private final SegmentMetadataImpl _segmentMetadata;
   private final Map<String, ColumnIndexContainer> _indexContainerMap;
+  // Only set when the indexes are loaded lazily, in which case _indexContainerMap is not used. The map is immutable and
+  // not cleared on destroy, so that it can be safely read (e.g. by the metrics) while the segment is being destroyed
+  private final Map<String, LazyColumnIndexContainer> _lazyIndexContainerMap;
   private final StarTree _starTree;
 
   public ImmutableSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
@@ -46,22 +54,99 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     _segmentDirectory = segmentDirectory;
     _segmentMetadata = segmentMetadata;
     _indexContainerMap = columnIndexContainerMap;
+    _lazyIndexContainerMap = null;
     _starTree = starTree;
   }
 
+  /**
+   * Constructor for segments whose column indexes are loaded on first access.
+   */
+  public ImmutableSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
+      StarTree starTree, Map<String, LazyColumnIndexContainer> lazyColumnIndexContainerMap) {
+    _segmentDirectory = segmentDirectory;
+    _segmentMetadata = segmentMetadata;
+    _indexContainerMap = null;
+    _lazyIndexContainerMap = Collections.unmodifiableMap(lazyColumnIndexContainerMap);
+    _starTree = starTree;
+  }
+
+  private ColumnIndexContainer getIndexContainer(String column) {
+    if (_lazyIndexContainerMap == null) {
+      return _indexContainerMap.get(column);
+    }
+    LazyColumnIndexContainer lazyColumnIndexContainer = _lazyIndexContainerMap.get(column);
+    return (lazyColumnIndexContainer != null) ? lazyColumnIndexContainer.get() : null;
+  }
+
+  /**
+   * Returns the index containers of the columns whose indexes are loaded.
+   */
+  private Map<String, ColumnIndexContainer> getLoadedIndexContainerMap() {
+    if (_lazyIndexContainerMap == null) {
+      return _indexContainerMap;
+    }
+    Map<String, ColumnIndexContainer> loadedIndexContainerMap = new HashMap<>();
+    for (Map.Entry<String, LazyColumnIndexContainer> entry : _lazyIndexContainerMap.entrySet()) {
+      ColumnIndexContainer indexContainer = entry.getValue().getIfLoaded();
+      if (indexContainer != null) {
+        loadedIndexContainerMap.put(entry.getKey(), indexContainer);
+      }
+    }
+    return loadedIndexContainerMap;
+  }
+
+  /**
+   * Returns whether the column indexes are loaded on first access.
+   */
+  public boolean isLazyColumnLoading() {
+    return _lazyIndexContainerMap != null;
+  }
+
+  /**
+   * Returns the number of times the indexes of each column have been accessed since the segment got loaded, or an
+   * empty map if the column indexes are not loaded lazily.
+   */
+  public Map<String, Long> getColumnAccessCounts() {
+    Map<String, Long> columnAccessCounts = new HashMap<>();
+    if (_lazyIndexContainerMap != null) {
+      for (Map.Entry<String, LazyColumnIndexContainer> entry : _lazyIndexContainerMap.entrySet()) {
+        columnAccessCounts.put(entry.getKey(), entry.getValue().getNumAccesses());
+      }
+    }
+    return columnAccessCounts;
+  }
+
+  /**
+   * Returns the number of columns whose indexes are loaded.
+   */
+  public int getNumLoadedColumns() {
+    return getLoadedIndexContainerMap().size();
+  }
+
   @Override
   public ImmutableDictionaryReader getDictionary(String column) {
-    return _indexContainerMap.get(column).getDictionary();
+    return getIndexContainer(column).getDictionary();
   }
 
   @Override
   public DataFileReader getForwardIndex(String column) {
-    return _indexContainerMap.get(column).getForwardIndex();
+    return getIndexContainer(column).getForwardIndex();
   }
 
   @Override
   public InvertedIndexReader getInvertedIndex(String column) {
-    return _indexContainerMap.get(column).getInvertedIndex();
+    return getIndexContainer(column).getInvertedIndex();
+  }
+
+  @Override
+  public BloomFilterReader getBloomFilter(String column) {
+    if (_lazyIndexContainerMap != null) {
+      // Do not load the other indexes of the column for segment pruning
+      LazyColumnIndexContainer lazyColumnIndexContainer = _lazyIndexContainerMap.get(column);
+      return (lazyColumnIndexContainer != null) ? lazyColumnIndexContainer.getBloomFilter() : null;
+    }
+    ColumnIndexContainer columnIndexContainer = _indexContainerMap.get(column);
+    return (columnIndexContainer != null) ? columnIndexContainer.getBloomFilter() : null;
   }
 
   @Override
@@ -81,7 +166,7 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
 
   @Override
   public ColumnDataSource getDataSource(String column) {
-    return new ColumnDataSource(_indexContainerMap.get(column), _segmentMetadata.getColumnMetadataFor(column));
+    return new ColumnDataSource(getIndexContainer(column), _segmentMetadata.getColumnMetadataFor(column));
   }
 
   @Override
@@ -92,8 +177,13 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   @Override
   public void destroy() {
     LOGGER.info("Trying to destroy segment : {}", this.getSegmentName());
-    for (String column : _indexContainerMap.keySet()) {
-      ColumnIndexContainer columnIndexContainer = _indexContainerMap.get(column);
+    Map<String, ColumnIndexContainer> loadedIndexContainerMap = getLoadedIndexContainerMap();
+    if (_lazyIndexContainerMap != null) {
+      LOGGER.info("Loaded indexes of {} out of {} columns for segment: {}", loadedIndexContainerMap.size(),
+          _lazyIndexContainerMap.size(), getSegmentName());
+    }
+    for (String column : loadedIndexContainerMap.keySet()) {
+      ColumnIndexContainer columnIndexContainer = loadedIndexContainerMap.get(column);
 
       try {
         ImmutableDictionaryReader dictionary = columnIndexContainer.getDictionary();
@@ -116,13 +206,23 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
       } catch (Exception e) {
         LOGGER.error("Error when close inverted index for column : " + column, e);
       }
+      try {
+        BitmapRangeIndexReader rangeIndex = columnIndexContainer.getRangeIndex();
+        if (rangeIndex != null) {
+          rangeIndex.close();
+        }
+      } catch (Exception e) {
+        LOGGER.error("Error when close range index for column : " + column, e);
+      }
     }
     try {
       _segmentDirectory.close();
     } catch (Exception e) {
       LOGGER.error("Failed to close segment directory: {}. Continuing with error.", _segmentDirectory, e);
     }
-    _indexContainerMap.clear();
+    if (_indexContainerMap != null) {
+      _indexContainerMap.clear();
+    }
     if (_starTree != null) {
       try {
         _starTree.close();
@@ -141,7 +241,7 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   public GenericRow getRecord(int docId, GenericRow reuse) {
     for (FieldSpec fieldSpec : _segmentMetadata.getSchema().getAllFieldSpecs()) {
       String column = fieldSpec.getName();
-      ColumnIndexContainer indexContainer = _indexContainerMap.get(column);
+      ColumnIndexContainer indexContainer = getIndexContainer(column);
       reuse.putField(column,
           IndexSegmentUtils.getValue(docId, fieldSpec, indexContainer.getForwardIndex(), indexContainer.getDictionary(),
               _segmentMetadata.getColumnMetadataFor(column).getMaxNumberOfMultiValues()));
@@ -22,6 +22,7 @@ import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.column.ColumnIndexContainer;
+import com.linkedin.pinot.core.segment.index.column.LazyColumnIndexContainer;
 import com.linkedin.pinot.core.segment.index.converter.SegmentFormatConverter;
 import com.linkedin.pinot.core.segment.index.converter.SegmentFormatConverterFactory;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
@@ -102,11 +103,6 @@ public class ImmutableSegmentLoader {
     ReadMode readMode = indexLoadingConfig.getReadMode();
     SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata, readMode);
     SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
-    Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
-    for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
-      indexContainerMap.put(entry.getKey(),
-          new ColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig));
-    }
 
     // Load star tree index if it exists
     StarTree starTree = null;
@@ -115,6 +111,21 @@ public class ImmutableSegmentLoader {
       starTree = new OffHeapStarTree(segmentReader.getStarTreeFile(), readMode);
     }
 
+    if (indexLoadingConfig.isLazyColumnLoading()) {
+      // Column indexes are loaded on first access
+      Map<String, LazyColumnIndexContainer> lazyIndexContainerMap = new HashMap<>();
+      for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
+        lazyIndexContainerMap.put(entry.getKey(),
+            new LazyColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig));
+      }
+      return new ImmutableSegmentImpl(segmentDirectory, segmentMetadata, starTree, lazyIndexContainerMap);
+    }
+
+    Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
+    for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
+      indexContainerMap.put(entry.getKey(),
+          new ColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig));
+    }
     return new ImmutableSegmentImpl(segmentDirectory, segmentMetadata, indexContainerMap, starTree);
   }
 }
@@ -17,6 +17,7 @@ package com.linkedin.pinot.core.indexsegment.mutable;
 
 import com.linkedin.pinot.core.data.GenericRow;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import java.util.List;
 
 
 public interface MutableSegment extends IndexSegment {
@@ -25,10 +26,18 @@ public interface MutableSegment extends IndexSegment {
    * Indexes a record into the segment.
    *
    * @param row Record represented as a {@link GenericRow}
-   * @return Whether the segment is full (i.e. cannot index more record into it)
+   * @return Whether more records can be indexed into the segment (i.e. the segment is not full)
    */
   boolean index(GenericRow row);
 
+  /**
+   * Indexes a batch of records into the segment. The records become queryable together once all of them are indexed.
+   *
+   * @param rows Records represented as {@link GenericRow}s
+   * @return Whether more records can be indexed into the segment (i.e. the segment is not full)
+   */
+  boolean index(List<GenericRow> rows);
+
   /**
    * Returns the number of records already indexed into the segment.
    *
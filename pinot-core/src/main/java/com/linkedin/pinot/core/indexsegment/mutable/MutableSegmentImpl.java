@@ -41,6 +41,7 @@ import com.linkedin.pinot.core.util.IdMap;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.roaringbitmap.IntIterator;
@@ -206,6 +207,133 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Rows are indexed column by column: for each column, the dictionary ids of all the rows are resolved and the
+   * forward index is written for the consecutive document ids, then each inverted index is updated in one call. The
+   * number of documents indexed is published once at the end, which makes all the rows queryable together.
+   * <p>With metrics aggregation enabled, rows can be aggregated into existing documents, so they are indexed one by
+   * one.
+   */
+  @Override
+  public boolean index(List<GenericRow> rows) {
+    if (_aggregateMetrics) {
+      boolean canTakeMore = true;
+      for (GenericRow row : rows) {
+        canTakeMore = index(row);
+      }
+      return canTakeMore;
+    }
+
+    int numRows = rows.size();
+    if (numRows == 0) {
+      return _numDocsIndexed < _capacity;
+    }
+    int startDocId = _numDocsIndexed;
+
+    // Dictionary ids of the columns with inverted index, int[] for single-value columns and int[][] for multi-value
+    // columns
+    Map<String, Object> invertedIndexDictIdsMap = new HashMap<>();
+    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+      String column = fieldSpec.getName();
+      MutableDictionary dictionary = _dictionaryMap.get(column);
+      boolean hasInvertedIndex = _invertedIndexMap.containsKey(column);
+      if (fieldSpec.isSingleValueField()) {
+        FixedByteSingleColumnSingleValueReaderWriter indexReaderWriter =
+            (FixedByteSingleColumnSingleValueReaderWriter) _indexReaderWriterMap.get(column);
+        Object[] values = new Object[numRows];
+        for (int i = 0; i < numRows; i++) {
+          values[i] = rows.get(i).getValue(column);
+        }
+        if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.TIME)) {
+          for (Object value : values) {
+            updateMinMaxTime(value);
+          }
+        }
+        if (dictionary != null) {
+          // Column with dictionary
+          int[] dictIds = new int[numRows];
+          dictionary.index(values, dictIds);
+          for (int i = 0; i < numRows; i++) {
+            indexReaderWriter.setInt(startDocId + i, dictIds[i]);
+          }
+          if (hasInvertedIndex) {
+            invertedIndexDictIdsMap.put(column, dictIds);
+          }
+        } else {
+          // No-dictionary column
+          FieldSpec.DataType dataType = fieldSpec.getDataType();
+          switch (dataType) {
+            case INT:
+              for (int i = 0; i < numRows; i++) {
+                indexReaderWriter.setInt(startDocId + i, (Integer) values[i]);
+              }
+              break;
+            case LONG:
+              for (int i = 0; i < numRows; i++) {
+                indexReaderWriter.setLong(startDocId + i, (Long) values[i]);
+              }
+              break;
+            case FLOAT:
+              for (int i = 0; i < numRows; i++) {
+                indexReaderWriter.setFloat(startDocId + i, (Float) values[i]);
+              }
+              break;
+            case DOUBLE:
+              for (int i = 0; i < numRows; i++) {
+                indexReaderWriter.setDouble(startDocId + i, (Double) values[i]);
+              }
+              break;
+            default:
+              throw new UnsupportedOperationException(
+                  "Unsupported data type: " + dataType + " for no-dictionary column: " + column);
+          }
+        }
+      } else {
+        // No-dictionary not supported for multi-valued columns.
+        FixedByteSingleColumnMultiValueReaderWriter indexReaderWriter =
+            (FixedByteSingleColumnMultiValueReaderWriter) _indexReaderWriterMap.get(column);
+        int[][] dictIdsArray = new int[numRows][];
+        int maxNumValues = _maxNumValuesMap.get(column);
+        for (int i = 0; i < numRows; i++) {
+          Object[] values = (Object[]) rows.get(i).getValue(column);
+          int numValues = values.length;
+          int[] dictIds = new int[numValues];
+          dictionary.index(values, dictIds);
+          indexReaderWriter.setIntArray(startDocId + i, dictIds);
+          dictIdsArray[i] = dictIds;
+          maxNumValues = Math.max(maxNumValues, numValues);
+        }
+        _maxNumValuesMap.put(column, maxNumValues);
+        if (hasInvertedIndex) {
+          invertedIndexDictIdsMap.put(column, dictIdsArray);
+        }
+      }
+    }
+
+    // Update inverted index at last
+    // NOTE: inverted index have to be updated at last because once it gets updated, the latest records will become
+    // queryable
+    for (Map.Entry<String, Object> entry : invertedIndexDictIdsMap.entrySet()) {
+      RealtimeInvertedIndexReader invertedIndex = _invertedIndexMap.get(entry.getKey());
+      Object dictIds = entry.getValue();
+      if (dictIds instanceof int[]) {
+        invertedIndex.add((int[]) dictIds, startDocId);
+      } else {
+        int[][] dictIdsArray = (int[][]) dictIds;
+        for (int i = 0; i < numRows; i++) {
+          for (int dictId : dictIdsArray[i]) {
+            invertedIndex.add(dictId, startDocId + i);
+          }
+        }
+      }
+    }
+
+    // Update number of document indexed at last to make the latest records queryable
+    _numDocsIndexed = startDocId + numRows;
+    return startDocId + numRows - 1 < _capacity;
+  }
+
   private Map<String, Object> updateDictionary(GenericRow row) {
     Map<String, Object> dictIdMap = new HashMap<>();
     for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
@@ -237,19 +365,23 @@ public class MutableSegmentImpl implements MutableSegment {
       }
       // Update min/max value for time column
       if (fieldSpec.getFieldType().equals(FieldSpec.FieldType.TIME)) {
-        long timeValue;
-        if (value instanceof Number) {
-          timeValue = ((Number) value).longValue();
-        } else {
-          timeValue = Long.valueOf(value.toString());
-        }
-        _minTime = Math.min(_minTime, timeValue);
-        _maxTime = Math.max(_maxTime, timeValue);
+        updateMinMaxTime(value);
       }
     }
     return dictIdMap;
   }
 
+  private void updateMinMaxTime(Object value) {
+    long timeValue;
+    if (value instanceof Number) {
+      timeValue = ((Number) value).longValue();
+    } else {
+      timeValue = Long.valueOf(value.toString());
+    }
+    _minTime = Math.min(_minTime, timeValue);
+    _maxTime = Math.max(_maxTime, timeValue);
+  }
+
   private void addForwardIndex(GenericRow row, int docId, Map<String, Object> dictIdMap) {
     // Store dictionary Id(s) for columns with dictionary
     for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
@@ -27,7 +27,8 @@ public class ChunkCompressorFactory {
 
   public enum CompressionType {
     PASS_THROUGH(0),
-    SNAPPY(1);
+    SNAPPY(1),
+    LZ4(2);
 
     private final int _value;
 
@@ -55,6 +56,9 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyCompressor();
 
+      case LZ4:
+        return new LZ4Compressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -74,6 +78,9 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case LZ4:
+        return new LZ4Decompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.io.compression;
+
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} using LZ4.
+ * <p>Assumes that the remaining space of the output buffer is large enough to de-compress the input. The position of
+ * the output buffer is not changed, and the limit is set to the end of the decompressed data.
+ */
+public class LZ4Decompressor implements ChunkDecompressor {
+  private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+  @Override
+  public int decompress(ByteBuffer compressedInput, ByteBuffer decompressedOutput) {
+    int inputLength = compressedInput.remaining();
+    byte[] input;
+    int inputOffset;
+    if (compressedInput.hasArray()) {
+      input = compressedInput.array();
+      inputOffset = compressedInput.arrayOffset() + compressedInput.position();
+    } else {
+      input = new byte[inputLength];
+      compressedInput.duplicate().get(input);
+      inputOffset = 0;
+    }
+
+    int decompressedSize;
+    if (decompressedOutput.hasArray()) {
+      decompressedSize = DECOMPRESSOR.decompress(input, inputOffset, inputLength, decompressedOutput.array(),
+          decompressedOutput.arrayOffset() + decompressedOutput.position(), decompressedOutput.remaining());
+    } else {
+      byte[] output = new byte[decompressedOutput.remaining()];
+      decompressedSize = DECOMPRESSOR.decompress(input, inputOffset, inputLength, output, 0, output.length);
+      decompressedOutput.duplicate().put(output, 0, decompressedSize);
+    }
+    decompressedOutput.limit(decompressedOutput.position() + decompressedSize);
+    return decompressedSize;
+  }
+}
@@ -22,12 +22,37 @@ import org.xerial.snappy.Snappy;
 
 /**
  * Implementation of {@link ChunkCompressor} using Snappy.
+ * <p>Direct byte buffers are compressed with the native buffer API, heap byte buffers with the backing arrays.
  */
 public class SnappyCompressor implements ChunkCompressor {
 
   @Override
   public int compress(ByteBuffer inDecompressed, ByteBuffer outCompressed)
       throws IOException {
-    return Snappy.compress(inDecompressed, outCompressed);
+    if (inDecompressed.isDirect() && outCompressed.isDirect()) {
+      return Snappy.compress(inDecompressed, outCompressed);
+    }
+
+    // Same contract as the direct buffer API: the position of the output buffer is not changed, and the limit is set
+    // to the end of the compressed data.
+    int compressedSize;
+    if (inDecompressed.hasArray() && outCompressed.hasArray()) {
+      compressedSize = Snappy.compress(inDecompressed.array(),
+          inDecompressed.arrayOffset() + inDecompressed.position(), inDecompressed.remaining(), outCompressed.array(),
+          outCompressed.arrayOffset() + outCompressed.position());
+    } else {
+      byte[] input = new byte[inDecompressed.remaining()];
+      inDecompressed.duplicate().get(input);
+      byte[] output = Snappy.compress(input);
+      compressedSize = output.length;
+      outCompressed.duplicate().put(output);
+    }
+    outCompressed.limit(outCompressed.position() + compressedSize);
+    return compressedSize;
+  }
+
+  @Override
+  public int maxCompressedSize(int uncompressedSize) {
+    return Snappy.maxCompressedLength(uncompressedSize);
   }
 }
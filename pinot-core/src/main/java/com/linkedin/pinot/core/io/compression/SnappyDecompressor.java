@@ -22,11 +22,31 @@ import org.xerial.snappy.Snappy;
 
 /**
  * Implementation of {@link ChunkDecompressor} using Snappy.
+ * <p>Direct byte buffers are decompressed with the native buffer API, heap byte buffers with the backing arrays.
  */
 public class SnappyDecompressor implements ChunkDecompressor {
   @Override
   public int decompress(ByteBuffer compressedInput, ByteBuffer decompressedOutput)
       throws IOException {
-    return Snappy.uncompress(compressedInput, decompressedOutput);
+    if (compressedInput.isDirect() && decompressedOutput.isDirect()) {
+      return Snappy.uncompress(compressedInput, decompressedOutput);
+    }
+
+    // Same contract as the direct buffer API: the position of the output buffer is not changed, and the limit is set
+    // to the end of the decompressed data.
+    int decompressedSize;
+    if (compressedInput.hasArray() && decompressedOutput.hasArray()) {
+      decompressedSize = Snappy.uncompress(compressedInput.array(),
+          compressedInput.arrayOffset() + compressedInput.position(), compressedInput.remaining(),
+          decompressedOutput.array(), decompressedOutput.arrayOffset() + decompressedOutput.position());
+    } else {
+      byte[] input = new byte[compressedInput.remaining()];
+      compressedInput.duplicate().get(input);
+      byte[] output = Snappy.uncompress(input);
+      decompressedSize = output.length;
+      decompressedOutput.duplicate().put(output);
+    }
+    decompressedOutput.limit(decompressedOutput.position() + decompressedSize);
+    return decompressedSize;
   }
 }
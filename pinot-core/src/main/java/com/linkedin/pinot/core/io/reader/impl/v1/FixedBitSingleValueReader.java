@@ -41,8 +41,22 @@ public final class FixedBitSingleValueReader extends BaseSingleColumnSingleValue
   @Override
   public void readValues(int[] rows, int rowsStartIndex, int rowSize, int[] values, int valuesStartIndex) {
     int rowsEndIndex = rowsStartIndex + rowSize;
-    for (int i = rowsStartIndex; i < rowsEndIndex; i++) {
-      values[valuesStartIndex++] = getInt(rows[i]);
+    int i = rowsStartIndex;
+    while (i < rowsEndIndex) {
+      // Find the run of consecutive rows starting at the current row and bulk read it
+      int startRow = rows[i];
+      int runEndIndex = i + 1;
+      while (runEndIndex < rowsEndIndex && rows[runEndIndex] == rows[runEndIndex - 1] + 1) {
+        runEndIndex++;
+      }
+      int runLength = runEndIndex - i;
+      if (runLength == 1) {
+        values[valuesStartIndex++] = _reader.readInt(startRow);
+      } else {
+        _reader.readInt(startRow, runLength, values, valuesStartIndex);
+        valuesStartIndex += runLength;
+      }
+      i = runEndIndex;
     }
   }
 
@@ -68,35 +68,47 @@ public final class PinotDataBitSet implements Closeable {
   }
 
   public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer) {
-    long startBitOffset = (long) startIndex * numBitsPerValue;
-    int byteOffset = (int) (startBitOffset / Byte.SIZE);
-    int bitOffsetInFirstByte = (int) (startBitOffset % Byte.SIZE);
-
-    // Initiated with the value in first byte
-    int currentValue = _dataBuffer.getByte(byteOffset) & (BYTE_MASK >>> bitOffsetInFirstByte);
+    readInt(startIndex, numBitsPerValue, length, buffer, 0);
+  }
 
-    for (int i = 0; i < length; i++) {
-      if (bitOffsetInFirstByte == Byte.SIZE) {
-        bitOffsetInFirstByte = 0;
-        currentValue = _dataBuffer.getByte(++byteOffset) & BYTE_MASK;
-      }
-      int numBitsLeft = numBitsPerValue - (Byte.SIZE - bitOffsetInFirstByte);
-      if (numBitsLeft <= 0) {
-        // The value is inside the first byte
-        buffer[i] = currentValue >>> -numBitsLeft;
-        bitOffsetInFirstByte = Byte.SIZE + numBitsLeft;
-        currentValue = currentValue & (BYTE_MASK >>> bitOffsetInFirstByte);
-      } else {
-        // The value is in multiple bytes
-        while (numBitsLeft > Byte.SIZE) {
-          currentValue = (currentValue << Byte.SIZE) | (_dataBuffer.getByte(++byteOffset) & BYTE_MASK);
-          numBitsLeft -= Byte.SIZE;
+  /**
+   * Reads <code>length</code> consecutive values starting from <code>startIndex</code> into <code>buffer</code>,
+   * starting at <code>bufferStartIndex</code>.
+   * <p>Byte-aligned bit widths are decoded directly from the bytes. Other bit widths are decoded from a 64-bit word
+   * refilled one byte at a time, which needs no per-value branching on byte boundaries and does not depend on the
+   * byte order of the underlying data buffer.
+   */
+  public void readInt(int startIndex, int numBitsPerValue, int length, int[] buffer, int bufferStartIndex) {
+    int bufferEndIndex = bufferStartIndex + length;
+    switch (numBitsPerValue) {
+      case 8:
+        for (int i = bufferStartIndex, byteOffset = startIndex; i < bufferEndIndex; i++) {
+          buffer[i] = _dataBuffer.getByte(byteOffset++) & BYTE_MASK;
+        }
+        return;
+      case 16:
+        for (int i = bufferStartIndex, byteOffset = startIndex << 1; i < bufferEndIndex; i++) {
+          buffer[i] = ((_dataBuffer.getByte(byteOffset++) & BYTE_MASK) << Byte.SIZE) | (_dataBuffer.getByte(
+              byteOffset++) & BYTE_MASK);
+        }
+        return;
+      default:
+        long startBitOffset = (long) startIndex * numBitsPerValue;
+        int byteOffset = (int) (startBitOffset / Byte.SIZE);
+        int bitOffsetInFirstByte = (int) (startBitOffset % Byte.SIZE);
+        long mask = (1L << numBitsPerValue) - 1;
+
+        // Holds the not yet consumed bits in its lowest numBitsInWord bits
+        long word = _dataBuffer.getByte(byteOffset++) & (BYTE_MASK >>> bitOffsetInFirstByte);
+        int numBitsInWord = Byte.SIZE - bitOffsetInFirstByte;
+        for (int i = bufferStartIndex; i < bufferEndIndex; i++) {
+          while (numBitsInWord < numBitsPerValue) {
+            word = (word << Byte.SIZE) | (_dataBuffer.getByte(byteOffset++) & BYTE_MASK);
+            numBitsInWord += Byte.SIZE;
+          }
+          numBitsInWord -= numBitsPerValue;
+          buffer[i] = (int) ((word >>> numBitsInWord) & mask);
         }
-        int nextByte = _dataBuffer.getByte(++byteOffset) & BYTE_MASK;
-        buffer[i] = (currentValue << numBitsLeft) | (nextByte >>> (Byte.SIZE - numBitsLeft));
-        bitOffsetInFirstByte = numBitsLeft;
-        currentValue = nextByte & (BYTE_MASK >>> bitOffsetInFirstByte);
-      }
     }
   }
 
@@ -112,10 +112,12 @@ public class SegmentConverter {
         List<String> sortedColumn = _indexingConfig.getSortedColumn();
         StarTreeIndexSpec starTreeIndexSpec = _indexingConfig.getStarTreeIndexSpec();
         List<String> invertedIndexColumns = _indexingConfig.getInvertedIndexColumns();
+        List<String> bloomFilterColumns = _indexingConfig.getBloomFilterColumns();
+        List<String> rangeIndexColumns = _indexingConfig.getRangeIndexColumns();
 
         // Check if the table config has any index configured
         if ((sortedColumn != null && !sortedColumn.isEmpty()) || starTreeIndexSpec != null
-            || invertedIndexColumns != null) {
+            || invertedIndexColumns != null || bloomFilterColumns != null || rangeIndexColumns != null) {
           String indexGenerationOutputPath = _workingDir.getPath() + File.separator + INDEX_PREFIX + currentPartition;
           try (
               PinotSegmentRecordReader recordReader = new PinotSegmentRecordReader(outputSegment, null, sortedColumn)) {
@@ -143,6 +145,12 @@ public class SegmentConverter {
     segmentGeneratorConfig.setSegmentName(segmentName);
     if (indexingConfig != null) {
       segmentGeneratorConfig.setInvertedIndexCreationColumns(indexingConfig.getInvertedIndexColumns());
+      if (indexingConfig.getBloomFilterColumns() != null) {
+        segmentGeneratorConfig.setBloomFilterCreationColumns(indexingConfig.getBloomFilterColumns());
+      }
+      if (indexingConfig.getRangeIndexColumns() != null) {
+        segmentGeneratorConfig.setRangeIndexCreationColumns(indexingConfig.getRangeIndexColumns());
+      }
       if (indexingConfig.getStarTreeIndexSpec() != null) {
         segmentGeneratorConfig.enableStarTreeIndex(indexingConfig.getStarTreeIndexSpec());
       }
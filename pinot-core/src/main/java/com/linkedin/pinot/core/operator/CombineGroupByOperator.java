@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.operator;
 
 import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ProcessingException;
@@ -26,19 +27,19 @@ import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
-import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.MergedGroupByResults;
+import com.linkedin.pinot.core.query.config.CombineConfig;
 import com.linkedin.pinot.core.util.trace.TraceRunnable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,28 +51,14 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
   private static final Logger LOGGER = LoggerFactory.getLogger(CombineGroupByOperator.class);
   private static final String OPERATOR_NAME = "CombineGroupByOperator";
 
-  // TODO: check whether it is better to use thread local.
-  // Choose a proper prime number for the number of locks.
-  // Use prime number to reduce the conflict rate of different hashcodes.
-  // Too small number of locks will cause high conflict rate.
-  // Too large number of locks will consume too much memory.
-  private static final int NUM_LOCKS = 10007;
-  private static final Object[] LOCKS = new Object[NUM_LOCKS];
-
-  static {
-    for (int i = 0; i < NUM_LOCKS; i++) {
-      LOCKS[i] = new Object();
-    }
-  }
-
   private final List<Operator> _operators;
   private final ExecutorService _executorService;
   private final BrokerRequest _brokerRequest;
   private final long _timeOutMs;
+  private final CombineConfig _combineConfig;
 
   /**
    * Constructor for the class.
-   * - Initializes lock objects to synchronize updating aggregation group-by results.
    *
    * @param operators List of operators, whose result needs to be combined.
    * @param executorService Executor service to use for multi-threaded portions of combine.
@@ -80,12 +67,27 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
    */
   public CombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
       BrokerRequest brokerRequest) {
+    this(operators, executorService, timeOutMs, brokerRequest, new CombineConfig());
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param operators List of operators, whose result needs to be combined.
+   * @param executorService Executor service to use for multi-threaded portions of combine.
+   * @param timeOutMs Timeout for combine.
+   * @param brokerRequest BrokerRequest corresponding to the query.
+   * @param combineConfig Config for the number of threads to use for combine.
+   */
+  public CombineGroupByOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest, CombineConfig combineConfig) {
     Preconditions.checkArgument(brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetGroupBy());
 
     _operators = operators;
     _executorService = executorService;
     _brokerRequest = brokerRequest;
     _timeOutMs = timeOutMs;
+    _combineConfig = combineConfig;
   }
 
   /**
@@ -104,24 +106,24 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
   /**
    * This method combines the result blocks from underlying operators and builds a
    * merged, sorted and trimmed result block.
-   * 1. Result blocks from underlying operators are merged concurrently into a
-   *   HashMap, with appropriate synchronizations. Result blocks themselves are stored
-   *   in the specified blocks[].
-   *   - The key in this concurrent map is the group-by key, and value is an array of
-   *     Objects (one for each aggregation function).
-   *   - Synchronization is provided by locking the group-key that is to be modified.
+   * 1. Result blocks from underlying operators are merged without locking: each thread pulls
+   *   operators from a shared index and merges their results into its own {@link MergedGroupByResults}.
+   *   - Group keys are merged as primitive long keys when they can be encoded into long values,
+   *     otherwise as string keys.
    *
-   * 2. The result of the concurrent map is then translated into what is expected by
-   *    the broker (List<Map<String, Object>>).
+   * 2. The per thread results are combined, and then translated into what is expected by
+   *    the broker (List<Map<String, Object>>). String group keys are built only at this step.
    *
    * 3. This result is then sorted and then trimmed as per 'TOP N' in the brokerRequest.
    *
    * @return IntermediateResultBlock containing the final results from combine operation.
    */
   private IntermediateResultsBlock combineBlocks() {
-    int numOperators = _operators.size();
-    final CountDownLatch operatorLatch = new CountDownLatch(numOperators);
-    final Map<String, Object[]> resultsMap = new ConcurrentHashMap<>();
+    final int numOperators = _operators.size();
+    int numThreads = _combineConfig.getNumThreadsForQuery(numOperators);
+    final CountDownLatch operatorLatch = new CountDownLatch(numThreads);
+    final AtomicInteger nextOperatorIndex = new AtomicInteger();
+    final MergedGroupByResults[] mergedGroupByResultsArray = new MergedGroupByResults[numThreads];
     final ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     AggregationFunctionContext[] aggregationFunctionContexts =
@@ -132,59 +134,39 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
       aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
     }
 
-    Future[] futures = new Future[numOperators];
-    for (int i = 0; i < numOperators; i++) {
-      final int index = i;
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      final int threadIndex = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
-        @SuppressWarnings("unchecked")
         @Override
         public void runJob() {
-          AggregationGroupByResult aggregationGroupByResult;
-
-          try {
-            IntermediateResultsBlock intermediateResultsBlock =
-                (IntermediateResultsBlock) _operators.get(index).nextBlock();
-
-            // Merge processing exceptions.
-            List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-            if (processingExceptionsToMerge != null) {
-              mergedProcessingExceptions.addAll(processingExceptionsToMerge);
-            }
+          MergedGroupByResults mergedGroupByResults = new MergedGroupByResults(aggregationFunctions);
+          int index;
+          while ((index = nextOperatorIndex.getAndIncrement()) < numOperators) {
+            try {
+              IntermediateResultsBlock intermediateResultsBlock =
+                  (IntermediateResultsBlock) _operators.get(index).nextBlock();
+
+              // Merge processing exceptions.
+              List<ProcessingException> processingExceptionsToMerge =
+                  intermediateResultsBlock.getProcessingExceptions();
+              if (processingExceptionsToMerge != null) {
+                mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+              }
 
-            // Merge aggregation group-by result.
-            aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-            if (aggregationGroupByResult != null) {
-              // Iterate over the group-by keys, for each key, update the group-by result in the resultsMap.
-              Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-              while (groupKeyIterator.hasNext()) {
-                GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                String groupKeyString = groupKey._stringKey;
-
-                // HashCode method might return negative value, make it non-negative
-                int lockIndex = (groupKeyString.hashCode() & Integer.MAX_VALUE) % NUM_LOCKS;
-                synchronized (LOCKS[lockIndex]) {
-                  Object[] results = resultsMap.get(groupKeyString);
-
-                  if (results == null) {
-                    results = new Object[numAggregationFunctions];
-                    for (int j = 0; j < numAggregationFunctions; j++) {
-                      results[j] = aggregationGroupByResult.getResultForKey(groupKey, j);
-                    }
-                    resultsMap.put(groupKeyString, results);
-                  } else {
-                    for (int j = 0; j < numAggregationFunctions; j++) {
-                      results[j] = aggregationFunctions[j].merge(results[j],
-                          aggregationGroupByResult.getResultForKey(groupKey, j));
-                    }
-                  }
-                }
+              // Merge aggregation group-by result.
+              AggregationGroupByResult aggregationGroupByResult =
+                  intermediateResultsBlock.getAggregationGroupByResult();
+              if (aggregationGroupByResult != null) {
+                mergedGroupByResults.merge(aggregationGroupByResult);
               }
+            } catch (Exception e) {
+              LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
+                  _operators.get(index).getClass().getName(), e);
+              mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
             }
-          } catch (Exception e) {
-            LOGGER.error("Exception processing CombineGroupBy for index {}, operator {}", index,
-                _operators.get(index).getClass().getName(), e);
-            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
           }
+          mergedGroupByResultsArray[threadIndex] = mergedGroupByResults;
 
           operatorLatch.countDown();
         }
@@ -200,6 +182,13 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
         return new IntermediateResultsBlock(new TimeoutException(errorMessage));
       }
 
+      // Combine the per thread results, building the string group keys.
+      MergedGroupByResults combinedGroupByResults = new MergedGroupByResults(aggregationFunctions);
+      for (MergedGroupByResults mergedGroupByResults : mergedGroupByResultsArray) {
+        combinedGroupByResults.merge(mergedGroupByResults);
+      }
+      Map<String, Object[]> resultsMap = combinedGroupByResults.toStringKeyResultsMap();
+
       // Trim the results map.
       AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
           new AggregationGroupByTrimmingService(aggregationFunctions, (int) _brokerRequest.getGroupBy().getTopN());
@@ -207,6 +196,10 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
           aggregationGroupByTrimmingService.trimIntermediateResultsMap(resultsMap);
       IntermediateResultsBlock mergedBlock =
           new IntermediateResultsBlock(aggregationFunctionContexts, trimmedResults, true);
+      FieldSpec.DataType[] groupKeyDataTypes = combinedGroupByResults.getGroupKeyDataTypes();
+      if (groupKeyDataTypes != null) {
+        mergedBlock.setGroupKeyColumns(_brokerRequest.getGroupBy().getExpressions(), groupKeyDataTypes, resultsMap);
+      }
 
       // Set the processing exceptions.
       if (!mergedProcessingExceptions.isEmpty()) {
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.core.common.Block;
 import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.config.CombineConfig;
 import com.linkedin.pinot.core.query.reduce.CombineService;
 import com.linkedin.pinot.core.util.trace.TraceCallable;
 import com.linkedin.pinot.core.util.trace.TraceRunnable;
@@ -32,6 +33,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,25 +49,20 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
-  //Make this configurable
-  //These two control the parallelism on a per query basis, depending on the number of segments to process
-  private static final int MIN_THREADS_PER_QUERY;
-  private static final int MAX_THREADS_PER_QUERY;
-  private static final int MIN_SEGMENTS_PER_THREAD = 10;
+  private final CombineConfig _combineConfig;
 
-  static {
-    int numCores = Runtime.getRuntime().availableProcessors();
-    MIN_THREADS_PER_QUERY = Math.max(1, (int) (numCores * .5));
-    //Dont have more than 10 threads per query
-    MAX_THREADS_PER_QUERY = Math.min(10, (int) (numCores * .5));
+  public CombineOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
+      BrokerRequest brokerRequest) {
+    this(operators, executorService, timeOutMs, brokerRequest, new CombineConfig());
   }
 
   public CombineOperator(List<Operator> operators, ExecutorService executorService, long timeOutMs,
-      BrokerRequest brokerRequest) {
+      BrokerRequest brokerRequest, CombineConfig combineConfig) {
     _operators = operators;
     _executorService = executorService;
     _brokerRequest = brokerRequest;
     _timeOutMs = timeOutMs;
+    _combineConfig = combineConfig;
   }
 
   @Override
@@ -73,48 +70,77 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
     final long startTime = System.currentTimeMillis();
     final long queryEndTime = System.currentTimeMillis() + _timeOutMs;
     final int numOperators = _operators.size();
-    // Ensure that the number of groups is not more than the number of segments
-    final int numGroups = Math.min(numOperators, Math.max(MIN_THREADS_PER_QUERY,
-        Math.min(MAX_THREADS_PER_QUERY, (numOperators + MIN_SEGMENTS_PER_THREAD - 1) / MIN_SEGMENTS_PER_THREAD)));
+    // Ensure that the number of threads is not more than the number of segments
+    final int numThreads = _combineConfig.getNumThreadsForQuery(numOperators);
 
-    final List<List<Operator>> operatorGroups = new ArrayList<>(numGroups);
-    for (int i = 0; i < numGroups; i++) {
-      operatorGroups.add(new ArrayList<Operator>());
-    }
-    for (int i = 0; i < numOperators; i++) {
-      operatorGroups.get(i % numGroups).add(_operators.get(i));
-    }
+    final int numBlocksToMerge;
+    final BlockingQueue<Block> blockingQueue;
+    final List<Future> futures = new ArrayList<>(numThreads);
+    if (_combineConfig.isWorkStealingEnabled()) {
+      // Threads pull operators from the shared index, so that threads processing small segments pick up more work
+      // instead of waiting on a statically assigned group. Each result block is merged as soon as it arrives.
+      numBlocksToMerge = numOperators;
+      blockingQueue = new ArrayBlockingQueue<>(numOperators);
+      final AtomicInteger nextOperatorIndex = new AtomicInteger();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(_executorService.submit(new TraceRunnable() {
+          @Override
+          public void runJob() {
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
+              IntermediateResultsBlock resultsBlock;
+              try {
+                resultsBlock = (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+              } catch (Exception e) {
+                LOGGER.error("Caught exception while executing query.", e);
+                resultsBlock = new IntermediateResultsBlock(e);
+              }
+              blockingQueue.offer(resultsBlock);
+            }
+          }
+        }));
+      }
+    } else {
+      final List<List<Operator>> operatorGroups = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        operatorGroups.add(new ArrayList<Operator>());
+      }
+      for (int i = 0; i < numOperators; i++) {
+        operatorGroups.get(i % numThreads).add(_operators.get(i));
+      }
 
-    final BlockingQueue<Block> blockingQueue = new ArrayBlockingQueue<>(numGroups);
-    // Submit operators.
-    for (final List<Operator> operatorGroup : operatorGroups) {
-      _executorService.submit(new TraceRunnable() {
-        @Override
-        public void runJob() {
-          IntermediateResultsBlock mergedBlock = null;
-          try {
-            for (Operator operator : operatorGroup) {
-              IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
-              if (mergedBlock == null) {
-                mergedBlock = blockToMerge;
-              } else {
-                try {
-                  CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
-                } catch (Exception e) {
-                  LOGGER.error("Caught exception while merging two blocks (step 1).", e);
-                  mergedBlock.addToProcessingExceptions(
-                      QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+      numBlocksToMerge = numThreads;
+      blockingQueue = new ArrayBlockingQueue<>(numThreads);
+      // Submit operators.
+      for (final List<Operator> operatorGroup : operatorGroups) {
+        futures.add(_executorService.submit(new TraceRunnable() {
+          @Override
+          public void runJob() {
+            IntermediateResultsBlock mergedBlock = null;
+            try {
+              for (Operator operator : operatorGroup) {
+                IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) operator.nextBlock();
+                if (mergedBlock == null) {
+                  mergedBlock = blockToMerge;
+                } else {
+                  try {
+                    CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+                  } catch (Exception e) {
+                    LOGGER.error("Caught exception while merging two blocks (step 1).", e);
+                    mergedBlock.addToProcessingExceptions(
+                        QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+                  }
                 }
               }
+            } catch (Exception e) {
+              LOGGER.error("Caught exception while executing query.", e);
+              mergedBlock = new IntermediateResultsBlock(e);
             }
-          } catch (Exception e) {
-            LOGGER.error("Caught exception while executing query.", e);
-            mergedBlock = new IntermediateResultsBlock(e);
+            assert mergedBlock != null;
+            blockingQueue.offer(mergedBlock);
           }
-          assert mergedBlock != null;
-          blockingQueue.offer(mergedBlock);
-        }
-      });
+        }));
+      }
     }
     LOGGER.debug("Submitting operators to be run in parallel and it took:" + (System.currentTimeMillis() - startTime));
 
@@ -126,7 +152,7 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
               throws Exception {
             int mergedBlocksNumber = 0;
             IntermediateResultsBlock mergedBlock = null;
-            while (mergedBlocksNumber < numGroups) {
+            while (mergedBlocksNumber < numBlocksToMerge) {
               if (mergedBlock == null) {
                 mergedBlock = (IntermediateResultsBlock) blockingQueue.poll(queryEndTime - System.currentTimeMillis(),
                     TimeUnit.MILLISECONDS);
@@ -173,6 +199,13 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
       mergedBlockFuture.cancel(true);
       mergedBlock =
           new IntermediateResultsBlock(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR, e));
+    } finally {
+      // Cancel all ongoing jobs
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
     }
 
     // Update execution statistics.
@@ -25,16 +25,23 @@ public class BitmapBlock extends BaseFilterBlock {
   // Inclusive
   private final int _endDocId;
   private final boolean _exclusive;
+  private final long _numEntriesScannedInFilter;
 
   public BitmapBlock(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive) {
+    this(bitmaps, startDocId, endDocId, exclusive, 0L);
+  }
+
+  public BitmapBlock(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive,
+      long numEntriesScannedInFilter) {
     _bitmaps = bitmaps;
     _startDocId = startDocId;
     _endDocId = endDocId;
     _exclusive = exclusive;
+    _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
   @Override
   public FilterBlockDocIdSet getFilteredBlockDocIdSet() {
-    return new BitmapDocIdSet(_bitmaps, _startDocId, _endDocId, _exclusive);
+    return new BitmapDocIdSet(_bitmaps, _startDocId, _endDocId, _exclusive, _numEntriesScannedInFilter);
   }
 }
\ No newline at end of file
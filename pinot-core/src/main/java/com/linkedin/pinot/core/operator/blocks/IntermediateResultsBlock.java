@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.operator.blocks;
 
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
@@ -26,14 +27,18 @@ import com.linkedin.pinot.core.common.BlockMetadata;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
+import com.linkedin.pinot.core.common.datatable.DataTableUtils;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -48,6 +53,9 @@ public class IntermediateResultsBlock implements Block {
   private List<Object> _aggregationResult;
   private AggregationGroupByResult _aggregationGroupByResult;
   private List<Map<String, Object>> _combinedAggregationGroupByResult;
+  private List<String> _groupKeyColumnNames;
+  private FieldSpec.DataType[] _groupKeyDataTypes;
+  private Map<String, Object[]> _mergedAggregationGroupByResult;
   private List<ProcessingException> _processingExceptions;
   private long _numDocsScanned;
   private long _numEntriesScannedInFilter;
@@ -144,6 +152,21 @@ public class IntermediateResultsBlock implements Block {
     return _aggregationGroupByResult;
   }
 
+  /**
+   * Sets the group key columns and the merged results (before trimming) for the combined aggregation group-by result,
+   * so that the data table can be built with typed group key columns.
+   *
+   * @param groupKeyColumnNames Names of the group key columns (group-by expressions)
+   * @param groupKeyDataTypes Data types of the values inside the group keys
+   * @param mergedResults Map from string group key to the merged intermediate results for all aggregation functions
+   */
+  public void setGroupKeyColumns(@Nonnull List<String> groupKeyColumnNames,
+      @Nonnull FieldSpec.DataType[] groupKeyDataTypes, @Nonnull Map<String, Object[]> mergedResults) {
+    _groupKeyColumnNames = groupKeyColumnNames;
+    _groupKeyDataTypes = groupKeyDataTypes;
+    _mergedAggregationGroupByResult = mergedResults;
+  }
+
   @Nullable
   public List<ProcessingException> getProcessingExceptions() {
     return _processingExceptions;
@@ -245,7 +268,15 @@ public class IntermediateResultsBlock implements Block {
 
   @Nonnull
   private DataTable getAggregationGroupByResultDataTable() throws Exception {
-    String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
+    if (_groupKeyDataTypes != null && DataTableBuilder.getCurrentDataTableVersion() >= DataTableBuilder.VERSION_3) {
+      DataTable dataTable = getTypedGroupKeyAggregationGroupByResultDataTable();
+      if (dataTable != null) {
+        return dataTable;
+      }
+    }
+
+    String[] columnNames =
+        new String[]{DataTableUtils.GROUP_BY_FUNCTION_NAME_COLUMN, DataTableUtils.GROUP_BY_RESULT_MAP_COLUMN};
     DataSchema.ColumnDataType[] columnDataTypes =
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.OBJECT};
 
@@ -264,6 +295,118 @@ public class IntermediateResultsBlock implements Block {
     return attachMetadataToDataTable(dataTable);
   }
 
+  /**
+   * Builds the aggregation group-by data table with one row per group, where the typed group key columns are followed by
+   * the intermediate result columns. The groups kept after trimming for any aggregation function are included, with the
+   * merged results for all aggregation functions.
+   * <p>Returns <code>null</code> if any group key cannot be split into the group key columns (e.g. a STRING value
+   * contains the group key delimiter), in which case the legacy group key string layout should be used.
+   */
+  @Nullable
+  private DataTable getTypedGroupKeyAggregationGroupByResultDataTable() throws Exception {
+    int numGroupKeyColumns = _groupKeyDataTypes.length;
+    int numAggregationFunctions = _aggregationFunctionContexts.length;
+    int numColumns = numGroupKeyColumns + numAggregationFunctions;
+    String[] columnNames = new String[numColumns];
+    DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numColumns];
+    for (int i = 0; i < numGroupKeyColumns; i++) {
+      columnNames[i] = _groupKeyColumnNames.get(i);
+      columnDataTypes[i] = DataTableUtils.getGroupKeyColumnDataType(_groupKeyDataTypes[i]);
+    }
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      AggregationFunctionContext aggregationFunctionContext = _aggregationFunctionContexts[i];
+      columnNames[numGroupKeyColumns + i] = aggregationFunctionContext.getAggregationColumnName();
+      columnDataTypes[numGroupKeyColumns + i] =
+          aggregationFunctionContext.getAggregationFunction().getIntermediateResultColumnType();
+    }
+
+    // Collect the groups kept after trimming for any aggregation function
+    int numGroups = _mergedAggregationGroupByResult.size();
+    Set<String> groupKeys = null;
+    for (Map<String, Object> trimmedResultMap : _combinedAggregationGroupByResult) {
+      if (trimmedResultMap.size() != numGroups) {
+        groupKeys = new HashSet<>();
+        for (Map<String, Object> resultMap : _combinedAggregationGroupByResult) {
+          groupKeys.addAll(resultMap.keySet());
+        }
+        break;
+      }
+    }
+    if (groupKeys == null) {
+      groupKeys = _mergedAggregationGroupByResult.keySet();
+    }
+
+    // Split the group keys into the group key values
+    int numGroupKeys = groupKeys.size();
+    String[] groupKeyArray = new String[numGroupKeys];
+    String[][] groupKeyValuesArray = new String[numGroupKeys][];
+    int index = 0;
+    for (String groupKey : groupKeys) {
+      groupKeyArray[index] = groupKey;
+      if (numGroupKeyColumns == 1) {
+        groupKeyValuesArray[index] = new String[]{groupKey};
+      } else {
+        // Set limit to -1 to prevent removing trailing empty strings
+        String[] groupKeyValues = groupKey.split(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER, -1);
+        if (groupKeyValues.length != numGroupKeyColumns) {
+          return null;
+        }
+        groupKeyValuesArray[index] = groupKeyValues;
+      }
+      index++;
+    }
+
+    // Build the data table.
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    for (int groupKeyIndex = 0; groupKeyIndex < numGroupKeys; groupKeyIndex++) {
+      dataTableBuilder.startRow();
+      String groupKey = groupKeyArray[groupKeyIndex];
+      String[] groupKeyValues = groupKeyValuesArray[groupKeyIndex];
+      for (int i = 0; i < numGroupKeyColumns; i++) {
+        switch (columnDataTypes[i]) {
+          case INT:
+            dataTableBuilder.setColumn(i, Integer.parseInt(groupKeyValues[i]));
+            break;
+          case LONG:
+            dataTableBuilder.setColumn(i, Long.parseLong(groupKeyValues[i]));
+            break;
+          case FLOAT:
+            dataTableBuilder.setColumn(i, Float.parseFloat(groupKeyValues[i]));
+            break;
+          case DOUBLE:
+            dataTableBuilder.setColumn(i, Double.parseDouble(groupKeyValues[i]));
+            break;
+          default:
+            dataTableBuilder.setColumn(i, groupKeyValues[i]);
+            break;
+        }
+      }
+      Object[] intermediateResults = _mergedAggregationGroupByResult.get(groupKey);
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        int colId = numGroupKeyColumns + i;
+        switch (columnDataTypes[colId]) {
+          case LONG:
+            dataTableBuilder.setColumn(colId, ((Number) intermediateResults[i]).longValue());
+            break;
+          case DOUBLE:
+            dataTableBuilder.setColumn(colId, ((Double) intermediateResults[i]).doubleValue());
+            break;
+          case OBJECT:
+            dataTableBuilder.setColumn(colId, intermediateResults[i]);
+            break;
+          default:
+            throw new UnsupportedOperationException(
+                "Unsupported aggregation column data type: " + columnDataTypes[colId] + " for column: "
+                    + columnNames[colId]);
+        }
+      }
+      dataTableBuilder.finishRow();
+    }
+    DataTable dataTable = dataTableBuilder.build();
+
+    return attachMetadataToDataTable(dataTable);
+  }
+
   private DataTable getProcessingExceptionsDataTable() {
     return attachMetadataToDataTable(new DataTableImplV2());
   }
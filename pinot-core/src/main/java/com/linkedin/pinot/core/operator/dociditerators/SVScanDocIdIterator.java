@@ -24,7 +24,15 @@ import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
+/**
+ * Scan based doc id iterator for single-value columns.
+ * <p>Sequential scans ({@link #next()}) and {@link #applyAnd(MutableRoaringBitmap)} read the values in batches of
+ * {@link #BATCH_SIZE} through the {@link BlockValSet} batch APIs, and evaluate the predicate over the whole batch in a
+ * tight loop. {@link #isMatch(int)} still evaluates one value at a time.
+ */
 public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  static final int BATCH_SIZE = 1024;
+
   private int _currentDocId = -1;
   private final BlockSingleValIterator _valueIterator;
   private int _startDocId;
@@ -34,6 +42,19 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
 
+  // Doc ids of the current batch, compacted to the matching doc ids after the batch is evaluated
+  private final int[] _docIdBuffer = new int[BATCH_SIZE];
+  private int _numMatchingDocIds = 0;
+  private int _matchingDocIdIndex = 0;
+  // Next doc id to be scanned by the batch scan
+  private int _nextScanDocId;
+  // Set once the caller skips docs through advance(), after which the docs are scanned one at a time so that we don't
+  // scan ahead docs that will be skipped anyway
+  private boolean _randomAccess = false;
+  // Next doc id not yet counted in the number of entries scanned. The batch scan reads ahead of the returned doc id,
+  // so the docs are only counted once the iterator moves past them, the same as scanning one doc at a time
+  private int _nextCountDocId;
+
   public SVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
     _datasourceName = datasourceName;
@@ -41,18 +62,18 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
 
     if (evaluator.isAlwaysFalse()) {
-      _currentDocId = Constants.EOF;
       setStartDocId(Constants.EOF);
       setEndDocId(Constants.EOF);
+      _currentDocId = Constants.EOF;
     } else {
       setStartDocId(blockMetadata.getStartDocId());
       setEndDocId(blockMetadata.getEndDocId());
     }
 
     if (evaluator.isDictionaryBased()) {
-      _valueMatcher = new IntMatcher(); // Match using dictionary id's that are integers.
+      _valueMatcher = new DictIdMatcher(blockValSet); // Match using dictionary id's that are integers.
     } else {
-      _valueMatcher = getValueMatcherForType(blockMetadata.getDataType());
+      _valueMatcher = getValueMatcherForType(blockMetadata.getDataType(), blockValSet);
     }
     _valueMatcher.setEvaluator(evaluator);
   }
@@ -66,6 +87,10 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _currentDocId = startDocId - 1;
     _valueIterator.skipTo(startDocId);
     _startDocId = startDocId;
+    _nextScanDocId = startDocId;
+    _nextCountDocId = startDocId;
+    _numMatchingDocIds = 0;
+    _matchingDocIdIndex = 0;
   }
 
   /**
@@ -97,14 +122,28 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       targetDocId = _startDocId;
     } else if (targetDocId > _endDocId) {
       _currentDocId = Constants.EOF;
+      return _currentDocId;
     }
     if (_currentDocId >= targetDocId) {
       return _currentDocId;
-    } else {
-      _currentDocId = targetDocId - 1;
-      _valueIterator.skipTo(targetDocId);
-      return next();
     }
+    // The docs skipped by advance() are not scanned
+    _nextCountDocId = targetDocId;
+
+    // Consume the matching doc ids already found by the batch scan
+    while (_matchingDocIdIndex < _numMatchingDocIds) {
+      int docId = _docIdBuffer[_matchingDocIdIndex++];
+      if (docId >= targetDocId) {
+        return setCurrentDocId(docId);
+      }
+    }
+
+    // No need to re-scan the docs already scanned
+    if (targetDocId > _nextScanDocId) {
+      _nextScanDocId = targetDocId;
+      _randomAccess = true;
+    }
+    return next();
   }
 
   @Override
@@ -112,17 +151,55 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return Constants.EOF;
     }
-    while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
-      _currentDocId = _currentDocId + 1;
-      _numEntriesScanned++;
+    while (_matchingDocIdIndex == _numMatchingDocIds) {
+      if (_nextScanDocId > _endDocId) {
+        countEntriesScanned(_endDocId);
+        _currentDocId = Constants.EOF;
+        return Constants.EOF;
+      }
+      if (_randomAccess) {
+        return scanNextMatchingDocId();
+      }
+      int numDocs = Math.min(BATCH_SIZE, _endDocId - _nextScanDocId + 1);
+      for (int i = 0; i < numDocs; i++) {
+        _docIdBuffer[i] = _nextScanDocId + i;
+      }
+      _nextScanDocId += numDocs;
+      _numMatchingDocIds = _valueMatcher.matchBatch(_docIdBuffer, numDocs);
+      _matchingDocIdIndex = 0;
+    }
+    return setCurrentDocId(_docIdBuffer[_matchingDocIdIndex++]);
+  }
+
+  private int scanNextMatchingDocId() {
+    _valueIterator.skipTo(_nextScanDocId);
+    while (_nextScanDocId <= _endDocId) {
+      int docId = _nextScanDocId++;
       if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
-        return _currentDocId;
+        return setCurrentDocId(docId);
       }
     }
+    countEntriesScanned(_endDocId);
     _currentDocId = Constants.EOF;
     return Constants.EOF;
   }
 
+  private int setCurrentDocId(int docId) {
+    countEntriesScanned(docId);
+    _currentDocId = docId;
+    return docId;
+  }
+
+  /**
+   * Counts the docs up to (inclusive) the given doc id that are not counted yet as scanned.
+   */
+  private void countEntriesScanned(int docId) {
+    if (docId >= _nextCountDocId) {
+      _numEntriesScanned += docId - _nextCountDocId + 1;
+      _nextCountDocId = docId + 1;
+    }
+  }
+
   @Override
   public int currentDocId() {
     return _currentDocId;
@@ -139,21 +216,36 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_evaluator.isAlwaysFalse()) {
       return result;
     }
+    int[] docIds = new int[BATCH_SIZE];
+    int numDocs = 0;
     IntIterator intIterator = answer.getIntIterator();
-    int docId = -1;
-    while (intIterator.hasNext() && docId < _endDocId) {
-      docId = intIterator.next();
+    while (intIterator.hasNext()) {
+      int docId = intIterator.next();
+      if (docId > _endDocId) {
+        break;
+      }
       if (docId >= _startDocId) {
-        _valueIterator.skipTo(docId);
-        _numEntriesScanned++;
-        if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
-          result.add(docId);
+        docIds[numDocs++] = docId;
+        if (numDocs == BATCH_SIZE) {
+          addMatchingDocIds(docIds, numDocs, result);
+          numDocs = 0;
         }
       }
     }
+    if (numDocs > 0) {
+      addMatchingDocIds(docIds, numDocs, result);
+    }
     return result;
   }
 
+  private void addMatchingDocIds(int[] docIds, int numDocs, MutableRoaringBitmap result) {
+    _numEntriesScanned += numDocs;
+    int numMatchingDocIds = _valueMatcher.matchBatch(docIds, numDocs);
+    for (int i = 0; i < numMatchingDocIds; i++) {
+      result.add(docIds[i]);
+    }
+  }
+
   @Override
   public int getNumEntriesScanned() {
     return _numEntriesScanned;
@@ -162,25 +254,26 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   /**
    * Helper method to get value matcher for a given data type.
    * @param dataType data type for which to get the value matcher
+   * @param blockValSet block value set to read the values from
    * @return value matcher for the data type.
    */
-  private static ValueMatcher getValueMatcherForType(FieldSpec.DataType dataType) {
+  private static ValueMatcher getValueMatcherForType(FieldSpec.DataType dataType, BlockValSet blockValSet) {
 
     switch (dataType) {
       case INT:
-        return new IntMatcher();
+        return new IntMatcher(blockValSet);
 
       case LONG:
-        return new LongMatcher();
+        return new LongMatcher(blockValSet);
 
       case FLOAT:
-        return new FloatMatcher();
+        return new FloatMatcher(blockValSet);
 
       case DOUBLE:
-        return new DoubleMatcher();
+        return new DoubleMatcher(blockValSet);
 
       case STRING:
-        return new StringMatcher();
+        return new StringMatcher(blockValSet);
 
       default:
         throw new UnsupportedOperationException("Index without dictionary not supported for data type: " + dataType);
@@ -188,52 +281,140 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   }
 
   private static abstract class ValueMatcher {
+    protected final BlockValSet _blockValSet;
     protected PredicateEvaluator _evaluator;
 
+    ValueMatcher(BlockValSet blockValSet) {
+      _blockValSet = blockValSet;
+    }
+
     public void setEvaluator(PredicateEvaluator evaluator) {
       _evaluator = evaluator;
     }
 
     abstract boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator);
+
+    /**
+     * Evaluates the predicate on a batch of docs, and compacts the matching doc ids to the front of the given array.
+     *
+     * @param docIds Array of doc ids to evaluate
+     * @param numDocs Number of doc ids in the array
+     * @return Number of matching doc ids
+     */
+    abstract int matchBatch(int[] docIds, int numDocs);
+  }
+
+  private static class DictIdMatcher extends ValueMatcher {
+    private final int[] _dictIds = new int[BATCH_SIZE];
+
+    DictIdMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
+
+    @Override
+    public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
+      return _evaluator.applySV(valueIterator.nextIntVal());
+    }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getDictionaryIds(docIds, 0, numDocs, _dictIds, 0);
+      return _evaluator.applySV(numDocs, docIds, _dictIds);
+    }
   }
 
   private static class IntMatcher extends ValueMatcher {
+    private final int[] _values = new int[BATCH_SIZE];
+
+    IntMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextIntVal());
     }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getIntValues(docIds, 0, numDocs, _values, 0);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class LongMatcher extends ValueMatcher {
+    private final long[] _values = new long[BATCH_SIZE];
+
+    LongMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextLongVal());
     }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getLongValues(docIds, 0, numDocs, _values, 0);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class FloatMatcher extends ValueMatcher {
+    private final float[] _values = new float[BATCH_SIZE];
+
+    FloatMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextFloatVal());
     }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getFloatValues(docIds, 0, numDocs, _values, 0);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class DoubleMatcher extends ValueMatcher {
+    private final double[] _values = new double[BATCH_SIZE];
+
+    DoubleMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextDoubleVal());
     }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getDoubleValues(docIds, 0, numDocs, _values, 0);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 
   private static class StringMatcher extends ValueMatcher {
+    private final String[] _values = new String[BATCH_SIZE];
+
+    StringMatcher(BlockValSet blockValSet) {
+      super(blockValSet);
+    }
 
     @Override
     public boolean doesCurrentEntryMatch(BlockSingleValIterator valueIterator) {
       return _evaluator.applySV(valueIterator.nextStringVal());
     }
+
+    @Override
+    int matchBatch(int[] docIds, int numDocs) {
+      _blockValSet.getStringValues(docIds, 0, numDocs, _values, 0);
+      return _evaluator.applySV(numDocs, docIds, _values);
+    }
   }
 }
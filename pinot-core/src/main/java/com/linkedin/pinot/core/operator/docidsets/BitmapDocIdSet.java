@@ -26,8 +26,14 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
   private int _startDocId;
   // Inclusive
   private int _endDocId;
+  private final long _numEntriesScannedInFilter;
 
   public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive) {
+    this(bitmaps, startDocId, endDocId, exclusive, 0L);
+  }
+
+  public BitmapDocIdSet(ImmutableRoaringBitmap[] bitmaps, int startDocId, int endDocId, boolean exclusive,
+      long numEntriesScannedInFilter) {
     int numBitmaps = bitmaps.length;
     if (numBitmaps > 1) {
       MutableRoaringBitmap orBitmap = MutableRoaringBitmap.or(bitmaps);
@@ -55,6 +61,7 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
     _startDocId = startDocId;
     _endDocId = endDocId;
+    _numEntriesScannedInFilter = numEntriesScannedInFilter;
   }
 
   @Override
@@ -79,7 +86,7 @@ public class BitmapDocIdSet implements FilterBlockDocIdSet {
 
   @Override
   public long getNumEntriesScannedInFilter() {
-    return 0L;
+    return _numEntriesScannedInFilter;
   }
 
   @Override
@@ -19,6 +19,7 @@ import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.common.DataSourceMetadata;
 import com.linkedin.pinot.core.common.Predicate;
 import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -37,9 +38,15 @@ public class FilterOperatorUtils {
       return EmptyFilterOperator.getInstance();
     }
 
-    // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
+    // Use range index for RANGE predicate if available
     DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
     Predicate.Type predicateType = predicateEvaluator.getPredicateType();
+    if (predicateType == Predicate.Type.RANGE && dataSourceMetadata.hasRangeIndex()
+        && predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator) {
+      return new RangeIndexBasedFilterOperator(predicateEvaluator, dataSource, startDocId, endDocId);
+    }
+
+    // Use inverted index if the predicate type is not RANGE or REGEXP_LIKE for efficiency
     if (dataSourceMetadata.hasInvertedIndex() && (predicateType != Predicate.Type.RANGE) && (predicateType
         != Predicate.Type.REGEXP_LIKE)) {
       if (dataSourceMetadata.isSorted()) {
@@ -72,6 +79,9 @@ public class FilterOperatorUtils {
         if (filterOperator instanceof BitmapBasedFilterOperator) {
           return 1;
         }
+        if (filterOperator instanceof RangeIndexBasedFilterOperator) {
+          return 1;
+        }
         if (filterOperator instanceof AndOperator) {
           return 2;
         }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.filter;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.core.common.BlockValSet;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.operator.blocks.BaseFilterBlock;
+import com.linkedin.pinot.core.operator.blocks.BitmapBlock;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory.OfflineDictionaryBasedRangePredicateEvaluator;
+import com.linkedin.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Filter operator for RANGE predicate on columns with range index.
+ * <p>The bitmaps of the ranges fully covered by the predicate are used directly. For the (at most 2) ranges partially
+ * covered by the predicate, the bitmaps from the inverted index are used if available, otherwise the documents inside
+ * the range are scanned to filter out the non-matching ones.
+ */
+public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
+  private static final String OPERATOR_NAME = "RangeIndexBasedFilterOperator";
+  private static final int SCAN_BATCH_SIZE = 1024;
+
+  private final OfflineDictionaryBasedRangePredicateEvaluator _predicateEvaluator;
+  private final DataSource _dataSource;
+  private final int _startDocId;
+  // TODO: change it to exclusive
+  // Inclusive
+  private final int _endDocId;
+
+  public RangeIndexBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId,
+      int endDocId) {
+    Preconditions.checkArgument(predicateEvaluator instanceof OfflineDictionaryBasedRangePredicateEvaluator,
+        "Range index can only be applied to dictionary based RANGE predicate on offline segment");
+    _predicateEvaluator = (OfflineDictionaryBasedRangePredicateEvaluator) predicateEvaluator;
+    _dataSource = dataSource;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  protected BaseFilterBlock getNextBlock() {
+    int startDictId = _predicateEvaluator.getStartDictId();
+    int endDictId = _predicateEvaluator.getEndDictId();
+    if (startDictId >= endDictId) {
+      return new BitmapBlock(new ImmutableRoaringBitmap[0], _startDocId, _endDocId, false);
+    }
+
+    BitmapRangeIndexReader rangeIndex = _dataSource.getRangeIndex();
+    int firstRangeId = rangeIndex.getRangeId(startDictId);
+    int lastRangeId = rangeIndex.getRangeId(endDictId - 1);
+
+    List<ImmutableRoaringBitmap> bitmaps = new ArrayList<>(lastRangeId - firstRangeId + 1);
+    long numEntriesScanned = 0L;
+    for (int rangeId = firstRangeId; rangeId <= lastRangeId; rangeId++) {
+      int rangeStartDictId = rangeIndex.getRangeStartDictId(rangeId);
+      int rangeEndDictId = rangeIndex.getRangeEndDictId(rangeId);
+      if (rangeStartDictId >= startDictId && rangeEndDictId <= endDictId) {
+        // Fully covered range
+        bitmaps.add(rangeIndex.getDocIds(rangeId));
+      } else {
+        // Partially covered range
+        int matchingStartDictId = Math.max(rangeStartDictId, startDictId);
+        int matchingEndDictId = Math.min(rangeEndDictId, endDictId);
+        InvertedIndexReader invertedIndex = _dataSource.getInvertedIndex();
+        if (invertedIndex != null) {
+          for (int dictId = matchingStartDictId; dictId < matchingEndDictId; dictId++) {
+            bitmaps.add((ImmutableRoaringBitmap) invertedIndex.getDocIds(dictId));
+          }
+        } else {
+          MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
+          numEntriesScanned += scanRange(rangeIndex.getDocIds(rangeId), matchingDocIds);
+          bitmaps.add(matchingDocIds);
+        }
+      }
+    }
+
+    return new BitmapBlock(bitmaps.toArray(new ImmutableRoaringBitmap[bitmaps.size()]), _startDocId, _endDocId, false,
+        numEntriesScanned);
+  }
+
+  /**
+   * Scans the documents inside the given range bitmap, adds the matching ones into the given bitmap, and returns the
+   * number of documents scanned.
+   */
+  private int scanRange(ImmutableRoaringBitmap rangeDocIds, MutableRoaringBitmap matchingDocIds) {
+    BlockValSet blockValSet = _dataSource.nextBlock().getBlockValueSet();
+    int[] docIds = new int[SCAN_BATCH_SIZE];
+    int[] dictIds = new int[SCAN_BATCH_SIZE];
+    int numDocsScanned = 0;
+    int numDocsInBatch = 0;
+    IntIterator iterator = rangeDocIds.getIntIterator();
+    while (iterator.hasNext()) {
+      int docId = iterator.next();
+      if (docId < _startDocId) {
+        continue;
+      }
+      if (docId > _endDocId) {
+        break;
+      }
+      docIds[numDocsInBatch++] = docId;
+      if (numDocsInBatch == SCAN_BATCH_SIZE) {
+        addMatchingDocIds(blockValSet, docIds, dictIds, numDocsInBatch, matchingDocIds);
+        numDocsScanned += numDocsInBatch;
+        numDocsInBatch = 0;
+      }
+    }
+    if (numDocsInBatch > 0) {
+      addMatchingDocIds(blockValSet, docIds, dictIds, numDocsInBatch, matchingDocIds);
+      numDocsScanned += numDocsInBatch;
+    }
+    return numDocsScanned;
+  }
+
+  private void addMatchingDocIds(BlockValSet blockValSet, int[] docIds, int[] dictIds, int numDocs,
+      MutableRoaringBitmap matchingDocIds) {
+    blockValSet.getDictionaryIds(docIds, 0, numDocs, dictIds, 0);
+    int numMatchingDocIds = _predicateEvaluator.applySV(numDocs, docIds, dictIds);
+    for (int i = 0; i < numMatchingDocIds; i++) {
+      matchingDocIds.add(docIds[i]);
+    }
+  }
+
+  @Override
+  public boolean isResultEmpty() {
+    return _predicateEvaluator.isAlwaysFalse();
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
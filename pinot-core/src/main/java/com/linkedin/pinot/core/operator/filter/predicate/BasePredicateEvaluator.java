@@ -21,4 +21,62 @@ public abstract class BasePredicateEvaluator implements PredicateEvaluator {
   public final boolean isExclusive() {
     return getPredicateType().isExclusive();
   }
+
+  // NOTE: the batch APIs below loop over the single-value APIs so that the call can be inlined within each concrete
+  // evaluator. Override them for predicates that can be evaluated with a cheaper comparison.
+
+  @Override
+  public int applySV(int limit, int[] docIds, int[] values) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocIds++] = docIds[i];
+      }
+    }
+    return numMatchingDocIds;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, long[] values) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocIds++] = docIds[i];
+      }
+    }
+    return numMatchingDocIds;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, float[] values) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocIds++] = docIds[i];
+      }
+    }
+    return numMatchingDocIds;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, double[] values) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocIds++] = docIds[i];
+      }
+    }
+    return numMatchingDocIds;
+  }
+
+  @Override
+  public int applySV(int limit, int[] docIds, String[] values) {
+    int numMatchingDocIds = 0;
+    for (int i = 0; i < limit; i++) {
+      if (applySV(values[i])) {
+        docIds[numMatchingDocIds++] = docIds[i];
+      }
+    }
+    return numMatchingDocIds;
+  }
 }
@@ -93,6 +93,18 @@ public class EqualsPredicateEvaluatorFactory {
       return _matchingDictId == dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] dictIds) {
+      int matchingDictId = _matchingDictId;
+      int numMatchingDocIds = 0;
+      for (int i = 0; i < limit; i++) {
+        if (dictIds[i] == matchingDictId) {
+          docIds[numMatchingDocIds++] = docIds[i];
+        }
+      }
+      return numMatchingDocIds;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       return _matchingDictIds;
@@ -60,6 +60,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(int[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of doc ids for the entries, overwritten with the matching doc ids
+   * @param values Array of dictionary ids or raw values
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, int[] values);
+
   /**
    * APIs for dictionary based predicate evaluator
    */
@@ -95,6 +106,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(long[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of doc ids for the entries, overwritten with the matching doc ids
+   * @param values Array of raw values
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, long[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -112,6 +134,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(float[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of doc ids for the entries, overwritten with the matching doc ids
+   * @param values Array of raw values
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, float[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -129,6 +162,17 @@ public interface PredicateEvaluator {
    */
   boolean applyMV(double[] values, int length);
 
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of doc ids for the entries, overwritten with the matching doc ids
+   * @param values Array of raw values
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, double[] values);
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -145,4 +189,15 @@ public interface PredicateEvaluator {
    * @return Whether the entry matches the predicate
    */
   boolean applyMV(String[] values, int length);
+
+  /**
+   * Apply a batch of single-value entries to the predicate, and compact the doc ids of the matching entries to the
+   * front of the doc id array.
+   *
+   * @param limit Number of entries in the batch
+   * @param docIds Array of doc ids for the entries, overwritten with the matching doc ids
+   * @param values Array of raw values
+   * @return Number of matching entries
+   */
+  int applySV(int limit, int[] docIds, String[] values);
 }
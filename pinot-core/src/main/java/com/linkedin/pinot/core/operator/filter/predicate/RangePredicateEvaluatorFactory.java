@@ -73,7 +73,11 @@ public class RangePredicateEvaluatorFactory {
     }
   }
 
-  private static final class OfflineDictionaryBasedRangePredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
+  /**
+   * Dictionary based RANGE predicate evaluator for OFFLINE segment. Since the dictionary is sorted, the matching
+   * dictionary ids are always contiguous.
+   */
+  public static final class OfflineDictionaryBasedRangePredicateEvaluator extends BaseDictionaryBasedPredicateEvaluator {
     final int _startDictId;
     // Exclusive
     final int _endDictId;
@@ -115,6 +119,20 @@ public class RangePredicateEvaluatorFactory {
       }
     }
 
+    /**
+     * Returns the first matching dictionary id (inclusive).
+     */
+    public int getStartDictId() {
+      return _startDictId;
+    }
+
+    /**
+     * Returns the last matching dictionary id (exclusive).
+     */
+    public int getEndDictId() {
+      return _endDictId;
+    }
+
     @Override
     public Predicate.Type getPredicateType() {
       return Predicate.Type.RANGE;
@@ -130,6 +148,20 @@ public class RangePredicateEvaluatorFactory {
       return _startDictId <= dictId && _endDictId > dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] dictIds) {
+      int startDictId = _startDictId;
+      int endDictId = _endDictId;
+      int numMatchingDocIds = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = dictIds[i];
+        if (startDictId <= dictId && endDictId > dictId) {
+          docIds[numMatchingDocIds++] = docIds[i];
+        }
+      }
+      return numMatchingDocIds;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       if (_matchingDictIds == null) {
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>CachedAggregationOperator</code> class serves the aggregation only query on a segment from the results
+ * cached in the {@link SegmentResultCache}.
+ */
+public class CachedAggregationOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "CachedAggregationOperator";
+
+  private final AggregationFunctionContext[] _aggregationFunctionContexts;
+  private final SegmentResultCache.CachedResult _cachedResult;
+
+  public CachedAggregationOperator(@Nonnull AggregationFunctionContext[] aggregationFunctionContexts,
+      @Nonnull SegmentResultCache.CachedResult cachedResult) {
+    _aggregationFunctionContexts = aggregationFunctionContexts;
+    _cachedResult = cachedResult;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    try {
+      return _cachedResult.toResultsBlock(_aggregationFunctionContexts);
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while deserializing the cached results", e);
+    }
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _cachedResult.getExecutionStatistics();
+  }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.query;
+
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.BaseOperator;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class wraps the segment level aggregation only operator, and puts its
+ * results into the {@link SegmentResultCache}.
+ * <p>The results are put into the cache before they are returned, because the combine operator merges the results
+ * into the first results block in place.
+ */
+public class SegmentResultCacheOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "SegmentResultCacheOperator";
+
+  private final Operator<IntermediateResultsBlock> _operator;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _cacheKey;
+
+  public SegmentResultCacheOperator(@Nonnull Operator<IntermediateResultsBlock> operator,
+      @Nonnull SegmentResultCache segmentResultCache, @Nonnull SegmentResultCache.Key cacheKey) {
+    _operator = operator;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = cacheKey;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    IntermediateResultsBlock resultsBlock = _operator.nextBlock();
+    _segmentResultCache.put(_cacheKey, resultsBlock, _operator.getExecutionStatistics());
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _operator.getExecutionStatistics();
+  }
+}
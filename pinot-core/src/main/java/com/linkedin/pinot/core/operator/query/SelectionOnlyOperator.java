@@ -27,10 +27,12 @@ import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.operator.blocks.ProjectionBlock;
 import com.linkedin.pinot.core.query.selection.SelectionFetcher;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import com.linkedin.pinot.core.query.selection.SelectionRowBudget;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nullable;
 
 
 /**
@@ -48,10 +50,21 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
   private final Block[] _blocks;
   private final int _limitDocs;
   private final Collection<Serializable[]> _rowEvents;
+  private final SelectionRowBudget _rowBudget;
   private ExecutionStatistics _executionStatistics;
 
   public SelectionOnlyOperator(IndexSegment indexSegment, Selection selection, ProjectionOperator projectionOperator) {
+    this(indexSegment, selection, projectionOperator, null);
+  }
+
+  /**
+   * Constructor with a query-scoped row budget shared with the other segments of the query. The operator stops
+   * scanning (or skips the segment entirely) once enough rows have been collected across all segments.
+   */
+  public SelectionOnlyOperator(IndexSegment indexSegment, Selection selection, ProjectionOperator projectionOperator,
+      @Nullable SelectionRowBudget rowBudget) {
     _indexSegment = indexSegment;
+    _rowBudget = rowBudget;
     _limitDocs = selection.getSize();
     _projectionOperator = projectionOperator;
     List<String> selectionColumns =
@@ -63,6 +76,14 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
 
   @Override
   protected IntermediateResultsBlock getNextBlock() {
+    long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
+
+    // Skip the segment if other segments already collected enough rows.
+    if (_rowBudget != null && _rowBudget.isExhausted()) {
+      _executionStatistics = new ExecutionStatistics(0L, 0L, 0L, numTotalRawDocs);
+      return new IntermediateResultsBlock(_dataSchema, _rowEvents);
+    }
+
     int numDocsScanned = 0;
 
     ProjectionBlock projectionBlock;
@@ -78,7 +99,10 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
       for (int i = 0; i < numDocsToFetch; i++) {
         _rowEvents.add(selectionFetcher.getRow(docIdSet[i]));
       }
-      if (_rowEvents.size() == _limitDocs) {
+      if (_rowBudget != null) {
+        _rowBudget.addCollectedRows(numDocsToFetch);
+      }
+      if (_rowEvents.size() == _limitDocs || (_rowBudget != null && _rowBudget.isExhausted())) {
         break;
       }
     }
@@ -86,7 +110,6 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
     // Create execution statistics.
     long numEntriesScannedInFilter = _projectionOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
     long numEntriesScannedPostFilter = numDocsScanned * _projectionOperator.getNumColumnsProjected();
-    long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
             numTotalRawDocs);
@@ -19,6 +19,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.core.common.Operator;
 import com.linkedin.pinot.core.operator.CombineGroupByOperator;
 import com.linkedin.pinot.core.operator.CombineOperator;
+import com.linkedin.pinot.core.query.config.CombineConfig;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
 import com.linkedin.pinot.core.util.trace.TraceCallable;
 import java.util.ArrayList;
@@ -43,6 +44,7 @@ public class CombinePlanNode implements PlanNode {
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
   private final long _timeOutMs;
+  private final CombineConfig _combineConfig;
 
   /**
    * Constructor for the class.
@@ -54,10 +56,25 @@ public class CombinePlanNode implements PlanNode {
    */
   public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
       long timeOutMs) {
+    this(planNodes, brokerRequest, executorService, timeOutMs, new CombineConfig());
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param planNodes List of underlying plan nodes
+   * @param brokerRequest Broker request
+   * @param executorService Executor service
+   * @param timeOutMs Time out in milliseconds for query execution (not for planning phase)
+   * @param combineConfig Config for the inter-segment combine phase
+   */
+  public CombinePlanNode(List<PlanNode> planNodes, BrokerRequest brokerRequest, ExecutorService executorService,
+      long timeOutMs, CombineConfig combineConfig) {
     _planNodes = planNodes;
     _brokerRequest = brokerRequest;
     _executorService = executorService;
     _timeOutMs = timeOutMs;
+    _combineConfig = combineConfig;
   }
 
   @Override
@@ -115,10 +132,10 @@ public class CombinePlanNode implements PlanNode {
     // TODO: use the same combine operator for both aggregation and selection query.
     if (_brokerRequest.isSetAggregationsInfo() && _brokerRequest.getGroupBy() != null) {
       // Aggregation group-by query
-      return new CombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest);
+      return new CombineGroupByOperator(operators, _executorService, _timeOutMs, _brokerRequest, _combineConfig);
     } else {
       // Selection or aggregation only query
-      return new CombineOperator(operators, _executorService, _timeOutMs, _brokerRequest);
+      return new CombineOperator(operators, _executorService, _timeOutMs, _brokerRequest, _combineConfig);
     }
   }
 
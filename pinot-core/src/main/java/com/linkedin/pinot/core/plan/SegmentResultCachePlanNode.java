@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.plan;
+
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.operator.query.CachedAggregationOperator;
+import com.linkedin.pinot.core.operator.query.SegmentResultCacheOperator;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for aggregation only query on a single
+ * immutable segment with the {@link SegmentResultCache}.
+ * <p>If the results of the segment are cached, serves the query from the cache without running the inner plan;
+ * otherwise runs the inner plan and caches its results.
+ */
+public class SegmentResultCachePlanNode implements PlanNode {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCachePlanNode.class);
+
+  private final IndexSegment _indexSegment;
+  private final BrokerRequest _brokerRequest;
+  private final PlanNode _planNode;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _cacheKey;
+
+  public SegmentResultCachePlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
+      @Nonnull PlanNode planNode, @Nonnull SegmentResultCache segmentResultCache, @Nonnull String queryFingerprint) {
+    _indexSegment = indexSegment;
+    _brokerRequest = brokerRequest;
+    _planNode = planNode;
+    _segmentResultCache = segmentResultCache;
+    _cacheKey = new SegmentResultCache.Key(brokerRequest.getQuerySource().getTableName(),
+        indexSegment.getSegmentName(), indexSegment.getSegmentMetadata().getCrc(), queryFingerprint);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Operator run() {
+    SegmentResultCache.CachedResult cachedResult = _segmentResultCache.get(_cacheKey);
+    if (cachedResult != null) {
+      return new CachedAggregationOperator(
+          AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest.getAggregationsInfo(),
+              _indexSegment.getSegmentMetadata()), cachedResult);
+    }
+    return new SegmentResultCacheOperator((Operator<IntermediateResultsBlock>) _planNode.run(), _segmentResultCache,
+        _cacheKey);
+  }
+
+  @Override
+  public void showTree(String prefix) {
+    LOGGER.debug(prefix + "Segment Level Inner-Segment Plan Node:");
+    LOGGER.debug(prefix + "Operator: SegmentResultCacheOperator");
+    LOGGER.debug(prefix + "Argument 0: IndexSegment - " + _indexSegment.getSegmentName());
+    LOGGER.debug(prefix + "Argument 1: Inner Plan -");
+    _planNode.showTree(prefix + "    ");
+  }
+}
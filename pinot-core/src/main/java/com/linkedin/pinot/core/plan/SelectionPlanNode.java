@@ -23,6 +23,8 @@ import com.linkedin.pinot.core.operator.query.EmptySelectionOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOnlyOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOrderByOperator;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import com.linkedin.pinot.core.query.selection.SelectionRowBudget;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,9 +38,23 @@ public class SelectionPlanNode implements PlanNode {
   private final IndexSegment _indexSegment;
   private final Selection _selection;
   private final ProjectionPlanNode _projectionPlanNode;
+  private final SelectionRowBudget _rowBudget;
 
   public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    this(indexSegment, brokerRequest, null);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param indexSegment Index segment
+   * @param brokerRequest Broker request
+   * @param rowBudget Query-scoped row budget shared across segments for selection only queries, or null
+   */
+  public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      @Nullable SelectionRowBudget rowBudget) {
     _indexSegment = indexSegment;
+    _rowBudget = rowBudget;
     _selection = brokerRequest.getSelections();
 
     if (_selection.getSize() > 0) {
@@ -63,7 +79,7 @@ public class SelectionPlanNode implements PlanNode {
       if (_selection.isSetSelectionSortSequence()) {
         return new SelectionOrderByOperator(_indexSegment, _selection, _projectionPlanNode.run());
       } else {
-        return new SelectionOnlyOperator(_indexSegment, _selection, _projectionPlanNode.run());
+        return new SelectionOnlyOperator(_indexSegment, _selection, _projectionPlanNode.run(), _rowBudget);
       }
     } else {
       return new EmptySelectionOperator(_indexSegment, _selection);
@@ -18,9 +18,11 @@ package com.linkedin.pinot.core.plan;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.request.transform.TransformExpressionTree;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.operator.transform.TransformOperator;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.Nonnull;
@@ -47,7 +49,7 @@ public class TransformPlanNode implements PlanNode {
    */
   public TransformPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest) {
     _segmentName = indexSegment.getSegmentName();
-    extractColumnsAndTransforms(brokerRequest);
+    extractColumnsAndTransforms(brokerRequest, indexSegment.getSegmentMetadata());
     _projectionPlanNode =
         new ProjectionPlanNode(indexSegment, _projectionColumns, new DocIdSetPlanNode(indexSegment, brokerRequest));
   }
@@ -56,13 +58,15 @@ public class TransformPlanNode implements PlanNode {
    * Helper method to extract projection columns and transform expressions from the given broker request.
    *
    * @param brokerRequest Broker request to process
+   * @param segmentMetadata Metadata of the segment to process, used to read star tree derived columns if present
    */
-  private void extractColumnsAndTransforms(@Nonnull BrokerRequest brokerRequest) {
+  private void extractColumnsAndTransforms(@Nonnull BrokerRequest brokerRequest,
+      @Nonnull SegmentMetadata segmentMetadata) {
     if (brokerRequest.isSetAggregationsInfo()) {
       for (AggregationInfo aggregationInfo : brokerRequest.getAggregationsInfo()) {
         if (!aggregationInfo.getAggregationType()
             .equalsIgnoreCase(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-          String[] columns = aggregationInfo.getAggregationParams().get("column").split(",");
+          String[] columns = AggregationFunctionUtils.getInputColumns(aggregationInfo, segmentMetadata);
           for (String column : columns) {
             TransformExpressionTree transformExpressionTree = TransformExpressionTree.compileToExpressionTree(column);
             transformExpressionTree.getColumns(_projectionColumns);
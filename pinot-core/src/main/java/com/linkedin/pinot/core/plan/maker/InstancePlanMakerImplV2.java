@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.core.common.DataSource;
 import com.linkedin.pinot.core.data.manager.SegmentDataManager;
 import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
 import com.linkedin.pinot.core.plan.AggregationGroupByPlanNode;
 import com.linkedin.pinot.core.plan.AggregationPlanNode;
 import com.linkedin.pinot.core.plan.CombinePlanNode;
@@ -29,14 +30,19 @@ import com.linkedin.pinot.core.plan.InstanceResponsePlanNode;
 import com.linkedin.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.PlanNode;
+import com.linkedin.pinot.core.plan.SegmentResultCachePlanNode;
 import com.linkedin.pinot.core.plan.SelectionPlanNode;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory.AggregationFunctionType;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
+import com.linkedin.pinot.core.query.config.CombineConfig;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
+import com.linkedin.pinot.core.query.selection.SelectionRowBudget;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 
 
 /**
@@ -47,6 +53,8 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
 
   private final int _maxInitialResultHolderCapacity;
+  private final CombineConfig _combineConfig;
+  private final SegmentResultCache _segmentResultCache;
 
   // TODO: Fix the runtime trimming and add back the number of aggregation groups limit.
   // TODO: Need to revisit the runtime trimming solution. Current solution will remove group keys that should not be removed.
@@ -60,6 +68,8 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    */
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
+    _combineConfig = new CombineConfig();
+    _segmentResultCache = null;
 //    _numAggrGroupsLimit = DEFAULT_NUM_AGGR_GROUPS_LIMIT;
   }
 
@@ -67,13 +77,28 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * Constructor for usage when client requires to pass {@link QueryExecutorConfig} to this class.
    * <ul>
    *   <li>Set limit on number of aggregation groups in query result.</li>
+   *   <li>Set the parallelism and scheduling mode for the inter-segment combine phase.</li>
    * </ul>
    *
    * @param queryExecutorConfig query executor configuration.
    */
   public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig) {
+    this(queryExecutorConfig, null);
+  }
+
+  /**
+   * Constructor for usage when client requires to pass {@link QueryExecutorConfig} and {@link SegmentResultCache} to
+   * this class.
+   *
+   * @param queryExecutorConfig query executor configuration.
+   * @param segmentResultCache segment level result cache for aggregation only queries, or null to disable the cache.
+   */
+  public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig,
+      @Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getInt(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    _combineConfig = queryExecutorConfig.getCombineConfig();
 
     // TODO: Read the limit on number of aggregation groups in query result from config.
     // _numAggrGroupsLimit = queryExecutorConfig.getConfig().getInt(NUM_AGGR_GROUPS_LIMIT, DEFAULT_NUM_AGGR_GROUPS_LIMIT);
@@ -114,14 +139,45 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     BrokerRequestPreProcessor.preProcess(indexSegments, brokerRequest);
 
     List<PlanNode> planNodes = new ArrayList<>();
-    for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+    if (isSelectionOnlyQuery(brokerRequest)) {
+      // Share one row budget across all segments so that segments can stop scanning once the limit is reached
+      SelectionRowBudget rowBudget = new SelectionRowBudget(brokerRequest.getSelections().getSize());
+      for (IndexSegment indexSegment : indexSegments) {
+        planNodes.add(new SelectionPlanNode(indexSegment, brokerRequest, rowBudget));
+      }
+    } else if (_segmentResultCache != null && SegmentResultCache.isCacheable(brokerRequest)) {
+      // Only cache the results of immutable segments, the results of mutable segments change with the ingestion
+      String queryFingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+      for (IndexSegment indexSegment : indexSegments) {
+        PlanNode planNode = makeInnerSegmentPlan(indexSegment, brokerRequest);
+        if (indexSegment instanceof ImmutableSegment) {
+          planNode = new SegmentResultCachePlanNode(indexSegment, brokerRequest, planNode, _segmentResultCache,
+              queryFingerprint);
+        }
+        planNodes.add(planNode);
+      }
+    } else {
+      for (IndexSegment indexSegment : indexSegments) {
+        planNodes.add(makeInnerSegmentPlan(indexSegment, brokerRequest));
+      }
     }
-    CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs);
+    CombinePlanNode combinePlanNode =
+        new CombinePlanNode(planNodes, brokerRequest, executorService, timeOutMs, _combineConfig);
 
     return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
   }
 
+  /**
+   * Helper method to identify if query is a selection query without ordering.
+   *
+   * @param brokerRequest Broker request
+   * @return True if query is a selection only query with non-zero size, false otherwise.
+   */
+  private static boolean isSelectionOnlyQuery(BrokerRequest brokerRequest) {
+    return !brokerRequest.isSetAggregationsInfo() && brokerRequest.isSetSelections()
+        && !brokerRequest.getSelections().isSetSelectionSortSequence() && brokerRequest.getSelections().getSize() > 0;
+  }
+
   /**
    * Helper method to identify if query is fit to be be served purely based on metadata.
    * Currently count queries without any filters are supported.
@@ -16,8 +16,11 @@
 package com.linkedin.pinot.core.query.aggregation;
 
 import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import javax.annotation.Nullable;
 
 
 /**
@@ -26,16 +29,33 @@ import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFac
 public class AggregationFunctionContext {
   private final AggregationFunction _aggregationFunction;
   private final String[] _aggrColumns;
+  private final String[] _inputColumns;
 
   public static AggregationFunctionContext instantiate(AggregationInfo aggregationInfo) {
+    return instantiate(aggregationInfo, null);
+  }
+
+  /**
+   * Instantiates the context for the given segment, which reads the star tree derived columns instead of the
+   * aggregation columns when the segment has them for the aggregation.
+   */
+  public static AggregationFunctionContext instantiate(AggregationInfo aggregationInfo,
+      @Nullable SegmentMetadata segmentMetadata) {
     String[] aggrColumns = aggregationInfo.getAggregationParams().get("column").trim().split(",");
     String functionName = aggregationInfo.getAggregationType();
     AggregationFunction aggregationFunction = AggregationFunctionFactory.getAggregationFunction(functionName);
-    return new AggregationFunctionContext(aggrColumns, aggregationFunction);
+    String[] inputColumns = AggregationFunctionUtils.getInputColumns(aggregationInfo, segmentMetadata);
+    return new AggregationFunctionContext(aggrColumns, inputColumns, aggregationFunction);
   }
 
   public AggregationFunctionContext(String[] aggrColumns, AggregationFunction aggregationFunction) {
+    this(aggrColumns, aggrColumns, aggregationFunction);
+  }
+
+  public AggregationFunctionContext(String[] aggrColumns, String[] inputColumns,
+      AggregationFunction aggregationFunction) {
     _aggrColumns = aggrColumns;
+    _inputColumns = inputColumns;
     _aggregationFunction = aggregationFunction;
   }
 
@@ -55,6 +75,14 @@ public class AggregationFunctionContext {
     return _aggrColumns;
   }
 
+  /**
+   * Returns an array of column names to read values from, which are the star tree derived columns if the segment has
+   * them for this aggregation, or the aggregation columns otherwise.
+   */
+  public String[] getInputColumns() {
+    return _inputColumns;
+  }
+
   /**
    * Returns the aggregation column name for the results.
    */
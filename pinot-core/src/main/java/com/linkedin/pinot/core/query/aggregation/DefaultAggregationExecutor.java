@@ -16,6 +16,7 @@
 package com.linkedin.pinot.core.query.aggregation;
 
 import com.linkedin.pinot.common.request.transform.TransformExpressionTree;
+import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.operator.blocks.TransformBlock;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
@@ -32,21 +33,20 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
   private final int _numFunctions;
   private final AggregationFunction[] _functions;
   private final AggregationResultHolder[] _resultHolders;
-  private final TransformExpressionTree[] _expressions;
+  private final TransformExpressionTree[][] _expressions;
 
   public DefaultAggregationExecutor(@Nonnull AggregationFunctionContext[] functionContexts) {
     _numFunctions = functionContexts.length;
     _functions = new AggregationFunction[_numFunctions];
     _resultHolders = new AggregationResultHolder[_numFunctions];
-    _expressions = new TransformExpressionTree[_numFunctions];
+    _expressions = new TransformExpressionTree[_numFunctions][];
     for (int i = 0; i < _numFunctions; i++) {
       AggregationFunction function = functionContexts[i].getAggregationFunction();
       _functions[i] = function;
       _resultHolders[i] = _functions[i].createAggregationResultHolder();
       // TODO: currently only support single argument aggregation
       if (!function.getName().equals(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-        _expressions[i] =
-            TransformExpressionTree.compileToExpressionTree(functionContexts[i].getAggregationColumns()[0]);
+        _expressions[i] = compileInputExpressions(functionContexts[i]);
       }
     }
   }
@@ -61,11 +61,36 @@ public class DefaultAggregationExecutor implements AggregationExecutor {
       if (function.getName().equals(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
         function.aggregate(length, resultHolder);
       } else {
-        function.aggregate(length, resultHolder, transformBlock.getBlockValueSet(_expressions[i]));
+        function.aggregate(length, resultHolder, getBlockValueSets(transformBlock, _expressions[i]));
       }
     }
   }
 
+  /**
+   * Compiles the expressions of the input columns of the given aggregation function context. Star tree derived input
+   * columns (e.g. sum and count for AVG) are passed to the aggregation function as multiple block value sets.
+   */
+  public static TransformExpressionTree[] compileInputExpressions(
+      @Nonnull AggregationFunctionContext functionContext) {
+    String[] inputColumns = functionContext.getInputColumns();
+    int numInputColumns = inputColumns.length;
+    TransformExpressionTree[] expressions = new TransformExpressionTree[numInputColumns];
+    for (int i = 0; i < numInputColumns; i++) {
+      expressions[i] = TransformExpressionTree.compileToExpressionTree(inputColumns[i]);
+    }
+    return expressions;
+  }
+
+  public static BlockValSet[] getBlockValueSets(@Nonnull TransformBlock transformBlock,
+      @Nonnull TransformExpressionTree[] expressions) {
+    int numExpressions = expressions.length;
+    BlockValSet[] blockValSets = new BlockValSet[numExpressions];
+    for (int i = 0; i < numExpressions; i++) {
+      blockValSets[i] = transformBlock.getBlockValueSet(expressions[i]);
+    }
+    return blockValSets;
+  }
+
   @Override
   public List<Object> getResult() {
     List<Object> aggregationResults = new ArrayList<>(_numFunctions);
@@ -18,6 +18,7 @@ package com.linkedin.pinot.core.query.aggregation.function;
 import com.google.common.math.DoubleMath;
 import com.linkedin.pinot.common.request.AggregationInfo;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
 import com.linkedin.pinot.core.plan.AggregationFunctionInitializer;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
 import java.io.Serializable;
@@ -41,7 +42,7 @@ public class AggregationFunctionUtils {
     AggregationFunctionContext[] aggregationFunctionContexts = new AggregationFunctionContext[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
       AggregationInfo aggregationInfo = aggregationInfos.get(i);
-      aggregationFunctionContexts[i] = AggregationFunctionContext.instantiate(aggregationInfo);
+      aggregationFunctionContexts[i] = AggregationFunctionContext.instantiate(aggregationInfo, segmentMetadata);
     }
     if (segmentMetadata != null) {
       AggregationFunctionInitializer aggregationFunctionInitializer =
@@ -53,6 +54,25 @@ public class AggregationFunctionUtils {
     return aggregationFunctionContexts;
   }
 
+  /**
+   * Returns the columns to read values from for the given aggregation on the given segment: the star tree derived
+   * columns if the segment has them for the aggregation (see {@link RequestUtils#getStarTreeDerivedColumns}), or the
+   * aggregation columns otherwise.
+   */
+  @Nonnull
+  public static String[] getInputColumns(@Nonnull AggregationInfo aggregationInfo,
+      @Nullable SegmentMetadata segmentMetadata) {
+    String[] aggrColumns = aggregationInfo.getAggregationParams().get("column").trim().split(",");
+    if (segmentMetadata != null) {
+      String[] derivedColumns =
+          RequestUtils.getStarTreeDerivedColumns(aggregationInfo.getAggregationType(), aggrColumns[0], segmentMetadata);
+      if (derivedColumns != null) {
+        return derivedColumns;
+      }
+    }
+    return aggrColumns;
+  }
+
   @Nonnull
   public static AggregationFunction[] getAggregationFunctions(@Nonnull List<AggregationInfo> aggregationInfos) {
     int numAggregationFunctions = aggregationInfos.size();
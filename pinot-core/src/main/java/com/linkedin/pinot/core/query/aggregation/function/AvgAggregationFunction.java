@@ -58,6 +58,10 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
     return new ObjectGroupByResultHolder(initialCapacity, maxCapacity, trimSize);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>With two block value sets, they hold the pre-aggregated sums and counts of the star tree.
+   */
   @Override
   public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
       @Nonnull BlockValSet... blockValSets) {
@@ -66,7 +70,15 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
     for (int i = 0; i < length; i++) {
       sum += valueArray[i];
     }
-    setAggregationResult(aggregationResultHolder, sum, (long) length);
+    long count = length;
+    if (blockValSets.length == 2) {
+      long[] countArray = blockValSets[1].getLongValuesSV();
+      count = 0L;
+      for (int i = 0; i < length; i++) {
+        count += countArray[i];
+      }
+    }
+    setAggregationResult(aggregationResultHolder, sum, count);
   }
 
   protected void setAggregationResult(@Nonnull AggregationResultHolder aggregationResultHolder, double sum,
@@ -83,8 +95,15 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
   public void aggregateGroupBySV(int length, @Nonnull int[] groupKeyArray,
       @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
     double[] valueArray = blockValSets[0].getDoubleValuesSV();
-    for (int i = 0; i < length; i++) {
-      setGroupByResult(groupKeyArray[i], groupByResultHolder, valueArray[i], 1L);
+    if (blockValSets.length == 2) {
+      long[] countArray = blockValSets[1].getLongValuesSV();
+      for (int i = 0; i < length; i++) {
+        setGroupByResult(groupKeyArray[i], groupByResultHolder, valueArray[i], countArray[i]);
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        setGroupByResult(groupKeyArray[i], groupByResultHolder, valueArray[i], 1L);
+      }
     }
   }
 
@@ -92,10 +111,12 @@ public class AvgAggregationFunction implements AggregationFunction<AvgPair, Doub
   public void aggregateGroupByMV(int length, @Nonnull int[][] groupKeysArray,
       @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
     double[] valueArray = blockValSets[0].getDoubleValuesSV();
+    long[] countArray = blockValSets.length == 2 ? blockValSets[1].getLongValuesSV() : null;
     for (int i = 0; i < length; i++) {
       double value = valueArray[i];
+      long count = countArray != null ? countArray[i] : 1L;
       for (int groupKey : groupKeysArray[i]) {
-        setGroupByResult(groupKey, groupByResultHolder, value, 1L);
+        setGroupByResult(groupKey, groupByResultHolder, value, count);
       }
     }
   }
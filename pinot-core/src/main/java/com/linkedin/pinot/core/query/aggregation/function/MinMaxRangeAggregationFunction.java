@@ -57,19 +57,25 @@ public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMa
     return new ObjectGroupByResultHolder(initialCapacity, maxCapacity, trimSize);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>With two block value sets, they hold the pre-aggregated minimums and maximums of the star tree.
+   */
   @Override
   public void aggregate(int length, @Nonnull AggregationResultHolder aggregationResultHolder,
       @Nonnull BlockValSet... blockValSets) {
-    double[] valueArray = blockValSets[0].getDoubleValuesSV();
+    double[] minValueArray = blockValSets[0].getDoubleValuesSV();
+    double[] maxValueArray = blockValSets.length == 2 ? blockValSets[1].getDoubleValuesSV() : minValueArray;
     double min = Double.POSITIVE_INFINITY;
     double max = Double.NEGATIVE_INFINITY;
     for (int i = 0; i < length; i++) {
-      double value = valueArray[i];
-      if (value < min) {
-        min = value;
+      double minValue = minValueArray[i];
+      if (minValue < min) {
+        min = minValue;
       }
-      if (value > max) {
-        max = value;
+      double maxValue = maxValueArray[i];
+      if (maxValue > max) {
+        max = maxValue;
       }
     }
     setAggregationResult(aggregationResultHolder, min, max);
@@ -88,21 +94,23 @@ public class MinMaxRangeAggregationFunction implements AggregationFunction<MinMa
   @Override
   public void aggregateGroupBySV(int length, @Nonnull int[] groupKeyArray,
       @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
-    double[] valueArray = blockValSets[0].getDoubleValuesSV();
+    double[] minValueArray = blockValSets[0].getDoubleValuesSV();
+    double[] maxValueArray = blockValSets.length == 2 ? blockValSets[1].getDoubleValuesSV() : minValueArray;
     for (int i = 0; i < length; i++) {
-      double value = valueArray[i];
-      setGroupByResult(groupKeyArray[i], groupByResultHolder, value, value);
+      setGroupByResult(groupKeyArray[i], groupByResultHolder, minValueArray[i], maxValueArray[i]);
     }
   }
 
   @Override
   public void aggregateGroupByMV(int length, @Nonnull int[][] groupKeysArray,
       @Nonnull GroupByResultHolder groupByResultHolder, @Nonnull BlockValSet... blockValSets) {
-    double[] valueArray = blockValSets[0].getDoubleValuesSV();
+    double[] minValueArray = blockValSets[0].getDoubleValuesSV();
+    double[] maxValueArray = blockValSets.length == 2 ? blockValSets[1].getDoubleValuesSV() : minValueArray;
     for (int i = 0; i < length; i++) {
-      double value = valueArray[i];
+      double minValue = minValueArray[i];
+      double maxValue = maxValueArray[i];
       for (int groupKey : groupKeysArray[i]) {
-        setGroupByResult(groupKey, groupByResultHolder, value, value);
+        setGroupByResult(groupKey, groupByResultHolder, minValue, maxValue);
       }
     }
   }
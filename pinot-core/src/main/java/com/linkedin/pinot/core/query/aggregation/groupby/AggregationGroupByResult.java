@@ -15,8 +15,12 @@
  */
 package com.linkedin.pinot.core.query.aggregation.groupby;
 
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import java.util.Iterator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 /**
@@ -44,6 +48,44 @@ public class AggregationGroupByResult {
     return _groupKeyGenerator.getUniqueGroupKeys();
   }
 
+  /**
+   * Returns the data types of the values inside the group keys.
+   */
+  @Nonnull
+  public FieldSpec.DataType[] getGroupKeyDataTypes() {
+    return _groupKeyGenerator.getGroupKeyDataTypes();
+  }
+
+  /**
+   * Returns the encoding of the group keys into segment independent long values, or <code>null</code> if the group keys
+   * cannot be encoded into long values.
+   */
+  @Nullable
+  public LongGroupKeyEncoding getLongGroupKeyEncoding() {
+    if (_groupKeyGenerator instanceof LongGroupKeyGenerator) {
+      return ((LongGroupKeyGenerator) _groupKeyGenerator).getLongGroupKeyEncoding();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Returns an iterator for group-by keys encoded as long values.
+   * <p>Should be called only if {@link #getLongGroupKeyEncoding()} does not return <code>null</code>.
+   */
+  public Iterator<LongGroupKeyGenerator.LongGroupKey> getLongGroupKeyIterator() {
+    Preconditions.checkState(_groupKeyGenerator instanceof LongGroupKeyGenerator,
+        "Group key generator: %s does not support long group keys", _groupKeyGenerator.getClass().getSimpleName());
+    return ((LongGroupKeyGenerator) _groupKeyGenerator).getUniqueLongGroupKeys();
+  }
+
+  /**
+   * Given a group id and an index into the result holder array, returns the corresponding aggregation result.
+   */
+  public Object getResultForGroupId(int groupId, int index) {
+    return _aggregationFunctions[index].extractGroupByResult(_resultHolders[index], groupId);
+  }
+
   /**
    *
    * Given a group-by key and an index into the result holder array, returns
@@ -20,12 +20,14 @@ import com.linkedin.pinot.common.response.broker.GroupByResult;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import com.linkedin.pinot.core.query.aggregation.function.MinAggregationFunction;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
@@ -113,44 +115,144 @@ public class AggregationGroupByTrimmingService {
   }
 
   /**
-   * Given an array of maps from group key to final result for each aggregation function, trim the results to topN size.
+   * Given the group keys and the final results for each aggregation function (indexed by group id), trim the results
+   * to topN size.
+   * <p>A null final result means the group does not exist for the aggregation function. The group key strings are only
+   * split for the selected groups.
    */
   @SuppressWarnings("unchecked")
   @Nonnull
-  public List<GroupByResult>[] trimFinalResults(@Nonnull Map<String, Comparable>[] finalResultMaps) {
+  public List<GroupByResult>[] trimFinalResults(@Nonnull String[] groupKeys, @Nonnull Comparable[][] finalResults) {
     int numAggregationFunctions = _aggregationFunctions.length;
     List<GroupByResult>[] trimmedResults = new List[numAggregationFunctions];
 
     for (int i = 0; i < numAggregationFunctions; i++) {
-      LinkedList<GroupByResult> groupByResults = new LinkedList<>();
+      Comparable[] finalResultArray = finalResults[i];
+      int[] topGroupIds = getTopGroupIds(finalResultArray, _aggregationFunctions[i]);
+      List<GroupByResult> groupByResults = new ArrayList<>(topGroupIds.length);
+      for (int groupId : topGroupIds) {
+        // Set limit to -1 to prevent removing trailing empty strings
+        GroupByResult groupByResult = new GroupByResult();
+        groupByResult.setGroup(Arrays.asList(groupKeys[groupId].split(GROUP_KEY_DELIMITER, -1)));
+        groupByResult.setValue(AggregationFunctionUtils.getSerializableValue(finalResultArray[groupId]));
+        groupByResults.add(groupByResult);
+      }
       trimmedResults[i] = groupByResults;
+    }
 
-      Map<String, Comparable> finalResultMap = finalResultMaps[i];
-      if (finalResultMap.isEmpty()) {
-        continue;
+    return trimmedResults;
+  }
+
+  /**
+   * Given the typed group key values and the final results for each aggregation function (both indexed by group id),
+   * trim the results to topN size.
+   * <p>A null final result means the group does not exist for the aggregation function. The group key values are only
+   * converted to strings for the selected groups.
+   */
+  @SuppressWarnings("unchecked")
+  @Nonnull
+  public List<GroupByResult>[] trimFinalResults(@Nonnull Object[][] groupKeyValues,
+      @Nonnull Comparable[][] finalResults) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    List<GroupByResult>[] trimmedResults = new List[numAggregationFunctions];
+
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Comparable[] finalResultArray = finalResults[i];
+      int[] topGroupIds = getTopGroupIds(finalResultArray, _aggregationFunctions[i]);
+      List<GroupByResult> groupByResults = new ArrayList<>(topGroupIds.length);
+      for (int groupId : topGroupIds) {
+        Object[] values = groupKeyValues[groupId];
+        List<String> group = new ArrayList<>(values.length);
+        for (Object value : values) {
+          group.add(value.toString());
+        }
+        GroupByResult groupByResult = new GroupByResult();
+        groupByResult.setGroup(group);
+        groupByResult.setValue(AggregationFunctionUtils.getSerializableValue(finalResultArray[groupId]));
+        groupByResults.add(groupByResult);
       }
+      trimmedResults[i] = groupByResults;
+    }
 
-      // Final result is always comparable
-      Sorter sorter = getSorter(_groupByTopN, _aggregationFunctions[i], true);
+    return trimmedResults;
+  }
 
-      // Add results into sorter
-      for (Map.Entry<String, Comparable> entry : finalResultMap.entrySet()) {
-        sorter.add(entry.getKey(), entry.getValue());
+  /**
+   * Returns the ids of the topN groups in the order of the final results, where a null final result means the group
+   * does not exist.
+   * <p>The topN groups are selected with a heap of group ids (comparing on primitive doubles when all final results are
+   * doubles).
+   */
+  private int[] getTopGroupIds(Comparable[] finalResults, AggregationFunction aggregationFunction) {
+    IntComparator comparator =
+        getGroupIdComparator(finalResults, aggregationFunction instanceof MinAggregationFunction);
+
+    // Keep the topN group ids inside the heap, where the head of the heap is the smallest one
+    IntHeapPriorityQueue heap = new IntHeapPriorityQueue(_groupByTopN, comparator);
+    int numGroups = finalResults.length;
+    for (int groupId = 0; groupId < numGroups; groupId++) {
+      if (finalResults[groupId] == null) {
+        continue;
+      }
+      if (heap.size() < _groupByTopN) {
+        heap.enqueue(groupId);
+      } else if (comparator.compare(groupId, heap.firstInt()) > 0) {
+        heap.dequeueInt();
+        heap.enqueue(groupId);
       }
+    }
 
-      // Dump trimmed results into list
-      sorter.dumpToGroupByResults(groupByResults);
+    // Dump the group ids in reverse order
+    int numTopGroups = heap.size();
+    int[] topGroupIds = new int[numTopGroups];
+    for (int i = numTopGroups - 1; i >= 0; i--) {
+      topGroupIds[i] = heap.dequeueInt();
     }
+    return topGroupIds;
+  }
 
-    return trimmedResults;
+  /**
+   * Returns a comparator on group ids based on the final results, which compares primitive doubles when all the final
+   * results are doubles.
+   */
+  @SuppressWarnings("unchecked")
+  private static IntComparator getGroupIdComparator(final Comparable[] finalResults, final boolean minOrder) {
+    int numGroups = finalResults.length;
+    final double[] doubleResults = new double[numGroups];
+    boolean allDoubles = true;
+    for (int groupId = 0; groupId < numGroups; groupId++) {
+      Comparable finalResult = finalResults[groupId];
+      if (finalResult instanceof Double) {
+        doubleResults[groupId] = (Double) finalResult;
+      } else if (finalResult != null) {
+        allDoubles = false;
+        break;
+      }
+    }
+
+    if (allDoubles) {
+      return new AbstractIntComparator() {
+        @Override
+        public int compare(int groupId1, int groupId2) {
+          int result = Double.compare(doubleResults[groupId1], doubleResults[groupId2]);
+          return minOrder ? -result : result;
+        }
+      };
+    } else {
+      return new AbstractIntComparator() {
+        @Override
+        public int compare(int groupId1, int groupId2) {
+          int result = finalResults[groupId1].compareTo(finalResults[groupId2]);
+          return minOrder ? -result : result;
+        }
+      };
+    }
   }
 
   private interface Sorter {
     void add(String groupKey, Object result);
 
     void dumpToMap(Map<String, Object> dest);
-
-    void dumpToGroupByResults(LinkedList<GroupByResult> dest);
   }
 
   @SuppressWarnings("unchecked")
@@ -221,22 +323,6 @@ public class AggregationGroupByTrimmingService {
       }
     }
 
-    @Override
-    public void dumpToGroupByResults(LinkedList<GroupByResult> dest) {
-      GroupKeyResultPair groupKeyResultPair;
-      while ((groupKeyResultPair = _heap.poll()) != null) {
-        // Set limit to -1 to prevent removing trailing empty strings
-        String[] groupKeys = groupKeyResultPair._groupKey.split(GROUP_KEY_DELIMITER, -1);
-
-        GroupByResult groupByResult = new GroupByResult();
-        groupByResult.setGroup(Arrays.asList(groupKeys));
-        groupByResult.setValue(AggregationFunctionUtils.getSerializableValue(groupKeyResultPair._result));
-
-        // Add to head to reverse the order
-        dest.addFirst(groupByResult);
-      }
-    }
-
     private static class GroupKeyResultPair implements Comparable<GroupKeyResultPair> {
       private String _groupKey;
       private Comparable<? super Comparable> _result;
@@ -340,10 +426,5 @@ public class AggregationGroupByTrimmingService {
         }
       }
     }
-
-    @Override
-    public void dumpToGroupByResults(LinkedList<GroupByResult> dest) {
-      throw new UnsupportedOperationException();
-    }
   }
 }
@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.operator.transform.TransformOperator;
 import com.linkedin.pinot.core.operator.transform.TransformResultMetadata;
 import com.linkedin.pinot.core.plan.DocIdSetPlanNode;
 import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.DefaultAggregationExecutor;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
 import java.util.List;
@@ -55,7 +56,7 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
 
   private final int _numFunctions;
   private final AggregationFunction[] _functions;
-  private final TransformExpressionTree[] _aggregationExpressions;
+  private final TransformExpressionTree[][] _aggregationExpressions;
   private final GroupKeyGenerator _groupKeyGenerator;
   private final GroupByResultHolder[] _resultHolders;
   private final boolean _hasMVGroupByExpression;
@@ -77,14 +78,13 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
     // Initialize aggregation functions and expressions
     _numFunctions = functionContexts.length;
     _functions = new AggregationFunction[_numFunctions];
-    _aggregationExpressions = new TransformExpressionTree[_numFunctions];
+    _aggregationExpressions = new TransformExpressionTree[_numFunctions][];
     for (int i = 0; i < _numFunctions; i++) {
       AggregationFunction function = functionContexts[i].getAggregationFunction();
       _functions[i] = function;
       // TODO: currently only support single argument aggregation
       if (!function.getName().equals(AggregationFunctionFactory.AggregationFunctionType.COUNT.getName())) {
-        _aggregationExpressions[i] =
-            TransformExpressionTree.compileToExpressionTree(functionContexts[i].getAggregationColumns()[0]);
+        _aggregationExpressions[i] = DefaultAggregationExecutor.compileInputExpressions(functionContexts[i]);
       }
     }
 
@@ -156,11 +156,12 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
           function.aggregateGroupBySV(length, _svGroupKeys, resultHolder);
         }
       } else {
-        BlockValSet blockValueSet = transformBlock.getBlockValueSet(_aggregationExpressions[i]);
+        BlockValSet[] blockValueSets =
+            DefaultAggregationExecutor.getBlockValueSets(transformBlock, _aggregationExpressions[i]);
         if (_hasMVGroupByExpression) {
-          function.aggregateGroupByMV(length, _mvGroupKeys, resultHolder, blockValueSet);
+          function.aggregateGroupByMV(length, _mvGroupKeys, resultHolder, blockValueSets);
         } else {
-          function.aggregateGroupBySV(length, _svGroupKeys, resultHolder, blockValueSet);
+          function.aggregateGroupBySV(length, _svGroupKeys, resultHolder, blockValueSets);
         }
       }
 
@@ -15,10 +15,13 @@
  */
 package com.linkedin.pinot.core.query.aggregation.groupby;
 
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.request.transform.TransformExpressionTree;
 import com.linkedin.pinot.core.common.BlockValSet;
 import com.linkedin.pinot.core.operator.blocks.TransformBlock;
 import com.linkedin.pinot.core.operator.transform.TransformOperator;
+import com.linkedin.pinot.core.operator.transform.TransformResultMetadata;
 import com.linkedin.pinot.core.segment.index.readers.Dictionary;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
@@ -30,6 +33,7 @@ import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 
 /**
@@ -57,7 +61,7 @@ import javax.annotation.Nonnull;
  * <p>All the logic is maintained internally, and to the outside world, the group ids are always int type.
  */
 // TODO: Revisit to make trimming work. Currently trimming is disabled
-public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
+public class DictionaryBasedGroupKeyGenerator implements LongGroupKeyGenerator {
   private final TransformExpressionTree[] _groupByExpressions;
   private final int _numGroupByExpressions;
   private final int[] _cardinalities;
@@ -72,6 +76,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
   private final int _globalGroupIdUpperBound;
   private final RawKeyHolder _rawKeyHolder;
+  private final FieldSpec.DataType[] _dataTypes;
+  private final LongGroupKeyEncoding _longGroupKeyEncoding;
 
 //  // The following data structures are used for trimming group keys.
 //  // TODO: the key will be contiguous so we should use array here.
@@ -101,6 +107,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     _singleValueDictIds = new int[_numGroupByExpressions][];
     _multiValueDictIds = new int[_numGroupByExpressions][][];
 
+    _dataTypes = new FieldSpec.DataType[_numGroupByExpressions];
     long cardinalityProduct = 1L;
     boolean longOverflow = false;
     for (int i = 0; i < _numGroupByExpressions; i++) {
@@ -116,8 +123,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         }
       }
 
-      _isSingleValueColumn[i] = transformOperator.getResultMetadata(groupByExpression).isSingleValue();
+      TransformResultMetadata resultMetadata = transformOperator.getResultMetadata(groupByExpression);
+      _isSingleValueColumn[i] = resultMetadata.isSingleValue();
+      _dataTypes[i] = resultMetadata.getDataType();
     }
+    _longGroupKeyEncoding = LongGroupKeyEncoding.getEncoding(_dataTypes);
 
     if (longOverflow) {
       _globalGroupIdUpperBound = Integer.MAX_VALUE;
@@ -178,6 +188,24 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return _rawKeyHolder.iterator();
   }
 
+  @Nonnull
+  @Override
+  public FieldSpec.DataType[] getGroupKeyDataTypes() {
+    return _dataTypes;
+  }
+
+  @Nullable
+  @Override
+  public LongGroupKeyEncoding getLongGroupKeyEncoding() {
+    return _longGroupKeyEncoding;
+  }
+
+  @Override
+  public Iterator<LongGroupKey> getUniqueLongGroupKeys() {
+    Preconditions.checkState(_longGroupKeyEncoding != null, "Group keys cannot be encoded into long values");
+    return _rawKeyHolder.longGroupKeyIterator();
+  }
+
   @Override
   public void purgeKeys(@Nonnull int[] keyIdsToPurge) {
     // TODO: Make trimming work
@@ -207,6 +235,48 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
      * @return Upper bound of group id inside the holder
      */
     int getGroupIdUpperBound();
+
+    /**
+     * Get an iterator of group keys encoded as long values.
+     *
+     * @return Iterator of long group keys
+     */
+    Iterator<LongGroupKey> longGroupKeyIterator();
+  }
+
+  /**
+   * Iterator of long group keys over (raw key, group id) pairs, which decomposes the raw key into dictionary ids and
+   * encodes them with the long group key encoding.
+   */
+  private abstract class LongGroupKeyIterator implements Iterator<LongGroupKey> {
+    private final LongGroupKey _longGroupKey = new LongGroupKey();
+    private final int[] _dictIds = new int[_numGroupByExpressions];
+
+    /**
+     * Advances to the next (raw key, group id) pair, and returns the group id. Raw key can be fetched with
+     * {@link #currentRawKey()}.
+     */
+    abstract int nextGroupId();
+
+    abstract long currentRawKey();
+
+    @Override
+    public LongGroupKey next() {
+      _longGroupKey._groupId = nextGroupId();
+      long rawKey = currentRawKey();
+      for (int i = 0; i < _numGroupByExpressions; i++) {
+        int cardinality = _cardinalities[i];
+        _dictIds[i] = (int) (rawKey % cardinality);
+        rawKey /= cardinality;
+      }
+      _longGroupKey._longKey = _longGroupKeyEncoding.encode(_dictionaries, _dictIds);
+      return _longGroupKey;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
   }
 
   private class ArrayBasedHolder implements RawKeyHolder {
@@ -273,6 +343,36 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         }
       };
     }
+
+    @Override
+    public Iterator<LongGroupKey> longGroupKeyIterator() {
+      return new LongGroupKeyIterator() {
+        private int _nextGroupId;
+        private int _currentGroupId;
+
+        @Override
+        public boolean hasNext() {
+          while (_nextGroupId < _globalGroupIdUpperBound && !_flags[_nextGroupId]) {
+            _nextGroupId++;
+          }
+          return _nextGroupId < _globalGroupIdUpperBound;
+        }
+
+        @Override
+        int nextGroupId() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _currentGroupId = _nextGroupId++;
+          return _currentGroupId;
+        }
+
+        @Override
+        long currentRawKey() {
+          return _currentGroupId;
+        }
+      };
+    }
   }
 
   private class IntMapBasedHolder implements RawKeyHolder {
@@ -345,6 +445,30 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         }
       };
     }
+
+    @Override
+    public Iterator<LongGroupKey> longGroupKeyIterator() {
+      return new LongGroupKeyIterator() {
+        private final ObjectIterator<Int2IntMap.Entry> _iterator = _rawKeyToGroupIdMap.int2IntEntrySet().fastIterator();
+        private Int2IntMap.Entry _entry;
+
+        @Override
+        public boolean hasNext() {
+          return _iterator.hasNext();
+        }
+
+        @Override
+        int nextGroupId() {
+          _entry = _iterator.next();
+          return _entry.getIntValue();
+        }
+
+        @Override
+        long currentRawKey() {
+          return _entry.getIntKey();
+        }
+      };
+    }
   }
 
   /**
@@ -521,6 +645,31 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         }
       };
     }
+
+    @Override
+    public Iterator<LongGroupKey> longGroupKeyIterator() {
+      return new LongGroupKeyIterator() {
+        private final ObjectIterator<Long2IntMap.Entry> _iterator =
+            _rawKeyToGroupIdMap.long2IntEntrySet().fastIterator();
+        private Long2IntMap.Entry _entry;
+
+        @Override
+        public boolean hasNext() {
+          return _iterator.hasNext();
+        }
+
+        @Override
+        int nextGroupId() {
+          _entry = _iterator.next();
+          return _entry.getIntValue();
+        }
+
+        @Override
+        long currentRawKey() {
+          return _entry.getLongKey();
+        }
+      };
+    }
   }
 
   /**
@@ -687,6 +836,34 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         }
       };
     }
+
+    @Override
+    public Iterator<LongGroupKey> longGroupKeyIterator() {
+      // The raw keys already hold the dictionary ids, so encode them directly
+      return new Iterator<LongGroupKey>() {
+        private final ObjectIterator<Object2IntMap.Entry<IntArray>> _iterator =
+            _rawKeyToGroupIdMap.object2IntEntrySet().fastIterator();
+        private final LongGroupKey _longGroupKey = new LongGroupKey();
+
+        @Override
+        public boolean hasNext() {
+          return _iterator.hasNext();
+        }
+
+        @Override
+        public LongGroupKey next() {
+          Object2IntMap.Entry<IntArray> entry = _iterator.next();
+          _longGroupKey._groupId = entry.getIntValue();
+          _longGroupKey._longKey = _longGroupKeyEncoding.encode(_dictionaries, entry.getKey()._elements);
+          return _longGroupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
   }
 
   /**
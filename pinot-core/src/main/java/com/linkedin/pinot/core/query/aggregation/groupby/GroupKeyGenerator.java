@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.core.query.aggregation.groupby;
 
+import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.core.operator.blocks.TransformBlock;
 import java.util.Iterator;
 import javax.annotation.Nonnull;
@@ -69,6 +70,14 @@ public interface GroupKeyGenerator {
    */
   Iterator<GroupKey> getUniqueGroupKeys();
 
+  /**
+   * Returns the data types of the group-by expressions, i.e. the data types of the values inside the group keys.
+   *
+   * @return data types of the group-by expressions.
+   */
+  @Nonnull
+  FieldSpec.DataType[] getGroupKeyDataTypes();
+
   /**
    * Purge the given group keys.
    * @param keysToPurge Group keys to purge
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Encoding of group keys into segment independent long values.
+ * <p>Group keys are encoded from the actual values (not the dictionary ids) of the group-by columns, so that group-by
+ * results from different segments can be merged on primitive long keys, and the string group keys only need to be
+ * built once per unique group.
+ * <ul>
+ *   <li>Single INT/LONG group-by column: the value itself.</li>
+ *   <li>Single FLOAT/DOUBLE group-by column: the raw bits of the value.</li>
+ *   <li>Two INT group-by columns: the first value in the high 32 bits, the second value in the low 32 bits.</li>
+ * </ul>
+ */
+public enum LongGroupKeyEncoding {
+  INT {
+    @Override
+    public long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds) {
+      return dictionaries[0].getIntValue(dictIds[0]);
+    }
+
+    @Override
+    public String decode(long longKey) {
+      return Integer.toString((int) longKey);
+    }
+  },
+
+  LONG {
+    @Override
+    public long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds) {
+      return dictionaries[0].getLongValue(dictIds[0]);
+    }
+
+    @Override
+    public String decode(long longKey) {
+      return Long.toString(longKey);
+    }
+  },
+
+  FLOAT {
+    @Override
+    public long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds) {
+      return Float.floatToRawIntBits(dictionaries[0].getFloatValue(dictIds[0]));
+    }
+
+    @Override
+    public String decode(long longKey) {
+      return Float.toString(Float.intBitsToFloat((int) longKey));
+    }
+  },
+
+  DOUBLE {
+    @Override
+    public long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds) {
+      return Double.doubleToRawLongBits(dictionaries[0].getDoubleValue(dictIds[0]));
+    }
+
+    @Override
+    public String decode(long longKey) {
+      return Double.toString(Double.longBitsToDouble(longKey));
+    }
+  },
+
+  INT_INT {
+    @Override
+    public long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds) {
+      return ((long) dictionaries[0].getIntValue(dictIds[0]) << 32) | (dictionaries[1].getIntValue(dictIds[1])
+          & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String decode(long longKey) {
+      return Integer.toString((int) (longKey >> 32)) + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER
+          + Integer.toString((int) longKey);
+    }
+  };
+
+  /**
+   * Encodes the group key represented by the given dictionary ids (one for each group-by column) into a long value.
+   */
+  public abstract long encode(@Nonnull Dictionary[] dictionaries, @Nonnull int[] dictIds);
+
+  /**
+   * Decodes the given long value into the string group key.
+   */
+  public abstract String decode(long longKey);
+
+  /**
+   * Returns the encoding for the given data types of the group-by columns, or <code>null</code> if the group keys
+   * cannot be encoded into long values.
+   */
+  @Nullable
+  public static LongGroupKeyEncoding getEncoding(@Nonnull FieldSpec.DataType[] dataTypes) {
+    if (dataTypes.length == 1) {
+      switch (dataTypes[0]) {
+        case INT:
+          return INT;
+        case LONG:
+          return LONG;
+        case FLOAT:
+          return FLOAT;
+        case DOUBLE:
+          return DOUBLE;
+        default:
+          return null;
+      }
+    }
+    if (dataTypes.length == 2 && dataTypes[0] == FieldSpec.DataType.INT && dataTypes[1] == FieldSpec.DataType.INT) {
+      return INT_INT;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+
+/**
+ * Interface for group key generators that can encode the group keys into segment independent long values (see
+ * {@link LongGroupKeyEncoding}), so that the results from multiple segments can be merged without building the string
+ * group keys.
+ */
+public interface LongGroupKeyGenerator extends GroupKeyGenerator {
+
+  /**
+   * Returns the encoding of the group keys into segment independent long values, or <code>null</code> if the group keys
+   * cannot be encoded into long values (e.g. too many group-by expressions).
+   *
+   * @return encoding of the group keys, or null if not supported.
+   */
+  @Nullable
+  LongGroupKeyEncoding getLongGroupKeyEncoding();
+
+  /**
+   * Returns an iterator of group keys encoded as long values. Use this interface to iterate through all the group keys
+   * without building the string group keys.
+   * <p>Should be called only if {@link #getLongGroupKeyEncoding()} does not return <code>null</code>, otherwise throws
+   * {@link IllegalStateException}.
+   *
+   * @return iterator of long group keys.
+   */
+  Iterator<LongGroupKey> getUniqueLongGroupKeys();
+
+  /**
+   * This class encapsulates the integer group id and the long group key.
+   */
+  class LongGroupKey {
+    public int _groupId;
+    public long _longKey;
+  }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.aggregation.groupby;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * The <code>MergedGroupByResults</code> class holds the aggregation group-by results merged from multiple segments.
+ * <ul>
+ *   <li>
+ *     When the group keys can be encoded into segment independent long values (see {@link LongGroupKeyEncoding}),
+ *     results are merged into a primitive long keyed open addressing map, and the string group keys are built only
+ *     once per unique group in {@link #toStringKeyResultsMap()}.
+ *   </li>
+ *   <li>
+ *     Otherwise, results are merged on the string group keys.
+ *   </li>
+ * </ul>
+ * <p>This class is not thread-safe. Each thread is expected to merge into its own instance, and the instances are
+ * combined with {@link #merge(MergedGroupByResults)} at the end.
+ */
+public class MergedGroupByResults {
+  private final AggregationFunction[] _aggregationFunctions;
+  private final int _numAggregationFunctions;
+  private final Long2ObjectOpenHashMap<Object[]> _longKeyResultsMap = new Long2ObjectOpenHashMap<>();
+  private final Map<String, Object[]> _stringKeyResultsMap = new HashMap<>();
+  private LongGroupKeyEncoding _longGroupKeyEncoding;
+  private FieldSpec.DataType[] _groupKeyDataTypes;
+
+  public MergedGroupByResults(@Nonnull AggregationFunction[] aggregationFunctions) {
+    _aggregationFunctions = aggregationFunctions;
+    _numAggregationFunctions = aggregationFunctions.length;
+  }
+
+  /**
+   * Merges the aggregation group-by result from one segment.
+   */
+  public void merge(@Nonnull AggregationGroupByResult aggregationGroupByResult) {
+    mergeGroupKeyDataTypes(aggregationGroupByResult.getGroupKeyDataTypes());
+    LongGroupKeyEncoding longGroupKeyEncoding = aggregationGroupByResult.getLongGroupKeyEncoding();
+    if (longGroupKeyEncoding != null && (_longGroupKeyEncoding == null
+        || _longGroupKeyEncoding == longGroupKeyEncoding)) {
+      _longGroupKeyEncoding = longGroupKeyEncoding;
+      Iterator<LongGroupKeyGenerator.LongGroupKey> groupKeyIterator = aggregationGroupByResult.getLongGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        LongGroupKeyGenerator.LongGroupKey groupKey = groupKeyIterator.next();
+        int groupId = groupKey._groupId;
+        Object[] results = _longKeyResultsMap.get(groupKey._longKey);
+        if (results == null) {
+          results = new Object[_numAggregationFunctions];
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            results[i] = aggregationGroupByResult.getResultForGroupId(groupId, i);
+          }
+          _longKeyResultsMap.put(groupKey._longKey, results);
+        } else {
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            results[i] =
+                _aggregationFunctions[i].merge(results[i], aggregationGroupByResult.getResultForGroupId(groupId, i));
+          }
+        }
+      }
+    } else {
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        int groupId = groupKey._groupId;
+        Object[] results = _stringKeyResultsMap.get(groupKey._stringKey);
+        if (results == null) {
+          results = new Object[_numAggregationFunctions];
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            results[i] = aggregationGroupByResult.getResultForGroupId(groupId, i);
+          }
+          _stringKeyResultsMap.put(groupKey._stringKey, results);
+        } else {
+          for (int i = 0; i < _numAggregationFunctions; i++) {
+            results[i] =
+                _aggregationFunctions[i].merge(results[i], aggregationGroupByResult.getResultForGroupId(groupId, i));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges the results merged by another instance (typically from another thread).
+   * <p>The other instance should not be used after this call.
+   */
+  public void merge(@Nonnull MergedGroupByResults mergedGroupByResults) {
+    if (mergedGroupByResults._groupKeyDataTypes != null) {
+      mergeGroupKeyDataTypes(mergedGroupByResults._groupKeyDataTypes);
+    }
+    LongGroupKeyEncoding longGroupKeyEncoding = mergedGroupByResults._longGroupKeyEncoding;
+    if (!mergedGroupByResults._longKeyResultsMap.isEmpty()) {
+      if (_longGroupKeyEncoding == null || _longGroupKeyEncoding == longGroupKeyEncoding) {
+        _longGroupKeyEncoding = longGroupKeyEncoding;
+        ObjectIterator<Long2ObjectMap.Entry<Object[]>> iterator =
+            mergedGroupByResults._longKeyResultsMap.long2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+          Long2ObjectMap.Entry<Object[]> entry = iterator.next();
+          long longKey = entry.getLongKey();
+          Object[] results = _longKeyResultsMap.get(longKey);
+          if (results == null) {
+            _longKeyResultsMap.put(longKey, entry.getValue());
+          } else {
+            mergeResults(results, entry.getValue());
+          }
+        }
+      } else {
+        mergeIntoStringKeyResultsMap(mergedGroupByResults._longKeyResultsMap, longGroupKeyEncoding);
+      }
+    }
+    for (Map.Entry<String, Object[]> entry : mergedGroupByResults._stringKeyResultsMap.entrySet()) {
+      mergeIntoStringKeyResultsMap(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the merged results as a map from string group key to the intermediate results for all aggregation
+   * functions. The string group keys for the long keyed results are built here.
+   * <p>No more results should be merged after this call.
+   */
+  @Nonnull
+  public Map<String, Object[]> toStringKeyResultsMap() {
+    if (!_longKeyResultsMap.isEmpty()) {
+      mergeIntoStringKeyResultsMap(_longKeyResultsMap, _longGroupKeyEncoding);
+      _longKeyResultsMap.clear();
+    }
+    return _stringKeyResultsMap;
+  }
+
+  /**
+   * Returns the data types of the values inside the group keys, or <code>null</code> if no result has been merged. When
+   * the segments have different data types for a group-by expression, STRING is returned for it.
+   */
+  @Nullable
+  public FieldSpec.DataType[] getGroupKeyDataTypes() {
+    return _groupKeyDataTypes;
+  }
+
+  public int getNumGroups() {
+    return _longKeyResultsMap.size() + _stringKeyResultsMap.size();
+  }
+
+  private void mergeGroupKeyDataTypes(FieldSpec.DataType[] groupKeyDataTypes) {
+    if (_groupKeyDataTypes == null) {
+      _groupKeyDataTypes = groupKeyDataTypes.clone();
+    } else {
+      int numGroupByExpressions = _groupKeyDataTypes.length;
+      for (int i = 0; i < numGroupByExpressions; i++) {
+        if (_groupKeyDataTypes[i] != groupKeyDataTypes[i]) {
+          _groupKeyDataTypes[i] = FieldSpec.DataType.STRING;
+        }
+      }
+    }
+  }
+
+  private void mergeIntoStringKeyResultsMap(Long2ObjectOpenHashMap<Object[]> longKeyResultsMap,
+      LongGroupKeyEncoding longGroupKeyEncoding) {
+    ObjectIterator<Long2ObjectMap.Entry<Object[]>> iterator = longKeyResultsMap.long2ObjectEntrySet().fastIterator();
+    while (iterator.hasNext()) {
+      Long2ObjectMap.Entry<Object[]> entry = iterator.next();
+      mergeIntoStringKeyResultsMap(longGroupKeyEncoding.decode(entry.getLongKey()), entry.getValue());
+    }
+  }
+
+  private void mergeIntoStringKeyResultsMap(String stringKey, Object[] resultsToMerge) {
+    Object[] results = _stringKeyResultsMap.get(stringKey);
+    if (results == null) {
+      _stringKeyResultsMap.put(stringKey, resultsToMerge);
+    } else {
+      mergeResults(results, resultsToMerge);
+    }
+  }
+
+  private void mergeResults(Object[] results, Object[] resultsToMerge) {
+    for (int i = 0; i < _numAggregationFunctions; i++) {
+      results[i] = _aggregationFunctions[i].merge(results[i], resultsToMerge[i]);
+    }
+  }
+}
@@ -142,6 +142,12 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
     return new GroupKeyIterator(_groupKeyMap);
   }
 
+  @Nonnull
+  @Override
+  public FieldSpec.DataType[] getGroupKeyDataTypes() {
+    return _dataTypes;
+  }
+
   @Override
   public void purgeKeys(@Nonnull int[] keysToPurge) {
     // TODO: Implement purging.
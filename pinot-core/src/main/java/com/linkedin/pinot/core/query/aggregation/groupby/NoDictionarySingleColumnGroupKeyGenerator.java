@@ -162,6 +162,12 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
     return new GroupKeyIterator(_groupKeyMap);
   }
 
+  @Nonnull
+  @Override
+  public FieldSpec.DataType[] getGroupKeyDataTypes() {
+    return new FieldSpec.DataType[]{_dataType};
+  }
+
   @Override
   public void purgeKeys(@Nonnull int[] keysToPurge) {
     // TODO: Implement purging.
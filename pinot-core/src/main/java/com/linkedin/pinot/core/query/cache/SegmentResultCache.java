@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.EqualityUtils;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.datatable.ObjectCustomSerDe;
+import com.linkedin.pinot.core.common.datatable.ObjectType;
+import com.linkedin.pinot.core.common.predicate.BaseInPredicate;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentResultCache</code> class caches the per-segment intermediate results of aggregation only queries on
+ * immutable segments.
+ * <p>The cache is bounded by the total size of the serialized results and evicts the least recently used entries. The
+ * results are cached in serialized form, so that each cache hit gets its own copy of the intermediate results, which
+ * can be safely merged in place by the combine operator.
+ * <p>The cache key contains the CRC of the segment, so a replaced segment never hits the results of the old one; the
+ * table data managers also invalidate the results of a segment when the segment is added, replaced or removed so that
+ * the memory is reclaimed early.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  // Rough per-entry overhead (key, entry object and cache bookkeeping) in bytes
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+  private final Cache<Key, CachedResult> _cache;
+
+  public SegmentResultCache(long maxSizeBytes) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes).weigher(new Weigher<Key, CachedResult>() {
+      @Override
+      public int weigh(@Nonnull Key key, @Nonnull CachedResult cachedResult) {
+        return cachedResult._sizeInBytes + 2 * key._queryFingerprint.length() + ENTRY_OVERHEAD_BYTES;
+      }
+    }).build();
+    LOGGER.info("Segment result cache enabled with max size: {} bytes", maxSizeBytes);
+  }
+
+  /**
+   * Returns whether the per-segment results of the query can be cached, i.e. the query is an aggregation only query.
+   * <p>Group-by and selection results are merged in place by the combine operators (and selection only queries share a
+   * row budget across segments), so they are not cached.
+   */
+  public static boolean isCacheable(@Nonnull BrokerRequest brokerRequest) {
+    return brokerRequest.isSetAggregationsInfo() && !brokerRequest.isSetGroupBy() && !brokerRequest.isEnableTrace();
+  }
+
+  /**
+   * Returns the normalized fingerprint of the filter and aggregations of the query, which is independent of the ids of
+   * the filter queries, the order of the AND/OR children and the order of the IN/NOT IN values.
+   * <p>All the strings are written with a length prefix, so that different queries never share the same fingerprint
+   * (e.g. <code>d IN ('a, b')</code> and <code>d IN ('a', 'b')</code>).
+   */
+  @Nonnull
+  public static String getQueryFingerprint(@Nonnull BrokerRequest brokerRequest) {
+    StringBuilder stringBuilder = new StringBuilder();
+    for (AggregationInfo aggregationInfo : brokerRequest.getAggregationsInfo()) {
+      appendString(stringBuilder, aggregationInfo.getAggregationType().toLowerCase());
+      // Sort the aggregation params so that the fingerprint does not depend on the map iteration order
+      Map<String, String> aggregationParams = aggregationInfo.getAggregationParams();
+      if (aggregationParams != null) {
+        stringBuilder.append(aggregationParams.size()).append('(');
+        for (Map.Entry<String, String> entry : new TreeMap<>(aggregationParams).entrySet()) {
+          appendString(stringBuilder, entry.getKey());
+          appendString(stringBuilder, entry.getValue());
+        }
+        stringBuilder.append(')');
+      } else {
+        stringBuilder.append("()");
+      }
+    }
+    FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(brokerRequest);
+    if (filterQueryTree != null) {
+      stringBuilder.append('\n').append(getFilterFingerprint(filterQueryTree));
+    }
+    return stringBuilder.toString();
+  }
+
+  private static String getFilterFingerprint(FilterQueryTree filterQueryTree) {
+    StringBuilder stringBuilder = new StringBuilder();
+    FilterOperator operator = filterQueryTree.getOperator();
+    stringBuilder.append(operator);
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    if (operator == FilterOperator.AND || operator == FilterOperator.OR) {
+      // The order of the children does not matter for AND and OR
+      List<String> childFingerprints = new ArrayList<>(children.size());
+      for (FilterQueryTree child : children) {
+        childFingerprints.add(getFilterFingerprint(child));
+      }
+      Collections.sort(childFingerprints);
+      appendStrings(stringBuilder, childFingerprints);
+    } else {
+      appendString(stringBuilder, filterQueryTree.getColumn());
+      List<String> values = filterQueryTree.getValue();
+      if (operator == FilterOperator.IN || operator == FilterOperator.NOT_IN) {
+        // Split the values the same way as the IN/NOT IN predicates, and sort them as their order does not matter
+        List<String> sortedValues = new ArrayList<>(Arrays.asList(
+            values.size() > 1 ? values.toArray(new String[values.size()])
+                : values.get(0).split(BaseInPredicate.DELIMITER)));
+        Collections.sort(sortedValues);
+        values = sortedValues;
+      }
+      appendStrings(stringBuilder, values);
+    }
+    return stringBuilder.toString();
+  }
+
+  private static void appendStrings(StringBuilder stringBuilder, List<String> strings) {
+    stringBuilder.append(strings.size()).append('[');
+    for (String string : strings) {
+      appendString(stringBuilder, string);
+    }
+    stringBuilder.append(']');
+  }
+
+  private static void appendString(StringBuilder stringBuilder, String string) {
+    stringBuilder.append(string.length()).append(':').append(string);
+  }
+
+  /**
+   * Get the cached result for the given key.
+   *
+   * @return cached result, or null if not cached.
+   */
+  @Nullable
+  public CachedResult get(@Nonnull Key key) {
+    return _cache.getIfPresent(key);
+  }
+
+  /**
+   * Cache the intermediate results of an aggregation only query on a segment.
+   * <p>Results with processing exceptions, or with intermediate results that cannot be serialized are not cached.
+   *
+   * @param key cache key.
+   * @param resultsBlock intermediate results block returned by the segment level aggregation operator.
+   * @param executionStatistics execution statistics of the segment level aggregation operator.
+   */
+  public void put(@Nonnull Key key, @Nonnull IntermediateResultsBlock resultsBlock,
+      @Nonnull ExecutionStatistics executionStatistics) {
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    if (aggregationResult == null || resultsBlock.getProcessingExceptions() != null) {
+      return;
+    }
+    int numAggregationFunctions = aggregationResult.size();
+    ObjectType[] objectTypes = new ObjectType[numAggregationFunctions];
+    byte[][] serializedResults = new byte[numAggregationFunctions][];
+    int sizeInBytes = 0;
+    try {
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        Object result = aggregationResult.get(i);
+        objectTypes[i] = ObjectCustomSerDe.getObjectType(result);
+        serializedResults[i] = ObjectCustomSerDe.serialize(result);
+        sizeInBytes += serializedResults[i].length;
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Skip caching the results for segment: {}", key._segmentName, e);
+      return;
+    }
+    _cache.put(key, new CachedResult(objectTypes, serializedResults, executionStatistics, sizeInBytes));
+  }
+
+  /**
+   * Invalidate all the cached results of a segment.
+   *
+   * @param tableNameWithType table name with type.
+   * @param segmentName segment name.
+   */
+  public void invalidate(@Nonnull String tableNameWithType, @Nonnull String segmentName) {
+    Iterator<Key> iterator = _cache.asMap().keySet().iterator();
+    while (iterator.hasNext()) {
+      Key key = iterator.next();
+      if (key._segmentName.equals(segmentName) && key._tableNameWithType.equals(tableNameWithType)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Cached serialized intermediate results of an aggregation only query on a segment.
+   */
+  public static final class CachedResult {
+    private final ObjectType[] _objectTypes;
+    private final byte[][] _serializedResults;
+    private final ExecutionStatistics _executionStatistics;
+    private final int _sizeInBytes;
+
+    private CachedResult(ObjectType[] objectTypes, byte[][] serializedResults,
+        ExecutionStatistics executionStatistics, int sizeInBytes) {
+      _objectTypes = objectTypes;
+      _serializedResults = serializedResults;
+      _executionStatistics = executionStatistics;
+      _sizeInBytes = sizeInBytes;
+    }
+
+    /**
+     * Deserialize a new copy of the cached intermediate results.
+     */
+    @Nonnull
+    public IntermediateResultsBlock toResultsBlock(@Nonnull AggregationFunctionContext[] functionContexts)
+        throws IOException {
+      int numAggregationFunctions = _serializedResults.length;
+      List<Object> aggregationResult = new ArrayList<>(numAggregationFunctions);
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        aggregationResult.add(ObjectCustomSerDe.deserialize(_serializedResults[i], _objectTypes[i]));
+      }
+      return new IntermediateResultsBlock(functionContexts, aggregationResult, false);
+    }
+
+    /**
+     * Returns the execution statistics recorded when the results were computed, so that the cached response is the same
+     * as the computed one.
+     */
+    @Nonnull
+    public ExecutionStatistics getExecutionStatistics() {
+      return _executionStatistics;
+    }
+  }
+
+  /**
+   * Cache key of the table, segment (name and CRC) and query fingerprint.
+   */
+  public static final class Key {
+    private final String _tableNameWithType;
+    private final String _segmentName;
+    private final String _segmentCrc;
+    private final String _queryFingerprint;
+    private final int _hashCode;
+
+    public Key(@Nonnull String tableNameWithType, @Nonnull String segmentName, @Nullable String segmentCrc,
+        @Nonnull String queryFingerprint) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = segmentName;
+      _segmentCrc = segmentCrc;
+      _queryFingerprint = queryFingerprint;
+
+      int hashCode = EqualityUtils.hashCodeOf(_tableNameWithType);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _segmentName);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _segmentCrc);
+      hashCode = EqualityUtils.hashCodeOf(hashCode, _queryFingerprint);
+      _hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (EqualityUtils.isSameReference(this, o)) {
+        return true;
+      }
+
+      if (EqualityUtils.isNullOrNotSameClass(this, o)) {
+        return false;
+      }
+
+      Key that = (Key) o;
+
+      return _hashCode == that._hashCode && EqualityUtils.isEqual(_segmentName, that._segmentName)
+          && EqualityUtils.isEqual(_segmentCrc, that._segmentCrc) && EqualityUtils.isEqual(_tableNameWithType,
+          that._tableNameWithType) && EqualityUtils.isEqual(_queryFingerprint, that._queryFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.config;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+
+
+/**
+ * Config for the inter-segment combine phase.
+ * <ul>
+ *   <li>Controls the per query parallelism, depending on the number of segments to process.</li>
+ *   <li>Controls whether threads pull segments from a shared queue (work stealing) instead of processing a fixed
+ *   round-robin group of segments.</li>
+ * </ul>
+ */
+public class CombineConfig {
+  public static final String MIN_THREADS_PER_QUERY = "min.threads.per.query";
+  public static final String MAX_THREADS_PER_QUERY = "max.threads.per.query";
+  public static final String MIN_SEGMENTS_PER_THREAD = "min.segments.per.thread";
+  public static final String ENABLE_WORK_STEALING = "enable.work.stealing";
+
+  // Do not have more than 10 threads per query by default
+  public static final int DEFAULT_MAX_THREADS_PER_QUERY_CAP = 10;
+  public static final int DEFAULT_MIN_SEGMENTS_PER_THREAD = 10;
+  public static final boolean DEFAULT_ENABLE_WORK_STEALING = false;
+
+  private final int _minThreadsPerQuery;
+  private final int _maxThreadsPerQuery;
+  private final int _minSegmentsPerThread;
+  private final boolean _enableWorkStealing;
+
+  /**
+   * Default config, same as an empty configuration.
+   */
+  public CombineConfig() {
+    this(new PropertiesConfiguration());
+  }
+
+  public CombineConfig(Configuration combineConfig) {
+    int numCores = Runtime.getRuntime().availableProcessors();
+    int defaultMinThreadsPerQuery = Math.max(1, (int) (numCores * .5));
+    int defaultMaxThreadsPerQuery = Math.min(DEFAULT_MAX_THREADS_PER_QUERY_CAP, (int) (numCores * .5));
+
+    _minThreadsPerQuery = Math.max(1, combineConfig.getInt(MIN_THREADS_PER_QUERY, defaultMinThreadsPerQuery));
+    _maxThreadsPerQuery = Math.max(1, combineConfig.getInt(MAX_THREADS_PER_QUERY, defaultMaxThreadsPerQuery));
+    _minSegmentsPerThread =
+        Math.max(1, combineConfig.getInt(MIN_SEGMENTS_PER_THREAD, DEFAULT_MIN_SEGMENTS_PER_THREAD));
+    _enableWorkStealing = combineConfig.getBoolean(ENABLE_WORK_STEALING, DEFAULT_ENABLE_WORK_STEALING);
+  }
+
+  public int getMinThreadsPerQuery() {
+    return _minThreadsPerQuery;
+  }
+
+  public int getMaxThreadsPerQuery() {
+    return _maxThreadsPerQuery;
+  }
+
+  public int getMinSegmentsPerThread() {
+    return _minSegmentsPerThread;
+  }
+
+  public boolean isWorkStealingEnabled() {
+    return _enableWorkStealing;
+  }
+
+  /**
+   * Returns the number of threads to use for a query with the given number of segments.
+   * <p>The number of threads is never more than the number of segments.
+   */
+  public int getNumThreadsForQuery(int numSegments) {
+    return Math.min(numSegments, Math.max(_minThreadsPerQuery,
+        Math.min(_maxThreadsPerQuery, (numSegments + _minSegmentsPerThread - 1) / _minSegmentsPerThread)));
+  }
+
+  @Override
+  public String toString() {
+    return "CombineConfig{minThreadsPerQuery=" + _minThreadsPerQuery + ", maxThreadsPerQuery=" + _maxThreadsPerQuery
+        + ", minSegmentsPerThread=" + _minSegmentsPerThread + ", enableWorkStealing=" + _enableWorkStealing + '}';
+  }
+}
@@ -15,6 +15,8 @@
  */
 package com.linkedin.pinot.core.query.config;
 
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 
@@ -30,22 +32,47 @@ public class QueryExecutorConfig {
   public static final String QUERY_PRUNER = "pruner";
   // Prefix key of Query Planner
   public static final String QUERY_PLANNER = "queryPlanner";
+  // Prefix key of Combine
+  public static final String COMBINE = "combine";
   // Prefix key of TimeOut
   public static final String TIME_OUT = "timeout";
+  // Key of the max size in bytes of the segment level result cache, 0 to disable the cache
+  public static final String SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES = "segmentResultCache.maxSizeBytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES = 0L;
+  // Keys of the version and compression of the data tables sent to the brokers
+  public static final String DATA_TABLE_VERSION = "dataTable.version";
+  public static final String DATA_TABLE_COMPRESSION_TYPE = "dataTable.compressionType";
+  public static final String DATA_TABLE_COMPRESSION_THRESHOLD_BYTES = "dataTable.compressionThresholdBytes";
+  public static final int DEFAULT_DATA_TABLE_VERSION = DataTableBuilder.VERSION_2;
+  public static final String DEFAULT_DATA_TABLE_COMPRESSION_TYPE = ChunkCompressorFactory.CompressionType.LZ4.name();
+  public static final int DEFAULT_DATA_TABLE_COMPRESSION_THRESHOLD_BYTES = 64 * 1024;
 
   private static final String[] REQUIRED_KEYS = {};
 
   private Configuration _queryExecutorConfig = null;
   private SegmentPrunerConfig _segmentPrunerConfig;
   private QueryPlannerConfig _queryPlannerConfig;
+  private CombineConfig _combineConfig;
   private final long _timeOutMs;
+  private final long _segmentResultCacheMaxSizeBytes;
+  private final int _dataTableVersion;
+  private final ChunkCompressorFactory.CompressionType _dataTableCompressionType;
+  private final int _dataTableCompressionThresholdBytes;
 
   public QueryExecutorConfig(Configuration config) throws ConfigurationException {
     _queryExecutorConfig = config;
     checkRequiredKeys();
     _segmentPrunerConfig = new SegmentPrunerConfig(_queryExecutorConfig.subset(QUERY_PRUNER));
     _queryPlannerConfig = new QueryPlannerConfig(_queryExecutorConfig.subset(QUERY_PLANNER));
+    _combineConfig = new CombineConfig(_queryExecutorConfig.subset(COMBINE));
     _timeOutMs = _queryExecutorConfig.getLong(TIME_OUT, -1);
+    _segmentResultCacheMaxSizeBytes =
+        _queryExecutorConfig.getLong(SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES, DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES);
+    _dataTableVersion = _queryExecutorConfig.getInt(DATA_TABLE_VERSION, DEFAULT_DATA_TABLE_VERSION);
+    _dataTableCompressionType = ChunkCompressorFactory.CompressionType.valueOf(
+        _queryExecutorConfig.getString(DATA_TABLE_COMPRESSION_TYPE, DEFAULT_DATA_TABLE_COMPRESSION_TYPE).toUpperCase());
+    _dataTableCompressionThresholdBytes = _queryExecutorConfig.getInt(DATA_TABLE_COMPRESSION_THRESHOLD_BYTES,
+        DEFAULT_DATA_TABLE_COMPRESSION_THRESHOLD_BYTES);
   }
 
   private void checkRequiredKeys() throws ConfigurationException {
@@ -68,7 +95,27 @@ public class QueryExecutorConfig {
     return _queryPlannerConfig;
   }
 
+  public CombineConfig getCombineConfig() {
+    return _combineConfig;
+  }
+
   public long getTimeOut() {
     return _timeOutMs;
   }
+
+  public long getSegmentResultCacheMaxSizeBytes() {
+    return _segmentResultCacheMaxSizeBytes;
+  }
+
+  public int getDataTableVersion() {
+    return _dataTableVersion;
+  }
+
+  public ChunkCompressorFactory.CompressionType getDataTableCompressionType() {
+    return _dataTableCompressionType;
+  }
+
+  public int getDataTableCompressionThresholdBytes() {
+    return _dataTableCompressionThresholdBytes;
+  }
 }
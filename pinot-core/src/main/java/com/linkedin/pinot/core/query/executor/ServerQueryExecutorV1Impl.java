@@ -37,6 +37,7 @@ import com.linkedin.pinot.core.indexsegment.IndexSegment;
 import com.linkedin.pinot.core.plan.Plan;
 import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import com.linkedin.pinot.core.plan.maker.PlanMaker;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.query.config.QueryExecutorConfig;
 import com.linkedin.pinot.core.query.exception.BadQueryRequestException;
 import com.linkedin.pinot.core.query.pruner.SegmentPrunerService;
@@ -82,8 +83,20 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerServiceImpl(queryExecutorConfig.getPrunerConfig());
     LOGGER.info("Trying to build QueryPlanMaker");
-    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig);
+    SegmentResultCache segmentResultCache = null;
+    long segmentResultCacheMaxSizeBytes = queryExecutorConfig.getSegmentResultCacheMaxSizeBytes();
+    if (segmentResultCacheMaxSizeBytes > 0) {
+      segmentResultCache = new SegmentResultCache(segmentResultCacheMaxSizeBytes);
+      _instanceDataManager.setSegmentResultCache(segmentResultCache);
+    }
+    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig, segmentResultCache);
     LOGGER.info("Trying to build QueryExecutorTimer");
+    LOGGER.info("Data table version: {}, compression type: {}, compression threshold: {} bytes",
+        queryExecutorConfig.getDataTableVersion(), queryExecutorConfig.getDataTableCompressionType(),
+        queryExecutorConfig.getDataTableCompressionThresholdBytes());
+    DataTableBuilder.setCurrentDataTableVersion(queryExecutorConfig.getDataTableVersion());
+    DataTableBuilder.setCompression(queryExecutorConfig.getDataTableCompressionType(),
+        queryExecutorConfig.getDataTableCompressionThresholdBytes());
   }
 
   @Override
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.pruner;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.query.ServerQueryRequest;
+import com.linkedin.pinot.common.request.FilterOperator;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.core.common.predicate.InPredicate;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.configuration.Configuration;
+
+
+/**
+ * An implementation of SegmentPruner.
+ * <p>Pruner will prune segment based on the bloom filter of the columns with EQUALITY or IN predicate inside the
+ * filter. Unlike {@link ColumnValueSegmentPruner}, it works for high cardinality columns (e.g. ids) where the value
+ * is almost always within the min/max range of the segment.
+ */
+public class BloomFilterSegmentPruner implements SegmentPruner {
+
+  @Override
+  public void init(Configuration config) {
+  }
+
+  @Override
+  public boolean prune(@Nonnull IndexSegment segment, @Nonnull ServerQueryRequest queryRequest) {
+    return prune(segment, queryRequest.getFilterQueryTree());
+  }
+
+  /**
+   * Version of prune that directly takes filter query tree.
+   *
+   * @param segment Segment to prune
+   * @param filterQueryTree Filter query tree
+   * @return True if segment can be pruned, false otherwise.
+   */
+  public boolean prune(@Nonnull IndexSegment segment, @Nullable FilterQueryTree filterQueryTree) {
+    // Bloom filter is only available for immutable segment
+    if (filterQueryTree == null || !(segment instanceof ImmutableSegment)) {
+      return false;
+    }
+    return pruneSegment(filterQueryTree, (ImmutableSegment) segment);
+  }
+
+  @Override
+  public String toString() {
+    return "BloomFilterSegmentPruner";
+  }
+
+  /**
+   * Helper method to determine if a segment can be pruned based on the column bloom filters. The algorithm is as
+   * follows:
+   *
+   * <ul>
+   *   <li> For leaf node: Returns true if there is an EQUALITY or IN predicate on a column with bloom filter, and none
+   *   of the values in the predicate might be contained in the bloom filter, false otherwise. </li>
+   *   <li> For non-leaf AND node: True if any of its children returned true, false otherwise. </li>
+   *   <li> For non-leaf OR node: True if all its children returned true, false otherwise. </li>
+   * </ul>
+   *
+   * @param filterQueryTree Filter tree for the query.
+   * @param segment Immutable segment.
+   * @return True if segment can be pruned out, false otherwise.
+   */
+  private boolean pruneSegment(@Nonnull FilterQueryTree filterQueryTree, @Nonnull ImmutableSegment segment) {
+    FilterOperator filterOperator = filterQueryTree.getOperator();
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+
+    if (children == null || children.isEmpty()) {
+      // Leaf Node
+
+      // Skip operator other than EQUALITY and IN
+      if ((filterOperator != FilterOperator.EQUALITY) && (filterOperator != FilterOperator.IN)) {
+        return false;
+      }
+
+      String column = filterQueryTree.getColumn();
+      BloomFilterReader bloomFilter = segment.getBloomFilter(column);
+      if (bloomFilter == null) {
+        return false;
+      }
+      ColumnMetadata columnMetadata = ((SegmentMetadataImpl) segment.getSegmentMetadata()).getColumnMetadataFor(column);
+      FieldSpec.DataType dataType = columnMetadata.getDataType();
+
+      if (filterOperator == FilterOperator.EQUALITY) {
+        return !mightContain(bloomFilter, filterQueryTree.getValue().get(0), dataType);
+      } else {
+        for (String value : new InPredicate(column, filterQueryTree.getValue()).getValues()) {
+          if (mightContain(bloomFilter, value, dataType)) {
+            return false;
+          }
+        }
+        return true;
+      }
+    } else {
+      // Parent node
+      switch (filterOperator) {
+        case AND:
+          for (FilterQueryTree child : children) {
+            if (pruneSegment(child, segment)) {
+              return true;
+            }
+          }
+          return false;
+
+        case OR:
+          for (FilterQueryTree child : children) {
+            if (!pruneSegment(child, segment)) {
+              return false;
+            }
+          }
+          return true;
+
+        default:
+          throw new IllegalStateException("Unsupported filter operator: " + filterOperator);
+      }
+    }
+  }
+
+  /**
+   * Helper method to check the bloom filter with the value from the query. The value is converted to the data type of
+   * the column first so that it has the same string representation as the values inside the bloom filter.
+   */
+  private static boolean mightContain(@Nonnull BloomFilterReader bloomFilter, @Nonnull String value,
+      @Nonnull FieldSpec.DataType dataType) {
+    return bloomFilter.mightContain(AbstractSegmentPruner.getValue(value, dataType).toString());
+  }
+}
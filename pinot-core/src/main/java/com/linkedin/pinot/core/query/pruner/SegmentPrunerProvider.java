@@ -36,6 +36,7 @@ public class SegmentPrunerProvider {
     PRUNER_MAP.put("dataschemasegmentpruner", DataSchemaSegmentPruner.class);
     PRUNER_MAP.put("validsegmentpruner", ValidSegmentPruner.class);
     PRUNER_MAP.put("partitionsegmentpruner", PartitionSegmentPruner.class);
+    PRUNER_MAP.put("bloomfiltersegmentpruner", BloomFilterSegmentPruner.class);
   }
 
   public static SegmentPruner getSegmentPruner(String prunerClassName, Configuration segmentPrunerConfig) {
@@ -34,18 +34,22 @@ import com.linkedin.pinot.common.response.broker.SelectionResults;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableUtils;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
 import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
 import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorService;
 import com.linkedin.pinot.core.query.selection.SelectionOperatorUtils;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -61,6 +65,7 @@ import org.slf4j.LoggerFactory;
 @ThreadSafe
 public class BrokerReduceService implements ReduceService<BrokerResponseNative> {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerReduceService.class);
+  private static final int INVALID_GROUP_ID = -1;
 
   @Nonnull
   @Override
@@ -162,12 +167,21 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
     if (dataTableMap.isEmpty()) {
       // For empty data table map, construct empty result using the cached data schema.
 
-      // This will only happen to selection query.
+      // This will only happen to selection query, and aggregation group-by query with typed group key columns (no row
+      // when there is no group).
       if (cachedDataSchema != null) {
-        List<String> selectionColumns =
-            SelectionOperatorUtils.getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(),
-                cachedDataSchema);
-        brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+        if (brokerRequest.isSetSelections()) {
+          List<String> selectionColumns =
+              SelectionOperatorUtils.getSelectionColumns(brokerRequest.getSelections().getSelectionColumns(),
+                  cachedDataSchema);
+          brokerResponseNative.setSelectionResults(new SelectionResults(selectionColumns, new ArrayList<>(0)));
+        } else if (brokerRequest.isSetGroupBy() && DataTableUtils.hasTypedGroupKeyColumns(cachedDataSchema)) {
+          setGroupByHavingResults(brokerResponseNative,
+              AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo()),
+              AggregationFunctionUtils.getAggregationFunctionsSelectStatus(brokerRequest.getAggregationsInfo()),
+              brokerRequest.getGroupBy(), dataTableMap, cachedDataSchema, brokerRequest.getHavingFilterQuery(),
+              brokerRequest.getHavingFilterSubQueryMap(), preserveType);
+        }
       }
     } else {
       // Reduce server responses data and set query results into the broker response.
@@ -207,7 +221,7 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
           boolean[] aggregationFunctionSelectStatus =
               AggregationFunctionUtils.getAggregationFunctionsSelectStatus(brokerRequest.getAggregationsInfo());
           setGroupByHavingResults(brokerResponseNative, aggregationFunctions, aggregationFunctionSelectStatus,
-              brokerRequest.getGroupBy(), dataTableMap, brokerRequest.getHavingFilterQuery(),
+              brokerRequest.getGroupBy(), dataTableMap, cachedDataSchema, brokerRequest.getHavingFilterQuery(),
               brokerRequest.getHavingFilterSubQueryMap(), preserveType);
           if (brokerMetrics != null && (!brokerResponseNative.getAggregationResults().isEmpty())) {
             // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the same.
@@ -346,57 +360,63 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
 
   /**
    * Reduce group-by results from multiple servers and set them into BrokerResponseNative passed in.
+   * <p>When all the data tables have typed group key columns, the results are merged on the typed group key values,
+   * otherwise on the string group keys.
    *
    * @param brokerResponseNative broker response.
    * @param aggregationFunctions array of aggregation functions.
    * @param groupBy group-by information.
    * @param dataTableMap map from server to data table.
+   * @param dataSchema data schema.
    * @param havingFilterQuery having filter query
    * @param havingFilterQueryMap having filter query map
    */
   @SuppressWarnings("unchecked")
   private void setGroupByHavingResults(@Nonnull BrokerResponseNative brokerResponseNative,
       @Nonnull AggregationFunction[] aggregationFunctions, boolean[] aggregationFunctionsSelectStatus,
-      @Nonnull GroupBy groupBy, @Nonnull Map<ServerInstance, DataTable> dataTableMap,
+      @Nonnull GroupBy groupBy, @Nonnull Map<ServerInstance, DataTable> dataTableMap, @Nonnull DataSchema dataSchema,
       HavingFilterQuery havingFilterQuery, HavingFilterQueryMap havingFilterQueryMap, boolean preserveType) {
     int numAggregationFunctions = aggregationFunctions.length;
 
     // Merge results from all data tables.
+    // Map each group key to a group id shared by all aggregation functions, and store the intermediate results inside
+    // lists indexed by the group id, so that each group key is only looked up once per aggregation function.
     String[] columnNames = new String[numAggregationFunctions];
-    Map<String, Object>[] intermediateResultMaps = new Map[numAggregationFunctions];
+    ObjectArrayList<Object>[] intermediateResultLists = new ObjectArrayList[numAggregationFunctions];
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      intermediateResultLists[i] = new ObjectArrayList<>();
+    }
+    boolean hasTypedGroupKeyColumns = DataTableUtils.hasTypedGroupKeyColumns(dataSchema);
     for (DataTable dataTable : dataTableMap.values()) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        if (columnNames[i] == null) {
-          columnNames[i] = dataTable.getString(i, 0);
-          intermediateResultMaps[i] = dataTable.getObject(i, 1);
-        } else {
-          Map<String, Object> mergedIntermediateResultMap = intermediateResultMaps[i];
-          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
-          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
-            String groupKey = entry.getKey();
-            Object intermediateResultToMerge = entry.getValue();
-            if (mergedIntermediateResultMap.containsKey(groupKey)) {
-              Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
-              mergedIntermediateResultMap.put(groupKey,
-                  aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge));
-            } else {
-              mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
-            }
-          }
-        }
+      if (!DataTableUtils.hasTypedGroupKeyColumns(dataTable.getDataSchema())) {
+        hasTypedGroupKeyColumns = false;
+        break;
       }
     }
+    String[] groupKeys = null;
+    Object[][] groupKeyValues = null;
+    int numGroups;
+    if (hasTypedGroupKeyColumns) {
+      groupKeyValues = mergeTypedGroupByResults(aggregationFunctions, dataTableMap.values(), dataSchema, columnNames,
+          intermediateResultLists);
+      numGroups = groupKeyValues.length;
+    } else {
+      groupKeys = mergeGroupByResultMaps(aggregationFunctions, dataTableMap.values(), columnNames,
+          intermediateResultLists);
+      numGroups = groupKeys.length;
+    }
 
-    // Extract final result maps from the merged intermediate result maps.
-    Map<String, Comparable>[] finalResultMaps = new Map[numAggregationFunctions];
+    // Extract final results from the merged intermediate results, null for groups not existing.
+    Comparable[][] finalResults = new Comparable[numAggregationFunctions][numGroups];
     for (int i = 0; i < numAggregationFunctions; i++) {
-      Map<String, Object> intermediateResultMap = intermediateResultMaps[i];
-      Map<String, Comparable> finalResultMap = new HashMap<>();
-      for (String groupKey : intermediateResultMap.keySet()) {
-        Object intermediateResult = intermediateResultMap.get(groupKey);
-        finalResultMap.put(groupKey, aggregationFunctions[i].extractFinalResult(intermediateResult));
+      ObjectArrayList<Object> intermediateResultList = intermediateResultLists[i];
+      int numGroupsForFunction = intermediateResultList.size();
+      for (int groupId = 0; groupId < numGroupsForFunction; groupId++) {
+        Object intermediateResult = intermediateResultList.get(groupId);
+        if (intermediateResult != null) {
+          finalResults[i][groupId] = aggregationFunctions[i].extractFinalResult(intermediateResult);
+        }
       }
-      finalResultMaps[i] = finalResultMap;
     }
     //If HAVING clause is set, we further filter the group by results based on the HAVING predicate
     if (havingFilterQuery != null) {
@@ -405,33 +425,25 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
       //Applying close policy
       //We just keep those groups (from different aggregation functions) that are exist in the result set of all aggregation functions.
       //In other words, we just keep intersection of groups of different aggregation functions.
-      //Here we calculate the intersection of group key sets of different aggregation functions
-      Set<String> intersectionOfKeySets = finalResultMaps[0].keySet();
-      for (int i = 1; i < numAggregationFunctions; i++) {
-        intersectionOfKeySets.retainAll(finalResultMaps[i].keySet());
-      }
-
-      //Now it is time to remove those groups that do not validate HAVING clause predicate
+      //Groups not validating the HAVING clause predicate are removed by setting their final results to null
       //We use TreeMap which supports CASE_INSENSITIVE_ORDER
       Map<String, Comparable> singleGroupAggResults = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-      Map<String, Comparable>[] finalFilteredResultMaps = new Map[numAggregationFunctions];
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        finalFilteredResultMaps[i] = new HashMap<>();
-      }
-
-      for (String groupKey : intersectionOfKeySets) {
+      for (int groupId = 0; groupId < numGroups; groupId++) {
+        boolean existsForAllFunctions = true;
         for (int i = 0; i < numAggregationFunctions; i++) {
-          singleGroupAggResults.put(columnNames[i], finalResultMaps[i].get(groupKey));
+          Comparable finalResult = finalResults[i][groupId];
+          if (finalResult == null) {
+            existsForAllFunctions = false;
+            break;
+          }
+          singleGroupAggResults.put(columnNames[i], finalResult);
         }
-        //if this group validate HAVING predicate keep it in the new map
-        if (havingClauseComparisonTree.isThisGroupPassPredicates(singleGroupAggResults)) {
+        if (!existsForAllFunctions || !havingClauseComparisonTree.isThisGroupPassPredicates(singleGroupAggResults)) {
           for (int i = 0; i < numAggregationFunctions; i++) {
-            finalFilteredResultMaps[i].put(groupKey, singleGroupAggResults.get(columnNames[i]));
+            finalResults[i][groupId] = null;
           }
         }
       }
-      //update the final results
-      finalResultMaps = finalFilteredResultMaps;
     }
 
     int aggregationNumsInFinalResult = 0;
@@ -443,13 +455,13 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
 
     if (aggregationNumsInFinalResult > 0) {
       String[] finalColumnNames = new String[aggregationNumsInFinalResult];
-      Map<String, Comparable>[] finalOutResultMaps = new Map[aggregationNumsInFinalResult];
+      Comparable[][] finalOutResults = new Comparable[aggregationNumsInFinalResult][];
       AggregationFunction[] finalAggregationFunctions = new AggregationFunction[aggregationNumsInFinalResult];
       int count = 0;
       for (int i = 0; i < numAggregationFunctions; i++) {
         if (aggregationFunctionsSelectStatus[i]) {
           finalColumnNames[count] = columnNames[i];
-          finalOutResultMaps[count] = finalResultMaps[i];
+          finalOutResults[count] = finalResults[i];
           finalAggregationFunctions[count] = aggregationFunctions[i];
           count++;
         }
@@ -458,7 +470,8 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
       AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
           new AggregationGroupByTrimmingService(finalAggregationFunctions, (int) groupBy.getTopN());
       List<GroupByResult>[] groupByResultLists =
-          aggregationGroupByTrimmingService.trimFinalResults(finalOutResultMaps);
+          hasTypedGroupKeyColumns ? aggregationGroupByTrimmingService.trimFinalResults(groupKeyValues, finalOutResults)
+              : aggregationGroupByTrimmingService.trimFinalResults(groupKeys, finalOutResults);
 
       // Format the value into string if required
       if (!preserveType) {
@@ -480,4 +493,167 @@ public class BrokerReduceService implements ReduceService<BrokerResponseNative>
           "There should be minimum one aggregation function in the select list of a Group by query");
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Merges the group-by results from data tables with typed group key columns on the group key values, and returns the
+   * group key values indexed by group id.
+   * <p>Group key columns with different data types across the data tables are merged on the string values.
+   */
+  private static Object[][] mergeTypedGroupByResults(AggregationFunction[] aggregationFunctions,
+      Collection<DataTable> dataTables, DataSchema dataSchema, String[] columnNames,
+      ObjectArrayList<Object>[] intermediateResultLists) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    int numGroupKeyColumns = dataSchema.size() - numAggregationFunctions;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      columnNames[i] = dataSchema.getColumnName(numGroupKeyColumns + i);
+    }
+    boolean[] mergeOnStringValues = new boolean[numGroupKeyColumns];
+    for (DataTable dataTable : dataTables) {
+      DataSchema dataSchemaToMerge = dataTable.getDataSchema();
+      for (int i = 0; i < numGroupKeyColumns; i++) {
+        if (dataSchemaToMerge.getColumnDataType(i) != dataSchema.getColumnDataType(i)) {
+          mergeOnStringValues[i] = true;
+        }
+      }
+    }
+
+    // Use the value as the key for single group key column, or the list of values for multiple group key columns
+    Object2IntOpenHashMap<Object> groupKeyToIdMap = new Object2IntOpenHashMap<>();
+    groupKeyToIdMap.defaultReturnValue(INVALID_GROUP_ID);
+    List<Object[]> groupKeyValuesList = new ArrayList<>();
+    for (DataTable dataTable : dataTables) {
+      DataSchema dataSchemaToMerge = dataTable.getDataSchema();
+      int numRows = dataTable.getNumberOfRows();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object[] groupKeyValues = new Object[numGroupKeyColumns];
+        for (int i = 0; i < numGroupKeyColumns; i++) {
+          Object value = getGroupKeyValue(dataTable, rowId, i, dataSchemaToMerge.getColumnDataType(i));
+          groupKeyValues[i] = mergeOnStringValues[i] ? value.toString() : value;
+        }
+        Object groupKey = numGroupKeyColumns == 1 ? groupKeyValues[0] : Arrays.asList(groupKeyValues);
+        int groupId = groupKeyToIdMap.getInt(groupKey);
+        if (groupId == INVALID_GROUP_ID) {
+          groupId = groupKeyValuesList.size();
+          groupKeyToIdMap.put(groupKey, groupId);
+          groupKeyValuesList.add(groupKeyValues);
+        }
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          int colId = numGroupKeyColumns + i;
+          mergeIntermediateResult(aggregationFunctions[i], intermediateResultLists[i], groupId,
+              getIntermediateResult(dataTable, rowId, colId, dataSchemaToMerge.getColumnDataType(colId)));
+        }
+      }
+    }
+    return groupKeyValuesList.toArray(new Object[groupKeyValuesList.size()][]);
+  }
+
+  /**
+   * Merges the group-by results on the string group keys, and returns the string group keys indexed by group id.
+   * <p>Data tables with typed group key columns are merged on the string group keys built from the group key values.
+   */
+  private static String[] mergeGroupByResultMaps(AggregationFunction[] aggregationFunctions,
+      Collection<DataTable> dataTables, String[] columnNames, ObjectArrayList<Object>[] intermediateResultLists) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    Object2IntOpenHashMap<String> groupKeyToIdMap = new Object2IntOpenHashMap<>();
+    groupKeyToIdMap.defaultReturnValue(INVALID_GROUP_ID);
+    for (DataTable dataTable : dataTables) {
+      DataSchema dataSchema = dataTable.getDataSchema();
+      if (DataTableUtils.hasTypedGroupKeyColumns(dataSchema)) {
+        int numGroupKeyColumns = dataSchema.size() - numAggregationFunctions;
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          if (columnNames[i] == null) {
+            columnNames[i] = dataSchema.getColumnName(numGroupKeyColumns + i);
+          }
+        }
+        int numRows = dataTable.getNumberOfRows();
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          StringBuilder groupKeyBuilder = new StringBuilder();
+          for (int i = 0; i < numGroupKeyColumns; i++) {
+            if (i != 0) {
+              groupKeyBuilder.append(AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER);
+            }
+            groupKeyBuilder.append(getGroupKeyValue(dataTable, rowId, i, dataSchema.getColumnDataType(i)));
+          }
+          int groupId = getGroupId(groupKeyToIdMap, groupKeyBuilder.toString());
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            int colId = numGroupKeyColumns + i;
+            mergeIntermediateResult(aggregationFunctions[i], intermediateResultLists[i], groupId,
+                getIntermediateResult(dataTable, rowId, colId, dataSchema.getColumnDataType(colId)));
+          }
+        }
+      } else {
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          if (columnNames[i] == null) {
+            columnNames[i] = dataTable.getString(i, 0);
+          }
+          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
+          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+            int groupId = getGroupId(groupKeyToIdMap, entry.getKey());
+            mergeIntermediateResult(aggregationFunctions[i], intermediateResultLists[i], groupId, entry.getValue());
+          }
+        }
+      }
+    }
+    String[] groupKeys = new String[groupKeyToIdMap.size()];
+    for (Object2IntMap.Entry<String> entry : groupKeyToIdMap.object2IntEntrySet()) {
+      groupKeys[entry.getIntValue()] = entry.getKey();
+    }
+    return groupKeys;
+  }
+
+  private static int getGroupId(Object2IntOpenHashMap<String> groupKeyToIdMap, String groupKey) {
+    int groupId = groupKeyToIdMap.getInt(groupKey);
+    if (groupId == INVALID_GROUP_ID) {
+      groupId = groupKeyToIdMap.size();
+      groupKeyToIdMap.put(groupKey, groupId);
+    }
+    return groupId;
+  }
+
+  private static Object getGroupKeyValue(DataTable dataTable, int rowId, int colId,
+      DataSchema.ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+        return dataTable.getInt(rowId, colId);
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case FLOAT:
+        return dataTable.getFloat(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case STRING:
+        return dataTable.getString(rowId, colId);
+      default:
+        throw new IllegalStateException("Illegal column data type in group key columns: " + columnDataType);
+    }
+  }
+
+  private static Object getIntermediateResult(DataTable dataTable, int rowId, int colId,
+      DataSchema.ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case OBJECT:
+        return dataTable.getObject(rowId, colId);
+      default:
+        throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void mergeIntermediateResult(AggregationFunction aggregationFunction,
+      ObjectArrayList<Object> intermediateResultList, int groupId, Object intermediateResultToMerge) {
+    if (groupId >= intermediateResultList.size()) {
+      // Pad the list with nulls for groups not existing for this aggregation function
+      intermediateResultList.size(groupId + 1);
+    }
+    Object mergedIntermediateResult = intermediateResultList.get(groupId);
+    if (mergedIntermediateResult == null) {
+      intermediateResultList.set(groupId, intermediateResultToMerge);
+    } else {
+      intermediateResultList.set(groupId, aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge));
+    }
+  }
+}
@@ -29,6 +29,7 @@ import com.linkedin.pinot.common.query.QueryExecutor;
 import com.linkedin.pinot.common.query.ServerQueryRequest;
 import com.linkedin.pinot.core.query.scheduler.resources.QueryExecutorService;
 import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import javax.annotation.Nonnull;
@@ -61,7 +62,7 @@ public abstract class PriorityScheduler extends QueryScheduler {
   }
 
   @Override
-  public ListenableFuture<byte[]> submit(@Nullable final ServerQueryRequest queryRequest) {
+  public ListenableFuture<ByteBuffer> submit(@Nullable final ServerQueryRequest queryRequest) {
     Preconditions.checkNotNull(queryRequest);
     if (! isRunning) {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
@@ -104,7 +105,7 @@ public abstract class PriorityScheduler extends QueryScheduler {
             ServerQueryRequest queryRequest = request.getQueryRequest();
             final QueryExecutorService executor = resourceManager.getExecutorService(queryRequest,
                 request.getSchedulerGroup());
-            final ListenableFutureTask<byte[]> queryFutureTask = createQueryFutureTask(queryRequest, executor);
+            final ListenableFutureTask<ByteBuffer> queryFutureTask = createQueryFutureTask(queryRequest, executor);
             queryFutureTask.addListener(new Runnable() {
               @Override
               public void run() {
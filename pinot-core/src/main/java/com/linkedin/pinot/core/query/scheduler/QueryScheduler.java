@@ -35,6 +35,7 @@ import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.common.datatable.DataTableImplV2;
 import com.linkedin.pinot.core.query.scheduler.resources.QueryExecutorService;
 import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -77,10 +78,11 @@ public abstract class QueryScheduler {
   /**
    * Submit a query for execution. The query will be scheduled for execution as per the scheduling algorithm
    * @param queryRequest query to schedule for execution
-   * @return Listenable future for query result representing serialized response. It is possible that the
-   *    future may return immediately or be scheduled for execution at a later time.
+   * @return Listenable future for query result representing serialized response (allocated from the response buffer
+   *    allocator of the query request). It is possible that the future may return immediately or be scheduled for
+   *    execution at a later time.
    */
-  public abstract @Nonnull ListenableFuture<byte[]> submit(@Nullable ServerQueryRequest queryRequest);
+  public abstract @Nonnull ListenableFuture<ByteBuffer> submit(@Nullable ServerQueryRequest queryRequest);
 
   /**
    * Query scheduler name for logging
@@ -115,11 +117,11 @@ public abstract class QueryScheduler {
    * @return Future task that can be scheduled for execution on an ExecutorService. Ideally, this future
    * should be executed on a different executor service than {@code e} to avoid deadlock.
    */
-  protected ListenableFutureTask<byte[]> createQueryFutureTask(@Nonnull final ServerQueryRequest request,
+  protected ListenableFutureTask<ByteBuffer> createQueryFutureTask(@Nonnull final ServerQueryRequest request,
       @Nonnull final QueryExecutorService e) {
-    return ListenableFutureTask.create(new Callable<byte[]>() {
+    return ListenableFutureTask.create(new Callable<ByteBuffer>() {
       @Override
-      public byte[] call()
+      public ByteBuffer call()
           throws Exception {
         return processQueryAndSerialize(request, e);
       }
@@ -133,7 +135,7 @@ public abstract class QueryScheduler {
    * @return serialized query response
    */
   @Nullable
-  protected byte[] processQueryAndSerialize(@Nonnull final ServerQueryRequest request,
+  protected ByteBuffer processQueryAndSerialize(@Nonnull final ServerQueryRequest request,
       @Nonnull final ExecutorService executorService) {
     DataTable dataTable;
     try {
@@ -149,7 +151,7 @@ public abstract class QueryScheduler {
     Map<String, String> dataTableMetadata = dataTable.getMetadata();
     dataTableMetadata.put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
 
-    byte[] responseData = serializeDataTable(request, dataTable);
+    ByteBuffer responseData = serializeDataTable(request, dataTable);
 
     // Log the statistics
     TimerContext timerContext = request.getTimerContext();
@@ -180,19 +182,19 @@ public abstract class QueryScheduler {
    * Serialize the DataTable response for query request
    * @param queryRequest Server query request for which response is serialized
    * @param instanceResponse DataTable to serialize
-   * @return serialized response bytes
+   * @return serialized response allocated from the response buffer allocator of the query request
    */
   @Nullable
-  public static byte[] serializeDataTable(@Nonnull ServerQueryRequest queryRequest,
+  public static ByteBuffer serializeDataTable(@Nonnull ServerQueryRequest queryRequest,
       @Nonnull DataTable instanceResponse) {
     TimerContext timerContext = queryRequest.getTimerContext();
     TimerContext.Timer responseSerializationTimer =
         timerContext.startNewPhaseTimer(ServerQueryPhase.RESPONSE_SERIALIZATION);
 
-    byte[] responseByte;
+    ByteBuffer responseByte;
     InstanceRequest instanceRequest = queryRequest.getInstanceRequest();
     try {
-      responseByte = instanceResponse.toBytes();
+      responseByte = instanceResponse.toByteBuffer(queryRequest.getResponseBufferAllocator());
     } catch (Exception e) {
       queryRequest.getServerMetrics().addMeteredGlobalValue(ServerMeter.RESPONSE_SERIALIZATION_EXCEPTIONS, 1);
       LOGGER.error("Caught exception while serializing response for requestId: {}, brokerId: {}",
@@ -214,7 +216,7 @@ public abstract class QueryScheduler {
    * @param error error code to send
    * @return
    */
-  protected ListenableFuture<byte[]> immediateErrorResponse(ServerQueryRequest queryRequest, ProcessingException error) {
+  protected ListenableFuture<ByteBuffer> immediateErrorResponse(ServerQueryRequest queryRequest, ProcessingException error) {
     DataTable result = new DataTableImplV2();
     result.addException(error);
     return Futures.immediateFuture(QueryScheduler.serializeDataTable(queryRequest, result));
@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.linkedin.pinot.common.query.ServerQueryRequest;
+import java.nio.ByteBuffer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -30,7 +31,7 @@ import javax.annotation.Nullable;
 public class SchedulerQueryContext {
 
   private final ServerQueryRequest queryRequest;
-  private final SettableFuture<byte[]> resultFuture;
+  private final SettableFuture<ByteBuffer> resultFuture;
   private SchedulerGroup schedulerGroup;
 
   public SchedulerQueryContext(@Nonnull ServerQueryRequest queryRequest) {
@@ -44,11 +45,11 @@ public class SchedulerQueryContext {
     return queryRequest;
   }
 
-  public @Nonnull SettableFuture<byte[]> getResultFuture() {
+  public @Nonnull SettableFuture<ByteBuffer> getResultFuture() {
     return resultFuture;
   }
 
-  public void setResultFuture(ListenableFuture<byte[]> f) {
+  public void setResultFuture(ListenableFuture<ByteBuffer> f) {
     resultFuture.setFuture(f);
   }
 
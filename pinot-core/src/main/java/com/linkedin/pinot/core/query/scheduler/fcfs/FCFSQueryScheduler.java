@@ -27,6 +27,7 @@ import com.linkedin.pinot.common.query.ServerQueryRequest;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.core.query.scheduler.resources.QueryExecutorService;
 import com.linkedin.pinot.core.query.scheduler.resources.UnboundedResourceManager;
+import java.nio.ByteBuffer;
 import javax.annotation.Nonnull;
 import org.apache.commons.configuration.Configuration;
 
@@ -45,7 +46,7 @@ public class FCFSQueryScheduler extends QueryScheduler {
   }
 
   @Override
-  public ListenableFuture<byte[]> submit(final ServerQueryRequest queryRequest) {
+  public ListenableFuture<ByteBuffer> submit(final ServerQueryRequest queryRequest) {
     Preconditions.checkNotNull(queryRequest);
     if (! isRunning) {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
@@ -53,7 +54,7 @@ public class FCFSQueryScheduler extends QueryScheduler {
     queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
     QueryExecutorService queryExecutorService =
         resourceManager.getExecutorService(queryRequest, null);
-    ListenableFutureTask<byte[]> queryTask = createQueryFutureTask(queryRequest, queryExecutorService);
+    ListenableFutureTask<ByteBuffer> queryTask = createQueryFutureTask(queryRequest, queryExecutorService);
     resourceManager.getQueryRunners().submit(queryTask);
     return queryTask;
   }
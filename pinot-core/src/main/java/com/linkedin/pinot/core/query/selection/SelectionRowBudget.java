@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.selection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The <code>SelectionRowBudget</code> class is a query-scoped counter shared by the selection only operators of all
+ * segments processed for a query.
+ * <p>All rows collected by the segments are kept by the combine phase (up to the selection size), so once the total
+ * number of rows collected reaches the selection size, the remaining segments do not need to be scanned.
+ * <p>This class is thread-safe.
+ */
+public class SelectionRowBudget {
+  private final int _limit;
+  private final AtomicInteger _numRowsCollected = new AtomicInteger();
+
+  public SelectionRowBudget(int limit) {
+    _limit = limit;
+  }
+
+  /**
+   * Records rows collected by one segment.
+   */
+  public void addCollectedRows(int numRows) {
+    if (numRows > 0) {
+      _numRowsCollected.addAndGet(numRows);
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if enough rows have been collected across all segments to satisfy the selection size.
+   */
+  public boolean isExhausted() {
+    return _numRowsCollected.get() >= _limit;
+  }
+
+  public int getNumRowsCollected() {
+    return _numRowsCollected.get();
+  }
+}
@@ -35,6 +35,22 @@ public abstract class MutableDictionary extends BaseDictionary {
 
   public abstract void index(@Nonnull Object rawValue);
 
+  /**
+   * Indexes the given single values and fills in their dictionary ids, to index a batch of values at once.
+   * <p>This method will only be called by a single writer thread.
+   *
+   * @param values Single values to index
+   * @param dictIds Array to fill in with the dictionary ids of the values
+   */
+  public void index(@Nonnull Object[] values, @Nonnull int[] dictIds) {
+    int numValues = values.length;
+    for (int i = 0; i < numValues; i++) {
+      Object value = values[i];
+      index(value);
+      dictIds[i] = indexOf(value);
+    }
+  }
+
   public abstract boolean inRange(@Nonnull String lower, @Nonnull String upper, int dictIdToCompare,
       boolean includeLower, boolean includeUpper);
 
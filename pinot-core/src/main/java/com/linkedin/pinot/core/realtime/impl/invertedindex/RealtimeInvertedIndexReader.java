@@ -52,6 +52,43 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
     }
   }
 
+  /**
+   * Add consecutive document ids starting from the given one to the bitmaps for the given dictionary ids, where the
+   * document id for <code>dictIds[i]</code> is <code>startDocId + i</code>.
+   * <p>Bitmaps for new dictionary ids are added with a single acquisition of the write lock.
+   */
+  public void add(int[] dictIds, int startDocId) {
+    int numExistingBitmaps = _bitmaps.size();
+    List<ThreadSafeMutableRoaringBitmap> newBitmaps = null;
+    int numDocs = dictIds.length;
+    for (int i = 0; i < numDocs; i++) {
+      int dictId = dictIds[i];
+      int docId = startDocId + i;
+      if (dictId < numExistingBitmaps) {
+        _bitmaps.get(dictId).checkAndAdd(docId);
+      } else {
+        // Dictionary ids are assigned in order, so new ones always come right after the last bitmap
+        if (newBitmaps == null) {
+          newBitmaps = new ArrayList<>();
+        }
+        int newBitmapIndex = dictId - numExistingBitmaps;
+        if (newBitmaps.size() == newBitmapIndex) {
+          newBitmaps.add(new ThreadSafeMutableRoaringBitmap(docId));
+        } else {
+          newBitmaps.get(newBitmapIndex).checkAndAdd(docId);
+        }
+      }
+    }
+    if (newBitmaps != null) {
+      try {
+        _writeLock.lock();
+        _bitmaps.addAll(newBitmaps);
+      } finally {
+        _writeLock.unlock();
+      }
+    }
+  }
+
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
     ThreadSafeMutableRoaringBitmap bitmap;
@@ -20,6 +20,7 @@ import com.linkedin.pinot.common.config.ColumnPartitionConfig;
 import com.linkedin.pinot.common.data.DateTimeFieldSpec;
 import com.linkedin.pinot.common.data.FieldSpec;
 import com.linkedin.pinot.common.data.FieldSpec.FieldType;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
 import com.linkedin.pinot.common.data.Schema;
 import com.linkedin.pinot.common.data.StarTreeIndexSpec;
 import com.linkedin.pinot.core.data.GenericRow;
@@ -34,13 +35,16 @@ import com.linkedin.pinot.core.segment.creator.SegmentCreator;
 import com.linkedin.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import com.linkedin.pinot.core.segment.creator.SingleValueForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.SingleValueRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import com.linkedin.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import com.linkedin.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import com.linkedin.pinot.core.startree.StarTreeDerivedColumnUtil;
 import com.linkedin.pinot.startree.hll.HllConfig;
 import java.io.File;
 import java.io.IOException;
@@ -75,6 +79,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
+  private Map<String, BloomFilterCreator> _bloomFilterCreatorMap = new HashMap<>();
+  private Map<String, BitmapRangeIndexCreator> _rangeIndexCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -116,6 +122,24 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           "Cannot create inverted index for column: %s because it is not in schema", columnName);
       invertedIndexColumns.add(columnName);
     }
+    Set<String> bloomFilterColumns = new HashSet<>();
+    for (String columnName : config.getBloomFilterCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create bloom filter for column: %s because it is not in schema", columnName);
+      if (schema.getFieldSpecFor(columnName).getDataType() == FieldSpec.DataType.BYTES) {
+        LOGGER.warn("Cannot create bloom filter for BYTES column: {}", columnName);
+        continue;
+      }
+      bloomFilterColumns.add(columnName);
+    }
+    Set<String> rangeIndexColumns = new HashSet<>();
+    for (String columnName : config.getRangeIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create range index for column: %s because it is not in schema", columnName);
+      Preconditions.checkState(schema.getFieldSpecFor(columnName).isSingleValueField(),
+          "Cannot create range index for multi-value column: %s", columnName);
+      rangeIndexColumns.add(columnName);
+    }
 
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
@@ -123,6 +147,15 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       ColumnIndexCreationInfo indexCreationInfo = indexCreationInfoMap.get(columnName);
       Preconditions.checkNotNull(indexCreationInfo, "Missing index creation info for column: %s", columnName);
 
+      // Initialize bloom filter creator, which only needs the unique values of the column
+      if (bloomFilterColumns.contains(columnName)) {
+        BloomFilterCreator bloomFilterCreator =
+            new BloomFilterCreator(_indexDir, columnName, indexCreationInfo.getDistinctValueCount());
+        bloomFilterCreator.addSortedUniqueValues(indexCreationInfo.getSortedUniqueElementsArray(),
+            fieldSpec.getDataType());
+        _bloomFilterCreatorMap.put(columnName, bloomFilterCreator);
+      }
+
       if (createDictionaryForColumn(indexCreationInfo, segmentCreationSpec, fieldSpec)) {
         // Create dictionary-encoded index
 
@@ -171,6 +204,16 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
                     indexCreationInfo.getTotalNumberOfEntries()));
           }
         }
+
+        // Initialize range index creator, sorted column does not need range index
+        if (rangeIndexColumns.contains(columnName)) {
+          if (indexCreationInfo.isSorted()) {
+            LOGGER.info("Skip creating range index for sorted column: {}", columnName);
+          } else {
+            _rangeIndexCreatorMap.put(columnName,
+                new BitmapRangeIndexCreator(_indexDir, columnName, cardinality, totalDocs));
+          }
+        }
       } else {
         // Create raw index
 
@@ -179,6 +222,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             columnName);
         Preconditions.checkState(!invertedIndexColumns.contains(columnName),
             "Cannot create inverted index for raw index column: %s", columnName);
+        Preconditions.checkState(!rangeIndexColumns.contains(columnName),
+            "Cannot create range index for raw index column: %s", columnName);
 
         ChunkCompressorFactory.CompressionType compressionType = getColumnCompressionType(segmentCreationSpec, fieldSpec);
 
@@ -267,6 +312,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           if (_invertedIndexCreatorMap.containsKey(columnName)) {
             _invertedIndexCreatorMap.get(columnName).addSV(docIdCounter, dictionaryIndex);
           }
+          if (_rangeIndexCreatorMap.containsKey(columnName)) {
+            _rangeIndexCreatorMap.get(columnName).addSV(docIdCounter, dictionaryIndex);
+          }
         } else {
           ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName)).index(docIdCounter,
               columnValueToIndex);
@@ -294,6 +342,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (InvertedIndexCreator invertedIndexCreator : _invertedIndexCreatorMap.values()) {
       invertedIndexCreator.seal();
     }
+    for (BloomFilterCreator bloomFilterCreator : _bloomFilterCreatorMap.values()) {
+      bloomFilterCreator.seal();
+    }
+    for (BitmapRangeIndexCreator rangeIndexCreator : _rangeIndexCreatorMap.values()) {
+      rangeIndexCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -331,11 +385,15 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           starTreeIndexSpec.getSkipMaterializationForDimensions());
     }
 
+    // Derived fields (HLL and star tree function column pairs) to origin fields
+    Map<String, String> derivedFieldToOriginMap = new HashMap<>();
+    if (starTreeIndexSpec != null) {
+      derivedFieldToOriginMap.putAll(StarTreeDerivedColumnUtil.getDerivedColumnToOriginMap(starTreeIndexSpec));
+    }
     HllConfig hllConfig = config.getHllConfig();
-    Map<String, String> derivedHllFieldToOriginMap = null;
     if (hllConfig != null) {
       properties.setProperty(SEGMENT_HLL_LOG2M, hllConfig.getHllLog2m());
-      derivedHllFieldToOriginMap = hllConfig.getDerivedHllFieldToOriginMap();
+      derivedFieldToOriginMap.putAll(hllConfig.getDerivedHllFieldToOriginMap());
     }
 
     // Write time related metadata (start time, end time, time unit)
@@ -383,14 +441,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       //    boolean hasInvertedIndex = invertedIndexCreatorMap.containsKey();
       boolean hasInvertedIndex = true;
 
-      String hllOriginColumn = null;
-      if (derivedHllFieldToOriginMap != null) {
-        hllOriginColumn = derivedHllFieldToOriginMap.get(column);
-      }
-
       addColumnMetadataInfo(properties, column, columnIndexCreationInfo, totalDocs, totalRawDocs, totalAggDocs,
           schema.getFieldSpecFor(column), _dictionaryCreatorMap.containsKey(column), dictionaryElementSize,
-          hasInvertedIndex, hllOriginColumn);
+          hasInvertedIndex, derivedFieldToOriginMap.get(column));
     }
 
     properties.save();
@@ -399,7 +452,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   public static void addColumnMetadataInfo(PropertiesConfiguration properties, String column,
       ColumnIndexCreationInfo columnIndexCreationInfo, int totalDocs, int totalRawDocs, int totalAggDocs,
       FieldSpec fieldSpec, boolean hasDictionary, int dictionaryElementSize, boolean hasInvertedIndex,
-      String hllOriginColumn) {
+      String derivedMetricOriginColumn) {
     int distinctValueCount = columnIndexCreationInfo.getDistinctValueCount();
     properties.setProperty(getKeyFor(column, CARDINALITY), String.valueOf(distinctValueCount));
     properties.setProperty(getKeyFor(column, TOTAL_DOCS), String.valueOf(totalDocs));
@@ -444,10 +497,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           dateTimeFieldSpec.getGranularity());
     }
 
-    // HLL derived fields
-    if (hllOriginColumn != null) {
-      properties.setProperty(V1Constants.MetadataKeys.Column.getKeyFor(column, ORIGIN_COLUMN), hllOriginColumn);
-      properties.setProperty(V1Constants.MetadataKeys.Column.getKeyFor(column, DERIVED_METRIC_TYPE), "HLL");
+    // Derived fields
+    if (derivedMetricOriginColumn != null) {
+      properties.setProperty(V1Constants.MetadataKeys.Column.getKeyFor(column, ORIGIN_COLUMN),
+          derivedMetricOriginColumn);
+      properties.setProperty(V1Constants.MetadataKeys.Column.getKeyFor(column, DERIVED_METRIC_TYPE),
+          ((MetricFieldSpec) fieldSpec).getDerivedMetricType().name());
     }
 
     Object defaultNullValue = columnIndexCreationInfo.getDefaultNullValue();
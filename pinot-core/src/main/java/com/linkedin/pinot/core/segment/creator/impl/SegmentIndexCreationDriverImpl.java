@@ -45,6 +45,7 @@ import com.linkedin.pinot.core.segment.store.SegmentDirectoryPaths;
 import com.linkedin.pinot.core.startree.OffHeapStarTreeBuilder;
 import com.linkedin.pinot.core.startree.StarTreeBuilder;
 import com.linkedin.pinot.core.startree.StarTreeBuilderConfig;
+import com.linkedin.pinot.core.startree.StarTreeDerivedColumnUtil;
 import com.linkedin.pinot.core.startree.hll.HllUtil;
 import com.linkedin.pinot.core.util.CrcUtils;
 import com.linkedin.pinot.startree.hll.HllConfig;
@@ -53,6 +54,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -94,6 +96,9 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
   private File starTreeTempDir;
 
+  // Derived columns backing the star tree function column pairs, from derived column name to origin column name
+  private Map<String, String> starTreeDerivedColumnToOriginMap = Collections.emptyMap();
+
   @Override
   public void init(SegmentGeneratorConfig config) throws Exception {
     init(config, new RecordReaderSegmentCreationDataSource(RecordReaderFactory.getRecordReader(config)));
@@ -157,6 +162,18 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   }
 
   private void addDerivedFieldsInSchema() {
+    if (createStarTree) {
+      StarTreeIndexSpec starTreeIndexSpec = config.getStarTreeIndexSpec();
+      for (MetricFieldSpec metricFieldSpec : StarTreeDerivedColumnUtil.getDerivedMetricFieldSpecs(starTreeIndexSpec,
+          dataSchema)) {
+        if (dataSchema.getColumnNames().contains(metricFieldSpec.getName())) {
+          throw new IllegalArgumentException(
+              "Cannot add derived field: " + metricFieldSpec.getName() + " since it already exists in schema.");
+        }
+        dataSchema.addField(metricFieldSpec);
+      }
+      starTreeDerivedColumnToOriginMap = StarTreeDerivedColumnUtil.getDerivedColumnToOriginMap(starTreeIndexSpec);
+    }
     if (createHllIndex) {
       Collection<String> columnNames = dataSchema.getColumnNames();
       HllConfig hllConfig = config.getHllConfig();
@@ -174,6 +191,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   }
 
   private void populateDefaultDerivedColumnValues(GenericRow row) throws IOException {
+    StarTreeDerivedColumnUtil.populateDerivedColumnValues(row, starTreeDerivedColumnToOriginMap);
+
     //add default hll value in each row
     if (createHllIndex) {
       HllConfig hllConfig = config.getHllConfig();
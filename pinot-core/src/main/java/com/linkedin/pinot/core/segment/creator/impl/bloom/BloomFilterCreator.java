@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.bloom;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.commons.io.FileUtils;
+
+
+/**
+ * Creator for the bloom filter of a column.
+ * <p>The bloom filter is built on the string representation of the unique values of the column, which is the same as
+ * the string representation of the values parsed from the query.
+ */
+public final class BloomFilterCreator {
+  public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.05;
+
+  private final File _bloomFilterFile;
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterCreator(File indexDir, String columnName, int cardinality) {
+    _bloomFilterFile = new File(indexDir, columnName + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+    _bloomFilter = BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), Math.max(cardinality, 1),
+        DEFAULT_FALSE_POSITIVE_PROBABILITY);
+  }
+
+  public void add(String value) {
+    _bloomFilter.put(value);
+  }
+
+  /**
+   * Adds all the values inside the given array of sorted unique values (as stored in the column index creation info).
+   */
+  public void addSortedUniqueValues(Object sortedUniqueValues, FieldSpec.DataType dataType) {
+    switch (dataType) {
+      case INT:
+        for (int value : (int[]) sortedUniqueValues) {
+          add(Integer.toString(value));
+        }
+        break;
+      case LONG:
+        for (long value : (long[]) sortedUniqueValues) {
+          add(Long.toString(value));
+        }
+        break;
+      case FLOAT:
+        for (float value : (float[]) sortedUniqueValues) {
+          add(Float.toString(value));
+        }
+        break;
+      case DOUBLE:
+        for (double value : (double[]) sortedUniqueValues) {
+          add(Double.toString(value));
+        }
+        break;
+      case STRING:
+        for (String value : (String[]) sortedUniqueValues) {
+          add(value);
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported data type for bloom filter: " + dataType);
+    }
+  }
+
+  public void seal() throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(_bloomFilterFile))) {
+      _bloomFilter.writeTo(out);
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_bloomFilterFile);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.creator.impl.inv;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Creator for the bitmap range index of a single-value dictionary-encoded column.
+ * <p>The sorted dictionary ids are split into contiguous ranges holding roughly the same number of documents, and one
+ * bitmap of matching documents is stored for each range. A range predicate can then be solved by OR-ing the bitmaps of
+ * the fully covered ranges, and only scanning the documents inside the (at most 2) partially covered ranges.
+ * <pre>
+ * Layout for bitmap range index:
+ * |-------------------------------------------------------------------------|
+ * |                                Version                                  |
+ * |                            Number of ranges                             |
+ * |-------------------------------------------------------------------------|
+ * |                     Start dictionary id of 1st range                    |
+ * |                                   ...                                   |
+ * |                     Start dictionary id of last range                   |
+ * |              End dictionary id of last range (exclusive)                |
+ * |-------------------------------------------------------------------------|
+ * |                    Start offset of 1st bitmap                           |
+ * |    End offset of 1st bitmap (exclusive) / Start offset of 2nd bitmap    |
+ * |                                   ...                                   |
+ * |                  End offset of last bitmap (exclusive)                  |
+ * |-------------------------------------------------------------------------|
+ * |                           Data for 1st bitmap                           |
+ * |                                   ...                                   |
+ * |                           Data for last bitmap                          |
+ * |-------------------------------------------------------------------------|
+ * </pre>
+ */
+public final class BitmapRangeIndexCreator {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_RANGES = 20;
+
+  private final String _columnName;
+  private final File _rangeIndexFile;
+  private final int _numRanges;
+  private final int[] _dictIds;
+  private final int[] _numDocsPerDictId;
+
+  public BitmapRangeIndexCreator(File indexDir, String columnName, int cardinality, int numDocs) {
+    this(indexDir, columnName, cardinality, numDocs, DEFAULT_NUM_RANGES);
+  }
+
+  public BitmapRangeIndexCreator(File indexDir, String columnName, int cardinality, int numDocs, int numRanges) {
+    Preconditions.checkArgument(numRanges > 0, "Number of ranges must be positive");
+    _columnName = columnName;
+    _rangeIndexFile = new File(indexDir, columnName + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    _numRanges = Math.max(Math.min(numRanges, cardinality), 1);
+    _dictIds = new int[numDocs];
+    _numDocsPerDictId = new int[cardinality];
+  }
+
+  /**
+   * Add an entry for single-value column.
+   *
+   * @param docId Document id
+   * @param dictId Dictionary id
+   */
+  public void addSV(int docId, int dictId) {
+    _dictIds[docId] = dictId;
+    _numDocsPerDictId[dictId]++;
+  }
+
+  /**
+   * Seal the results into the file.
+   *
+   * @throws IOException
+   */
+  public void seal() throws IOException {
+    int cardinality = _numDocsPerDictId.length;
+    int numDocs = _dictIds.length;
+
+    // Split the dictionary ids into ranges with roughly the same number of documents, each range contains at least one
+    // dictionary id
+    int[] rangeStartDictIds = new int[_numRanges + 1];
+    int[] dictIdToRangeId = new int[cardinality];
+    int rangeId = 0;
+    long numDocsAccumulated = 0;
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      // Move to the next range if the current range is full, and there are enough dictionary ids left for the
+      // remaining ranges
+      if (rangeId < _numRanges - 1 && dictId > rangeStartDictIds[rangeId]
+          && numDocsAccumulated * _numRanges >= (long) numDocs * (rangeId + 1)) {
+        rangeStartDictIds[++rangeId] = dictId;
+      }
+      if (cardinality - dictId == _numRanges - rangeId - 1 && dictId > rangeStartDictIds[rangeId]) {
+        rangeStartDictIds[++rangeId] = dictId;
+      }
+      dictIdToRangeId[dictId] = rangeId;
+      numDocsAccumulated += _numDocsPerDictId[dictId];
+    }
+    rangeStartDictIds[_numRanges] = cardinality;
+
+    MutableRoaringBitmap[] bitmaps = new MutableRoaringBitmap[_numRanges];
+    for (int i = 0; i < _numRanges; i++) {
+      bitmaps[i] = new MutableRoaringBitmap();
+    }
+    for (int docId = 0; docId < numDocs; docId++) {
+      bitmaps[dictIdToRangeId[_dictIds[docId]]].add(docId);
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(_rangeIndexFile)))) {
+      out.writeInt(VERSION);
+      out.writeInt(_numRanges);
+      for (int rangeStartDictId : rangeStartDictIds) {
+        out.writeInt(rangeStartDictId);
+      }
+      // Write all offsets
+      int offset = (2 * _numRanges + 4) * V1Constants.Numbers.INTEGER_SIZE;
+      out.writeInt(offset);
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmap.runOptimize();
+        offset += bitmap.serializedSizeInBytes();
+        // Check for int overflow
+        Preconditions.checkState(offset > 0, "Range index file exceeds 2GB limit for column: %s", _columnName);
+        out.writeInt(offset);
+      }
+      // Write bitmap data
+      for (MutableRoaringBitmap bitmap : bitmaps) {
+        bitmap.serialize(out);
+      }
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_rangeIndexFile);
+      throw e;
+    }
+  }
+}
@@ -141,6 +141,12 @@ public class ColumnMetadata {
             throw e;
           }
           break;
+        case MIN:
+        case MAX:
+        case COUNT:
+          builder.setFieldSize(dataType.size());
+          builder.setOriginColumnName(config.getString(getKeyFor(column, ORIGIN_COLUMN)));
+          break;
         default:
           throw new IllegalArgumentException("Column: " + column + " with derived metric Type: " + derivedMetricType
               + " is not supported in building column metadata.");
@@ -35,6 +35,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -84,7 +85,8 @@ public class SegmentMetadataImpl implements SegmentMetadata {
   private String _creatorName;
   private char _paddingCharacter = V1Constants.Str.DEFAULT_STRING_PAD_CHAR;
   private int _hllLog2m = HllConstants.DEFAULT_LOG2M;
-  private final Map<String, String> _hllDerivedColumnMap = new HashMap<>();
+  private final Map<MetricFieldSpec.DerivedMetricType, Map<String, String>> _derivedColumnMap =
+      new EnumMap<>(MetricFieldSpec.DerivedMetricType.class);
   private int _totalDocs;
   private int _totalRawDocs;
   private long _segmentStartTime;
@@ -271,14 +273,20 @@ public class SegmentMetadataImpl implements SegmentMetadata {
     // Set hll log2m.
     _hllLog2m = _segmentMetadataPropertiesConfiguration.getInt(Segment.SEGMENT_HLL_LOG2M, HllConstants.DEFAULT_LOG2M);
 
-    // Build column metadata map, schema and hll derived column map.
+    // Build column metadata map, schema and derived column map.
     for (String column : _allColumns) {
       ColumnMetadata columnMetadata =
           ColumnMetadata.fromPropertiesConfiguration(column, _segmentMetadataPropertiesConfiguration);
       _columnMetadataMap.put(column, columnMetadata);
       _schema.addField(columnMetadata.getFieldSpec());
-      if (columnMetadata.getDerivedMetricType() == MetricFieldSpec.DerivedMetricType.HLL) {
-        _hllDerivedColumnMap.put(columnMetadata.getOriginColumnName(), columnMetadata.getColumnName());
+      MetricFieldSpec.DerivedMetricType derivedMetricType = columnMetadata.getDerivedMetricType();
+      if (derivedMetricType != null) {
+        Map<String, String> originToDerivedColumnMap = _derivedColumnMap.get(derivedMetricType);
+        if (originToDerivedColumnMap == null) {
+          originToDerivedColumnMap = new HashMap<>();
+          _derivedColumnMap.put(derivedMetricType, originToDerivedColumnMap);
+        }
+        originToDerivedColumnMap.put(columnMetadata.getOriginColumnName(), columnMetadata.getColumnName());
       }
     }
 
@@ -529,6 +537,14 @@ public class SegmentMetadataImpl implements SegmentMetadata {
     return column + V1Constants.Indexes.BITMAP_INVERTED_INDEX_FILE_EXTENSION;
   }
 
+  public String getBloomFilterFileName(String column) {
+    return column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION;
+  }
+
+  public String getBitmapRangeIndexFileName(String column) {
+    return column + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION;
+  }
+
   @Nullable
   @Override
   public String getCreatorName() {
@@ -548,12 +564,8 @@ public class SegmentMetadataImpl implements SegmentMetadata {
   @Nullable
   @Override
   public String getDerivedColumn(String column, MetricFieldSpec.DerivedMetricType derivedMetricType) {
-    switch (derivedMetricType) {
-      case HLL:
-        return _hllDerivedColumnMap.get(column);
-      default:
-        throw new IllegalArgumentException();
-    }
+    Map<String, String> originToDerivedColumnMap = _derivedColumnMap.get(derivedMetricType);
+    return originToDerivedColumnMap != null ? originToDerivedColumnMap.get(column) : null;
   }
 
   /**
@@ -26,6 +26,8 @@ import com.linkedin.pinot.core.io.reader.impl.v1.VarByteChunkSingleValueReader;
 import com.linkedin.pinot.core.segment.index.ColumnMetadata;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
 import com.linkedin.pinot.core.segment.index.readers.BytesDictionary;
 import com.linkedin.pinot.core.segment.index.readers.DoubleDictionary;
 import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
@@ -53,6 +55,8 @@ public final class ColumnIndexContainer {
   private final DataFileReader _forwardIndex;
   private final InvertedIndexReader _invertedIndex;
   private final ImmutableDictionaryReader _dictionary;
+  private final BloomFilterReader _bloomFilter;
+  private final BitmapRangeIndexReader _rangeIndex;
 
   public ColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig) throws IOException {
@@ -63,6 +67,11 @@ public final class ColumnIndexContainer {
       loadInvertedIndex = indexLoadingConfig.getInvertedIndexColumns().contains(columnName);
       loadOnHeapDictionary = indexLoadingConfig.getOnHeapDictionaryColumns().contains(columnName);
     }
+    if (segmentReader.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER)) {
+      _bloomFilter = new BloomFilterReader(segmentReader.getIndexFor(columnName, ColumnIndexType.BLOOM_FILTER));
+    } else {
+      _bloomFilter = null;
+    }
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
     if (metadata.hasDictionary()) {
       // Dictionary-based index
@@ -75,6 +84,7 @@ public final class ColumnIndexContainer {
           SortedIndexReader sortedIndexReader = new SortedIndexReader(fwdIndexBuffer, metadata.getCardinality());
           _forwardIndex = sortedIndexReader;
           _invertedIndex = sortedIndexReader;
+          _rangeIndex = null;
           return;
         } else {
           // Unsorted
@@ -94,11 +104,17 @@ public final class ColumnIndexContainer {
       } else {
         _invertedIndex = null;
       }
+      if (metadata.isSingleValue() && segmentReader.hasIndexFor(columnName, ColumnIndexType.RANGE_INDEX)) {
+        _rangeIndex = new BitmapRangeIndexReader(segmentReader.getIndexFor(columnName, ColumnIndexType.RANGE_INDEX));
+      } else {
+        _rangeIndex = null;
+      }
     } else {
       // Raw index
       _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
       _invertedIndex = null;
       _dictionary = null;
+      _rangeIndex = null;
     }
   }
 
@@ -114,6 +130,14 @@ public final class ColumnIndexContainer {
     return _dictionary;
   }
 
+  public BloomFilterReader getBloomFilter() {
+    return _bloomFilter;
+  }
+
+  public BitmapRangeIndexReader getRangeIndex() {
+    return _rangeIndex;
+  }
+
   private static ImmutableDictionaryReader loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) throws IOException {
     FieldSpec.DataType dataType = metadata.getDataType();
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.column;
+
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * Holder of the {@link ColumnIndexContainer} of a column which loads the indexes on first access instead of when the
+ * segment gets loaded.
+ * <p>The bloom filter can be loaded on its own, so that segment pruning does not load the other indexes of the column.
+ * <p>The indexes of all the columns of a segment are loaded from the same {@link SegmentDirectory.Reader}, which is not
+ * thread-safe, so the loading is synchronized on it.
+ */
+@ThreadSafe
+public class LazyColumnIndexContainer {
+  private final SegmentDirectory.Reader _segmentReader;
+  private final ColumnMetadata _columnMetadata;
+  private final IndexLoadingConfig _indexLoadingConfig;
+  private final AtomicLong _numAccesses = new AtomicLong();
+
+  private volatile ColumnIndexContainer _indexContainer;
+  private volatile boolean _bloomFilterLoaded;
+  private volatile BloomFilterReader _bloomFilter;
+
+  public LazyColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata columnMetadata,
+      IndexLoadingConfig indexLoadingConfig) {
+    _segmentReader = segmentReader;
+    _columnMetadata = columnMetadata;
+    _indexLoadingConfig = indexLoadingConfig;
+  }
+
+  /**
+   * Returns the index container of the column, loads the indexes if not already loaded.
+   */
+  public ColumnIndexContainer get() {
+    _numAccesses.getAndIncrement();
+    ColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer == null) {
+      synchronized (_segmentReader) {
+        indexContainer = _indexContainer;
+        if (indexContainer == null) {
+          try {
+            indexContainer = new ColumnIndexContainer(_segmentReader, _columnMetadata, _indexLoadingConfig);
+          } catch (Exception e) {
+            throw new RuntimeException("Caught exception while loading indexes for column: " + _columnMetadata
+                .getColumnName(), e);
+          }
+          _indexContainer = indexContainer;
+        }
+      }
+    }
+    return indexContainer;
+  }
+
+  /**
+   * Returns the bloom filter of the column, or <code>null</code> if the column does not have one. Only loads the bloom
+   * filter if the other indexes are not already loaded.
+   */
+  @Nullable
+  public BloomFilterReader getBloomFilter() {
+    _numAccesses.getAndIncrement();
+    ColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer != null) {
+      return indexContainer.getBloomFilter();
+    }
+    if (!_bloomFilterLoaded) {
+      synchronized (_segmentReader) {
+        if (!_bloomFilterLoaded) {
+          String columnName = _columnMetadata.getColumnName();
+          try {
+            if (_segmentReader.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER)) {
+              _bloomFilter =
+                  new BloomFilterReader(_segmentReader.getIndexFor(columnName, ColumnIndexType.BLOOM_FILTER));
+            }
+          } catch (Exception e) {
+            throw new RuntimeException("Caught exception while loading bloom filter for column: " + columnName, e);
+          }
+          _bloomFilterLoaded = true;
+        }
+      }
+    }
+    return _bloomFilter;
+  }
+
+  /**
+   * Returns the index container of the column if the indexes are already loaded, or <code>null</code> otherwise.
+   * Does not count as an access.
+   */
+  @Nullable
+  public ColumnIndexContainer getIfLoaded() {
+    return _indexContainer;
+  }
+
+  /**
+   * Returns the number of times the indexes of the column have been accessed.
+   */
+  public long getNumAccesses() {
+    return _numAccesses.get();
+  }
+}
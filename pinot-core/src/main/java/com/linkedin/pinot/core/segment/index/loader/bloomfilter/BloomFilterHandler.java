@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.loader.bloomfilter;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.bloom.BloomFilterCreator;
+import com.linkedin.pinot.core.segment.index.ColumnMetadata;
+import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
+import com.linkedin.pinot.core.segment.index.readers.DoubleDictionary;
+import com.linkedin.pinot.core.segment.index.readers.FloatDictionary;
+import com.linkedin.pinot.core.segment.index.readers.ImmutableDictionaryReader;
+import com.linkedin.pinot.core.segment.index.readers.IntDictionary;
+import com.linkedin.pinot.core.segment.index.readers.LongDictionary;
+import com.linkedin.pinot.core.segment.index.readers.StringDictionary;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import com.linkedin.pinot.core.segment.store.ColumnIndexType;
+import com.linkedin.pinot.core.segment.store.SegmentDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Creates the bloom filter for columns configured in the {@link IndexLoadingConfig} but missing from the segment, e.g.
+ * segments created before the column was added to the table config, or committed by a realtime server.
+ * <p>The bloom filter is built from the dictionary, so only dictionary-encoded columns are supported.
+ */
+public class BloomFilterHandler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BloomFilterHandler.class);
+
+  private final File _indexDir;
+  private final SegmentDirectory.Writer _segmentWriter;
+  private final String _segmentName;
+  private final SegmentVersion _segmentVersion;
+  private final Set<ColumnMetadata> _bloomFilterColumns = new HashSet<>();
+
+  public BloomFilterHandler(@Nonnull File indexDir, @Nonnull SegmentMetadataImpl segmentMetadata,
+      @Nonnull IndexLoadingConfig indexLoadingConfig, @Nonnull SegmentDirectory.Writer segmentWriter) {
+    _indexDir = indexDir;
+    _segmentWriter = segmentWriter;
+    _segmentName = segmentMetadata.getName();
+    _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+
+    for (String column : indexLoadingConfig.getBloomFilterColumns()) {
+      ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+      if (columnMetadata != null) {
+        if (!columnMetadata.hasDictionary()) {
+          LOGGER.warn("Cannot create bloom filter for no-dictionary column: {} in segment: {}", column, _segmentName);
+          continue;
+        }
+        if (columnMetadata.getDataType() == FieldSpec.DataType.BYTES) {
+          LOGGER.warn("Cannot create bloom filter for BYTES column: {} in segment: {}", column, _segmentName);
+          continue;
+        }
+        _bloomFilterColumns.add(columnMetadata);
+      }
+    }
+  }
+
+  public void createBloomFilters() throws IOException {
+    for (ColumnMetadata columnMetadata : _bloomFilterColumns) {
+      createBloomFilterForColumn(columnMetadata);
+    }
+  }
+
+  private void createBloomFilterForColumn(ColumnMetadata columnMetadata) throws IOException {
+    String column = columnMetadata.getColumnName();
+
+    File inProgress = new File(_indexDir, column + ".bloom.inprogress");
+    File bloomFilterFile = new File(_indexDir, column + V1Constants.Indexes.BLOOM_FILTER_FILE_EXTENSION);
+
+    if (!inProgress.exists()) {
+      // Marker file does not exist, which means last run ended normally.
+
+      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+        // Skip creating bloom filter if already exists.
+
+        LOGGER.info("Found bloom filter for segment: {}, column: {}", _segmentName, column);
+        return;
+      }
+
+      // Create a marker file.
+      FileUtils.touch(inProgress);
+    } else {
+      // Marker file exists, which means last run gets interrupted.
+
+      // Remove bloom filter if exists.
+      // For v1 and v2, it's the actual bloom filter. For v3, it's the temporary bloom filter.
+      FileUtils.deleteQuietly(bloomFilterFile);
+    }
+
+    // Create new bloom filter for the column.
+    LOGGER.info("Creating new bloom filter for segment: {}, column: {}", _segmentName, column);
+    int cardinality = columnMetadata.getCardinality();
+    BloomFilterCreator creator = new BloomFilterCreator(_indexDir, column, cardinality);
+    try (ImmutableDictionaryReader dictionary = getDictionaryReader(columnMetadata, _segmentWriter)) {
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        creator.add(dictionary.getStringValue(dictId));
+      }
+    }
+    creator.seal();
+
+    // For v3, write the generated bloom filter file into the single file and remove it.
+    if (_segmentVersion == SegmentVersion.v3) {
+      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+    }
+
+    // Delete the marker file.
+    FileUtils.deleteQuietly(inProgress);
+
+    LOGGER.info("Created bloom filter for segment: {}, column: {}", _segmentName, column);
+  }
+
+  private ImmutableDictionaryReader getDictionaryReader(ColumnMetadata columnMetadata,
+      SegmentDirectory.Writer segmentWriter) throws IOException {
+    PinotDataBuffer buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.DICTIONARY);
+    int cardinality = columnMetadata.getCardinality();
+    FieldSpec.DataType dataType = columnMetadata.getDataType();
+    switch (dataType) {
+      case INT:
+        return new IntDictionary(buffer, cardinality);
+      case LONG:
+        return new LongDictionary(buffer, cardinality);
+      case FLOAT:
+        return new FloatDictionary(buffer, cardinality);
+      case DOUBLE:
+        return new DoubleDictionary(buffer, cardinality);
+      case STRING:
+        return new StringDictionary(buffer, cardinality, columnMetadata.getColumnMaxLength(),
+            (byte) columnMetadata.getPaddingCharacter());
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType + " for column: "
+            + columnMetadata.getColumnName());
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.util.Arrays;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+
+/**
+ * Reader for the bitmap range index created by {@link BitmapRangeIndexCreator}.
+ * <p>The number of ranges is small, so the range boundaries and the (memory-mapped) bitmaps are all loaded up-front.
+ */
+public class BitmapRangeIndexReader {
+  private static final int INT_SIZE = V1Constants.Numbers.INTEGER_SIZE;
+
+  private final PinotDataBuffer _buffer;
+  private final int _numRanges;
+  private final int[] _rangeStartDictIds;
+  private final ImmutableRoaringBitmap[] _bitmaps;
+
+  public BitmapRangeIndexReader(PinotDataBuffer buffer) {
+    _buffer = buffer;
+    int version = buffer.getInt(0);
+    Preconditions.checkState(version == BitmapRangeIndexCreator.VERSION, "Unsupported range index version: %s",
+        version);
+    _numRanges = buffer.getInt(INT_SIZE);
+
+    int position = 2 * INT_SIZE;
+    _rangeStartDictIds = new int[_numRanges + 1];
+    for (int i = 0; i <= _numRanges; i++) {
+      _rangeStartDictIds[i] = buffer.getInt(position);
+      position += INT_SIZE;
+    }
+
+    _bitmaps = new ImmutableRoaringBitmap[_numRanges];
+    int startOffset = buffer.getInt(position);
+    for (int i = 0; i < _numRanges; i++) {
+      position += INT_SIZE;
+      int endOffset = buffer.getInt(position);
+      _bitmaps[i] = new ImmutableRoaringBitmap(buffer.toDirectByteBuffer(startOffset, endOffset - startOffset));
+      startOffset = endOffset;
+    }
+  }
+
+  /**
+   * Returns the number of ranges.
+   */
+  public int getNumRanges() {
+    return _numRanges;
+  }
+
+  /**
+   * Returns the first dictionary id (inclusive) of the given range.
+   */
+  public int getRangeStartDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId];
+  }
+
+  /**
+   * Returns the last dictionary id (exclusive) of the given range.
+   */
+  public int getRangeEndDictId(int rangeId) {
+    return _rangeStartDictIds[rangeId + 1];
+  }
+
+  /**
+   * Returns the id of the range that contains the given dictionary id.
+   */
+  public int getRangeId(int dictId) {
+    // Search among the range start dictionary ids, excluding the end dictionary id of the last range
+    int index = Arrays.binarySearch(_rangeStartDictIds, 0, _numRanges, dictId);
+    if (index >= 0) {
+      return index;
+    } else {
+      return -(index + 1) - 1;
+    }
+  }
+
+  /**
+   * Returns the bitmap of documents with dictionary ids inside the given range.
+   */
+  public ImmutableRoaringBitmap getDocIds(int rangeId) {
+    return _bitmaps[rangeId];
+  }
+
+  public void close() {
+    _buffer.close();
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.readers;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+
+/**
+ * Reader for the bloom filter of a column.
+ * <p>The bloom filter is small, so it is deserialized on heap when the segment is loaded.
+ */
+public final class BloomFilterReader {
+  private final BloomFilter<CharSequence> _bloomFilter;
+
+  public BloomFilterReader(PinotDataBuffer dataBuffer) throws IOException {
+    long size = dataBuffer.size();
+    Preconditions.checkState(size < Integer.MAX_VALUE, "Bloom filter exceeds 2GB limit");
+    byte[] bytes = new byte[(int) size];
+    dataBuffer.copyTo(0, bytes, 0, bytes.length);
+    _bloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(bytes), Funnels.stringFunnel(Charsets.UTF_8));
+  }
+
+  /**
+   * Returns false if the column definitely does not contain the given value, true otherwise.
+   *
+   * @param value String representation of the value
+   */
+  public boolean mightContain(String value) {
+    return _bloomFilter.mightContain(value);
+  }
+}
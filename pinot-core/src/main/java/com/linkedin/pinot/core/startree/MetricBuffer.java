@@ -126,13 +126,18 @@ public class MetricBuffer {
   public void aggregate(MetricBuffer metrics) {
     for (int i = 0; i < metricFieldSpecs.size(); i++) {
       MetricFieldSpec metric = metricFieldSpecs.get(i);
-      if (metric.getDerivedMetricType() == DerivedMetricType.HLL) {
+      DerivedMetricType derivedMetricType = metric.getDerivedMetricType();
+      if (derivedMetricType == DerivedMetricType.HLL) {
         try {
           ((HyperLogLog) values[i]).addAll((HyperLogLog) metrics.values[i]);
         } catch (CardinalityMergeException e) {
           throw new RuntimeException(e);
         }
+      } else if (derivedMetricType == DerivedMetricType.MIN || derivedMetricType == DerivedMetricType.MAX) {
+        values[i] = aggregateMinMax(metric, (Number) values[i], (Number) metrics.values[i],
+            derivedMetricType == DerivedMetricType.MIN);
       } else {
+        // Plain metrics and COUNT derived metrics are summed
         switch (metric.getDataType()) {
           case INT:
             values[i] = ((Number) values[i]).intValue() + ((Number) metrics.values[i]).intValue();
@@ -153,6 +158,24 @@ public class MetricBuffer {
     }
   }
 
+  private static Number aggregateMinMax(MetricFieldSpec metric, Number value1, Number value2, boolean isMin) {
+    switch (metric.getDataType()) {
+      case INT:
+        return isMin ? Math.min(value1.intValue(), value2.intValue()) : Math.max(value1.intValue(), value2.intValue());
+      case LONG:
+        return isMin ? Math.min(value1.longValue(), value2.longValue())
+            : Math.max(value1.longValue(), value2.longValue());
+      case FLOAT:
+        return isMin ? Math.min(value1.floatValue(), value2.floatValue())
+            : Math.max(value1.floatValue(), value2.floatValue());
+      case DOUBLE:
+        return isMin ? Math.min(value1.doubleValue(), value2.doubleValue())
+            : Math.max(value1.doubleValue(), value2.doubleValue());
+      default:
+        throw new IllegalArgumentException("Unsupported metric type " + metric.getDataType());
+    }
+  }
+
   /**
    * this method should return correct value conformed to datatype to iterators
    * @param index
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.startree;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec.DerivedMetricType;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.data.StarTreeIndexSpec;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.data.GenericRow;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+
+/**
+ * Utility functions for the derived metric columns backing the function column pairs configured in
+ * {@link StarTreeIndexSpec#getFunctionColumnPairs()}.
+ * <p>Each pair is served by one or more derived columns, which are pre-aggregated by the star tree with their
+ * {@link DerivedMetricType}:
+ * <ul>
+ *   <li>MIN: <code>min__column</code></li>
+ *   <li>MAX: <code>max__column</code></li>
+ *   <li>MINMAXRANGE: <code>min__column</code> and <code>max__column</code></li>
+ *   <li>AVG: <code>count__star</code>, the sum comes from the metric column itself</li>
+ *   <li>SUM: none, all metrics are summed by default</li>
+ * </ul>
+ */
+public class StarTreeDerivedColumnUtil {
+  private StarTreeDerivedColumnUtil() {
+  }
+
+  public static final String COUNT_STAR_COLUMN =
+      DerivedMetricType.COUNT.name().toLowerCase() + StarTreeIndexSpec.FUNCTION_COLUMN_PAIR_DELIMITER + "star";
+
+  /**
+   * Returns a map from derived column name to origin column name for the configured function column pairs. The origin
+   * column of the COUNT derived column is {@link RequestUtils#STAR_TREE_COUNT_ORIGIN_COLUMN}.
+   */
+  public static Map<String, String> getDerivedColumnToOriginMap(@Nullable StarTreeIndexSpec starTreeIndexSpec) {
+    return getDerivedColumns(starTreeIndexSpec, new HashMap<String, DerivedMetricType>());
+  }
+
+  /**
+   * Returns the field specs of the derived columns for the configured function column pairs.
+   *
+   * @throws IllegalArgumentException if a pair is malformed, uses an unsupported function or a non-numeric metric
+   */
+  public static List<MetricFieldSpec> getDerivedMetricFieldSpecs(@Nullable StarTreeIndexSpec starTreeIndexSpec,
+      Schema schema) {
+    Map<String, DerivedMetricType> derivedMetricTypeMap = new HashMap<>();
+    Map<String, String> derivedColumnToOriginMap = getDerivedColumns(starTreeIndexSpec, derivedMetricTypeMap);
+    if (derivedColumnToOriginMap.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<MetricFieldSpec> metricFieldSpecs = new ArrayList<>(derivedColumnToOriginMap.size());
+    for (Map.Entry<String, String> entry : derivedColumnToOriginMap.entrySet()) {
+      String derivedColumn = entry.getKey();
+      String originColumn = entry.getValue();
+      DerivedMetricType derivedMetricType = derivedMetricTypeMap.get(derivedColumn);
+      if (derivedMetricType == DerivedMetricType.COUNT) {
+        metricFieldSpecs.add(new MetricFieldSpec(derivedColumn, FieldSpec.DataType.LONG,
+            FieldSpec.DataType.LONG.size(), derivedMetricType));
+      } else {
+        MetricFieldSpec originFieldSpec = schema.getMetricSpec(originColumn);
+        if (originFieldSpec == null || originFieldSpec.isDerivedMetric()) {
+          throw new IllegalArgumentException(
+              "Column: " + originColumn + " in star tree function column pairs is not a metric in schema.");
+        }
+        FieldSpec.DataType dataType = originFieldSpec.getDataType();
+        switch (dataType) {
+          case INT:
+          case LONG:
+          case FLOAT:
+          case DOUBLE:
+            break;
+          default:
+            throw new IllegalArgumentException(
+                "Column: " + originColumn + " in star tree function column pairs has non-numeric type: " + dataType);
+        }
+        metricFieldSpecs.add(new MetricFieldSpec(derivedColumn, dataType, dataType.size(), derivedMetricType));
+      }
+    }
+    return metricFieldSpecs;
+  }
+
+  /**
+   * Puts the values of the derived columns for a raw document into the given row: the origin value for MIN and MAX,
+   * and 1 for COUNT.
+   */
+  public static void populateDerivedColumnValues(GenericRow row, Map<String, String> derivedColumnToOriginMap) {
+    for (Map.Entry<String, String> entry : derivedColumnToOriginMap.entrySet()) {
+      String derivedColumn = entry.getKey();
+      if (derivedColumn.equals(COUNT_STAR_COLUMN)) {
+        row.putField(derivedColumn, 1L);
+      } else {
+        row.putField(derivedColumn, row.getValue(entry.getValue()));
+      }
+    }
+  }
+
+  private static Map<String, String> getDerivedColumns(@Nullable StarTreeIndexSpec starTreeIndexSpec,
+      Map<String, DerivedMetricType> derivedMetricTypeMap) {
+    Map<String, String> derivedColumnToOriginMap = new LinkedHashMap<>();
+    if (starTreeIndexSpec == null || starTreeIndexSpec.getFunctionColumnPairs() == null) {
+      return derivedColumnToOriginMap;
+    }
+
+    for (String functionColumnPair : starTreeIndexSpec.getFunctionColumnPairs()) {
+      int index = functionColumnPair.indexOf(StarTreeIndexSpec.FUNCTION_COLUMN_PAIR_DELIMITER);
+      if (index <= 0) {
+        throw new IllegalArgumentException("Invalid star tree function column pair: " + functionColumnPair);
+      }
+      String function = functionColumnPair.substring(0, index).toUpperCase();
+      String column = functionColumnPair.substring(index + StarTreeIndexSpec.FUNCTION_COLUMN_PAIR_DELIMITER.length());
+      switch (function) {
+        case "SUM":
+          break;
+        case "MIN":
+          addDerivedColumn(column, DerivedMetricType.MIN, derivedColumnToOriginMap, derivedMetricTypeMap);
+          break;
+        case "MAX":
+          addDerivedColumn(column, DerivedMetricType.MAX, derivedColumnToOriginMap, derivedMetricTypeMap);
+          break;
+        case "MINMAXRANGE":
+          addDerivedColumn(column, DerivedMetricType.MIN, derivedColumnToOriginMap, derivedMetricTypeMap);
+          addDerivedColumn(column, DerivedMetricType.MAX, derivedColumnToOriginMap, derivedMetricTypeMap);
+          break;
+        case "AVG":
+          derivedColumnToOriginMap.put(COUNT_STAR_COLUMN, RequestUtils.STAR_TREE_COUNT_ORIGIN_COLUMN);
+          derivedMetricTypeMap.put(COUNT_STAR_COLUMN, DerivedMetricType.COUNT);
+          break;
+        default:
+          throw new IllegalArgumentException(
+              "Unsupported aggregation function: " + function + " in star tree function column pair: "
+                  + functionColumnPair);
+      }
+    }
+    return derivedColumnToOriginMap;
+  }
+
+  private static void addDerivedColumn(String column, DerivedMetricType derivedMetricType,
+      Map<String, String> derivedColumnToOriginMap, Map<String, DerivedMetricType> derivedMetricTypeMap) {
+    String derivedColumn =
+        derivedMetricType.name().toLowerCase() + StarTreeIndexSpec.FUNCTION_COLUMN_PAIR_DELIMITER + column;
+    derivedColumnToOriginMap.put(derivedColumn, column);
+    derivedMetricTypeMap.put(derivedColumn, derivedMetricType);
+  }
+}
@@ -19,7 +19,9 @@ import com.linkedin.pinot.common.exception.QueryException;
 import com.linkedin.pinot.common.response.ProcessingException;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.io.compression.ChunkCompressorFactory;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
@@ -82,8 +84,146 @@ public class DataTableSerDeTest {
     }
   }
 
+  @Test
+  public void testReSerialization() throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"INT", "STRING", "OBJECT"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING,
+            DataSchema.ColumnDataType.OBJECT});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    int[] ints = new int[NUM_ROWS];
+    String[] strings = new String[NUM_ROWS];
+    double[] doubles = new double[NUM_ROWS];
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      ints[rowId] = RANDOM.nextInt();
+      strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
+      doubles[rowId] = RANDOM.nextDouble();
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, ints[rowId]);
+      dataTableBuilder.setColumn(1, strings[rowId]);
+      dataTableBuilder.setColumn(2, (Object) doubles[rowId]);
+      dataTableBuilder.finishRow();
+    }
+    DataTable dataTable = dataTableBuilder.build();
+    dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, "100");
+
+    // Data table de-serialized from bytes reads the data without copying, and should be serialized into same bytes
+    byte[] bytes = dataTable.toBytes();
+    DataTable newDataTable = DataTableFactory.getDataTable(bytes);
+    byte[] newBytes = newDataTable.toBytes();
+    Assert.assertEquals(newBytes, bytes, ERROR_MESSAGE);
+
+    newDataTable = DataTableFactory.getDataTable(newBytes);
+    Assert.assertEquals(newDataTable.getMetadata().get(DataTable.NUM_DOCS_SCANNED_METADATA_KEY), "100");
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      Assert.assertEquals(newDataTable.getInt(rowId, 0), ints[rowId], ERROR_MESSAGE);
+      Assert.assertEquals(newDataTable.getString(rowId, 1), strings[rowId], ERROR_MESSAGE);
+      Assert.assertEquals((double) newDataTable.getObject(rowId, 2), doubles[rowId], ERROR_MESSAGE);
+    }
+  }
+
   @Test
   public void testAllDataTypes() throws IOException {
+    testAllDataTypes(ERROR_MESSAGE);
+  }
+
+  @Test
+  public void testAllDataTypesV3() throws IOException {
+    try {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_3);
+      for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+        DataTableBuilder.setCompression(compressionType, 0);
+        testAllDataTypes(ERROR_MESSAGE + ", compression type: " + compressionType);
+      }
+    } finally {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+    }
+  }
+
+  @Test
+  public void testCompressionThreshold() throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"INT", "STRING"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING});
+    int numRows = 10_000;
+    byte[] v2Bytes = buildRepeatedDataTable(dataSchema, numRows).toBytes();
+    int uncompressedSize = numRows * 2 * (Integer.SIZE / Byte.SIZE);
+
+    try {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_3);
+      for (ChunkCompressorFactory.CompressionType compressionType : ChunkCompressorFactory.CompressionType.values()) {
+        // Below the threshold, only the larger header is added
+        DataTableBuilder.setCompression(compressionType, uncompressedSize + 1);
+        byte[] bytes = buildRepeatedDataTable(dataSchema, numRows).toBytes();
+        Assert.assertEquals(bytes.length, v2Bytes.length + 3 * (Integer.SIZE / Byte.SIZE));
+        verifyRepeatedDataTable(DataTableFactory.getDataTable(bytes), numRows);
+
+        // Above the threshold, repeated values should be compressed
+        DataTableBuilder.setCompression(compressionType, uncompressedSize);
+        bytes = buildRepeatedDataTable(dataSchema, numRows).toBytes();
+        if (compressionType != ChunkCompressorFactory.CompressionType.PASS_THROUGH) {
+          Assert.assertTrue(bytes.length < v2Bytes.length / 10);
+        }
+        DataTable newDataTable = DataTableFactory.getDataTable(bytes);
+        verifyRepeatedDataTable(newDataTable, numRows);
+
+        // Data table de-serialized from compressed bytes should be serialized into same bytes
+        Assert.assertEquals(newDataTable.toBytes(), bytes);
+      }
+    } finally {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+    }
+  }
+
+  @Test
+  public void testToByteBuffer() throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"INT", "STRING"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING});
+    int numRows = 10_000;
+    DataTable.BufferAllocator directBufferAllocator = new DataTable.BufferAllocator() {
+      @Override
+      public ByteBuffer allocate(int size) {
+        return ByteBuffer.allocateDirect(size);
+      }
+    };
+
+    try {
+      for (int version : new int[]{DataTableBuilder.VERSION_2, DataTableBuilder.VERSION_3}) {
+        DataTableBuilder.setCurrentDataTableVersion(version);
+        DataTableBuilder.setCompression(ChunkCompressorFactory.CompressionType.SNAPPY, 0);
+        DataTable dataTable = buildRepeatedDataTable(dataSchema, numRows);
+
+        // Serializing into a direct buffer should give the same bytes as serializing into a byte array
+        ByteBuffer byteBuffer = dataTable.toByteBuffer(directBufferAllocator);
+        Assert.assertTrue(byteBuffer.isDirect());
+        byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.get(bytes);
+        Assert.assertEquals(bytes, dataTable.toBytes());
+        verifyRepeatedDataTable(DataTableFactory.getDataTable(bytes), numRows);
+      }
+    } finally {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+    }
+  }
+
+  private static DataTable buildRepeatedDataTable(DataSchema dataSchema, int numRows) throws IOException {
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, rowId % 10);
+      dataTableBuilder.setColumn(1, "value" + rowId % 10);
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
+
+  private static void verifyRepeatedDataTable(DataTable dataTable, int numRows) {
+    Assert.assertEquals(dataTable.getNumberOfRows(), numRows);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Assert.assertEquals(dataTable.getInt(rowId, 0), rowId % 10);
+      Assert.assertEquals(dataTable.getString(rowId, 1), "value" + rowId % 10);
+    }
+  }
+
+  private void testAllDataTypes(String errorMessage) throws IOException {
     DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
     int numColumns = columnDataTypes.length;
     String[] columnNames = new String[numColumns];
@@ -187,47 +327,47 @@ public class DataTableSerDeTest {
 
     DataTable dataTable = dataTableBuilder.build();
     DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
-    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
-    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, errorMessage);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, errorMessage);
 
     for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
       for (int colId = 0; colId < numColumns; colId++) {
         switch (columnDataTypes[colId]) {
           case INT:
-            Assert.assertEquals(newDataTable.getInt(rowId, colId), ints[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getInt(rowId, colId), ints[rowId], errorMessage);
             break;
           case LONG:
-            Assert.assertEquals(newDataTable.getLong(rowId, colId), longs[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getLong(rowId, colId), longs[rowId], errorMessage);
             break;
           case FLOAT:
-            Assert.assertEquals(newDataTable.getFloat(rowId, colId), floats[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getFloat(rowId, colId), floats[rowId], errorMessage);
             break;
           case DOUBLE:
-            Assert.assertEquals(newDataTable.getDouble(rowId, colId), doubles[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getDouble(rowId, colId), doubles[rowId], errorMessage);
             break;
           case STRING:
-            Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], errorMessage);
             break;
           case OBJECT:
-            Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], ERROR_MESSAGE);
+            Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], errorMessage);
             break;
           case INT_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getIntArray(rowId, colId), intArrays[rowId]), ERROR_MESSAGE);
+            Assert.assertTrue(Arrays.equals(newDataTable.getIntArray(rowId, colId), intArrays[rowId]), errorMessage);
             break;
           case LONG_ARRAY:
-            Assert.assertTrue(Arrays.equals(newDataTable.getLongArray(rowId, colId), longArrays[rowId]), ERROR_MESSAGE);
+            Assert.assertTrue(Arrays.equals(newDataTable.getLongArray(rowId, colId), longArrays[rowId]), errorMessage);
             break;
           case FLOAT_ARRAY:
             Assert.assertTrue(Arrays.equals(newDataTable.getFloatArray(rowId, colId), floatArrays[rowId]),
-                ERROR_MESSAGE);
+                errorMessage);
             break;
           case DOUBLE_ARRAY:
             Assert.assertTrue(Arrays.equals(newDataTable.getDoubleArray(rowId, colId), doubleArrays[rowId]),
-                ERROR_MESSAGE);
+                errorMessage);
             break;
           case STRING_ARRAY:
             Assert.assertTrue(Arrays.equals(newDataTable.getStringArray(rowId, colId), stringArrays[rowId]),
-                ERROR_MESSAGE);
+                errorMessage);
             break;
         }
       }
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.data.manager.realtime;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.extractors.FieldExtractorFactory;
+import com.linkedin.pinot.core.data.extractors.PlainFieldExtractor;
+import com.linkedin.pinot.core.realtime.stream.MessageBatch;
+import com.linkedin.pinot.core.realtime.stream.StreamMessageDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class ParallelMessageBatchDecoderTest {
+  private static final String COLUMN_NAME = "column";
+  private static final int NUM_WORKERS = 3;
+  private static final String INVALID_MESSAGE = "invalid";
+
+  private ParallelMessageBatchDecoder _parallelDecoder;
+
+  @BeforeClass
+  public void setUp() {
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(COLUMN_NAME, FieldSpec.DataType.INT, true));
+    List<StreamMessageDecoder> decoders = new ArrayList<>(NUM_WORKERS);
+    List<PlainFieldExtractor> fieldExtractors = new ArrayList<>(NUM_WORKERS);
+    for (int i = 0; i < NUM_WORKERS; i++) {
+      decoders.add(new StringMessageDecoder());
+      fieldExtractors.add(FieldExtractorFactory.getPlainFieldExtractor(schema));
+    }
+    _parallelDecoder = new ParallelMessageBatchDecoder(decoders, fieldExtractors, "testSegment");
+  }
+
+  @Test
+  public void testRowsInStreamOrder() {
+    for (int numMessages : new int[]{0, 1, 2, NUM_WORKERS, 10, 1000}) {
+      List<String> messages = new ArrayList<>(numMessages);
+      for (int i = 0; i < numMessages; i++) {
+        // Every 7th message cannot be decoded
+        messages.add(i % 7 == 6 ? INVALID_MESSAGE : Integer.toString(i));
+      }
+
+      ParallelMessageBatchDecoder.DecodedBatch decodedBatch = _parallelDecoder.decode(new StringMessageBatch(messages));
+      try {
+        for (int i = 0; i < numMessages; i++) {
+          GenericRow row = decodedBatch.getRow(i);
+          if (i % 7 == 6) {
+            Assert.assertNull(row);
+          } else {
+            Assert.assertNotNull(row);
+            // Value is converted from String to INT by the field extractor
+            Assert.assertEquals(row.getValue(COLUMN_NAME), i);
+          }
+        }
+      } finally {
+        decodedBatch.close();
+      }
+    }
+  }
+
+  @Test
+  public void testCloseBeforeAllRowsRead() {
+    List<String> messages = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      messages.add(Integer.toString(i));
+    }
+
+    // Stop reading in the middle of the batch, as the consumer thread does when reaching the end criteria
+    ParallelMessageBatchDecoder.DecodedBatch decodedBatch = _parallelDecoder.decode(new StringMessageBatch(messages));
+    Assert.assertEquals(decodedBatch.getRow(0).getValue(COLUMN_NAME), 0);
+    decodedBatch.close();
+
+    // Decoders are reusable for the next batch
+    decodedBatch = _parallelDecoder.decode(new StringMessageBatch(messages));
+    try {
+      for (int i = 0; i < messages.size(); i++) {
+        Assert.assertEquals(decodedBatch.getRow(i).getValue(COLUMN_NAME), i);
+      }
+    } finally {
+      decodedBatch.close();
+    }
+  }
+
+  @Test(expectedExceptions = RuntimeException.class)
+  public void testDecodeException() {
+    List<String> messages = new ArrayList<>();
+    messages.add("0");
+    messages.add(null);
+    ParallelMessageBatchDecoder.DecodedBatch decodedBatch = _parallelDecoder.decode(new StringMessageBatch(messages));
+    try {
+      decodedBatch.getRow(1);
+    } finally {
+      decodedBatch.close();
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _parallelDecoder.shutDown();
+  }
+
+  private static class StringMessageBatch implements MessageBatch<byte[]> {
+    private final List<byte[]> _messages = new ArrayList<>();
+
+    StringMessageBatch(List<String> messages) {
+      for (String message : messages) {
+        _messages.add(message != null ? message.getBytes(StandardCharsets.UTF_8) : null);
+      }
+    }
+
+    @Override
+    public int getMessageCount() {
+      return _messages.size();
+    }
+
+    @Override
+    public byte[] getMessageAtIndex(int index) {
+      return _messages.get(index);
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return _messages.get(index) != null ? _messages.get(index).length : 0;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  /**
+   * Decodes a message into a single column row holding the message as a String, or returns <code>null</code> for
+   * invalid messages. Like the stream decoders, it is not thread-safe as it reuses its buffer.
+   */
+  private static class StringMessageDecoder implements StreamMessageDecoder<byte[]> {
+    private final StringBuilder _buffer = new StringBuilder();
+
+    @Override
+    public void init(Map<String, String> props, Schema indexingSchema, String kafkaTopicName) {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      return decode(payload, 0, payload.length, destination);
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      _buffer.setLength(0);
+      _buffer.append(new String(payload, offset, length, StandardCharsets.UTF_8));
+      String value = _buffer.toString();
+      if (value.equals(INVALID_MESSAGE)) {
+        return null;
+      }
+      destination.putField(COLUMN_NAME, value);
+      return destination;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.indexsegment.immutable;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.MetricFieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class ImmutableSegmentLoaderTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ImmutableSegmentLoaderTest");
+  private static final Random RANDOM = new Random();
+
+  private static final int NUM_ROWS = 1000;
+  private static final int NUM_THREADS = 10;
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String D1 = "d1";
+  private static final String D2 = "d2";
+  private static final String M1 = "m1";
+
+  private File _indexDir;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(D1, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(D2, FieldSpec.DataType.STRING, true));
+    schema.addField(new MetricFieldSpec(M1, FieldSpec.DataType.LONG));
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putField(D1, RANDOM.nextInt(100));
+      row.putField(D2, "value_" + RANDOM.nextInt(100));
+      row.putField(M1, RANDOM.nextLong());
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setBloomFilterCreationColumns(Collections.singletonList(D2));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _indexDir = new File(TEMP_DIR, SEGMENT_NAME);
+  }
+
+  @Test
+  public void testLazyColumnLoading() throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(Collections.singleton(D1));
+    ImmutableSegmentImpl eagerSegment =
+        (ImmutableSegmentImpl) ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig);
+    indexLoadingConfig.setLazyColumnLoading(true);
+    final ImmutableSegmentImpl lazySegment =
+        (ImmutableSegmentImpl) ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig);
+    try {
+      Assert.assertFalse(eagerSegment.isLazyColumnLoading());
+      Assert.assertTrue(eagerSegment.getColumnAccessCounts().isEmpty());
+      Assert.assertTrue(lazySegment.isLazyColumnLoading());
+      Map<String, Long> columnAccessCounts = lazySegment.getColumnAccessCounts();
+      Assert.assertEquals(columnAccessCounts.size(), 3);
+      for (long numAccesses : columnAccessCounts.values()) {
+        Assert.assertEquals(numAccesses, 0L);
+      }
+
+      // Concurrent first accesses should all get the same indexes
+      ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+      List<Future<DataSource>> futures = new ArrayList<>(NUM_THREADS);
+      for (int i = 0; i < NUM_THREADS; i++) {
+        futures.add(executorService.submit(new Callable<DataSource>() {
+          @Override
+          public DataSource call() {
+            return lazySegment.getDataSource(D1);
+          }
+        }));
+      }
+      executorService.shutdown();
+      DataSource dataSource = futures.get(0).get();
+      Assert.assertNotNull(dataSource.getInvertedIndex());
+      for (Future<DataSource> future : futures) {
+        Assert.assertSame(future.get().getDictionary(), dataSource.getDictionary());
+        Assert.assertSame(future.get().getInvertedIndex(), dataSource.getInvertedIndex());
+      }
+      columnAccessCounts = lazySegment.getColumnAccessCounts();
+      Assert.assertEquals((long) columnAccessCounts.get(D1), NUM_THREADS);
+      Assert.assertEquals((long) columnAccessCounts.get(D2), 0L);
+      Assert.assertEquals((long) columnAccessCounts.get(M1), 0L);
+
+      // Lazily loaded segment should return the same records
+      GenericRow eagerRow = new GenericRow();
+      GenericRow lazyRow = new GenericRow();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        eagerSegment.getRecord(docId, eagerRow);
+        lazySegment.getRecord(docId, lazyRow);
+        Assert.assertEquals(lazyRow.getValue(D1), eagerRow.getValue(D1));
+        Assert.assertEquals(lazyRow.getValue(D2), eagerRow.getValue(D2));
+        Assert.assertEquals(lazyRow.getValue(M1), eagerRow.getValue(M1));
+      }
+    } finally {
+      eagerSegment.destroy();
+      lazySegment.destroy();
+    }
+  }
+
+  @Test
+  public void testLazyBloomFilterLoading() throws Exception {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setLazyColumnLoading(true);
+    ImmutableSegmentImpl lazySegment =
+        (ImmutableSegmentImpl) ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig);
+    try {
+      // Bloom filter should be loaded without loading the other indexes of the column
+      BloomFilterReader bloomFilter = lazySegment.getBloomFilter(D2);
+      Assert.assertNotNull(bloomFilter);
+      Assert.assertNull(lazySegment.getBloomFilter(D1));
+      Assert.assertNull(lazySegment.getBloomFilter("nonExistingColumn"));
+      Assert.assertSame(lazySegment.getBloomFilter(D2), bloomFilter);
+      Assert.assertEquals(lazySegment.getNumLoadedColumns(), 0);
+      Map<String, Long> columnAccessCounts = lazySegment.getColumnAccessCounts();
+      Assert.assertEquals((long) columnAccessCounts.get(D1), 1L);
+      Assert.assertEquals((long) columnAccessCounts.get(D2), 2L);
+
+      // Loading the other indexes of the column should not change the bloom filter behavior
+      Assert.assertNotNull(lazySegment.getDataSource(D2));
+      Assert.assertEquals(lazySegment.getNumLoadedColumns(), 1);
+      GenericRow row = new GenericRow();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        String value = (String) lazySegment.getRecord(docId, row).getValue(D2);
+        Assert.assertTrue(bloomFilter.mightContain(value));
+        Assert.assertTrue(lazySegment.getBloomFilter(D2).mightContain(value));
+      }
+    } finally {
+      lazySegment.destroy();
+    }
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
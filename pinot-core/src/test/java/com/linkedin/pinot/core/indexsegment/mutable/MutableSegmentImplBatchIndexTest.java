@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.indexsegment.mutable;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.core.segment.index.readers.InvertedIndexReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests that indexing rows in batches gives the same segment as indexing them one by one.
+ */
+public class MutableSegmentImplBatchIndexTest {
+  private static final String INT_COLUMN = "intColumn";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String MV_COLUMN = "mvColumn";
+  private static final String METRIC_COLUMN = "metricColumn";
+  private static final String TIME_COLUMN = "timeColumn";
+  private static final int NUM_ROWS = 10000;
+  private static final int MAX_BATCH_SIZE = 500;
+
+  private Schema _schema;
+  private MutableSegmentImpl _rowByRowSegment;
+  private MutableSegmentImpl _batchSegment;
+
+  @BeforeClass
+  public void setUp() {
+    _schema = new Schema.SchemaBuilder().setSchemaName("testSchema")
+        .addSingleValueDimension(INT_COLUMN, FieldSpec.DataType.INT)
+        .addSingleValueDimension(STRING_COLUMN, FieldSpec.DataType.STRING)
+        .addMultiValueDimension(MV_COLUMN, FieldSpec.DataType.INT)
+        .addMetric(METRIC_COLUMN, FieldSpec.DataType.LONG)
+        .addTime(TIME_COLUMN, TimeUnit.DAYS, FieldSpec.DataType.LONG)
+        .build();
+    Set<String> invertedIndexColumns = new HashSet<>(Arrays.asList(INT_COLUMN, STRING_COLUMN, MV_COLUMN));
+    _rowByRowSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, Collections.singleton(METRIC_COLUMN),
+            invertedIndexColumns, false);
+    _batchSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, Collections.singleton(METRIC_COLUMN),
+            invertedIndexColumns, false);
+
+    Random random = new Random();
+    List<GenericRow> batch = new ArrayList<>();
+    int batchSize = 1 + random.nextInt(MAX_BATCH_SIZE);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putField(INT_COLUMN, random.nextInt(100));
+      row.putField(STRING_COLUMN, "value" + random.nextInt(1000));
+      Object[] mvValues = new Object[1 + random.nextInt(5)];
+      for (int j = 0; j < mvValues.length; j++) {
+        mvValues[j] = random.nextInt(50);
+      }
+      row.putField(MV_COLUMN, mvValues);
+      row.putField(METRIC_COLUMN, random.nextLong());
+      row.putField(TIME_COLUMN, (long) random.nextInt(365));
+
+      Assert.assertTrue(_rowByRowSegment.index(row));
+      batch.add(row);
+      if (batch.size() == batchSize) {
+        Assert.assertTrue(_batchSegment.index(batch));
+        batch.clear();
+        batchSize = 1 + random.nextInt(MAX_BATCH_SIZE);
+      }
+    }
+    Assert.assertTrue(_batchSegment.index(batch));
+  }
+
+  @Test
+  public void testRecords() {
+    Assert.assertEquals(_batchSegment.getNumDocsIndexed(), NUM_ROWS);
+    Assert.assertEquals(_batchSegment.getMinTime(), _rowByRowSegment.getMinTime());
+    Assert.assertEquals(_batchSegment.getMaxTime(), _rowByRowSegment.getMaxTime());
+
+    GenericRow expectedRow = new GenericRow();
+    GenericRow actualRow = new GenericRow();
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      _rowByRowSegment.getRecord(docId, expectedRow);
+      _batchSegment.getRecord(docId, actualRow);
+      for (String column : _schema.getColumnNames()) {
+        Object expectedValue = expectedRow.getValue(column);
+        if (expectedValue instanceof Object[]) {
+          Assert.assertEquals((Object[]) actualRow.getValue(column), (Object[]) expectedValue);
+        } else {
+          Assert.assertEquals(actualRow.getValue(column), expectedValue);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvertedIndexes() {
+    for (String column : Arrays.asList(INT_COLUMN, STRING_COLUMN, MV_COLUMN)) {
+      DataSource expectedDataSource = _rowByRowSegment.getDataSource(column);
+      DataSource actualDataSource = _batchSegment.getDataSource(column);
+      Assert.assertEquals(actualDataSource.getDataSourceMetadata().getMaxNumMultiValues(),
+          expectedDataSource.getDataSourceMetadata().getMaxNumMultiValues());
+
+      // Rows are indexed in the same order, so the dictionary ids are the same
+      Dictionary expectedDictionary = expectedDataSource.getDictionary();
+      Dictionary actualDictionary = actualDataSource.getDictionary();
+      Assert.assertEquals(actualDictionary.length(), expectedDictionary.length());
+      InvertedIndexReader expectedInvertedIndex = expectedDataSource.getInvertedIndex();
+      InvertedIndexReader actualInvertedIndex = actualDataSource.getInvertedIndex();
+      for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+        Assert.assertEquals(actualDictionary.get(dictId), expectedDictionary.get(dictId));
+        Assert.assertEquals(actualInvertedIndex.getDocIds(dictId), expectedInvertedIndex.getDocIds(dictId));
+      }
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _rowByRowSegment.destroy();
+    _batchSegment.destroy();
+  }
+}
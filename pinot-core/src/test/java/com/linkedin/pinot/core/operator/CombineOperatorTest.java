@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator;
+
+import com.linkedin.pinot.common.request.AggregationInfo;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.config.CombineConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+
+public class CombineOperatorTest {
+  private static final int NUM_OPERATORS = 40;
+
+  private final ExecutorService _executorService = Executors.newFixedThreadPool(10);
+
+  @Test
+  public void testNumThreadsForQuery() {
+    PropertiesConfiguration configuration = new PropertiesConfiguration();
+    configuration.setProperty(CombineConfig.MIN_THREADS_PER_QUERY, 2);
+    configuration.setProperty(CombineConfig.MAX_THREADS_PER_QUERY, 8);
+    configuration.setProperty(CombineConfig.MIN_SEGMENTS_PER_THREAD, 5);
+    CombineConfig combineConfig = new CombineConfig(configuration);
+
+    Assert.assertEquals(combineConfig.getNumThreadsForQuery(1), 1);
+    Assert.assertEquals(combineConfig.getNumThreadsForQuery(3), 2);
+    Assert.assertEquals(combineConfig.getNumThreadsForQuery(20), 4);
+    Assert.assertEquals(combineConfig.getNumThreadsForQuery(1000), 8);
+    Assert.assertFalse(combineConfig.isWorkStealingEnabled());
+  }
+
+  @Test
+  public void testStaticGroups() {
+    Assert.assertEquals(runCountQuery(false), NUM_OPERATORS * (NUM_OPERATORS + 1) / 2);
+  }
+
+  @Test
+  public void testWorkStealing() {
+    Assert.assertEquals(runCountQuery(true), NUM_OPERATORS * (NUM_OPERATORS + 1) / 2);
+  }
+
+  private long runCountQuery(boolean enableWorkStealing) {
+    AggregationInfo aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("count");
+    aggregationInfo.setAggregationParams(Collections.singletonMap("column", "*"));
+    BrokerRequest brokerRequest = new BrokerRequest();
+    brokerRequest.addToAggregationsInfo(aggregationInfo);
+    final AggregationFunctionContext[] aggregationFunctionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), null);
+
+    // Operators with skewed cost, the later ones being slower
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 1; i <= NUM_OPERATORS; i++) {
+      final long count = i;
+      operators.add(new BaseOperator<IntermediateResultsBlock>() {
+        @Override
+        protected IntermediateResultsBlock getNextBlock() {
+          try {
+            Thread.sleep(count / 10);
+          } catch (InterruptedException e) {
+            // Ignored.
+          }
+          List<Object> aggregationResult = new ArrayList<>(1);
+          aggregationResult.add(count);
+          return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationResult, false);
+        }
+
+        @Override
+        public String getOperatorName() {
+          return "TestOperator";
+        }
+
+        @Override
+        public ExecutionStatistics getExecutionStatistics() {
+          return new ExecutionStatistics(count, 0, 0, count);
+        }
+      });
+    }
+
+    PropertiesConfiguration configuration = new PropertiesConfiguration();
+    configuration.setProperty(CombineConfig.MAX_THREADS_PER_QUERY, 4);
+    configuration.setProperty(CombineConfig.ENABLE_WORK_STEALING, enableWorkStealing);
+    CombineOperator combineOperator =
+        new CombineOperator(operators, _executorService, 10_000, brokerRequest, new CombineConfig(configuration));
+    IntermediateResultsBlock resultsBlock = combineOperator.nextBlock();
+    Assert.assertNull(resultsBlock.getProcessingExceptions());
+    return (Long) resultsBlock.getAggregationResult().get(0);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.blocks;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.utils.DataSchema;
+import com.linkedin.pinot.common.utils.DataTable;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import com.linkedin.pinot.core.common.datatable.DataTableUtils;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionFactory;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for the aggregation group-by data tables built by {@link IntermediateResultsBlock}.
+ */
+public class IntermediateResultsBlockTest {
+  private static final List<String> GROUP_KEY_COLUMN_NAMES = Arrays.asList("intColumn", "stringColumn");
+  private static final FieldSpec.DataType[] GROUP_KEY_DATA_TYPES =
+      new FieldSpec.DataType[]{FieldSpec.DataType.INT, FieldSpec.DataType.STRING};
+
+  @Test
+  public void testTypedGroupKeyColumns() throws Exception {
+    String groupKey = "1" + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + "foo";
+    DataTable dataTable = getDataTable(groupKey, 2.0);
+
+    DataSchema dataSchema = dataTable.getDataSchema();
+    Assert.assertEquals(dataSchema.size(), 3);
+    Assert.assertEquals(dataSchema.getColumnName(0), "intColumn");
+    Assert.assertEquals(dataSchema.getColumnDataType(0), DataSchema.ColumnDataType.INT);
+    Assert.assertEquals(dataSchema.getColumnName(1), "stringColumn");
+    Assert.assertEquals(dataSchema.getColumnDataType(1), DataSchema.ColumnDataType.STRING);
+    Assert.assertEquals(dataTable.getNumberOfRows(), 1);
+    Assert.assertEquals(dataTable.getInt(0, 0), 1);
+    Assert.assertEquals(dataTable.getString(0, 1), "foo");
+    Assert.assertEquals(dataTable.getDouble(0, 2), 2.0);
+  }
+
+  @Test
+  public void testGroupKeyValueContainingDelimiter() throws Exception {
+    // The STRING value contains the group key delimiter, so the group key cannot be split into the typed columns
+    String groupKey = "1" + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + "foo"
+        + AggregationGroupByTrimmingService.GROUP_KEY_DELIMITER + "bar";
+    DataTable dataTable = getDataTable(groupKey, 2.0);
+
+    // Should fall back to the legacy group key string layout
+    DataSchema dataSchema = dataTable.getDataSchema();
+    Assert.assertEquals(dataSchema.size(), 2);
+    Assert.assertEquals(dataSchema.getColumnName(0), DataTableUtils.GROUP_BY_FUNCTION_NAME_COLUMN);
+    Assert.assertEquals(dataSchema.getColumnName(1), DataTableUtils.GROUP_BY_RESULT_MAP_COLUMN);
+    Assert.assertEquals(dataTable.getNumberOfRows(), 1);
+    Map<String, Object> resultMap = dataTable.getObject(0, 1);
+    Assert.assertEquals(resultMap.size(), 1);
+    Assert.assertEquals(resultMap.get(groupKey), 2.0);
+  }
+
+  private static DataTable getDataTable(String groupKey, double result) throws Exception {
+    AggregationFunctionContext[] aggregationFunctionContexts = new AggregationFunctionContext[]{
+        new AggregationFunctionContext(new String[]{"metric"}, AggregationFunctionFactory.getAggregationFunction("SUM"))
+    };
+    Map<String, Object> resultMap = new HashMap<>();
+    resultMap.put(groupKey, result);
+    Map<String, Object[]> mergedResults = new HashMap<>();
+    mergedResults.put(groupKey, new Object[]{result});
+    IntermediateResultsBlock intermediateResultsBlock =
+        new IntermediateResultsBlock(aggregationFunctionContexts, Collections.singletonList(resultMap), true);
+    intermediateResultsBlock.setGroupKeyColumns(GROUP_KEY_COLUMN_NAMES, GROUP_KEY_DATA_TYPES, mergedResults);
+
+    DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_3);
+    try {
+      return intermediateResultsBlock.getDataTable();
+    } finally {
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.operator.dociditerators;
+
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.io.reader.BaseSingleColumnSingleValueReader;
+import com.linkedin.pinot.core.io.reader.ReaderContext;
+import com.linkedin.pinot.core.operator.blocks.BlockMetadataImpl;
+import com.linkedin.pinot.core.operator.docvalsets.SingleValueSet;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import java.util.Collections;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Test for the batch scan of {@link SVScanDocIdIterator}.
+ */
+public class SVScanDocIdIteratorTest {
+  private static final int NUM_DOCS = 3 * SVScanDocIdIterator.BATCH_SIZE + 7;
+  // Value of each doc is docId % MODULO, predicate matches values in [0, 3)
+  private static final int MODULO = 100;
+
+  @Test
+  public void testNext() {
+    SVScanDocIdIterator iterator = getIterator();
+    int expectedDocId = 0;
+    int numMatchingDocs = 0;
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      Assert.assertEquals(docId, expectedDocId);
+      Assert.assertEquals(iterator.currentDocId(), docId);
+      numMatchingDocs++;
+      expectedDocId = getNextMatchingDocId(expectedDocId + 1);
+    }
+    Assert.assertEquals(expectedDocId, Constants.EOF);
+    Assert.assertEquals(numMatchingDocs, getNumMatchingDocs());
+    Assert.assertEquals(iterator.getNumEntriesScanned(), NUM_DOCS);
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testAdvance() {
+    SVScanDocIdIterator iterator = getIterator();
+    Assert.assertEquals(iterator.next(), 0);
+
+    // Advance within the current batch
+    Assert.assertEquals(iterator.advance(5), getNextMatchingDocId(5));
+    // Advance to the current doc
+    Assert.assertEquals(iterator.advance(iterator.currentDocId()), getNextMatchingDocId(5));
+    // Advance across batches
+    int targetDocId = 2 * SVScanDocIdIterator.BATCH_SIZE + 1;
+    Assert.assertEquals(iterator.advance(targetDocId), getNextMatchingDocId(targetDocId));
+    Assert.assertEquals(iterator.next(), getNextMatchingDocId(getNextMatchingDocId(targetDocId) + 1));
+    // Advance beyond the end
+    Assert.assertEquals(iterator.advance(NUM_DOCS), Constants.EOF);
+    Assert.assertEquals(iterator.next(), Constants.EOF);
+  }
+
+  @Test
+  public void testNumEntriesScanned() {
+    // Docs read ahead by the batch scan are only counted once the iterator moves past them
+    SVScanDocIdIterator iterator = getIterator();
+    Assert.assertEquals(iterator.next(), 0);
+    Assert.assertEquals(iterator.getNumEntriesScanned(), 1);
+    Assert.assertEquals(iterator.next(), 1);
+    Assert.assertEquals(iterator.getNumEntriesScanned(), 2);
+
+    // Docs skipped by advance() are not counted
+    Assert.assertEquals(iterator.advance(5), MODULO);
+    Assert.assertEquals(iterator.getNumEntriesScanned(), 2 + MODULO - 5 + 1);
+    Assert.assertEquals(iterator.next(), MODULO + 1);
+    Assert.assertEquals(iterator.getNumEntriesScanned(), 2 + MODULO - 5 + 2);
+  }
+
+  @Test
+  public void testApplyAnd() {
+    SVScanDocIdIterator iterator = getIterator();
+    MutableRoaringBitmap answer = new MutableRoaringBitmap();
+    for (int docId = 0; docId < NUM_DOCS; docId += 2) {
+      answer.add(docId);
+    }
+    MutableRoaringBitmap result = iterator.applyAnd(answer);
+
+    MutableRoaringBitmap expected = new MutableRoaringBitmap();
+    for (int docId = 0; docId < NUM_DOCS; docId += 2) {
+      if (docId % MODULO < 3) {
+        expected.add(docId);
+      }
+    }
+    Assert.assertEquals(result, expected);
+    Assert.assertEquals(iterator.getNumEntriesScanned(), answer.getCardinality());
+  }
+
+  @Test
+  public void testIsMatch() {
+    SVScanDocIdIterator iterator = getIterator();
+    Assert.assertTrue(iterator.isMatch(MODULO + 2));
+    Assert.assertFalse(iterator.isMatch(MODULO + 3));
+    Assert.assertEquals(iterator.getNumEntriesScanned(), 2);
+  }
+
+  private static SVScanDocIdIterator getIterator() {
+    PredicateEvaluator predicateEvaluator = RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(
+        new RangePredicate("column", Collections.singletonList("[0" + RangePredicate.DELIMITER + "3)")),
+        FieldSpec.DataType.INT);
+    return new SVScanDocIdIterator("column", new SingleValueSet(new ModuloReader(), NUM_DOCS, FieldSpec.DataType.INT),
+        new BlockMetadataImpl(NUM_DOCS, true, 0, FieldSpec.DataType.INT, null), predicateEvaluator);
+  }
+
+  private static int getNextMatchingDocId(int docId) {
+    for (int i = docId; i < NUM_DOCS; i++) {
+      if (i % MODULO < 3) {
+        return i;
+      }
+    }
+    return Constants.EOF;
+  }
+
+  private static int getNumMatchingDocs() {
+    int numMatchingDocs = 0;
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (i % MODULO < 3) {
+        numMatchingDocs++;
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  private static class ModuloReader extends BaseSingleColumnSingleValueReader<ReaderContext> {
+    @Override
+    public int getInt(int row) {
+      return row % MODULO;
+    }
+
+    @Override
+    public int getInt(int row, ReaderContext context) {
+      return row % MODULO;
+    }
+
+    @Override
+    public ReaderContext createContext() {
+      return null;
+    }
+
+    @Override
+    public void readValues(int[] rows, int rowStartPos, int rowSize, int[] values, int valuesStartPos) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
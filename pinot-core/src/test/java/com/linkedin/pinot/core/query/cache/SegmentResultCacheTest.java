@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.query.cache;
+
+import com.linkedin.pinot.common.exception.QueryException;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.core.operator.ExecutionStatistics;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.query.aggregation.AggregationFunctionContext;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.aggregation.function.customobject.AvgPair;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class SegmentResultCacheTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final String QUERY = "SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('a', 'b')";
+
+  @Test
+  public void testQueryFingerprint() {
+    String fingerprint = SegmentResultCache.getQueryFingerprint(COMPILER.compileToBrokerRequest(QUERY));
+    Assert.assertEquals(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('b', 'a')")), fingerprint);
+    Assert.assertFalse(fingerprint.equals(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*), SUM(m) FROM testTable WHERE d IN ('a', 'b')"))));
+    Assert.assertFalse(fingerprint.equals(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('a', 'c')"))));
+
+    // Values containing the list separator should not collide with multiple values
+    Assert.assertFalse(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('a, b')"))
+        .equals(fingerprint));
+    Assert.assertFalse(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('a, b', 'c')"))
+        .equals(SegmentResultCache.getQueryFingerprint(
+            COMPILER.compileToBrokerRequest("SELECT COUNT(*), AVG(m) FROM testTable WHERE d IN ('a', 'b, c')"))));
+
+    // The order of the AND/OR children should not matter
+    Assert.assertEquals(SegmentResultCache.getQueryFingerprint(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable WHERE d = 'a' AND e = 'b'")),
+        SegmentResultCache.getQueryFingerprint(
+            COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable WHERE e = 'b' AND d = 'a'")));
+  }
+
+  @Test
+  public void testIsCacheable() {
+    Assert.assertTrue(SegmentResultCache.isCacheable(COMPILER.compileToBrokerRequest(QUERY)));
+    Assert.assertFalse(SegmentResultCache.isCacheable(
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable GROUP BY d")));
+    Assert.assertFalse(SegmentResultCache.isCacheable(COMPILER.compileToBrokerRequest("SELECT * FROM testTable")));
+  }
+
+  @Test
+  public void testPutAndGet()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    String fingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+    AggregationFunctionContext[] functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), null);
+    SegmentResultCache segmentResultCache = new SegmentResultCache(1024 * 1024);
+
+    SegmentResultCache.Key key = new SegmentResultCache.Key(TABLE_NAME, "segment0", "1234", fingerprint);
+    Assert.assertNull(segmentResultCache.get(key));
+
+    AvgPair avgPair = new AvgPair(10.0, 4L);
+    List<Object> aggregationResult = new ArrayList<>(Arrays.<Object>asList(4L, avgPair));
+    segmentResultCache.put(key, new IntermediateResultsBlock(functionContexts, aggregationResult, false),
+        new ExecutionStatistics(4L, 100L, 4L, 100L));
+
+    SegmentResultCache.CachedResult cachedResult =
+        segmentResultCache.get(new SegmentResultCache.Key(TABLE_NAME, "segment0", "1234", fingerprint));
+    Assert.assertNotNull(cachedResult);
+    ExecutionStatistics executionStatistics = cachedResult.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), 4L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 100L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 4L);
+    Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 100L);
+
+    // Each cache hit should get a new copy of the intermediate results
+    List<Object> cachedAggregationResult = cachedResult.toResultsBlock(functionContexts).getAggregationResult();
+    Assert.assertEquals(cachedAggregationResult.get(0), 4L);
+    AvgPair cachedAvgPair = (AvgPair) cachedAggregationResult.get(1);
+    Assert.assertNotSame(cachedAvgPair, avgPair);
+    Assert.assertEquals(cachedAvgPair.getSum(), 10.0);
+    Assert.assertEquals(cachedAvgPair.getCount(), 4L);
+    cachedAvgPair.apply(1.0, 1L);
+    AvgPair newCachedAvgPair =
+        (AvgPair) cachedResult.toResultsBlock(functionContexts).getAggregationResult().get(1);
+    Assert.assertEquals(newCachedAvgPair.getCount(), 4L);
+
+    // Segment with a different CRC should not hit the cache
+    Assert.assertNull(segmentResultCache.get(new SegmentResultCache.Key(TABLE_NAME, "segment0", "5678", fingerprint)));
+
+    // Results with processing exceptions should not be cached
+    SegmentResultCache.Key exceptionKey = new SegmentResultCache.Key(TABLE_NAME, "segment1", "1234", fingerprint);
+    IntermediateResultsBlock exceptionBlock = new IntermediateResultsBlock(functionContexts, aggregationResult, false);
+    exceptionBlock.addToProcessingExceptions(QueryException.QUERY_EXECUTION_ERROR);
+    segmentResultCache.put(exceptionKey, exceptionBlock, new ExecutionStatistics());
+    Assert.assertNull(segmentResultCache.get(exceptionKey));
+  }
+
+  @Test
+  public void testInvalidate() {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    String fingerprint = SegmentResultCache.getQueryFingerprint(brokerRequest);
+    AggregationFunctionContext[] functionContexts =
+        AggregationFunctionUtils.getAggregationFunctionContexts(brokerRequest.getAggregationsInfo(), null);
+    SegmentResultCache segmentResultCache = new SegmentResultCache(1024 * 1024);
+
+    for (String segmentName : new String[]{"segment0", "segment1"}) {
+      List<Object> aggregationResult = new ArrayList<>(Arrays.<Object>asList(4L, new AvgPair(10.0, 4L)));
+      segmentResultCache.put(new SegmentResultCache.Key(TABLE_NAME, segmentName, "1234", fingerprint),
+          new IntermediateResultsBlock(functionContexts, aggregationResult, false), new ExecutionStatistics());
+    }
+    Assert.assertEquals(segmentResultCache.size(), 2);
+
+    segmentResultCache.invalidate(TABLE_NAME, "segment0");
+    Assert.assertEquals(segmentResultCache.size(), 1);
+    Assert.assertNull(segmentResultCache.get(new SegmentResultCache.Key(TABLE_NAME, "segment0", "1234", fingerprint)));
+    Assert.assertNotNull(
+        segmentResultCache.get(new SegmentResultCache.Key(TABLE_NAME, "segment1", "1234", fingerprint)));
+  }
+}
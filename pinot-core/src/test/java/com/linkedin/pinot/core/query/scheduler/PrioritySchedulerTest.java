@@ -30,6 +30,7 @@ import com.linkedin.pinot.core.query.scheduler.resources.ResourceLimitPolicy;
 import com.linkedin.pinot.core.query.scheduler.resources.ResourceManager;
 import com.yammer.metrics.core.MetricsRegistry;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -89,7 +90,7 @@ public class PrioritySchedulerTest {
     PropertiesConfiguration conf = new PropertiesConfiguration();
     conf.setProperty(ResourceLimitPolicy.TABLE_THREADS_HARD_LIMIT, 5);
     conf.setProperty(MultiLevelPriorityQueue.MAX_PENDING_PER_GROUP_KEY, 5);
-    List<ListenableFuture<byte[]>> results = new ArrayList<>();
+    List<ListenableFuture<ByteBuffer>> results = new ArrayList<>();
     results.add(scheduler.submit(createServerQueryRequest("1", metrics)));
     TestSchedulerGroup group = TestPriorityScheduler.groupFactory.groupMap.get("1");
     group.addReservedThreads(10);
@@ -101,8 +102,8 @@ public class PrioritySchedulerTest {
     long sleepTimeMs = queueWakeTimeMicros >= 1000 ? queueWakeTimeMicros / 1000 + 10 : 10;
     Thread.sleep(sleepTimeMs);
     int hasServerShuttingDownError = 0;
-    for (ListenableFuture<byte[]> result : results) {
-      DataTable table = DataTableFactory.getDataTable(result.get());
+    for (ListenableFuture<ByteBuffer> result : results) {
+      DataTable table = DataTableFactory.getDataTable(result.get().array());
       hasServerShuttingDownError += table.getMetadata().containsKey(
           DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_SCHEDULER_DOWN_ERROR.getErrorCode()) ? 1 : 0;
     }
@@ -122,7 +123,7 @@ public class PrioritySchedulerTest {
     TestPriorityScheduler scheduler = TestPriorityScheduler.create(conf);
     int totalPermits = scheduler.getRunningQueriesSemaphore().availablePermits();
     scheduler.start();
-    ListenableFuture<byte[]> result = scheduler.submit(
+    ListenableFuture<ByteBuffer> result = scheduler.submit(
         createServerQueryRequest("1", metrics));
     startupBarrier.await();
     TestSchedulerGroup group = TestPriorityScheduler.groupFactory.groupMap.get("1");
@@ -133,7 +134,7 @@ public class PrioritySchedulerTest {
     // number of segments. On servers with less cores, this can assign only 1 thread (less than total segments)
     assertTrue(group.totalReservedThreads() <= 2 /* 2: numSegments in request*/);
     validationBarrier.await();
-    byte[] resultData = result.get();
+    byte[] resultData = result.get().array();
     DataTable table = DataTableFactory.getDataTable(resultData);
     assertEquals(table.getMetadata().get("table"), "1");
     // verify that accounting is handled right
@@ -159,7 +160,7 @@ public class PrioritySchedulerTest {
     final TestPriorityScheduler scheduler = TestPriorityScheduler.create(conf);
     scheduler.start();
     final Random random = new Random();
-    final ConcurrentLinkedQueue<ListenableFuture<byte[]>> results = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<ListenableFuture<ByteBuffer>> results = new ConcurrentLinkedQueue<>();
     final int numThreads = 3;
     final int queriesPerThread = 10;
     numQueries = new CountDownLatch(numThreads * queriesPerThread);
@@ -191,13 +192,13 @@ public class PrioritySchedulerTest {
     conf.setProperty(MultiLevelPriorityQueue.MAX_PENDING_PER_GROUP_KEY, 1);
     TestPriorityScheduler scheduler = TestPriorityScheduler.create(conf);
     scheduler.start();
-    List<ListenableFuture<byte[]>> results = new ArrayList<>();
+    List<ListenableFuture<ByteBuffer>> results = new ArrayList<>();
     results.add(scheduler.submit(createServerQueryRequest("1", metrics)));
     TestSchedulerGroup group = TestPriorityScheduler.groupFactory.groupMap.get("1");
     group.addReservedThreads(10);
     group.addLast(createQueryRequest("1", metrics));
     results.add(scheduler.submit(createServerQueryRequest("1", metrics)));
-    DataTable dataTable = DataTableFactory.getDataTable(results.get(1).get());
+    DataTable dataTable = DataTableFactory.getDataTable(results.get(1).get().array());
     assertTrue(dataTable.getMetadata().containsKey(
         DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_OUT_OF_CAPACITY_ERROR.getErrorCode()));
     scheduler.stop();
@@ -206,10 +207,10 @@ public class PrioritySchedulerTest {
   @Test
   public void testSubmitBeforeRunning() throws ExecutionException, InterruptedException, IOException {
     TestPriorityScheduler scheduler = TestPriorityScheduler.create();
-    ListenableFuture<byte[]> result = scheduler.submit(
+    ListenableFuture<ByteBuffer> result = scheduler.submit(
         createServerQueryRequest("1", metrics));
     // start is not called
-    DataTable response = DataTableFactory.getDataTable(result.get());
+    DataTable response = DataTableFactory.getDataTable(result.get().array());
     assertTrue(response.getMetadata().containsKey(
         DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_SCHEDULER_DOWN_ERROR.getErrorCode()));
     assertFalse(response.getMetadata().containsKey("table"));
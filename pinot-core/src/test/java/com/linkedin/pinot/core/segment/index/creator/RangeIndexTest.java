@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.segment.index.creator;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.core.common.BlockDocIdIterator;
+import com.linkedin.pinot.core.common.Constants;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.predicate.RangePredicate;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.operator.docidsets.FilterBlockDocIdSet;
+import com.linkedin.pinot.core.operator.filter.BaseFilterOperator;
+import com.linkedin.pinot.core.operator.filter.FilterOperatorUtils;
+import com.linkedin.pinot.core.operator.filter.RangeIndexBasedFilterOperator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import com.linkedin.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.creator.impl.V1Constants;
+import com.linkedin.pinot.core.segment.creator.impl.inv.BitmapRangeIndexCreator;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.readers.BitmapRangeIndexReader;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for the bitmap range index and {@link RangeIndexBasedFilterOperator}.
+ */
+public class RangeIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "RangeIndexTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String NO_RANGE_INDEX_COLUMN = "noRangeIndexColumn";
+  private static final int NUM_ROWS = 10000;
+  private static final int MAX_VALUE = 1000;
+  private static final int NUM_QUERIES = 100;
+
+  private final Random _random = new Random();
+  private final int[] _values = new int[NUM_ROWS];
+  private ImmutableSegment _segment;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(INT_COLUMN, FieldSpec.DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(LONG_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(NO_RANGE_INDEX_COLUMN, FieldSpec.DataType.INT, true));
+
+    // Skewed values so that ranges hold different number of unique values
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      int value = _random.nextBoolean() ? _random.nextInt(10) : _random.nextInt(MAX_VALUE);
+      _values[i] = value;
+      Map<String, Object> map = new HashMap<>();
+      map.put(INT_COLUMN, value);
+      map.put(LONG_COLUMN, (long) value);
+      map.put(NO_RANGE_INDEX_COLUMN, value);
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setTableName("testTable");
+    config.setSegmentName(SEGMENT_NAME);
+    config.setRangeIndexCreationColumns(Arrays.asList(INT_COLUMN, LONG_COLUMN));
+    config.setInvertedIndexCreationColumns(Collections.singletonList(LONG_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(Collections.singleton(LONG_COLUMN));
+    _segment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+  }
+
+  @Test
+  public void testRangeIndex() {
+    Assert.assertNotNull(_segment.getDataSource(INT_COLUMN).getRangeIndex());
+    Assert.assertTrue(_segment.getDataSource(INT_COLUMN).getDataSourceMetadata().hasRangeIndex());
+    Assert.assertNull(_segment.getDataSource(NO_RANGE_INDEX_COLUMN).getRangeIndex());
+    Assert.assertFalse(_segment.getDataSource(NO_RANGE_INDEX_COLUMN).getDataSourceMetadata().hasRangeIndex());
+
+    BitmapRangeIndexReader rangeIndex = _segment.getDataSource(INT_COLUMN).getRangeIndex();
+    int numRanges = rangeIndex.getNumRanges();
+    Assert.assertEquals(numRanges, BitmapRangeIndexCreator.DEFAULT_NUM_RANGES);
+    Assert.assertEquals(rangeIndex.getRangeStartDictId(0), 0);
+    Assert.assertEquals(rangeIndex.getRangeEndDictId(numRanges - 1),
+        _segment.getDataSource(INT_COLUMN).getDictionary().length());
+    int numDocs = 0;
+    for (int rangeId = 0; rangeId < numRanges; rangeId++) {
+      int rangeStartDictId = rangeIndex.getRangeStartDictId(rangeId);
+      int rangeEndDictId = rangeIndex.getRangeEndDictId(rangeId);
+      Assert.assertTrue(rangeStartDictId < rangeEndDictId);
+      Assert.assertEquals(rangeIndex.getRangeId(rangeStartDictId), rangeId);
+      Assert.assertEquals(rangeIndex.getRangeId(rangeEndDictId - 1), rangeId);
+      numDocs += rangeIndex.getDocIds(rangeId).getCardinality();
+    }
+    Assert.assertEquals(numDocs, NUM_ROWS);
+  }
+
+  @Test
+  public void testRangeIndexCreator() throws Exception {
+    File indexDir = new File(INDEX_DIR, "testRangeIndexCreator");
+    FileUtils.forceMkdir(indexDir);
+
+    // Cardinality smaller than number of ranges, each dictionary id should be in its own range
+    int cardinality = 5;
+    BitmapRangeIndexCreator creator = new BitmapRangeIndexCreator(indexDir, "column", cardinality, NUM_ROWS);
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      // Most documents have dictionary id 0
+      creator.addSV(docId, docId % 10 < cardinality ? docId % 10 : 0);
+    }
+    creator.seal();
+
+    File indexFile = new File(indexDir, "column" + V1Constants.Indexes.BITMAP_RANGE_INDEX_FILE_EXTENSION);
+    Assert.assertTrue(indexFile.exists());
+    BitmapRangeIndexReader reader = new BitmapRangeIndexReader(
+        PinotDataBuffer.fromFile(indexFile, ReadMode.heap, FileChannel.MapMode.READ_ONLY, "testRangeIndexCreator"));
+    Assert.assertEquals(reader.getNumRanges(), cardinality);
+    for (int rangeId = 0; rangeId < cardinality; rangeId++) {
+      Assert.assertEquals(reader.getRangeStartDictId(rangeId), rangeId);
+      Assert.assertEquals(reader.getRangeEndDictId(rangeId), rangeId + 1);
+      Assert.assertEquals(reader.getRangeId(rangeId), rangeId);
+    }
+    Assert.assertEquals(reader.getDocIds(0).getCardinality(), NUM_ROWS * 6 / 10);
+    reader.close();
+  }
+
+  @Test
+  public void testRangeIndexCreatedOnLoad() throws Exception {
+    for (SegmentVersion segmentVersion : new SegmentVersion[]{SegmentVersion.v1, SegmentVersion.v3}) {
+      // Load a copy of the segment with the range index configured for the column created without it
+      File indexDir = new File(INDEX_DIR, segmentVersion + "Segment");
+      FileUtils.copyDirectory(new File(INDEX_DIR, SEGMENT_NAME), indexDir);
+      IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+      indexLoadingConfig.setReadMode(ReadMode.mmap);
+      indexLoadingConfig.setSegmentVersion(segmentVersion);
+      indexLoadingConfig.setRangeIndexColumns(Collections.singleton(NO_RANGE_INDEX_COLUMN));
+
+      ImmutableSegment segment = ImmutableSegmentLoader.load(indexDir, indexLoadingConfig);
+      try {
+        BitmapRangeIndexReader rangeIndex = segment.getDataSource(NO_RANGE_INDEX_COLUMN).getRangeIndex();
+        Assert.assertNotNull(rangeIndex);
+        Assert.assertEquals(rangeIndex.getNumRanges(), BitmapRangeIndexCreator.DEFAULT_NUM_RANGES);
+        int numDocs = 0;
+        for (int rangeId = 0; rangeId < rangeIndex.getNumRanges(); rangeId++) {
+          numDocs += rangeIndex.getDocIds(rangeId).getCardinality();
+        }
+        Assert.assertEquals(numDocs, NUM_ROWS);
+      } finally {
+        segment.destroy();
+      }
+
+      // Loading again should keep the created range index
+      segment = ImmutableSegmentLoader.load(indexDir, indexLoadingConfig);
+      try {
+        Assert.assertNotNull(segment.getDataSource(NO_RANGE_INDEX_COLUMN).getRangeIndex());
+      } finally {
+        segment.destroy();
+      }
+    }
+  }
+
+  @Test
+  public void testRangeIndexBasedFilterOperator() {
+    for (int i = 0; i < NUM_QUERIES; i++) {
+      int lowerBound = _random.nextInt(MAX_VALUE);
+      int upperBound = lowerBound + _random.nextInt(MAX_VALUE - lowerBound);
+      boolean includeLowerBound = _random.nextBoolean();
+      boolean includeUpperBound = _random.nextBoolean();
+      String range = (includeLowerBound ? RangePredicate.LOWER_INCLUSIVE : RangePredicate.LOWER_EXCLUSIVE) + lowerBound
+          + RangePredicate.DELIMITER + upperBound + (includeUpperBound ? RangePredicate.UPPER_INCLUSIVE
+          : RangePredicate.UPPER_EXCLUSIVE);
+
+      List<Integer> expectedDocIds = new ArrayList<>();
+      for (int docId = 0; docId < NUM_ROWS; docId++) {
+        int value = _values[docId];
+        if ((value > lowerBound || (includeLowerBound && value == lowerBound)) && (value < upperBound || (
+            includeUpperBound && value == upperBound))) {
+          expectedDocIds.add(docId);
+        }
+      }
+
+      // Range index only
+      Assert.assertEquals(getMatchingDocIds(INT_COLUMN, range, true), expectedDocIds);
+      // Range index with inverted index
+      Assert.assertEquals(getMatchingDocIds(LONG_COLUMN, range, true), expectedDocIds);
+      // Scan
+      Assert.assertEquals(getMatchingDocIds(NO_RANGE_INDEX_COLUMN, range, false), expectedDocIds);
+    }
+  }
+
+  private List<Integer> getMatchingDocIds(String column, String range, boolean hasRangeIndex) {
+    DataSource dataSource = _segment.getDataSource(column);
+    PredicateEvaluator predicateEvaluator = PredicateEvaluatorProvider.getPredicateEvaluator(
+        new RangePredicate(column, Collections.singletonList(range)), dataSource);
+    BaseFilterOperator filterOperator =
+        FilterOperatorUtils.getLeafFilterOperator(predicateEvaluator, dataSource, 0, NUM_ROWS - 1);
+    List<Integer> docIds = new ArrayList<>();
+    if (filterOperator.isResultEmpty()) {
+      return docIds;
+    }
+    Assert.assertEquals(filterOperator instanceof RangeIndexBasedFilterOperator, hasRangeIndex);
+
+    FilterBlockDocIdSet docIdSet = filterOperator.nextBlock().getFilteredBlockDocIdSet();
+    BlockDocIdIterator iterator = docIdSet.iterator();
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _segment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.core.startree;
+
+import com.linkedin.pinot.common.data.MetricFieldSpec.DerivedMetricType;
+import com.linkedin.pinot.common.request.BrokerRequest;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.common.BlockSingleValIterator;
+import com.linkedin.pinot.core.common.DataSource;
+import com.linkedin.pinot.core.common.Operator;
+import com.linkedin.pinot.core.indexsegment.IndexSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
+import com.linkedin.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import com.linkedin.pinot.core.plan.maker.PlanMaker;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunction;
+import com.linkedin.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import com.linkedin.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.segment.index.readers.Dictionary;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * This test generates a Star-Tree segment with MIN, MAX, AVG and MINMAXRANGE function column pairs, and ensures that
+ * the results computed using the pre-aggregated docs are the same as the results computed by scanning raw docs.
+ */
+public class FunctionColumnPairStarTreeIndexTest {
+  private static final String DATA_DIR =
+      System.getProperty("java.io.tmpdir") + File.separator + "FunctionColumnPairStarTreeIndexTest";
+  private static final String SEGMENT_NAME = "starTreeSegment";
+  private static final List<String> FUNCTION_COLUMN_PAIRS =
+      Arrays.asList("MIN__m1", "MAX__m1", "AVG__m2", "MINMAXRANGE__m2", "SUM__m2");
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final PlanMaker PLAN_MAKER = new InstancePlanMakerImplV2();
+  private static final String[] HARD_CODED_QUERIES = new String[]{
+      "SELECT MIN(m1), MAX(m1), AVG(m2), MINMAXRANGE(m2), SUM(m2) FROM T",
+      "SELECT MIN(m1), MAX(m1), AVG(m2), MINMAXRANGE(m2) FROM T WHERE d1 = 'd1-v1'",
+      "SELECT MIN(m1), MAX(m1), AVG(m2), MINMAXRANGE(m2) FROM T WHERE d1 IN ('d1-v1', 'd1-v2') AND d2 <> 'd2-v1'",
+      "SELECT MIN(m1), MAX(m1), AVG(m2), MINMAXRANGE(m2) FROM T GROUP BY d1",
+      "SELECT MIN(m1), MAX(m1), AVG(m2), MINMAXRANGE(m2) FROM T GROUP BY d1, d2",
+      "SELECT MAX(m1), AVG(m2) FROM T WHERE d1 BETWEEN 'd1-v1' AND 'd1-v3' GROUP BY d2, d3"
+  };
+
+  private IndexSegment _segment;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    StarTreeIndexTestSegmentHelper.buildSegmentWithFunctionColumnPairs(DATA_DIR, SEGMENT_NAME,
+        FUNCTION_COLUMN_PAIRS);
+  }
+
+  @Test
+  public void testDerivedColumns() throws Exception {
+    _segment = ImmutableSegmentLoader.load(new File(DATA_DIR, SEGMENT_NAME), ReadMode.heap);
+    SegmentMetadata segmentMetadata = _segment.getSegmentMetadata();
+    Assert.assertEquals(segmentMetadata.getDerivedColumn("m1", DerivedMetricType.MIN), "min__m1");
+    Assert.assertEquals(segmentMetadata.getDerivedColumn("m1", DerivedMetricType.MAX), "max__m1");
+    Assert.assertEquals(segmentMetadata.getDerivedColumn("m2", DerivedMetricType.MIN), "min__m2");
+    Assert.assertEquals(segmentMetadata.getDerivedColumn("m2", DerivedMetricType.MAX), "max__m2");
+    Assert.assertEquals(
+        segmentMetadata.getDerivedColumn(RequestUtils.STAR_TREE_COUNT_ORIGIN_COLUMN, DerivedMetricType.COUNT),
+        StarTreeDerivedColumnUtil.COUNT_STAR_COLUMN);
+    Assert.assertNull(segmentMetadata.getDerivedColumn("m1", DerivedMetricType.COUNT));
+
+    Assert.assertEquals(RequestUtils.getStarTreeDerivedColumns("avg", "m2", segmentMetadata),
+        new String[]{"m2", StarTreeDerivedColumnUtil.COUNT_STAR_COLUMN});
+    Assert.assertEquals(RequestUtils.getStarTreeDerivedColumns("minMaxRange", "m2", segmentMetadata),
+        new String[]{"min__m2", "max__m2"});
+    Assert.assertNull(RequestUtils.getStarTreeDerivedColumns("minMaxRange", "m3", segmentMetadata));
+    Assert.assertNull(RequestUtils.getStarTreeDerivedColumns("percentile50", "m1", segmentMetadata));
+
+    // Raw docs hold the origin value in MIN/MAX derived columns and 1 in the COUNT derived column, aggregated docs hold
+    // the pre-aggregated values
+    int numRawDocs = segmentMetadata.getTotalRawDocs();
+    int numDocs = segmentMetadata.getTotalDocs();
+    Assert.assertTrue(numDocs > numRawDocs);
+    double[] m1Values = readValues("m1", numDocs);
+    double[] minValues = readValues("min__m1", numDocs);
+    double[] maxValues = readValues("max__m1", numDocs);
+    double[] countValues = readValues(StarTreeDerivedColumnUtil.COUNT_STAR_COLUMN, numDocs);
+    long numRawDocsFromAggregatedDocs = 0;
+    for (int docId = 0; docId < numDocs; docId++) {
+      if (docId < numRawDocs) {
+        Assert.assertEquals(minValues[docId], m1Values[docId]);
+        Assert.assertEquals(maxValues[docId], m1Values[docId]);
+        Assert.assertEquals(countValues[docId], 1.0);
+      } else {
+        Assert.assertTrue(minValues[docId] <= maxValues[docId]);
+        Assert.assertTrue(countValues[docId] >= 1.0);
+        numRawDocsFromAggregatedDocs = Math.max(numRawDocsFromAggregatedDocs, (long) countValues[docId]);
+      }
+    }
+    // The root star node aggregates all raw docs
+    Assert.assertEquals(numRawDocsFromAggregatedDocs, numRawDocs);
+    _segment.destroy();
+  }
+
+  @Test
+  public void testQueries() throws Exception {
+    File indexDir = new File(DATA_DIR, SEGMENT_NAME);
+
+    _segment = ImmutableSegmentLoader.load(indexDir, ReadMode.heap);
+    testHardCodedQueries();
+    _segment.destroy();
+
+    _segment = ImmutableSegmentLoader.load(indexDir, ReadMode.mmap);
+    testHardCodedQueries();
+    _segment.destroy();
+  }
+
+  private void testHardCodedQueries() {
+    for (String query : HARD_CODED_QUERIES) {
+      BrokerRequest starTreeBrokerRequest = COMPILER.compileToBrokerRequest(query);
+      Assert.assertTrue(RequestUtils.isFitForStarTreeIndex(_segment.getSegmentMetadata(), starTreeBrokerRequest,
+          RequestUtils.generateFilterQueryTree(starTreeBrokerRequest)), "Star tree not used for query: " + query);
+      BrokerRequest rawBrokerRequest = COMPILER.compileToBrokerRequest(query);
+      rawBrokerRequest.setDebugOptions(Collections.singletonMap("useStarTree", "false"));
+
+      Operator starTreeOperator = PLAN_MAKER.makeInnerSegmentPlan(_segment, starTreeBrokerRequest).run();
+      Map<String, List<Comparable>> starTreeResults = getFinalResults(starTreeOperator, starTreeBrokerRequest);
+      Operator rawOperator = PLAN_MAKER.makeInnerSegmentPlan(_segment, rawBrokerRequest).run();
+      Map<String, List<Comparable>> rawResults = getFinalResults(rawOperator, rawBrokerRequest);
+
+      Assert.assertEquals(starTreeResults, rawResults, "Comparison failed for query: " + query);
+      Assert.assertTrue(starTreeOperator.getExecutionStatistics().getNumDocsScanned() < rawOperator
+          .getExecutionStatistics()
+          .getNumDocsScanned(), "Pre-aggregated docs not used for query: " + query);
+    }
+  }
+
+  private double[] readValues(String column, int numDocs) {
+    DataSource dataSource = _segment.getDataSource(column);
+    Dictionary dictionary = dataSource.getDictionary();
+    BlockSingleValIterator valIterator = (BlockSingleValIterator) dataSource.nextBlock().getBlockValueSet().iterator();
+    double[] values = new double[numDocs];
+    for (int docId = 0; docId < numDocs; docId++) {
+      values[docId] = dictionary.getDoubleValue(valIterator.nextIntVal());
+    }
+    return values;
+  }
+
+  /**
+   * Returns a map from group key (empty for non-group-by query) to the final results of the aggregations.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, List<Comparable>> getFinalResults(Operator operator, BrokerRequest brokerRequest) {
+    AggregationFunction[] functions =
+        AggregationFunctionUtils.getAggregationFunctions(brokerRequest.getAggregationsInfo());
+    IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) operator.nextBlock();
+    Map<String, List<Comparable>> results = new HashMap<>();
+
+    if (brokerRequest.isSetGroupBy()) {
+      AggregationGroupByResult groupByResult = resultsBlock.getAggregationGroupByResult();
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = groupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        Comparable[] finalResults = new Comparable[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+          finalResults[i] = functions[i].extractFinalResult(groupByResult.getResultForKey(groupKey, i));
+        }
+        results.put(groupKey._stringKey, Arrays.asList(finalResults));
+      }
+    } else {
+      List<Object> aggregationResult = resultsBlock.getAggregationResult();
+      Comparable[] finalResults = new Comparable[functions.length];
+      for (int i = 0; i < functions.length; i++) {
+        finalResults[i] = functions[i].extractFinalResult(aggregationResult.get(i));
+      }
+      results.put("", Arrays.asList(finalResults));
+    }
+    return results;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(new File(DATA_DIR));
+  }
+}
@@ -47,15 +47,21 @@ public class StarTreeIndexTestSegmentHelper {
   private static final int METRIC_MAX_VALUE = 10000;
 
   public static Schema buildSegment(String segmentDirName, String segmentName) throws Exception {
-    return buildSegment(segmentDirName, segmentName, null);
+    return buildSegment(segmentDirName, segmentName, null, null);
   }
 
   public static Schema buildSegmentWithHll(String segmentDirName, String segmentName, HllConfig hllConfig)
       throws Exception {
-    return buildSegment(segmentDirName, segmentName, hllConfig);
+    return buildSegment(segmentDirName, segmentName, hllConfig, null);
   }
 
-  private static Schema buildSegment(String segmentDirName, String segmentName, HllConfig hllConfig) throws Exception {
+  public static Schema buildSegmentWithFunctionColumnPairs(String segmentDirName, String segmentName,
+      List<String> functionColumnPairs) throws Exception {
+    return buildSegment(segmentDirName, segmentName, null, functionColumnPairs);
+  }
+
+  private static Schema buildSegment(String segmentDirName, String segmentName, HllConfig hllConfig,
+      List<String> functionColumnPairs) throws Exception {
     int numRows = (int) MathUtils.factorial(NUM_DIMENSIONS) * 100;
     Schema schema = new Schema();
 
@@ -75,6 +81,7 @@ public class StarTreeIndexTestSegmentHelper {
     SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
     StarTreeIndexSpec starTreeIndexSpec = new StarTreeIndexSpec();
     starTreeIndexSpec.setMaxLeafRecords(10);
+    starTreeIndexSpec.setFunctionColumnPairs(functionColumnPairs);
     config.enableStarTreeIndex(starTreeIndexSpec);
     config.setOutDir(segmentDirName);
     config.setFormat(FileFormat.AVRO);
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.index.reader;
+
+import com.linkedin.pinot.core.io.reader.impl.v1.FixedBitSingleValueReader;
+import com.linkedin.pinot.core.io.util.FixedBitIntReaderWriter;
+import com.linkedin.pinot.core.segment.memory.PinotDataBuffer;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class FixedBitSingleValueReaderTest {
+  private static final Random RANDOM = new Random();
+  private static final int NUM_ROWS = 1000;
+  private static final int NUM_ITERATIONS = 100;
+
+  @Test
+  public void testReadValues() {
+    int[] values = new int[NUM_ROWS];
+    int[] rows = new int[NUM_ROWS];
+    int[] buffer = new int[NUM_ROWS];
+    for (int numBitsPerValue = 1; numBitsPerValue <= Integer.SIZE; numBitsPerValue++) {
+      int dataBufferSize = (NUM_ROWS * numBitsPerValue + Byte.SIZE - 1) / Byte.SIZE;
+      PinotDataBuffer dataBuffer = PinotDataBuffer.allocateDirect(dataBufferSize);
+      FixedBitIntReaderWriter writer = new FixedBitIntReaderWriter(dataBuffer, NUM_ROWS, numBitsPerValue);
+      for (int i = 0; i < NUM_ROWS; i++) {
+        values[i] = RANDOM.nextInt() >>> (Integer.SIZE - numBitsPerValue);
+        writer.writeInt(i, values[i]);
+      }
+
+      try (FixedBitSingleValueReader reader = new FixedBitSingleValueReader(dataBuffer, NUM_ROWS, numBitsPerValue)) {
+        for (int i = 0; i < NUM_ITERATIONS; i++) {
+          // Generate sorted rows mixing runs of consecutive rows and gaps
+          int numRows = 0;
+          int row = RANDOM.nextInt(10);
+          while (row < NUM_ROWS) {
+            rows[numRows++] = row;
+            row += RANDOM.nextBoolean() ? 1 : RANDOM.nextInt(10) + 1;
+          }
+
+          int rowsStartIndex = RANDOM.nextInt(numRows);
+          int rowSize = numRows - rowsStartIndex;
+          int valuesStartIndex = RANDOM.nextInt(NUM_ROWS - rowSize + 1);
+          reader.readValues(rows, rowsStartIndex, rowSize, buffer, valuesStartIndex);
+          for (int j = 0; j < rowSize; j++) {
+            Assert.assertEquals(buffer[valuesStartIndex + j], values[rows[rowsStartIndex + j]]);
+          }
+        }
+      }
+    }
+  }
+}
@@ -15,12 +15,16 @@
  */
 package com.linkedin.pinot.queries;
 
+import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.utils.DataSchema;
 import com.linkedin.pinot.core.operator.ExecutionStatistics;
 import com.linkedin.pinot.core.operator.blocks.IntermediateResultsBlock;
 import com.linkedin.pinot.core.operator.query.EmptySelectionOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOnlyOperator;
 import com.linkedin.pinot.core.operator.query.SelectionOrderByOperator;
+import com.linkedin.pinot.core.plan.SelectionPlanNode;
+import com.linkedin.pinot.core.query.selection.SelectionRowBudget;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Queue;
@@ -70,6 +74,33 @@ public class InnerSegmentSelectionSingleValueQueriesTest extends BaseSingleValue
     Assert.assertTrue(resultsBlock.getSelectionResult().isEmpty());
   }
 
+  @Test
+  public void testSelectStarWithRowBudget() {
+    BrokerRequest brokerRequest = new Pql2Compiler().compileToBrokerRequest("SELECT * FROM testTable");
+    SelectionRowBudget rowBudget = new SelectionRowBudget(brokerRequest.getSelections().getSize());
+
+    // First segment collects all the rows needed
+    SelectionOnlyOperator selectionOnlyOperator =
+        (SelectionOnlyOperator) new SelectionPlanNode(getIndexSegment(), brokerRequest, rowBudget).run();
+    IntermediateResultsBlock resultsBlock = selectionOnlyOperator.nextBlock();
+    ExecutionStatistics executionStatistics = selectionOnlyOperator.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), 10L);
+    Assert.assertEquals(resultsBlock.getSelectionResult().size(), 10);
+    Assert.assertTrue(rowBudget.isExhausted());
+
+    // Second segment is skipped
+    selectionOnlyOperator =
+        (SelectionOnlyOperator) new SelectionPlanNode(getIndexSegment(), brokerRequest, rowBudget).run();
+    resultsBlock = selectionOnlyOperator.nextBlock();
+    executionStatistics = selectionOnlyOperator.getExecutionStatistics();
+    Assert.assertEquals(executionStatistics.getNumDocsScanned(), 0L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 0L);
+    Assert.assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 0L);
+    Assert.assertEquals(executionStatistics.getNumTotalRawDocs(), 30000L);
+    Assert.assertEquals(resultsBlock.getSelectionDataSchema().size(), 11);
+    Assert.assertTrue(resultsBlock.getSelectionResult().isEmpty());
+  }
+
   @Test
   public void testSelectStar() {
     String query = "SELECT * FROM testTable";
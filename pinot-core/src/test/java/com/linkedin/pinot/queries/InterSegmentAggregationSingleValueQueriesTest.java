@@ -15,7 +15,12 @@
  */
 package com.linkedin.pinot.queries;
 
+import com.linkedin.pinot.common.response.broker.AggregationResult;
 import com.linkedin.pinot.common.response.broker.BrokerResponseNative;
+import com.linkedin.pinot.common.response.broker.GroupByResult;
+import com.linkedin.pinot.core.common.datatable.DataTableBuilder;
+import java.util.List;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 
@@ -363,4 +368,61 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     QueriesTestUtils.testInterSegmentAggregationResult(brokerResponse, 24516L, 336536L, 73548L, 120000L,
         new String[]{"2146232405", "999309554"});
   }
+
+  @Test
+  public void testGroupByOnTypedGroupKeyColumns() {
+    // Queries to run with and without the hard-coded filter
+    String[] queries = new String[]{
+        "SELECT COUNT(*), SUM(column1), DISTINCTCOUNT(column3) FROM testTable" + GROUP_BY,
+        "SELECT MAX(column1), AVG(column3) FROM testTable GROUP BY column9, column11, daysSinceEpoch TOP 50"
+    };
+    // Queries to run without the hard-coded filter, where the last one does not have any group
+    String[] queriesWithoutFilter = new String[]{
+        "SELECT SUM(column1) FROM testTable GROUP BY column11 HAVING SUM(column1) > 1000000000",
+        "SELECT COUNT(*) FROM testTable WHERE column5 = 'nonExisting'" + GROUP_BY
+    };
+    for (String query : queries) {
+      BrokerResponseNative expectedBrokerResponse = getBrokerResponseForQuery(query);
+      BrokerResponseNative expectedBrokerResponseWithFilter = getBrokerResponseForQueryWithFilter(query);
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_3);
+      try {
+        testSameGroupByResults(getBrokerResponseForQuery(query), expectedBrokerResponse);
+        testSameGroupByResults(getBrokerResponseForQueryWithFilter(query), expectedBrokerResponseWithFilter);
+      } finally {
+        DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+      }
+    }
+    for (String query : queriesWithoutFilter) {
+      BrokerResponseNative expectedBrokerResponse = getBrokerResponseForQuery(query);
+      DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_3);
+      try {
+        testSameGroupByResults(getBrokerResponseForQuery(query), expectedBrokerResponse);
+      } finally {
+        DataTableBuilder.setCurrentDataTableVersion(DataTableBuilder.VERSION_2);
+      }
+    }
+  }
+
+  private static void testSameGroupByResults(BrokerResponseNative brokerResponse,
+      BrokerResponseNative expectedBrokerResponse) {
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), expectedBrokerResponse.getNumDocsScanned());
+    List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+    List<AggregationResult> expectedAggregationResults = expectedBrokerResponse.getAggregationResults();
+    int numAggregationResults = expectedAggregationResults.size();
+    Assert.assertEquals(aggregationResults.size(), numAggregationResults);
+    for (int i = 0; i < numAggregationResults; i++) {
+      AggregationResult aggregationResult = aggregationResults.get(i);
+      AggregationResult expectedAggregationResult = expectedAggregationResults.get(i);
+      Assert.assertEquals(aggregationResult.getFunction(), expectedAggregationResult.getFunction());
+      Assert.assertEquals(aggregationResult.getGroupByColumns(), expectedAggregationResult.getGroupByColumns());
+      List<GroupByResult> groupByResults = aggregationResult.getGroupByResult();
+      List<GroupByResult> expectedGroupByResults = expectedAggregationResult.getGroupByResult();
+      int numGroups = expectedGroupByResults.size();
+      Assert.assertEquals(groupByResults.size(), numGroups);
+      // Groups with the same value can be in different order, so only check the values
+      for (int j = 0; j < numGroups; j++) {
+        Assert.assertEquals(groupByResults.get(j).getValue(), expectedGroupByResults.get(j).getValue());
+      }
+    }
+  }
 }
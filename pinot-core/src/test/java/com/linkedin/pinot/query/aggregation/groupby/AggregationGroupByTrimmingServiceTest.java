@@ -39,6 +39,7 @@ public class AggregationGroupByTrimmingServiceTest {
   private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
 
   private static final AggregationFunction SUM = AggregationFunctionFactory.getAggregationFunction("SUM");
+  private static final AggregationFunction MIN = AggregationFunctionFactory.getAggregationFunction("MIN");
   private static final AggregationFunction DISTINCTCOUNT =
       AggregationFunctionFactory.getAggregationFunction("DISTINCTCOUNT");
   private static final AggregationFunction[] AGGREGATION_FUNCTIONS = {SUM, DISTINCTCOUNT};
@@ -101,12 +102,17 @@ public class AggregationGroupByTrimmingServiceTest {
     }
 
     // Test Broker side trimming
-    Map<String, Comparable> finalDistinctCountResultMap = new HashMap<>(trimSize);
-    for (Map.Entry<String, Object> entry : trimmedDistinctCountResultMap.entrySet()) {
-      finalDistinctCountResultMap.put(entry.getKey(), ((IntOpenHashSet) entry.getValue()).size());
+    String[] groupKeys = new String[trimSize];
+    Comparable[][] finalResults = new Comparable[2][trimSize];
+    int groupId = 0;
+    for (Map.Entry<String, Object> entry : trimmedSumResultMap.entrySet()) {
+      String groupKey = entry.getKey();
+      groupKeys[groupId] = groupKey;
+      finalResults[0][groupId] = (Double) entry.getValue();
+      finalResults[1][groupId] = ((IntOpenHashSet) trimmedDistinctCountResultMap.get(groupKey)).size();
+      groupId++;
     }
-    List[] groupByResultLists =
-        _trimmingService.trimFinalResults(new Map[]{trimmedSumResultMap, finalDistinctCountResultMap});
+    List<GroupByResult>[] groupByResultLists = _trimmingService.trimFinalResults(groupKeys, finalResults);
     List<GroupByResult> sumGroupByResultList = groupByResultLists[0];
     List<GroupByResult> distinctCountGroupByResultList = groupByResultLists[1];
     for (int i = 0; i < GROUP_BY_TOP_N; i++) {
@@ -125,6 +131,74 @@ public class AggregationGroupByTrimmingServiceTest {
     }
   }
 
+  @Test
+  public void testTrimmingOnGroupIds() {
+    // Group id is the index of the group, some groups only exist for the first aggregation function
+    String[] groupKeys = _groups.toArray(new String[NUM_GROUPS]);
+    Comparable[][] finalResults = new Comparable[2][NUM_GROUPS];
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      finalResults[0][i] = (double) i;
+      if (i % 2 == 0) {
+        finalResults[1][i] = i / (NUM_GROUPS / MAX_SIZE_OF_SET) + 1;
+      }
+    }
+
+    List<GroupByResult>[] groupByResultLists = _trimmingService.trimFinalResults(groupKeys, finalResults);
+    List<GroupByResult> sumGroupByResultList = groupByResultLists[0];
+    List<GroupByResult> distinctCountGroupByResultList = groupByResultLists[1];
+    Assert.assertEquals(sumGroupByResultList.size(), GROUP_BY_TOP_N, ERROR_MESSAGE);
+    Assert.assertEquals(distinctCountGroupByResultList.size(), GROUP_BY_TOP_N, ERROR_MESSAGE);
+    for (int i = 0; i < GROUP_BY_TOP_N; i++) {
+      int expectedGroupIndex = NUM_GROUPS - 1 - i;
+      GroupByResult sumGroupByResult = sumGroupByResultList.get(i);
+      List<String> sumGroup = sumGroupByResult.getGroup();
+      Assert.assertEquals(sumGroup.size(), NUM_GROUP_KEYS, ERROR_MESSAGE);
+      Assert.assertEquals(buildGroupString(sumGroup), _groups.get(expectedGroupIndex), ERROR_MESSAGE);
+      Assert.assertEquals(((Double) sumGroupByResult.getValue()).intValue(), expectedGroupIndex, ERROR_MESSAGE);
+      // For distinctCount, only even groups exist, just check the value
+      int expectedEvenGroupIndex = NUM_GROUPS - 2 - 2 * i;
+      Assert.assertEquals(distinctCountGroupByResultList.get(i).getValue(),
+          expectedEvenGroupIndex / (NUM_GROUPS / MAX_SIZE_OF_SET) + 1, ERROR_MESSAGE);
+    }
+
+    // MIN should keep the smallest results in ascending order
+    AggregationGroupByTrimmingService minTrimmingService =
+        new AggregationGroupByTrimmingService(new AggregationFunction[]{MIN}, GROUP_BY_TOP_N);
+    List<GroupByResult> minGroupByResultList =
+        minTrimmingService.trimFinalResults(groupKeys, new Comparable[][]{finalResults[0]})[0];
+    Assert.assertEquals(minGroupByResultList.size(), GROUP_BY_TOP_N, ERROR_MESSAGE);
+    for (int i = 0; i < GROUP_BY_TOP_N; i++) {
+      GroupByResult minGroupByResult = minGroupByResultList.get(i);
+      Assert.assertEquals(buildGroupString(minGroupByResult.getGroup()), _groups.get(i), ERROR_MESSAGE);
+      Assert.assertEquals(((Double) minGroupByResult.getValue()).intValue(), i, ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testTrimmingOnTypedGroupKeys() {
+    // Group key values are (int, string), group id is the index of the group
+    Object[][] groupKeyValues = new Object[NUM_GROUPS][];
+    Comparable[][] finalResults = new Comparable[1][NUM_GROUPS];
+    for (int i = 0; i < NUM_GROUPS; i++) {
+      groupKeyValues[i] = new Object[]{i, _groups.get(i)};
+      finalResults[0][i] = (double) i;
+    }
+
+    AggregationGroupByTrimmingService sumTrimmingService =
+        new AggregationGroupByTrimmingService(new AggregationFunction[]{SUM}, GROUP_BY_TOP_N);
+    List<GroupByResult> sumGroupByResultList = sumTrimmingService.trimFinalResults(groupKeyValues, finalResults)[0];
+    Assert.assertEquals(sumGroupByResultList.size(), GROUP_BY_TOP_N, ERROR_MESSAGE);
+    for (int i = 0; i < GROUP_BY_TOP_N; i++) {
+      int expectedGroupIndex = NUM_GROUPS - 1 - i;
+      GroupByResult sumGroupByResult = sumGroupByResultList.get(i);
+      List<String> sumGroup = sumGroupByResult.getGroup();
+      Assert.assertEquals(sumGroup.size(), 2, ERROR_MESSAGE);
+      Assert.assertEquals(sumGroup.get(0), Integer.toString(expectedGroupIndex), ERROR_MESSAGE);
+      Assert.assertEquals(sumGroup.get(1), _groups.get(expectedGroupIndex), ERROR_MESSAGE);
+      Assert.assertEquals(((Double) sumGroupByResult.getValue()).intValue(), expectedGroupIndex, ERROR_MESSAGE);
+    }
+  }
+
   private static String buildGroupString(List<String> group) {
     StringBuilder groupStringBuilder = new StringBuilder();
     for (int i = 0; i < NUM_GROUP_KEYS; i++) {
@@ -30,6 +30,8 @@ import com.linkedin.pinot.core.operator.transform.TransformOperator;
 import com.linkedin.pinot.core.plan.TransformPlanNode;
 import com.linkedin.pinot.core.query.aggregation.groupby.DictionaryBasedGroupKeyGenerator;
 import com.linkedin.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import com.linkedin.pinot.core.query.aggregation.groupby.LongGroupKeyEncoding;
+import com.linkedin.pinot.core.query.aggregation.groupby.LongGroupKeyGenerator;
 import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import com.linkedin.pinot.pql.parsers.Pql2Compiler;
 import java.io.File;
@@ -190,6 +192,40 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     testGetUniqueGroupKeys(dictionaryBasedGroupKeyGenerator.getUniqueGroupKeys(), 2);
   }
 
+  @Test
+  public void testLongGroupKeys() {
+    // Single INT group-by column.
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(new String[]{"s1"}),
+            ARRAY_BASED_THRESHOLD);
+    Assert.assertEquals(dictionaryBasedGroupKeyGenerator.getLongGroupKeyEncoding(), LongGroupKeyEncoding.INT);
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
+    testGetUniqueLongGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
+
+    // Two INT group-by columns.
+    dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(new String[]{"s1", "s2"}),
+            ARRAY_BASED_THRESHOLD);
+    Assert.assertEquals(dictionaryBasedGroupKeyGenerator.getLongGroupKeyEncoding(), LongGroupKeyEncoding.INT_INT);
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, SV_GROUP_KEY_BUFFER);
+    testGetUniqueLongGroupKeys(dictionaryBasedGroupKeyGenerator, 2);
+
+    // Two INT group-by columns with multi-value column.
+    dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(new String[]{"s1", "m1"}),
+            ARRAY_BASED_THRESHOLD);
+    Assert.assertEquals(dictionaryBasedGroupKeyGenerator.getLongGroupKeyEncoding(), LongGroupKeyEncoding.INT_INT);
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_transformBlock, MV_GROUP_KEY_BUFFER);
+    testGetUniqueLongGroupKeys(dictionaryBasedGroupKeyGenerator,
+        dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound());
+
+    // More than two group-by columns cannot be encoded into long values.
+    dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_transformOperator, getExpressions(new String[]{"s1", "s2", "s3"}),
+            ARRAY_BASED_THRESHOLD);
+    Assert.assertNull(dictionaryBasedGroupKeyGenerator.getLongGroupKeyEncoding());
+  }
+
   /**
    * Helper method to compare the values inside the single value group key buffer.
    *
@@ -316,6 +352,34 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     Assert.assertEquals(groupKeySet.size(), numUniqueKeys, _errorMessage);
   }
 
+  /**
+   * Helper method to test the long group key iterator returned by getUniqueLongGroupKeys() against the string group
+   * keys returned by getUniqueGroupKeys().
+   *
+   * @param groupKeyGenerator group key generator.
+   * @param numUniqueKeys number of unique keys.
+   */
+  private void testGetUniqueLongGroupKeys(LongGroupKeyGenerator groupKeyGenerator, int numUniqueKeys) {
+    Map<Integer, String> expectedGroupKeys = new HashMap<>();
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = groupKeyGenerator.getUniqueGroupKeys();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      expectedGroupKeys.put(groupKey._groupId, groupKey._stringKey);
+    }
+
+    LongGroupKeyEncoding longGroupKeyEncoding = groupKeyGenerator.getLongGroupKeyEncoding();
+    Set<Long> longKeySet = new HashSet<>();
+    Iterator<LongGroupKeyGenerator.LongGroupKey> longGroupKeyIterator = groupKeyGenerator.getUniqueLongGroupKeys();
+    while (longGroupKeyIterator.hasNext()) {
+      LongGroupKeyGenerator.LongGroupKey longGroupKey = longGroupKeyIterator.next();
+      longKeySet.add(longGroupKey._longKey);
+      Assert.assertEquals(longGroupKeyEncoding.decode(longGroupKey._longKey),
+          expectedGroupKeys.get(longGroupKey._groupId), _errorMessage);
+    }
+    Assert.assertEquals(longKeySet.size(), numUniqueKeys, _errorMessage);
+    Assert.assertEquals(expectedGroupKeys.size(), numUniqueKeys, _errorMessage);
+  }
+
   @AfterClass
   public void tearDown() {
     FileUtils.deleteQuietly(new File(INDEX_DIR_PATH));
@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.query.pruner;
+
+import com.linkedin.pinot.common.data.DimensionFieldSpec;
+import com.linkedin.pinot.common.data.FieldSpec;
+import com.linkedin.pinot.common.data.Schema;
+import com.linkedin.pinot.common.segment.ReadMode;
+import com.linkedin.pinot.common.utils.request.FilterQueryTree;
+import com.linkedin.pinot.common.utils.request.RequestUtils;
+import com.linkedin.pinot.core.data.GenericRow;
+import com.linkedin.pinot.core.data.readers.GenericRowRecordReader;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
+import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import com.linkedin.pinot.core.indexsegment.generator.SegmentVersion;
+import com.linkedin.pinot.core.query.pruner.BloomFilterSegmentPruner;
+import com.linkedin.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
+import com.linkedin.pinot.core.segment.index.readers.BloomFilterReader;
+import com.linkedin.pinot.pql.parsers.Pql2Compiler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for {@link BloomFilterSegmentPruner} class.
+ */
+public class BloomFilterSegmentPrunerTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BloomFilterSegmentPrunerTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String STRING_COLUMN = "stringColumn";
+  private static final String LONG_COLUMN = "longColumn";
+  private static final String NO_BLOOM_FILTER_COLUMN = "noBloomFilterColumn";
+  private static final int NUM_ROWS = 1000;
+
+  private ImmutableSegment _segment;
+
+  @BeforeClass
+  public void setUp() throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(STRING_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(LONG_COLUMN, FieldSpec.DataType.LONG, true));
+    schema.addField(new DimensionFieldSpec(NO_BLOOM_FILTER_COLUMN, FieldSpec.DataType.INT, true));
+
+    // Values are even numbers in [0, 2 * NUM_ROWS)
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(STRING_COLUMN, "id_" + (2 * i));
+      map.put(LONG_COLUMN, 2L * i);
+      map.put(NO_BLOOM_FILTER_COLUMN, 2 * i);
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setBloomFilterCreationColumns(Arrays.asList(STRING_COLUMN, LONG_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _segment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+  }
+
+  @Test
+  public void testBloomFilter() {
+    Assert.assertNotNull(_segment.getBloomFilter(STRING_COLUMN));
+    Assert.assertNotNull(_segment.getBloomFilter(LONG_COLUMN));
+    Assert.assertNull(_segment.getBloomFilter(NO_BLOOM_FILTER_COLUMN));
+    Assert.assertNull(_segment.getBloomFilter("nonExistingColumn"));
+
+    // No false negative
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Assert.assertTrue(_segment.getBloomFilter(STRING_COLUMN).mightContain("id_" + (2 * i)));
+      Assert.assertTrue(_segment.getBloomFilter(LONG_COLUMN).mightContain(Long.toString(2L * i)));
+    }
+  }
+
+  @Test
+  public void testPrune() {
+    // Values inside the segment
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_10'"));
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE longColumn = 10"));
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn IN ('foo', 'id_10')"));
+
+    // Values not inside the segment (within min/max range so that min/max based pruning cannot prune the segment)
+    Assert.assertTrue(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_1'"));
+    Assert.assertTrue(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn IN ('id_1', 'id_3')"));
+
+    // Column without bloom filter
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE noBloomFilterColumn = 1"));
+
+    // Predicate other than EQUALITY and IN
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn <> 'id_10'"));
+
+    // AND operator
+    Assert.assertTrue(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_1' AND noBloomFilterColumn = 1"));
+    Assert.assertFalse(
+        runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_10' AND noBloomFilterColumn = 1"));
+
+    // OR operator
+    Assert.assertTrue(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_1' OR stringColumn = 'id_3'"));
+    Assert.assertFalse(runPruner("SELECT COUNT(*) FROM table WHERE stringColumn = 'id_1' OR noBloomFilterColumn = 1"));
+  }
+
+  @Test
+  public void testBloomFilterCreatedOnLoad() throws Exception {
+    for (SegmentVersion segmentVersion : new SegmentVersion[]{SegmentVersion.v1, SegmentVersion.v3}) {
+      // Load a copy of the segment with the bloom filter configured for the column created without it
+      File indexDir = new File(INDEX_DIR, segmentVersion + "Segment");
+      FileUtils.copyDirectory(new File(INDEX_DIR, SEGMENT_NAME), indexDir);
+      IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+      indexLoadingConfig.setReadMode(ReadMode.mmap);
+      indexLoadingConfig.setSegmentVersion(segmentVersion);
+      indexLoadingConfig.setBloomFilterColumns(Collections.singleton(NO_BLOOM_FILTER_COLUMN));
+
+      ImmutableSegment segment = ImmutableSegmentLoader.load(indexDir, indexLoadingConfig);
+      try {
+        BloomFilterReader bloomFilter = segment.getBloomFilter(NO_BLOOM_FILTER_COLUMN);
+        Assert.assertNotNull(bloomFilter);
+        for (int i = 0; i < NUM_ROWS; i++) {
+          Assert.assertTrue(bloomFilter.mightContain(Integer.toString(2 * i)));
+        }
+      } finally {
+        segment.destroy();
+      }
+
+      // Loading again should keep the created bloom filter
+      segment = ImmutableSegmentLoader.load(indexDir, indexLoadingConfig);
+      try {
+        Assert.assertNotNull(segment.getBloomFilter(NO_BLOOM_FILTER_COLUMN));
+      } finally {
+        segment.destroy();
+      }
+    }
+  }
+
+  @Test
+  public void testBytesColumnSkipped() throws Exception {
+    String bytesColumn = "bytesColumn";
+    String segmentName = "bytesSegment";
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(STRING_COLUMN, FieldSpec.DataType.STRING, true));
+    schema.addField(new DimensionFieldSpec(bytesColumn, FieldSpec.DataType.BYTES, true));
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      Map<String, Object> map = new HashMap<>();
+      map.put(STRING_COLUMN, "id_" + i);
+      map.put(bytesColumn, new byte[]{(byte) i, (byte) (i >> 8)});
+      GenericRow row = new GenericRow();
+      row.init(map);
+      rows.add(row);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(segmentName);
+    config.setBloomFilterCreationColumns(Arrays.asList(STRING_COLUMN, bytesColumn));
+
+    // Bloom filter on BYTES column should be skipped without failing the segment creation
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+
+    ImmutableSegment segment = ImmutableSegmentLoader.load(new File(INDEX_DIR, segmentName), ReadMode.mmap);
+    try {
+      Assert.assertNotNull(segment.getBloomFilter(STRING_COLUMN));
+      Assert.assertNull(segment.getBloomFilter(bytesColumn));
+    } finally {
+      segment.destroy();
+    }
+  }
+
+  /**
+   * With the default false positive probability, most of the values not inside the segment should be pruned.
+   */
+  @Test
+  public void testFalsePositiveRate() {
+    int numPruned = 0;
+    for (int i = 0; i < NUM_ROWS; i++) {
+      if (runPruner("SELECT COUNT(*) FROM table WHERE longColumn = " + (2 * i + 1))) {
+        numPruned++;
+      }
+    }
+    Assert.assertTrue(numPruned > NUM_ROWS * 0.8, "Only pruned " + numPruned + " out of " + NUM_ROWS);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _segment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  private boolean runPruner(String query) {
+    FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(COMPILER.compileToBrokerRequest(query));
+    return new BloomFilterSegmentPruner().prune(_segment, filterQueryTree);
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.linkedin.pinot.server.conf;
 
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 
@@ -39,4 +40,13 @@ public class NettyServerConfig {
   public int getPort() {
     return _serverNettyConfig.getInt(NETTY_SERVER_PORT);
   }
+
+  /**
+   * @return Netty channel config (transport, event loop threads and socket options)
+   */
+  public NettyChannelConfig getChannelConfig() {
+    NettyChannelConfig channelConfig = new NettyChannelConfig();
+    channelConfig.init(_serverNettyConfig);
+    return channelConfig;
+  }
 }
@@ -15,27 +15,36 @@
  */
 package com.linkedin.pinot.server.request;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.linkedin.pinot.common.metrics.ServerMeter;
 import com.linkedin.pinot.common.metrics.ServerMetrics;
 import com.linkedin.pinot.common.metrics.ServerQueryPhase;
 import com.linkedin.pinot.common.query.ServerQueryRequest;
 import com.linkedin.pinot.common.query.context.TimerContext;
 import com.linkedin.pinot.common.request.InstanceRequest;
+import com.linkedin.pinot.common.utils.DataTable;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.serde.SerDe;
 import com.linkedin.pinot.transport.netty.NettyServer;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
-public class ScheduledRequestHandler implements NettyServer.RequestHandler {
+public class ScheduledRequestHandler implements NettyServer.ByteBufRequestHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledRequestHandler.class);
 
   private final ServerMetrics serverMetrics;
@@ -50,6 +59,54 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
 
   @Override
   public ListenableFuture<byte[]> processRequest(ChannelHandlerContext channelHandlerContext, ByteBuf request) {
+    ListenableFuture<ByteBuffer> response =
+        submitRequest(channelHandlerContext, request, DataTable.HEAP_BUFFER_ALLOCATOR);
+    return Futures.transform(response, new Function<ByteBuffer, byte[]>() {
+      @Nullable
+      @Override
+      public byte[] apply(@Nullable ByteBuffer input) {
+        if (input == null) {
+          return null;
+        }
+        // Heap buffers are allocated with the exact serialized size, so the backing array can be returned directly
+        if (input.hasArray() && input.arrayOffset() == 0 && input.remaining() == input.array().length) {
+          return input.array();
+        }
+        byte[] bytes = new byte[input.remaining()];
+        input.duplicate().get(bytes);
+        return bytes;
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The response data table is serialized directly into a direct buffer allocated from the given allocator, so that
+   * no heap byte array is allocated for the response.
+   */
+  @Override
+  public ListenableFuture<ByteBuf> processRequestToByteBuf(ChannelHandlerContext channelHandlerContext,
+      ByteBuf request, ByteBufAllocator allocator) {
+    final DirectResponseBufferAllocator responseBufferAllocator = new DirectResponseBufferAllocator(allocator);
+    ListenableFuture<ByteBuffer> response = submitRequest(channelHandlerContext, request, responseBufferAllocator);
+    final SettableFuture<ByteBuf> responseBuf = SettableFuture.create();
+    Futures.addCallback(response, new FutureCallback<ByteBuffer>() {
+      @Override
+      public void onSuccess(@Nullable ByteBuffer result) {
+        responseBuf.set(responseBufferAllocator.getResponseBuf(result));
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        responseBufferAllocator.release();
+        responseBuf.setException(t);
+      }
+    });
+    return responseBuf;
+  }
+
+  private ListenableFuture<ByteBuffer> submitRequest(ChannelHandlerContext channelHandlerContext, ByteBuf request,
+      DataTable.BufferAllocator responseBufferAllocator) {
     final long queryStartTimeNs = System.nanoTime();
     serverMetrics.addMeteredGlobalValue(ServerMeter.QUERIES, 1);
 
@@ -68,6 +125,7 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
     }
 
     final ServerQueryRequest queryRequest = new ServerQueryRequest(instanceRequest, serverMetrics);
+    queryRequest.setResponseBufferAllocator(responseBufferAllocator);
     final TimerContext timerContext = queryRequest.getTimerContext();
     timerContext.setQueryArrivalTimeNs(queryStartTimeNs);
     timerContext.startNewPhaseTimerAtNs(ServerQueryPhase.REQUEST_DESERIALIZATION, queryStartTimeNs).stopAndRecord();
@@ -81,4 +139,53 @@ public class ScheduledRequestHandler implements NettyServer.RequestHandler {
     LOGGER.info("Setting scheduler to {}", scheduler.name());
     queryScheduler = scheduler;
   }
+
+  /**
+   * Allocator for the response of a single query, which serializes the response into a direct buffer allocated from
+   * the Netty allocator and keeps track of it so that it can be handed over to Netty (or released on failure).
+   */
+  private static class DirectResponseBufferAllocator implements DataTable.BufferAllocator {
+    private final ByteBufAllocator _allocator;
+    private ByteBuf _responseBuf;
+
+    DirectResponseBufferAllocator(ByteBufAllocator allocator) {
+      _allocator = allocator;
+    }
+
+    @Nonnull
+    @Override
+    public synchronized ByteBuffer allocate(int size) {
+      // The response should only be serialized once, release the previous buffer if any
+      release();
+      _responseBuf = _allocator.directBuffer(size, size);
+      return _responseBuf.nioBuffer(0, size);
+    }
+
+    /**
+     * Returns the buffer holding the given serialized response, or releases the allocated buffer and returns null if
+     * the response is null (failed to serialize).
+     */
+    @Nullable
+    synchronized ByteBuf getResponseBuf(@Nullable ByteBuffer response) {
+      if (response == null) {
+        release();
+        return null;
+      }
+      if (_responseBuf == null) {
+        // Response not serialized with this allocator
+        return Unpooled.wrappedBuffer(response);
+      }
+      ByteBuf responseBuf = _responseBuf;
+      _responseBuf = null;
+      responseBuf.writerIndex(response.remaining());
+      return responseBuf;
+    }
+
+    synchronized void release() {
+      if (_responseBuf != null) {
+        _responseBuf.release();
+        _responseBuf = null;
+      }
+    }
+  }
 }
@@ -23,6 +23,7 @@ import com.linkedin.pinot.core.operator.transform.function.TransformFunction;
 import com.linkedin.pinot.core.operator.transform.function.TransformFunctionFactory;
 import com.linkedin.pinot.core.query.scheduler.QueryScheduler;
 import com.linkedin.pinot.core.query.scheduler.QuerySchedulerFactory;
+import com.linkedin.pinot.server.conf.NettyServerConfig;
 import com.linkedin.pinot.server.conf.ServerConf;
 import com.linkedin.pinot.transport.netty.NettyServer;
 import com.linkedin.pinot.transport.netty.NettyTCPServer;
@@ -112,8 +113,9 @@ public class ServerBuilder {
 
   public NettyServer buildNettyServer(NettyServer.RequestHandlerFactory requestHandlerFactory)
       throws ConfigurationException {
-    int nettyPort = _serverConf.getNettyConfig().getPort();
+    NettyServerConfig nettyConfig = _serverConf.getNettyConfig();
+    int nettyPort = nettyConfig.getPort();
     LOGGER.info("Building netty TCP server with port: {}", nettyPort);
-    return new NettyTCPServer(nettyPort, requestHandlerFactory, null);
+    return new NettyTCPServer(nettyPort, requestHandlerFactory, null, 100, nettyConfig.getChannelConfig());
   }
 }
@@ -30,6 +30,7 @@ import com.linkedin.pinot.core.data.manager.config.TableDataManagerConfig;
 import com.linkedin.pinot.core.data.manager.offline.TableDataManagerProvider;
 import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegment;
 import com.linkedin.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import com.linkedin.pinot.core.query.cache.SegmentResultCache;
 import com.linkedin.pinot.core.segment.index.loader.IndexLoadingConfig;
 import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
 import java.io.File;
@@ -64,6 +65,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private String _instanceId;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private ServerMetrics _serverMetrics;
+  private volatile SegmentResultCache _segmentResultCache;
 
   @Override
   public void init(Configuration config, ZkHelixPropertyStore<ZNRecord> propertyStore, ServerMetrics serverMetrics)
@@ -129,6 +131,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     TableDataManager tableDataManager =
         TableDataManagerProvider.getTableDataManager(tableDataManagerConfig, _instanceId, _propertyStore,
             _serverMetrics);
+    tableDataManager.setSegmentResultCache(_segmentResultCache);
     tableDataManager.start();
     LOGGER.info("Created table data manager for table: {}", tableNameWithType);
     return tableDataManager;
@@ -250,6 +253,14 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     return _tableDataManagerMap.get(tableNameWithType);
   }
 
+  @Override
+  public void setSegmentResultCache(@Nullable SegmentResultCache segmentResultCache) {
+    _segmentResultCache = segmentResultCache;
+    for (TableDataManager tableDataManager : _tableDataManagerMap.values()) {
+      tableDataManager.setSegmentResultCache(segmentResultCache);
+    }
+  }
+
   @Nonnull
   @Override
   public String getSegmentDataDirectory() {
@@ -267,6 +278,16 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     return _instanceDataManagerConfig.getMaxParallelRefreshThreads();
   }
 
+  @Override
+  public int getTableLevelMaxParallelSegmentDownloads() {
+    return _instanceDataManagerConfig.getTableLevelMaxParallelSegmentDownloads();
+  }
+
+  @Override
+  public boolean isStreamingSegmentDownloadEnabled() {
+    return _instanceDataManagerConfig.isStreamingSegmentDownloadEnabled();
+  }
+
   @Nullable
   @Override
   public SegmentMetadata getSegmentMetadata(@Nonnull String tableNameWithType, @Nonnull String segmentName) {
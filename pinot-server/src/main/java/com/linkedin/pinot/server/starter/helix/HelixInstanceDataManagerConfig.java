@@ -73,6 +73,17 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // The metric ServerGauge.REALTIME_OFFHEAP_MEMORY_USED should indicate how much memory is needed.
   private static final String DIRECT_REALTIME_OFFHEAP_ALLOCATION = "realtime.alloc.offheap.direct";
 
+  // Number of threads decoding and transforming the stream messages of each low level consuming segment, ahead of the
+  // consumer thread which indexes them in order. A value of 1 decodes the messages on the consumer thread.
+  // Higher values help partitions whose consumption is bound by decoding (e.g. Avro/JSON) to keep up with the stream,
+  // at the cost of more threads per consuming segment.
+  private static final String REALTIME_DECODE_PARALLELISM = "realtime.decode.parallelism";
+
+  // Key of whether to load the indexes of each column of the immutable segments on first access from a query, instead
+  // of loading the indexes of all the columns when loading the segment.
+  // Cuts the segment load time and the memory usage for wide tables where the queries only touch a few columns.
+  private static final String ENABLE_LAZY_COLUMN_LOADING = "enable.lazy.column.loading";
+
   // Number of simultaneous segments that can be refreshed on one server.
   // Segment refresh works by loading the old as well as new versions of segments in memory, assigning
   // new incoming queries to use the new version. The old version is dropped when all the queries that
@@ -87,6 +98,15 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   //
   private static final String MAX_PARALLEL_REFRESH_THREADS = "max.parallel.refresh.threads";
 
+  // Key of how many segments of the same table can be downloaded in parallel.
+  // A value of <= 0 indicates unlimited.
+  // Limiting it prevents a rebalance of a large table from saturating the network and disk of the server.
+  private static final String TABLE_LEVEL_MAX_PARALLEL_SEGMENT_DOWNLOADS = "table.level.max.parallel.segment.downloads";
+
+  // Key of whether to untar the segments on the fly while downloading them (for the segment fetchers supporting it),
+  // instead of writing the tar.gz file to disk and untarring it in a second pass.
+  private static final String ENABLE_STREAMING_SEGMENT_DOWNLOAD = "enable.streaming.segment.download";
+
   private final static String[] REQUIRED_KEYS = { INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE };
   private Configuration _instanceDataManagerConfiguration = null;
 
@@ -169,6 +189,16 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getBoolean(DIRECT_REALTIME_OFFHEAP_ALLOCATION, false);
   }
 
+  @Override
+  public int getRealtimeDecodeParallelism() {
+    return _instanceDataManagerConfiguration.getInt(REALTIME_DECODE_PARALLELISM, 1);
+  }
+
+  @Override
+  public boolean isLazyColumnLoading() {
+    return _instanceDataManagerConfiguration.getBoolean(ENABLE_LAZY_COLUMN_LOADING, false);
+  }
+
   @Override
   public String getAvgMultiValueCount() {
     return _instanceDataManagerConfiguration.getString(AVERAGE_MV_COUNT, null);
@@ -178,6 +208,14 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_REFRESH_THREADS, 1);
   }
 
+  public int getTableLevelMaxParallelSegmentDownloads() {
+    return _instanceDataManagerConfiguration.getInt(TABLE_LEVEL_MAX_PARALLEL_SEGMENT_DOWNLOADS, 0);
+  }
+
+  public boolean isStreamingSegmentDownloadEnabled() {
+    return _instanceDataManagerConfiguration.getBoolean(ENABLE_STREAMING_SEGMENT_DOWNLOAD, true);
+  }
+
   public int getMaxParallelSegmentBuilds() {
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
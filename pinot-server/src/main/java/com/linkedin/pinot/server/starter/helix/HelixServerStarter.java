@@ -30,6 +30,7 @@ import com.linkedin.pinot.server.conf.ServerConf;
 import com.linkedin.pinot.server.realtime.ControllerLeaderLocator;
 import com.linkedin.pinot.server.realtime.ServerSegmentCompletionProtocolHandler;
 import com.linkedin.pinot.server.starter.ServerInstance;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -122,6 +123,18 @@ public class HelixServerStarter {
     // Register state model factory
     SegmentFetcherAndLoader fetcherAndLoader =
         new SegmentFetcherAndLoader(_serverInstance.getInstanceDataManager(), propertyStore, _helixServerConfig);
+    // Preload the local segments in parallel before receiving the state transitions for them
+    int segmentPreloadParallelism =
+        _helixServerConfig.getInt(CommonConstants.Server.CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PARALLELISM,
+            CommonConstants.Server.DEFAULT_STARTUP_SEGMENT_PRELOAD_PARALLELISM);
+    if (segmentPreloadParallelism > 0) {
+      SegmentPreloader segmentPreloader =
+          new SegmentPreloader(fetcherAndLoader, _serverInstance.getServerMetrics(), segmentPreloadParallelism,
+              Arrays.asList(_helixServerConfig.getStringArray(
+                  CommonConstants.Server.CONFIG_OF_STARTUP_SEGMENT_PRELOAD_PRIORITY_TABLES)));
+      fetcherAndLoader.setSegmentPreloader(segmentPreloader);
+      segmentPreloader.start(_helixAdmin, helixClusterName, _instanceId, propertyStore);
+    }
     StateModelFactory<?> stateModelFactory =
         new SegmentOnlineOfflineStateModelFactory(_instanceId, _serverInstance.getInstanceDataManager(),
             fetcherAndLoader, propertyStore);
@@ -22,13 +22,18 @@ import com.linkedin.pinot.common.data.DataManager;
 import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
 import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import com.linkedin.pinot.common.segment.SegmentMetadata;
+import com.linkedin.pinot.common.segment.fetcher.SegmentFetcher;
 import com.linkedin.pinot.common.segment.fetcher.SegmentFetcherFactory;
+import com.linkedin.pinot.common.segment.fetcher.StreamingSegmentFetcher;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.common.utils.TarGzCompressionUtils;
 import com.linkedin.pinot.core.segment.index.SegmentMetadataImpl;
 import com.linkedin.pinot.core.segment.index.loader.LoaderUtils;
 import com.linkedin.pinot.core.segment.index.loader.V3RemoveIndexException;
 import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
@@ -44,11 +49,15 @@ public class SegmentFetcherAndLoader {
 
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private final DataManager _dataManager;
+  private final int _tableLevelMaxParallelSegmentDownloads;
+  private final Map<String, Semaphore> _tableDownloadSemaphoreMap = new ConcurrentHashMap<>();
+  private volatile SegmentPreloader _segmentPreloader;
 
   public SegmentFetcherAndLoader(DataManager dataManager, ZkHelixPropertyStore<ZNRecord> propertyStore,
       Configuration pinotHelixProperties) throws Exception {
     _propertyStore = propertyStore;
     _dataManager = dataManager;
+    _tableLevelMaxParallelSegmentDownloads = dataManager.getTableLevelMaxParallelSegmentDownloads();
 
     Configuration segmentFetcherFactoryConfig =
         pinotHelixProperties.subset(CommonConstants.Server.PREFIX_OF_CONFIG_OF_SEGMENT_FETCHER_FACTORY);
@@ -56,7 +65,17 @@ public class SegmentFetcherAndLoader {
     SegmentFetcherFactory.getInstance().init(segmentFetcherFactoryConfig);
   }
 
+  public void setSegmentPreloader(@Nullable SegmentPreloader segmentPreloader) {
+    _segmentPreloader = segmentPreloader;
+  }
+
   public void addOrReplaceOfflineSegment(String tableName, String segmentId) {
+    // Make sure the segment is not concurrently loaded by the startup preloader
+    SegmentPreloader segmentPreloader = _segmentPreloader;
+    if (segmentPreloader != null) {
+      segmentPreloader.waitForPreload(tableName, segmentId);
+    }
+
     OfflineSegmentZKMetadata newSegmentZKMetadata =
         ZKMetadataProvider.getOfflineSegmentZKMetadata(_propertyStore, tableName, segmentId);
     Preconditions.checkNotNull(newSegmentZKMetadata);
@@ -126,7 +145,7 @@ public class SegmentFetcherAndLoader {
         }
         String uri = newSegmentZKMetadata.getDownloadUrl();
         // Retry will be done here.
-        String localSegmentDir = downloadSegmentToLocal(uri, tableName, segmentId);
+        String localSegmentDir = downloadSegmentToLocal(uri, tableName, segmentId, newSegmentZKMetadata.getCrc());
         SegmentMetadata segmentMetadata = new SegmentMetadataImpl(new File(localSegmentDir));
         _dataManager.addOfflineSegment(tableName, segmentId, new File(localSegmentDir));
         LOGGER.info("Downloaded segment {} of table {} crc {} from controller", segmentId, tableName,
@@ -142,6 +161,40 @@ public class SegmentFetcherAndLoader {
     }
   }
 
+  /**
+   * Returns whether the index directory of the given segment exists on local disk.
+   */
+  public boolean isSegmentPresentLocally(@Nonnull String tableName, @Nonnull String segmentName) {
+    return new File(getSegmentLocalDirectory(tableName, segmentName)).isDirectory();
+  }
+
+  /**
+   * Loads the given OFFLINE segment from local disk if it is not loaded yet and its local copy matches the segment ZK
+   * metadata. Never downloads the segment or deletes the local copy, which is left to the state transition.
+   *
+   * @return Whether the segment got loaded
+   */
+  public boolean preloadOfflineSegment(@Nonnull String tableName, @Nonnull String segmentName,
+      @Nonnull OfflineSegmentZKMetadata segmentZKMetadata) throws Exception {
+    if (_dataManager.getSegmentMetadata(tableName, segmentName) != null) {
+      return false;
+    }
+    File indexDir = new File(getSegmentLocalDirectory(tableName, segmentName));
+    LoaderUtils.reloadFailureRecovery(indexDir);
+    if (!indexDir.exists()) {
+      return false;
+    }
+    SegmentMetadata localSegmentMetadata = new SegmentMetadataImpl(indexDir);
+    if (isNewSegmentMetadata(segmentZKMetadata, localSegmentMetadata)) {
+      return false;
+    }
+    long startTime = System.currentTimeMillis();
+    _dataManager.addOfflineSegment(tableName, segmentName, indexDir);
+    LOGGER.info("Preloaded segment: {} of table: {} (crc {}) from disk in {}ms", segmentName, tableName,
+        localSegmentMetadata.getCrc(), System.currentTimeMillis() - startTime);
+    return true;
+  }
+
   private boolean isNewSegmentMetadata(@Nonnull OfflineSegmentZKMetadata newSegmentZKMetadata,
       @Nullable SegmentMetadata existedSegmentMetadata) {
     String offlineTableName = TableNameBuilder.OFFLINE.tableNameWithType(newSegmentZKMetadata.getTableName());
@@ -160,26 +213,52 @@ public class SegmentFetcherAndLoader {
   }
 
   @Nonnull
-  private String downloadSegmentToLocal(@Nonnull String uri, @Nonnull String tableName, @Nonnull String segmentName)
-      throws Exception {
+  private String downloadSegmentToLocal(@Nonnull String uri, @Nonnull String tableName, @Nonnull String segmentName,
+      long expectedCrc) throws Exception {
+    Semaphore downloadSemaphore = null;
+    if (_tableLevelMaxParallelSegmentDownloads > 0) {
+      downloadSemaphore = _tableDownloadSemaphoreMap.computeIfAbsent(tableName,
+          k -> new Semaphore(_tableLevelMaxParallelSegmentDownloads, true));
+      long startTime = System.currentTimeMillis();
+      downloadSemaphore.acquire();
+      LOGGER.info("Acquired download permit for segment: {} of table: {} (lock-time={}ms)", segmentName, tableName,
+          System.currentTimeMillis() - startTime);
+    }
     File tempDir = new File(new File(_dataManager.getSegmentFileDirectory(), tableName),
         "tmp_" + segmentName + "_" + System.nanoTime());
-    FileUtils.forceMkdir(tempDir);
-    File tempTarFile = new File(tempDir, segmentName + ".tar.gz");
     File tempSegmentDir = new File(tempDir, segmentName);
     try {
-      SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri).fetchSegmentToLocal(uri, tempTarFile);
-      LOGGER.info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName,
-          tableName, uri, tempTarFile, tempTarFile.length());
+      FileUtils.forceMkdir(tempDir);
+      SegmentFetcher segmentFetcher = SegmentFetcherFactory.getInstance().getSegmentFetcherBasedOnURI(uri);
+      if (_dataManager.isStreamingSegmentDownloadEnabled() && segmentFetcher instanceof StreamingSegmentFetcher) {
+        // Untar the segment on the fly, so that the tar.gz file is never written to disk
+        ((StreamingSegmentFetcher) segmentFetcher).fetchAndUntarSegmentToLocal(uri, tempSegmentDir);
+        LOGGER.info("Downloaded and untarred segment: {} for table: {} from: {} to: {}", segmentName, tableName, uri,
+            tempSegmentDir);
+      } else {
+        File tempTarFile = new File(tempDir, segmentName + ".tar.gz");
+        segmentFetcher.fetchSegmentToLocal(uri, tempTarFile);
+        LOGGER.info("Downloaded tarred segment: {} for table: {} from: {} to: {}, file length: {}", segmentName,
+            tableName, uri, tempTarFile, tempTarFile.length());
 
-      // If an exception is thrown when untarring, it means the tar file is broken OR not found after the retry.
-      // Thus, there's no need to retry again.
-      TarGzCompressionUtils.unTar(tempTarFile, tempSegmentDir);
+        // If an exception is thrown when untarring, it means the tar file is broken OR not found after the retry.
+        // Thus, there's no need to retry again.
+        TarGzCompressionUtils.unTar(tempTarFile, tempSegmentDir);
+        FileUtils.deleteQuietly(tempTarFile);
+      }
 
       File[] files = tempSegmentDir.listFiles();
       Preconditions.checkState(files != null && files.length == 1);
       File tempIndexDir = files[0];
 
+      // Verify the downloaded segment against the CRC in the segment ZK metadata
+      if (expectedCrc >= 0) {
+        String crc = new SegmentMetadataImpl(tempIndexDir).getCrc();
+        Preconditions.checkState(Long.toString(expectedCrc).equals(crc),
+            "CRC mismatch for downloaded segment: %s of table: %s, expected: %s, actual: %s", segmentName, tableName,
+            expectedCrc, crc);
+      }
+
       File indexDir = new File(new File(_dataManager.getSegmentDataDirectory(), tableName), segmentName);
       if (indexDir.exists()) {
         LOGGER.info("Deleting existing index directory for segment: {} for table: {}", segmentName, tableName);
@@ -190,6 +269,9 @@ public class SegmentFetcherAndLoader {
       return indexDir.getAbsolutePath();
     } finally {
       FileUtils.deleteQuietly(tempDir);
+      if (downloadSemaphore != null) {
+        downloadSemaphore.release();
+      }
     }
   }
 
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.linkedin.pinot.common.config.TableNameBuilder;
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.linkedin.pinot.common.utils.CommonConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The <code>SegmentPreloader</code> class loads the OFFLINE segments already present on local disk in parallel when
+ * the server starts, ahead of the Helix state transitions for them.
+ * <p>Only the segments assigned ONLINE to this instance in the ideal state are preloaded, and only if the local copy
+ * matches the CRC in the segment ZK metadata. Segments of the configured priority tables are loaded first (in the
+ * configured order), then the segments with the most recent end time.
+ * <p>The state transition for a segment calls {@link #waitForPreload(String, String)}: if the preload of the segment
+ * has not started yet, it gets cancelled and the state transition loads the segment itself; otherwise the state
+ * transition waits for the preload to finish, and then finds the segment already loaded.
+ * <p>The number of segments pending preload is reported per table through the
+ * {@link ServerGauge#SEGMENTS_PENDING_PRELOAD} gauge, and a table is ready once it reaches 0.
+ */
+@ThreadSafe
+public class SegmentPreloader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreloader.class);
+
+  private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final ServerMetrics _serverMetrics;
+  private final int _parallelism;
+  private final List<String> _priorityTables;
+  private final Map<String, PreloadTask> _preloadTaskMap = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> _numSegmentsPendingPreloadMap = new ConcurrentHashMap<>();
+
+  /**
+   * @param fetcherAndLoader Segment fetcher and loader
+   * @param serverMetrics Server metrics
+   * @param parallelism Number of threads preloading the segments
+   * @param priorityTables Tables (with or without type suffix) whose segments get preloaded first, in order of
+   *                       priority
+   */
+  public SegmentPreloader(@Nonnull SegmentFetcherAndLoader fetcherAndLoader, @Nonnull ServerMetrics serverMetrics,
+      int parallelism, @Nonnull List<String> priorityTables) {
+    _fetcherAndLoader = fetcherAndLoader;
+    _serverMetrics = serverMetrics;
+    _parallelism = parallelism;
+    _priorityTables = new ArrayList<>(priorityTables.size());
+    for (String priorityTable : priorityTables) {
+      _priorityTables.add(TableNameBuilder.OFFLINE.tableNameWithType(priorityTable));
+    }
+  }
+
+  /**
+   * Schedules the preload of the local segments assigned to the instance. Should be called once, before the state
+   * model factory gets registered, so that all the preloads are scheduled before the first state transition.
+   */
+  public void start(@Nonnull HelixAdmin helixAdmin, @Nonnull String clusterName, @Nonnull String instanceId,
+      @Nonnull ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    long startTime = System.currentTimeMillis();
+    List<PreloadTask> preloadTasks = new ArrayList<>();
+    for (String resource : helixAdmin.getResourcesInCluster(clusterName)) {
+      if (!TableNameBuilder.OFFLINE.tableHasTypeSuffix(resource)) {
+        continue;
+      }
+      IdealState idealState = helixAdmin.getResourceIdealState(clusterName, resource);
+      if (idealState == null) {
+        continue;
+      }
+      int tablePriority = _priorityTables.indexOf(resource);
+      if (tablePriority < 0) {
+        tablePriority = Integer.MAX_VALUE;
+      }
+      int numSegmentsToPreload = 0;
+      for (OfflineSegmentZKMetadata segmentZKMetadata : ZKMetadataProvider.getOfflineSegmentZKMetadataListForTable(
+          propertyStore, resource)) {
+        Map<String, String> instanceStateMap = idealState.getInstanceStateMap(segmentZKMetadata.getSegmentName());
+        if (instanceStateMap == null || !CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel.ONLINE.equals(
+            instanceStateMap.get(instanceId))) {
+          continue;
+        }
+        if (!_fetcherAndLoader.isSegmentPresentLocally(resource, segmentZKMetadata.getSegmentName())) {
+          continue;
+        }
+        preloadTasks.add(new PreloadTask(resource, segmentZKMetadata, tablePriority));
+        numSegmentsToPreload++;
+      }
+      if (numSegmentsToPreload > 0) {
+        _numSegmentsPendingPreloadMap.put(resource, new AtomicInteger(numSegmentsToPreload));
+        _serverMetrics.setValueOfTableGauge(resource, ServerGauge.SEGMENTS_PENDING_PRELOAD, numSegmentsToPreload);
+      }
+    }
+    if (preloadTasks.isEmpty()) {
+      LOGGER.info("No local segment to preload");
+      return;
+    }
+
+    // Tasks are submitted in order of priority and picked up in submission order
+    Collections.sort(preloadTasks);
+    for (PreloadTask preloadTask : preloadTasks) {
+      _preloadTaskMap.put(getKey(preloadTask._tableName, preloadTask._segmentName), preloadTask);
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(_parallelism,
+        new ThreadFactoryBuilder().setNameFormat("segment-preloader-%d").setDaemon(true).build());
+    for (PreloadTask preloadTask : preloadTasks) {
+      executorService.execute(preloadTask);
+    }
+    // Let the threads terminate after running all the tasks
+    executorService.shutdown();
+    LOGGER.info("Scheduled preload of {} local segments of {} tables with {} threads in {}ms", preloadTasks.size(),
+        _numSegmentsPendingPreloadMap.size(), _parallelism, System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Waits for the preload of the given segment if already started, or cancels it otherwise.
+   */
+  public void waitForPreload(@Nonnull String tableName, @Nonnull String segmentName) {
+    PreloadTask preloadTask = _preloadTaskMap.remove(getKey(tableName, segmentName));
+    if (preloadTask == null) {
+      return;
+    }
+    if (preloadTask.claim()) {
+      LOGGER.info("Cancelled preload of segment: {} of table: {}", segmentName, tableName);
+      onSegmentPreloadDone(tableName);
+    } else {
+      // NOTE: preload failures are already logged, and the state transition will load the segment
+      Uninterruptibles.awaitUninterruptibly(preloadTask._doneLatch);
+    }
+  }
+
+  /**
+   * Returns whether all the local segments of the given table have been preloaded (or handed over to the state
+   * transitions).
+   */
+  public boolean isTablePreloaded(@Nonnull String tableName) {
+    AtomicInteger numSegmentsPendingPreload = _numSegmentsPendingPreloadMap.get(tableName);
+    return numSegmentsPendingPreload == null || numSegmentsPendingPreload.get() == 0;
+  }
+
+  private void onSegmentPreloadDone(String tableName) {
+    int numSegmentsPendingPreload = _numSegmentsPendingPreloadMap.get(tableName).decrementAndGet();
+    _serverMetrics.setValueOfTableGauge(tableName, ServerGauge.SEGMENTS_PENDING_PRELOAD, numSegmentsPendingPreload);
+    if (numSegmentsPendingPreload == 0) {
+      LOGGER.info("Finished preloading local segments of table: {}", tableName);
+    }
+  }
+
+  private static String getKey(String tableName, String segmentName) {
+    return tableName + '/' + segmentName;
+  }
+
+  private class PreloadTask implements Runnable, Comparable<PreloadTask> {
+    private final String _tableName;
+    private final String _segmentName;
+    private final OfflineSegmentZKMetadata _segmentZKMetadata;
+    private final int _tablePriority;
+    private final long _endTimeMs;
+    // Claimed either by the preload thread or by the state transition cancelling the preload
+    private final AtomicBoolean _claimed = new AtomicBoolean();
+    private final CountDownLatch _doneLatch = new CountDownLatch(1);
+
+    PreloadTask(String tableName, OfflineSegmentZKMetadata segmentZKMetadata, int tablePriority) {
+      _tableName = tableName;
+      _segmentName = segmentZKMetadata.getSegmentName();
+      _segmentZKMetadata = segmentZKMetadata;
+      _tablePriority = tablePriority;
+      if (segmentZKMetadata.getTimeUnit() != null && segmentZKMetadata.getEndTime() >= 0) {
+        _endTimeMs = segmentZKMetadata.getTimeUnit().toMillis(segmentZKMetadata.getEndTime());
+      } else {
+        _endTimeMs = Long.MIN_VALUE;
+      }
+    }
+
+    boolean claim() {
+      return _claimed.compareAndSet(false, true);
+    }
+
+    @Override
+    public void run() {
+      if (!claim()) {
+        return;
+      }
+      try {
+        _fetcherAndLoader.preloadOfflineSegment(_tableName, _segmentName, _segmentZKMetadata);
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while preloading segment: {} of table: {}, will be loaded by state transition",
+            _segmentName, _tableName, e);
+      } finally {
+        _preloadTaskMap.remove(getKey(_tableName, _segmentName));
+        onSegmentPreloadDone(_tableName);
+        _doneLatch.countDown();
+      }
+    }
+
+    @Override
+    public int compareTo(PreloadTask o) {
+      // Higher priority tables first, then more recent segments first
+      int result = Integer.compare(_tablePriority, o._tablePriority);
+      if (result != 0) {
+        return result;
+      }
+      return Long.compare(o._endTimeMs, _endTimeMs);
+    }
+  }
+}
@@ -36,10 +36,12 @@ import com.linkedin.pinot.core.query.scheduler.resources.UnboundedResourceManage
 import com.linkedin.pinot.serde.SerDe;
 import com.yammer.metrics.core.MetricsRegistry;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -109,7 +111,7 @@ public class ScheduledRequestHandlerTest {
         new ScheduledRequestHandler(new QueryScheduler(queryExecutor, resourceManager, serverMetrics) {
           @Nonnull
           @Override
-          public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
+          public ListenableFuture<ByteBuffer> submit(ServerQueryRequest queryRequest) {
             ListenableFuture<DataTable> dataTable = resourceManager.getQueryRunners().submit(() -> {
               throw new RuntimeException("query processing error");
             });
@@ -118,7 +120,7 @@ public class ScheduledRequestHandlerTest {
               result.addException(QueryException.INTERNAL_ERROR);
               return result;
             });
-            return serializeData(queryResponse);
+            return serializeData(queryRequest, queryResponse);
           }
 
           @Override
@@ -144,45 +146,37 @@ public class ScheduledRequestHandlerTest {
 
   @Test
   public void testValidQueryResponse() throws InterruptedException, ExecutionException, TimeoutException, IOException {
-    ScheduledRequestHandler handler =
-        new ScheduledRequestHandler(new QueryScheduler(queryExecutor, resourceManager, serverMetrics) {
-          @Nonnull
-          @Override
-          public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
-            ListenableFuture<DataTable> response = resourceManager.getQueryRunners().submit(() -> {
-              String[] columnNames = new String[]{"foo", "bar"};
-              DataSchema.ColumnDataType[] columnDataTypes =
-                  new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT};
-              DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
-              DataTableBuilder dtBuilder = new DataTableBuilder(dataSchema);
-              dtBuilder.startRow();
-              dtBuilder.setColumn(0, "mars");
-              dtBuilder.setColumn(1, 10);
-              dtBuilder.finishRow();
-              dtBuilder.startRow();
-              dtBuilder.setColumn(0, "jupiter");
-              dtBuilder.setColumn(1, 100);
-              dtBuilder.finishRow();
-              return dtBuilder.build();
-            });
-            return serializeData(response);
-          }
-
-          @Override
-          public void start() {
-
-          }
-
-          @Override
-          public String name() {
-            return "test";
-          }
-        }, serverMetrics);
+    ScheduledRequestHandler handler = new ScheduledRequestHandler(getValidResponseScheduler(), serverMetrics);
 
     ByteBuf requestBuf = getSerializedInstanceRequest(getInstanceRequest());
     ListenableFuture<byte[]> responseFuture = handler.processRequest(channelHandlerContext, requestBuf);
     byte[] responseBytes = responseFuture.get(2, TimeUnit.SECONDS);
     DataTable responseDT = DataTableFactory.getDataTable(responseBytes);
+    validateResponse(responseDT);
+  }
+
+  @Test
+  public void testValidQueryResponseToByteBuf()
+      throws InterruptedException, ExecutionException, TimeoutException, IOException {
+    ScheduledRequestHandler handler = new ScheduledRequestHandler(getValidResponseScheduler(), serverMetrics);
+
+    ByteBuf requestBuf = getSerializedInstanceRequest(getInstanceRequest());
+    ListenableFuture<ByteBuf> responseFuture =
+        handler.processRequestToByteBuf(channelHandlerContext, requestBuf, PooledByteBufAllocator.DEFAULT);
+    ByteBuf responseBuf = responseFuture.get(2, TimeUnit.SECONDS);
+    try {
+      // Response should be serialized directly into a direct buffer from the given allocator
+      Assert.assertTrue(responseBuf.isDirect());
+      Assert.assertEquals(responseBuf.refCnt(), 1);
+      byte[] responseBytes = new byte[responseBuf.readableBytes()];
+      responseBuf.getBytes(responseBuf.readerIndex(), responseBytes);
+      validateResponse(DataTableFactory.getDataTable(responseBytes));
+    } finally {
+      responseBuf.release();
+    }
+  }
+
+  private void validateResponse(DataTable responseDT) {
     Assert.assertEquals(responseDT.getNumberOfRows(), 2);
     Assert.assertEquals(responseDT.getString(0, 0), "mars");
     Assert.assertEquals(responseDT.getInt(0, 1), 10);
@@ -190,13 +184,50 @@ public class ScheduledRequestHandlerTest {
     Assert.assertEquals(responseDT.getInt(1, 1), 100);
   }
 
-  private ListenableFuture<byte[]> serializeData(ListenableFuture<DataTable> dataTable) {
-    return Futures.transform(dataTable, (Function<DataTable, byte[]>) input -> {
+  private QueryScheduler getValidResponseScheduler() {
+    return new QueryScheduler(queryExecutor, resourceManager, serverMetrics) {
+      @Nonnull
+      @Override
+      public ListenableFuture<ByteBuffer> submit(ServerQueryRequest queryRequest) {
+        ListenableFuture<DataTable> response = resourceManager.getQueryRunners().submit(() -> {
+          String[] columnNames = new String[]{"foo", "bar"};
+          DataSchema.ColumnDataType[] columnDataTypes =
+              new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT};
+          DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+          DataTableBuilder dtBuilder = new DataTableBuilder(dataSchema);
+          dtBuilder.startRow();
+          dtBuilder.setColumn(0, "mars");
+          dtBuilder.setColumn(1, 10);
+          dtBuilder.finishRow();
+          dtBuilder.startRow();
+          dtBuilder.setColumn(0, "jupiter");
+          dtBuilder.setColumn(1, 100);
+          dtBuilder.finishRow();
+          return dtBuilder.build();
+        });
+        return serializeData(queryRequest, response);
+      }
+
+      @Override
+      public void start() {
+
+      }
+
+      @Override
+      public String name() {
+        return "test";
+      }
+    };
+  }
+
+  private ListenableFuture<ByteBuffer> serializeData(ServerQueryRequest queryRequest,
+      ListenableFuture<DataTable> dataTable) {
+    return Futures.transform(dataTable, (Function<DataTable, ByteBuffer>) input -> {
       try {
         Preconditions.checkNotNull(input);
-        return input.toBytes();
+        return input.toByteBuffer(queryRequest.getResponseBufferAllocator());
       } catch (IOException e) {
-        return new byte[0];
+        return ByteBuffer.allocate(0);
       }
     });
   }
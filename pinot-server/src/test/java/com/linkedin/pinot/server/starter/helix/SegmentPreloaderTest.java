@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.server.starter.helix;
+
+import com.linkedin.pinot.common.metadata.ZKMetadataProvider;
+import com.linkedin.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
+import com.linkedin.pinot.common.metrics.ServerGauge;
+import com.linkedin.pinot.common.metrics.ServerMetrics;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.helix.AccessOption;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class SegmentPreloaderTest {
+  private static final String CLUSTER_NAME = "testCluster";
+  private static final String INSTANCE_ID = "Server_localhost_1234";
+  private static final String OTHER_INSTANCE_ID = "Server_localhost_5678";
+  private static final String TABLE_A = "a_OFFLINE";
+  private static final String TABLE_B = "b_OFFLINE";
+  private static final String REALTIME_TABLE = "c_REALTIME";
+  private static final long TIMEOUT_MS = 10_000L;
+
+  private HelixAdmin _helixAdmin;
+  private ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  private SegmentFetcherAndLoader _fetcherAndLoader;
+  private ServerMetrics _serverMetrics;
+  private List<String> _preloadedSegments;
+
+  @SuppressWarnings("unchecked")
+  @BeforeMethod
+  public void setUp()
+      throws Exception {
+    _helixAdmin = mock(HelixAdmin.class);
+    when(_helixAdmin.getResourcesInCluster(CLUSTER_NAME)).thenReturn(Arrays.asList(TABLE_A, TABLE_B, REALTIME_TABLE));
+    _propertyStore = mock(ZkHelixPropertyStore.class);
+
+    // Table a: 3 local segments, 1 segment not present locally, 1 segment assigned to another instance
+    IdealState idealStateA = new IdealState(TABLE_A);
+    List<ZNRecord> segmentZKMetadataA = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      String segmentName = "a_" + i;
+      idealStateA.setPartitionState(segmentName, i == 4 ? OTHER_INSTANCE_ID : INSTANCE_ID, "ONLINE");
+      segmentZKMetadataA.add(getSegmentZKMetadata(TABLE_A, segmentName, i));
+    }
+    mockTable(idealStateA, segmentZKMetadataA);
+
+    // Table b: 2 local segments, 1 segment OFFLINE in the ideal state
+    IdealState idealStateB = new IdealState(TABLE_B);
+    List<ZNRecord> segmentZKMetadataB = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      String segmentName = "b_" + i;
+      idealStateB.setPartitionState(segmentName, INSTANCE_ID, i == 2 ? "OFFLINE" : "ONLINE");
+      segmentZKMetadataB.add(getSegmentZKMetadata(TABLE_B, segmentName, i));
+    }
+    mockTable(idealStateB, segmentZKMetadataB);
+
+    _fetcherAndLoader = mock(SegmentFetcherAndLoader.class);
+    when(_fetcherAndLoader.isSegmentPresentLocally(anyString(), anyString())).thenReturn(true);
+    when(_fetcherAndLoader.isSegmentPresentLocally(TABLE_A, "a_3")).thenReturn(false);
+    _preloadedSegments = Collections.synchronizedList(new ArrayList<String>());
+    doAnswer(invocation -> {
+      _preloadedSegments.add((String) invocation.getArguments()[1]);
+      return true;
+    }).when(_fetcherAndLoader).preloadOfflineSegment(anyString(), anyString(), any(OfflineSegmentZKMetadata.class));
+
+    _serverMetrics = new ServerMetrics(new MetricsRegistry());
+  }
+
+  @Test
+  public void testPreloadOrder()
+      throws Exception {
+    SegmentPreloader segmentPreloader =
+        new SegmentPreloader(_fetcherAndLoader, _serverMetrics, 1, Collections.singletonList("b"));
+    segmentPreloader.start(_helixAdmin, CLUSTER_NAME, INSTANCE_ID, _propertyStore);
+    waitForTablePreloaded(segmentPreloader, TABLE_A);
+    waitForTablePreloaded(segmentPreloader, TABLE_B);
+
+    // Priority table first, then most recent segments first
+    Assert.assertEquals(_preloadedSegments, Arrays.asList("b_1", "b_0", "a_2", "a_1", "a_0"));
+    Assert.assertEquals(_serverMetrics.getValueOfTableGauge(TABLE_A, ServerGauge.SEGMENTS_PENDING_PRELOAD), 0L);
+    Assert.assertEquals(_serverMetrics.getValueOfTableGauge(TABLE_B, ServerGauge.SEGMENTS_PENDING_PRELOAD), 0L);
+    Assert.assertTrue(segmentPreloader.isTablePreloaded(REALTIME_TABLE));
+  }
+
+  @Test
+  public void testWaitForPreload()
+      throws Exception {
+    // Block the first preload until the state transitions have been handled
+    final CountDownLatch startedLatch = new CountDownLatch(1);
+    final CountDownLatch latch = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      startedLatch.countDown();
+      latch.await();
+      _preloadedSegments.add((String) invocation.getArguments()[1]);
+      return true;
+    }).when(_fetcherAndLoader).preloadOfflineSegment(eq(TABLE_A), eq("a_2"), any(OfflineSegmentZKMetadata.class));
+
+    SegmentPreloader segmentPreloader = new SegmentPreloader(_fetcherAndLoader, _serverMetrics, 1,
+        Collections.<String>emptyList());
+    segmentPreloader.start(_helixAdmin, CLUSTER_NAME, INSTANCE_ID, _propertyStore);
+    Assert.assertTrue(startedLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+    // Preload not started yet, should be cancelled
+    segmentPreloader.waitForPreload(TABLE_A, "a_0");
+    Assert.assertFalse(segmentPreloader.isTablePreloaded(TABLE_A));
+    Assert.assertEquals(_serverMetrics.getValueOfTableGauge(TABLE_A, ServerGauge.SEGMENTS_PENDING_PRELOAD), 2L);
+
+    // Segment not scheduled for preload, should return immediately
+    segmentPreloader.waitForPreload(TABLE_A, "a_3");
+
+    latch.countDown();
+    // Preload started, should wait for it
+    segmentPreloader.waitForPreload(TABLE_A, "a_2");
+    Assert.assertTrue(_preloadedSegments.contains("a_2"));
+    waitForTablePreloaded(segmentPreloader, TABLE_A);
+    waitForTablePreloaded(segmentPreloader, TABLE_B);
+
+    Assert.assertFalse(_preloadedSegments.contains("a_0"));
+    Assert.assertEquals(_preloadedSegments.size(), 4);
+  }
+
+  private void mockTable(IdealState idealState, List<ZNRecord> segmentZKMetadataList) {
+    String tableName = idealState.getResourceName();
+    String path = ZKMetadataProvider.constructPropertyStorePathForResource(tableName);
+    when(_helixAdmin.getResourceIdealState(CLUSTER_NAME, tableName)).thenReturn(idealState);
+    when(_propertyStore.exists(path, AccessOption.PERSISTENT)).thenReturn(true);
+    when(_propertyStore.getChildren(path, null, AccessOption.PERSISTENT)).thenReturn(segmentZKMetadataList);
+  }
+
+  private static ZNRecord getSegmentZKMetadata(String tableName, String segmentName, long endTimeDays) {
+    OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
+    segmentZKMetadata.setTableName(tableName);
+    segmentZKMetadata.setSegmentName(segmentName);
+    segmentZKMetadata.setEndTime(endTimeDays);
+    segmentZKMetadata.setTimeUnit(TimeUnit.DAYS);
+    return segmentZKMetadata.toZNRecord();
+  }
+
+  private static void waitForTablePreloaded(SegmentPreloader segmentPreloader, String tableName)
+      throws InterruptedException {
+    long endTimeMs = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!segmentPreloader.isTablePreloaded(tableName)) {
+      Assert.assertTrue(System.currentTimeMillis() < endTimeMs, "Timed out waiting for table: " + tableName);
+      Thread.sleep(10L);
+    }
+  }
+}
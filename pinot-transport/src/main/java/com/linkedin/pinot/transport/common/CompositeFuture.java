@@ -56,6 +56,14 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     AND,
   };
 
+  /**
+   * Listener notified with each underlying response as soon as it arrives, before the composite future completes.
+   * The listener is invoked in the thread completing the underlying future, so it should not block.
+   */
+  public interface ResponseListener<V> {
+    void onResponse(ServerInstance server, V response);
+  }
+
   private final Collection<ServerResponseFuture<V>> _futures;
 
   // Composite Response
@@ -71,6 +79,10 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
   // Descriptive name of the future
   private final String _name;
 
+  // Guards the response map updates and the response listener notification
+  private final Object _responseListenerLock = new Object();
+  private ResponseListener<V> _responseListener;
+
   public CompositeFuture(String name, GatherModeOnError mode) {
     _name = name;
     _futures = new ArrayList<ServerResponseFuture<V>>();
@@ -106,6 +118,19 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     }
   }
 
+  /**
+   * Set the listener to be notified with each response. Responses that already arrived before the listener is set are
+   * replayed to the listener immediately, so that each response is delivered exactly once.
+   */
+  public void setResponseListener(ResponseListener<V> responseListener) {
+    synchronized (_responseListenerLock) {
+      _responseListener = responseListener;
+      for (Map.Entry<ServerInstance, V> entry : _delayedResponseMap.entrySet()) {
+        responseListener.onResponse(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
   /**
    * Call cancel on underlying futures. Dont worry if they are completed.
    * If they are already completed, cancel will be discarded. THis is best-effort only !!.
@@ -196,7 +221,14 @@ public class CompositeFuture<V> extends AbstractCompositeListenableFuture<V> {
     boolean ret = false;
     if (null != response) {
       LOGGER.debug("Response from {} is {}", server, response);
-      _delayedResponseMap.putAll(response);
+      synchronized (_responseListenerLock) {
+        _delayedResponseMap.putAll(response);
+        if (_responseListener != null) {
+          for (Map.Entry<ServerInstance, V> entry : response.entrySet()) {
+            _responseListener.onResponse(entry.getKey(), entry.getValue());
+          }
+        }
+      }
     } else if (null != error) {
       LOGGER.debug("Error from {} is : {}", server, error);
       _errorMap.putAll(error);
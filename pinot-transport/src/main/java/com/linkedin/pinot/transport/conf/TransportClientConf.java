@@ -19,6 +19,8 @@ import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 
 import com.linkedin.pinot.transport.config.ConnectionPoolConfig;
+import com.linkedin.pinot.transport.config.HedgeConfig;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.config.RoutingTableConfig;
 
 
@@ -33,6 +35,8 @@ public class TransportClientConf {
   public static final String CFG_BASED_ROUTING = "routing";
   public static final String HELIX_CONFIG = "helix";
   public static final String CONNECTION_POOL_CONFIG = "connPool";
+  public static final String NETTY_CONFIG = "netty";
+  public static final String HEDGE_CONFIG = "hedge";
 
   // TODO: Revisit defaults
   private static final String DEFAULT_ROUTING_MODE = "CONFIG";
@@ -40,11 +44,15 @@ public class TransportClientConf {
   private RoutingMode _routingMode;
   private RoutingTableConfig _cfgBasedRouting;
   private ConnectionPoolConfig _connPool;
+  private NettyChannelConfig _nettyConfig;
+  private HedgeConfig _hedgeConfig;
 
   public TransportClientConf() {
     _routingMode = RoutingMode.valueOf(DEFAULT_ROUTING_MODE);
     _cfgBasedRouting = new RoutingTableConfig();
     _connPool = new ConnectionPoolConfig();
+    _nettyConfig = new NettyChannelConfig();
+    _hedgeConfig = new HedgeConfig();
   }
 
   public void init(Configuration cfg) throws ConfigurationException {
@@ -59,6 +67,16 @@ public class TransportClientConf {
     if (connPoolCfg != null) {
       _connPool.init(connPoolCfg);
     }
+
+    Configuration nettyCfg = cfg.subset(NETTY_CONFIG);
+    if (nettyCfg != null) {
+      _nettyConfig.init(nettyCfg);
+    }
+
+    Configuration hedgeCfg = cfg.subset(HEDGE_CONFIG);
+    if (hedgeCfg != null) {
+      _hedgeConfig.init(hedgeCfg);
+    }
   }
 
   public RoutingMode getRoutingMode() {
@@ -72,4 +90,12 @@ public class TransportClientConf {
   public ConnectionPoolConfig getConnPool() {
     return _connPool;
   }
+
+  public NettyChannelConfig getNettyConfig() {
+    return _nettyConfig;
+  }
+
+  public HedgeConfig getHedgeConfig() {
+    return _hedgeConfig;
+  }
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.config;
+
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Config for hedged requests on the broker side. When enabled, a request which has not been answered by a server
+ * within a per-table delay (a percentile of the recent response latencies of the table) is re-issued to another
+ * replica hosting the same segments, and the first response wins.
+ */
+public class HedgeConfig {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HedgeConfig.class);
+
+  // Whether to send hedged requests
+  public static final String ENABLED_KEY = "enabled";
+
+  // Percentile of the per-table response latencies after which a hedged request is sent
+  public static final String LATENCY_PERCENTILE_KEY = "latencyPercentile";
+
+  // Lower bound of the hedge delay in milliseconds
+  public static final String MIN_DELAY_MS_KEY = "minDelayMs";
+
+  // Minimum number of latency samples of a table before hedged requests are sent for it
+  public static final String MIN_NUM_SAMPLES_KEY = "minNumSamples";
+
+  // Maximum ratio of hedged requests over the requests sent (global hedge budget)
+  public static final String MAX_HEDGE_RATIO_KEY = "maxHedgeRatio";
+
+  private static final boolean DEFAULT_ENABLED = false;
+  private static final double DEFAULT_LATENCY_PERCENTILE = 95.0;
+  private static final long DEFAULT_MIN_DELAY_MS = 10L;
+  private static final int DEFAULT_MIN_NUM_SAMPLES = 100;
+  private static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+
+  private boolean _enabled;
+  private double _latencyPercentile;
+  private long _minDelayMs;
+  private int _minNumSamples;
+  private double _maxHedgeRatio;
+
+  public HedgeConfig() {
+    _enabled = DEFAULT_ENABLED;
+    _latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+    _minDelayMs = DEFAULT_MIN_DELAY_MS;
+    _minNumSamples = DEFAULT_MIN_NUM_SAMPLES;
+    _maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+  }
+
+  public void init(Configuration cfg) {
+    _enabled = cfg.getBoolean(ENABLED_KEY, DEFAULT_ENABLED);
+    _latencyPercentile = cfg.getDouble(LATENCY_PERCENTILE_KEY, DEFAULT_LATENCY_PERCENTILE);
+    _minDelayMs = cfg.getLong(MIN_DELAY_MS_KEY, DEFAULT_MIN_DELAY_MS);
+    _minNumSamples = cfg.getInt(MIN_NUM_SAMPLES_KEY, DEFAULT_MIN_NUM_SAMPLES);
+    _maxHedgeRatio = cfg.getDouble(MAX_HEDGE_RATIO_KEY, DEFAULT_MAX_HEDGE_RATIO);
+
+    if (_latencyPercentile <= 0 || _latencyPercentile >= 100) {
+      LOGGER.warn("Invalid value for " + LATENCY_PERCENTILE_KEY + "({}). Resetting to default.", _latencyPercentile);
+      _latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+    }
+    if (_minDelayMs < 0) {
+      LOGGER.warn("Invalid value for " + MIN_DELAY_MS_KEY + "({}). Resetting to default.", _minDelayMs);
+      _minDelayMs = DEFAULT_MIN_DELAY_MS;
+    }
+    if (_minNumSamples <= 0) {
+      LOGGER.warn("Invalid value for " + MIN_NUM_SAMPLES_KEY + "({}). Resetting to default.", _minNumSamples);
+      _minNumSamples = DEFAULT_MIN_NUM_SAMPLES;
+    }
+    if (_maxHedgeRatio <= 0 || _maxHedgeRatio > 1) {
+      LOGGER.warn("Invalid value for " + MAX_HEDGE_RATIO_KEY + "({}). Resetting to default.", _maxHedgeRatio);
+      _maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+    }
+
+    LOGGER.info(toString());
+  }
+
+  public boolean isEnabled() {
+    return _enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    _enabled = enabled;
+  }
+
+  public double getLatencyPercentile() {
+    return _latencyPercentile;
+  }
+
+  public void setLatencyPercentile(double latencyPercentile) {
+    _latencyPercentile = latencyPercentile;
+  }
+
+  public long getMinDelayMs() {
+    return _minDelayMs;
+  }
+
+  public void setMinDelayMs(long minDelayMs) {
+    _minDelayMs = minDelayMs;
+  }
+
+  public int getMinNumSamples() {
+    return _minNumSamples;
+  }
+
+  public void setMinNumSamples(int minNumSamples) {
+    _minNumSamples = minNumSamples;
+  }
+
+  public double getMaxHedgeRatio() {
+    return _maxHedgeRatio;
+  }
+
+  public void setMaxHedgeRatio(double maxHedgeRatio) {
+    _maxHedgeRatio = maxHedgeRatio;
+  }
+
+  @Override
+  public String toString() {
+    return "enabled = " + _enabled + ", latencyPercentile = " + _latencyPercentile + ", minDelayMs = " + _minDelayMs
+        + ", minNumSamples = " + _minNumSamples + ", maxHedgeRatio = " + _maxHedgeRatio;
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.config;
+
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Netty transport config shared by the server and the broker (client) side.
+ */
+public class NettyChannelConfig {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NettyChannelConfig.class);
+
+  // Whether to use the native Linux epoll transport (falls back to NIO if epoll is not available)
+  public static final String USE_EPOLL_KEY = "useEpoll";
+
+  // Number of boss threads accepting the connections (server side only)
+  public static final String NUM_BOSS_THREADS_KEY = "numBossThreads";
+
+  // Number of worker (event loop) threads handling the channel IO, 0 to use the default
+  public static final String NUM_WORKER_THREADS_KEY = "numWorkerThreads";
+
+  // TCP_NODELAY socket option
+  public static final String TCP_NO_DELAY_KEY = "tcpNoDelay";
+
+  // SO_RCVBUF and SO_SNDBUF socket options in bytes, 0 to use the OS default
+  public static final String SO_RCVBUF_KEY = "soRcvBuf";
+  public static final String SO_SNDBUF_KEY = "soSndBuf";
+
+  // Write buffer low and high water marks in bytes, 0 to use the Netty default
+  public static final String WRITE_BUFFER_LOW_WATER_MARK_KEY = "writeBufferLowWaterMark";
+  public static final String WRITE_BUFFER_HIGH_WATER_MARK_KEY = "writeBufferHighWaterMark";
+
+  // Whether the server serializes responses directly into pooled direct buffers instead of heap byte arrays (server
+  // side only)
+  public static final String POOLED_DIRECT_RESPONSE_KEY = "pooledDirectResponse";
+
+  private static final boolean DEFAULT_USE_EPOLL = false;
+  private static final int DEFAULT_NUM_BOSS_THREADS = 1;
+  private static final int DEFAULT_NUM_WORKER_THREADS = 0;
+  private static final boolean DEFAULT_TCP_NO_DELAY = true;
+  private static final boolean DEFAULT_POOLED_DIRECT_RESPONSE = false;
+
+  private boolean _useEpoll;
+  private int _numBossThreads;
+  private int _numWorkerThreads;
+  private boolean _tcpNoDelay;
+  private int _soRcvBuf;
+  private int _soSndBuf;
+  private int _writeBufferLowWaterMark;
+  private int _writeBufferHighWaterMark;
+  private boolean _pooledDirectResponse;
+
+  public NettyChannelConfig() {
+    _useEpoll = DEFAULT_USE_EPOLL;
+    _numBossThreads = DEFAULT_NUM_BOSS_THREADS;
+    _numWorkerThreads = DEFAULT_NUM_WORKER_THREADS;
+    _tcpNoDelay = DEFAULT_TCP_NO_DELAY;
+    _pooledDirectResponse = DEFAULT_POOLED_DIRECT_RESPONSE;
+  }
+
+  public void init(Configuration cfg) {
+    _useEpoll = cfg.getBoolean(USE_EPOLL_KEY, DEFAULT_USE_EPOLL);
+    _numBossThreads = cfg.getInt(NUM_BOSS_THREADS_KEY, DEFAULT_NUM_BOSS_THREADS);
+    _numWorkerThreads = cfg.getInt(NUM_WORKER_THREADS_KEY, DEFAULT_NUM_WORKER_THREADS);
+    _tcpNoDelay = cfg.getBoolean(TCP_NO_DELAY_KEY, DEFAULT_TCP_NO_DELAY);
+    _soRcvBuf = cfg.getInt(SO_RCVBUF_KEY, 0);
+    _soSndBuf = cfg.getInt(SO_SNDBUF_KEY, 0);
+    _writeBufferLowWaterMark = cfg.getInt(WRITE_BUFFER_LOW_WATER_MARK_KEY, 0);
+    _writeBufferHighWaterMark = cfg.getInt(WRITE_BUFFER_HIGH_WATER_MARK_KEY, 0);
+    _pooledDirectResponse = cfg.getBoolean(POOLED_DIRECT_RESPONSE_KEY, DEFAULT_POOLED_DIRECT_RESPONSE);
+
+    if (_numBossThreads <= 0) {
+      LOGGER.warn("Invalid value for " + NUM_BOSS_THREADS_KEY + "({}). Resetting to default.", _numBossThreads);
+      _numBossThreads = DEFAULT_NUM_BOSS_THREADS;
+    }
+    if (_numWorkerThreads < 0) {
+      LOGGER.warn("Invalid value for " + NUM_WORKER_THREADS_KEY + "({}). Resetting to default.", _numWorkerThreads);
+      _numWorkerThreads = DEFAULT_NUM_WORKER_THREADS;
+    }
+    if (_writeBufferLowWaterMark > _writeBufferHighWaterMark) {
+      LOGGER.warn("Invalid values for " + WRITE_BUFFER_LOW_WATER_MARK_KEY + "({}) and "
+              + WRITE_BUFFER_HIGH_WATER_MARK_KEY + "({}). Resetting to defaults.", _writeBufferLowWaterMark,
+          _writeBufferHighWaterMark);
+      _writeBufferLowWaterMark = 0;
+      _writeBufferHighWaterMark = 0;
+    }
+
+    LOGGER.info(toString());
+  }
+
+  public boolean isUseEpoll() {
+    return _useEpoll;
+  }
+
+  public int getNumBossThreads() {
+    return _numBossThreads;
+  }
+
+  public int getNumWorkerThreads() {
+    return _numWorkerThreads;
+  }
+
+  public boolean isTcpNoDelay() {
+    return _tcpNoDelay;
+  }
+
+  public int getSoRcvBuf() {
+    return _soRcvBuf;
+  }
+
+  public int getSoSndBuf() {
+    return _soSndBuf;
+  }
+
+  public int getWriteBufferLowWaterMark() {
+    return _writeBufferLowWaterMark;
+  }
+
+  public int getWriteBufferHighWaterMark() {
+    return _writeBufferHighWaterMark;
+  }
+
+  public boolean isPooledDirectResponse() {
+    return _pooledDirectResponse;
+  }
+
+  @Override
+  public String toString() {
+    return "useEpoll = " + _useEpoll + ", numBossThreads = " + _numBossThreads + ", numWorkerThreads = "
+        + _numWorkerThreads + ", tcpNoDelay = " + _tcpNoDelay + ", soRcvBuf = " + _soRcvBuf + ", soSndBuf = "
+        + _soSndBuf + ", writeBufferLowWaterMark = " + _writeBufferLowWaterMark + ", writeBufferHighWaterMark = "
+        + _writeBufferHighWaterMark + ", pooledDirectResponse = " + _pooledDirectResponse;
+  }
+}
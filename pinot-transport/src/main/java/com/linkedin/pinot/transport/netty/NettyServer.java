@@ -22,10 +22,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.linkedin.pinot.common.metrics.AggregatedMetricsRegistry;
 import com.linkedin.pinot.common.metrics.MetricsHelper;
 import com.linkedin.pinot.common.metrics.MetricsHelper.TimerContext;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.AggregatedTransportServerMetrics;
 import com.linkedin.pinot.transport.metrics.NettyServerMetrics;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -33,7 +35,6 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -56,6 +57,8 @@ public abstract class NettyServer implements Runnable {
   // Server Metrics Group Name Prefix in Metrics Registry
   public static final String AGGREGATED_SERVER_METRICS_NAME = "Server_Global_Metric_";
 
+  private static final int DEFAULT_NUM_WORKER_THREADS = 20;
+
   /**
    * The request handler callback which processes the incoming request.
    * This method is executed by the Netty worker thread.
@@ -80,6 +83,25 @@ public abstract class NettyServer implements Runnable {
     ListenableFuture<byte[]> processRequest(ChannelHandlerContext channelHandlerContext, ByteBuf request);
   }
 
+  /**
+   * Request handler which can serialize the response directly into a buffer allocated from the channel allocator
+   * instead of a heap byte array. Used when {@link NettyChannelConfig#isPooledDirectResponse()} is enabled.
+   */
+  public interface ByteBufRequestHandler extends RequestHandler {
+    /**
+     * Same as {@link #processRequest(ChannelHandlerContext, ByteBuf)}, but returns the serialized response in a buffer
+     * allocated from the given allocator. The ownership of the returned buffer is transferred to the caller
+     * (NettyServer), which releases it once the response has been written. Null response is sent as empty response.
+     *
+     * @param channelHandlerContext
+     * @param request Serialized request
+     * @param allocator Allocator for the response buffer
+     * @return Serialized response
+     */
+    ListenableFuture<ByteBuf> processRequestToByteBuf(ChannelHandlerContext channelHandlerContext, ByteBuf request,
+        ByteBufAllocator allocator);
+  }
+
   public interface RequestHandlerFactory {
 
     /**
@@ -102,11 +124,11 @@ public abstract class NettyServer implements Runnable {
   // Flag to indicate if shutdown has been completed
   protected AtomicBoolean _shutdownComplete = new AtomicBoolean(false);
 
-  //TODO: Need configs to control number of threads
   // NOTE/atumbde: With ScheduledRequestHandler, queries are executed asynchronously.
   // So, these netty threads are not blocked. Config is still important
-  protected final EventLoopGroup _bossGroup = new NioEventLoopGroup(1);
-  protected final EventLoopGroup _workerGroup = new NioEventLoopGroup(20);
+  protected final NettyChannelConfig _channelConfig;
+  protected final EventLoopGroup _bossGroup;
+  protected final EventLoopGroup _workerGroup;
 
   // Netty Channel
   protected volatile Channel _channel = null;
@@ -123,7 +145,20 @@ public abstract class NettyServer implements Runnable {
   protected final long _defaultLargeQueryLatencyMs;
 
   public NettyServer(int port, RequestHandlerFactory handlerFactory, AggregatedMetricsRegistry registry, long defaultLargeQueryLatencyMs) {
+    this(port, handlerFactory, registry, defaultLargeQueryLatencyMs, new NettyChannelConfig());
+  }
+
+  public NettyServer(int port, RequestHandlerFactory handlerFactory, AggregatedMetricsRegistry registry,
+      long defaultLargeQueryLatencyMs, NettyChannelConfig channelConfig) {
     _port = port;
+    _channelConfig = channelConfig;
+    boolean useEpoll = NettyTransportUtils.useEpoll(channelConfig);
+    int numWorkerThreads = channelConfig.getNumWorkerThreads();
+    if (numWorkerThreads == 0) {
+      numWorkerThreads = DEFAULT_NUM_WORKER_THREADS;
+    }
+    _bossGroup = NettyTransportUtils.newEventLoopGroup(channelConfig.getNumBossThreads(), useEpoll);
+    _workerGroup = NettyTransportUtils.newEventLoopGroup(numWorkerThreads, useEpoll);
     _handlerFactory = handlerFactory;
     _metricsRegistry = registry;
     _metrics = new AggregatedTransportServerMetrics(_metricsRegistry, AGGREGATED_SERVER_METRICS_NAME + port + "_");
@@ -225,11 +260,22 @@ public abstract class NettyServer implements Runnable {
     private final long _defaultLargeQueryLatencyMs;
     private final RequestHandler _handler;
     private final NettyServerMetrics _metric;
+    private final boolean _pooledDirectResponse;
 
-    public NettyChannelInboundHandler(RequestHandler handler, NettyServerMetrics metric, long defaultLargeQueryLatencyMs) {
+    public NettyChannelInboundHandler(RequestHandler handler, NettyServerMetrics metric, long defaultLargeQueryLatencyMs,
+        boolean pooledDirectResponse) {
       _handler = handler;
       _metric = metric;
       _defaultLargeQueryLatencyMs = defaultLargeQueryLatencyMs;
+      _pooledDirectResponse = pooledDirectResponse && (handler instanceof ByteBufRequestHandler);
+      if (pooledDirectResponse && !_pooledDirectResponse) {
+        LOGGER.warn("Request handler: {} does not support pooled direct response, falling back to heap response",
+            handler);
+      }
+    }
+
+    public NettyChannelInboundHandler(RequestHandler handler, NettyServerMetrics metric, long defaultLargeQueryLatencyMs) {
+      this(handler, metric, defaultLargeQueryLatencyMs, false);
     }
 
     public NettyChannelInboundHandler(RequestHandler handler, NettyServerMetrics metric) {
@@ -247,50 +293,75 @@ public abstract class NettyServer implements Runnable {
       //Call processing handler
       final TimerContext requestProcessingLatency = MetricsHelper.startTimer();
       final ChannelHandlerContext requestChannelHandlerContext = ctx;
-      ListenableFuture<byte[]> serializedQueryResponse = _handler.processRequest(ctx, request);
-      Futures.addCallback(serializedQueryResponse, new FutureCallback<byte[]>() {
-        void sendResponse(@Nonnull final byte[] result) {
-          requestProcessingLatency.stop();
-
-          // Send Response
-          final ByteBuf responseBuf = Unpooled.wrappedBuffer(result);
-          final TimerContext responseSendLatency = MetricsHelper.startTimer();
-          ChannelFuture f = requestChannelHandlerContext.writeAndFlush(responseBuf);
-          f.addListener(new ChannelFutureListener() {
-            @Override
-            public void operationComplete(ChannelFuture future)
-                throws Exception {
-              LOGGER.debug("Response has been sent !!");
-              responseSendLatency.stop();
-              _metric.addServingStats(requestSizeInBytes, result.length, 1L, false,
-                  requestProcessingLatency.getLatencyMs(), responseSendLatency.getLatencyMs());
-              long totalQueryTime = System.currentTimeMillis() - requestStartTime;
-              if (totalQueryTime > _defaultLargeQueryLatencyMs) {
-                LOGGER.info("Slow query: request handler processing time: {}, send response latency: {}, total time to handle request: {}",
-                    requestProcessingLatency.getLatencyMs(),
-                    responseSendLatency.getLatencyMs(), totalQueryTime);
-              }
+      if (_pooledDirectResponse) {
+        ListenableFuture<ByteBuf> serializedQueryResponse =
+            ((ByteBufRequestHandler) _handler).processRequestToByteBuf(ctx, request, ctx.alloc());
+        Futures.addCallback(serializedQueryResponse, new FutureCallback<ByteBuf>() {
+          @Override
+          public void onSuccess(@Nullable ByteBuf result) {
+            sendResponse(requestChannelHandlerContext, request, (result != null) ? result : Unpooled.EMPTY_BUFFER,
+                requestStartTime, requestSizeInBytes, requestProcessingLatency);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            LOGGER.error("Request processing returned unhandled exception, error: ", t);
+            sendResponse(requestChannelHandlerContext, request, Unpooled.EMPTY_BUFFER, requestStartTime,
+                requestSizeInBytes, requestProcessingLatency);
+          }
+        });
+      } else {
+        ListenableFuture<byte[]> serializedQueryResponse = _handler.processRequest(ctx, request);
+        Futures.addCallback(serializedQueryResponse, new FutureCallback<byte[]>() {
+          @Override
+          public void onSuccess(@Nullable byte[] result) {
+            if (result == null) {
+              result = new byte[0];
             }
-          });
+            sendResponse(requestChannelHandlerContext, request, Unpooled.wrappedBuffer(result), requestStartTime,
+                requestSizeInBytes, requestProcessingLatency);
+          }
 
-          // TODO: check if we can release this right after _handler.processRequest returns
-          request.release();
-        }
-        @Override
-        public void onSuccess(@Nullable byte[] result) {
-          if (result == null) {
-            result = new byte[0];
+          @Override
+          public void onFailure(Throwable t) {
+            LOGGER.error("Request processing returned unhandled exception, error: ", t);
+            sendResponse(requestChannelHandlerContext, request, Unpooled.EMPTY_BUFFER, requestStartTime,
+                requestSizeInBytes, requestProcessingLatency);
           }
-          sendResponse(result);
-        }
+        });
+      }
+    }
 
+    /**
+     * Sends the response. Netty releases the response buffer once it has been written.
+     */
+    private void sendResponse(ChannelHandlerContext ctx, ByteBuf request, @Nonnull ByteBuf responseBuf,
+        final long requestStartTime, final long requestSizeInBytes, final TimerContext requestProcessingLatency) {
+      requestProcessingLatency.stop();
+
+      // Send Response
+      final int responseSizeInBytes = responseBuf.readableBytes();
+      final TimerContext responseSendLatency = MetricsHelper.startTimer();
+      ChannelFuture f = ctx.writeAndFlush(responseBuf);
+      f.addListener(new ChannelFutureListener() {
         @Override
-        public void onFailure(Throwable t) {
-          LOGGER.error("Request processing returned unhandled exception, error: ", t);
-          sendResponse(new byte[0]);
+        public void operationComplete(ChannelFuture future)
+            throws Exception {
+          LOGGER.debug("Response has been sent !!");
+          responseSendLatency.stop();
+          _metric.addServingStats(requestSizeInBytes, responseSizeInBytes, 1L, false,
+              requestProcessingLatency.getLatencyMs(), responseSendLatency.getLatencyMs());
+          long totalQueryTime = System.currentTimeMillis() - requestStartTime;
+          if (totalQueryTime > _defaultLargeQueryLatencyMs) {
+            LOGGER.info("Slow query: request handler processing time: {}, send response latency: {}, total time to handle request: {}",
+                requestProcessingLatency.getLatencyMs(),
+                responseSendLatency.getLatencyMs(), totalQueryTime);
+          }
         }
       });
 
+      // TODO: check if we can release this right after _handler.processRequest returns
+      request.release();
     }
 
     @Override
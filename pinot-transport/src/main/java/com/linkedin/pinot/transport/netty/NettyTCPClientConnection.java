@@ -18,6 +18,7 @@ package com.linkedin.pinot.transport.netty;
 import com.linkedin.pinot.common.metrics.MetricsHelper;
 import com.linkedin.pinot.common.metrics.MetricsHelper.TimerContext;
 import com.linkedin.pinot.common.response.ServerInstance;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
@@ -30,7 +31,6 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.util.Timeout;
@@ -91,16 +91,24 @@ public class NettyTCPClientConnection extends NettyClientConnection  {
 
   public NettyTCPClientConnection(ServerInstance server, EventLoopGroup eventGroup, Timer timer,
       NettyClientMetrics metric) {
+    this(server, eventGroup, timer, metric, new NettyChannelConfig());
+  }
+
+  public NettyTCPClientConnection(ServerInstance server, EventLoopGroup eventGroup, Timer timer,
+      NettyClientMetrics metric, NettyChannelConfig channelConfig) {
     super(server, eventGroup, timer,_connIdGen.incrementAndGet() );
     _handler = new NettyClientConnectionHandler();
     _outstandingFuture = new AtomicReference<ResponseFuture>();
     _clientMetric = metric;
-    init();
+    init(channelConfig);
   }
 
-  private void init() {
+  private void init(NettyChannelConfig channelConfig) {
     _bootstrap = new Bootstrap();
-    _bootstrap.group(_eventGroup).channel(NioSocketChannel.class).handler(new ChannelHandlerInitializer(_handler));
+    _bootstrap.group(_eventGroup)
+        .channel(NettyTransportUtils.getSocketChannelClass(_eventGroup))
+        .handler(new ChannelHandlerInitializer(_handler));
+    NettyTransportUtils.setOptions(_bootstrap, channelConfig);
   }
 
   protected void setSelfClose(boolean selfClose) {
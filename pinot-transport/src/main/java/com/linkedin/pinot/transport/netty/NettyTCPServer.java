@@ -16,15 +16,16 @@
 package com.linkedin.pinot.transport.netty;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 
 import com.linkedin.pinot.common.Utils;
 import com.linkedin.pinot.common.metrics.AggregatedMetricsRegistry;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.AggregatedTransportServerMetrics;
 import com.linkedin.pinot.transport.metrics.NettyServerMetrics;
 import com.yammer.metrics.core.MetricsRegistry;
@@ -46,16 +47,30 @@ public class NettyTCPServer extends NettyServer {
     this(port, handlerFactory, registry, 100);
   }
 
+  public NettyTCPServer(int port, RequestHandlerFactory handlerFactory, AggregatedMetricsRegistry registry,
+      long defaultLargeQueryLatencyMs, NettyChannelConfig channelConfig) {
+    super(port, handlerFactory, registry, defaultLargeQueryLatencyMs, channelConfig);
+  }
+
   @Override
   protected ServerBootstrap getServerBootstrap() {
     ServerBootstrap b = new ServerBootstrap();
-    b.group(_bossGroup, _workerGroup).channel(NioServerSocketChannel.class).childHandler(createChannelInitializer())
-        .option(ChannelOption.SO_BACKLOG, 128).childOption(ChannelOption.SO_KEEPALIVE, true);
+    b.group(_bossGroup, _workerGroup)
+        .channel(NettyTransportUtils.getServerChannelClass(_bossGroup))
+        .childHandler(createChannelInitializer())
+        .option(ChannelOption.SO_BACKLOG, 128)
+        .childOption(ChannelOption.SO_KEEPALIVE, true);
+    NettyTransportUtils.setChildOptions(b, _channelConfig);
+    if (_channelConfig.isPooledDirectResponse()) {
+      // Responses are serialized into buffers allocated from the channel allocator
+      b.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+    }
     return b;
   }
 
   protected ChannelInitializer<SocketChannel> createChannelInitializer() {
-    return new ServerChannelInitializer(_handlerFactory, _metricsRegistry, _metrics, _defaultLargeQueryLatencyMs);
+    return new ServerChannelInitializer(_handlerFactory, _metricsRegistry, _metrics, _defaultLargeQueryLatencyMs,
+        _channelConfig.isPooledDirectResponse());
   }
 
   /**
@@ -73,13 +88,20 @@ public class NettyTCPServer extends NettyServer {
     private final MetricsRegistry _registry;
     private final AggregatedTransportServerMetrics _globalMetrics;
     private final long _defaultLargeQueryLatencyMs;
+    private final boolean _pooledDirectResponse;
 
     public ServerChannelInitializer(RequestHandlerFactory handlerFactory, MetricsRegistry registry,
-        AggregatedTransportServerMetrics globalMetrics, long defaultLargeQueryLatencyMs) {
+        AggregatedTransportServerMetrics globalMetrics, long defaultLargeQueryLatencyMs, boolean pooledDirectResponse) {
       _handlerFactory = handlerFactory;
       _registry = registry;
       _globalMetrics = globalMetrics;
       _defaultLargeQueryLatencyMs = defaultLargeQueryLatencyMs;
+      _pooledDirectResponse = pooledDirectResponse;
+    }
+
+    public ServerChannelInitializer(RequestHandlerFactory handlerFactory, MetricsRegistry registry,
+        AggregatedTransportServerMetrics globalMetrics, long defaultLargeQueryLatencyMs) {
+      this(handlerFactory, registry, globalMetrics, defaultLargeQueryLatencyMs, false);
     }
 
     public ServerChannelInitializer(RequestHandlerFactory handlerFactory, MetricsRegistry registry,
@@ -102,7 +124,8 @@ public class NettyTCPServer extends NettyServer {
       }
 
       ch.pipeline().addLast("request_handler",
-          new NettyChannelInboundHandler(_handlerFactory.createNewRequestHandler(), serverMetric, _defaultLargeQueryLatencyMs));
+          new NettyChannelInboundHandler(_handlerFactory.createNewRequestHandler(), serverMetric,
+              _defaultLargeQueryLatencyMs, _pooledDirectResponse));
     }
   }
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.netty;
+
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Utility methods to create the Netty event loop groups and channels based on the {@link NettyChannelConfig}, using the
+ * native Linux epoll transport when it is configured and available, or NIO otherwise.
+ */
+public class NettyTransportUtils {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NettyTransportUtils.class);
+
+  private NettyTransportUtils() {
+  }
+
+  /**
+   * Returns whether to use the native epoll transport, i.e. epoll is configured and available on this platform.
+   */
+  public static boolean useEpoll(@Nonnull NettyChannelConfig config) {
+    if (!config.isUseEpoll()) {
+      return false;
+    }
+    if (Epoll.isAvailable()) {
+      return true;
+    }
+    LOGGER.warn("Native epoll transport is not available, falling back to NIO", Epoll.unavailabilityCause());
+    return false;
+  }
+
+  /**
+   * Creates an event loop group with the given number of threads (0 to use the Netty default).
+   */
+  @Nonnull
+  public static EventLoopGroup newEventLoopGroup(int numThreads, boolean useEpoll) {
+    if (useEpoll) {
+      return new EpollEventLoopGroup(numThreads);
+    } else {
+      return new NioEventLoopGroup(numThreads);
+    }
+  }
+
+  /**
+   * Returns the server channel class matching the type of the event loop group.
+   */
+  @Nonnull
+  public static Class<? extends ServerChannel> getServerChannelClass(@Nonnull EventLoopGroup eventLoopGroup) {
+    if (eventLoopGroup instanceof EpollEventLoopGroup) {
+      return EpollServerSocketChannel.class;
+    } else {
+      return NioServerSocketChannel.class;
+    }
+  }
+
+  /**
+   * Returns the socket channel class matching the type of the event loop group.
+   */
+  @Nonnull
+  public static Class<? extends SocketChannel> getSocketChannelClass(@Nonnull EventLoopGroup eventLoopGroup) {
+    if (eventLoopGroup instanceof EpollEventLoopGroup) {
+      return EpollSocketChannel.class;
+    } else {
+      return NioSocketChannel.class;
+    }
+  }
+
+  /**
+   * Sets the configured socket options on the accepted channels of the server bootstrap.
+   */
+  public static void setChildOptions(@Nonnull ServerBootstrap serverBootstrap, @Nonnull NettyChannelConfig config) {
+    for (Map.Entry<ChannelOption<Object>, Object> entry : getSocketOptions(config).entrySet()) {
+      serverBootstrap.childOption(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Sets the configured socket options on the channels of the client bootstrap.
+   */
+  public static void setOptions(@Nonnull Bootstrap bootstrap, @Nonnull NettyChannelConfig config) {
+    for (Map.Entry<ChannelOption<Object>, Object> entry : getSocketOptions(config).entrySet()) {
+      bootstrap.option(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<ChannelOption<Object>, Object> getSocketOptions(NettyChannelConfig config) {
+    Map<ChannelOption<?>, Object> options = new HashMap<>();
+    options.put(ChannelOption.TCP_NODELAY, config.isTcpNoDelay());
+    if (config.getSoRcvBuf() > 0) {
+      options.put(ChannelOption.SO_RCVBUF, config.getSoRcvBuf());
+    }
+    if (config.getSoSndBuf() > 0) {
+      options.put(ChannelOption.SO_SNDBUF, config.getSoSndBuf());
+    }
+    if (config.getWriteBufferHighWaterMark() > 0) {
+      options.put(ChannelOption.WRITE_BUFFER_WATER_MARK,
+          new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()));
+    }
+    return (Map) options;
+  }
+}
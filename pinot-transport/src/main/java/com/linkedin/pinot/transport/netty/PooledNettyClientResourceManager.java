@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.transport.common.Callback;
 import com.linkedin.pinot.transport.common.NoneType;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.PooledResourceManager;
@@ -35,11 +36,18 @@ public class PooledNettyClientResourceManager implements PooledResourceManager<P
   private final EventLoopGroup _eventLoop;
   private final NettyClientMetrics _metrics;
   private final Timer _timer;
+  private final NettyChannelConfig _channelConfig;
 
   public PooledNettyClientResourceManager(EventLoopGroup eventLoop, Timer timer, NettyClientMetrics metrics) {
+    this(eventLoop, timer, metrics, new NettyChannelConfig());
+  }
+
+  public PooledNettyClientResourceManager(EventLoopGroup eventLoop, Timer timer, NettyClientMetrics metrics,
+      NettyChannelConfig channelConfig) {
     _eventLoop = eventLoop;
     _metrics = metrics;
     _timer = timer;
+    _channelConfig = channelConfig;
   }
 
   public void setPool(KeyedPool<PooledClientConnection> pool) {
@@ -48,7 +56,7 @@ public class PooledNettyClientResourceManager implements PooledResourceManager<P
 
   @Override
   public PooledClientConnection create(ServerInstance key) {
-    PooledClientConnection conn = new PooledClientConnection(_pool, key, _eventLoop, _timer, _metrics);
+    PooledClientConnection conn = new PooledClientConnection(_pool, key, _eventLoop, _timer, _metrics, _channelConfig);
     conn.connect();
     // At this point, we have already waited for a connection to complete. Whether it succeeds or fails,
     // we should return the object to the pool. It is possible to return null if the connection attempt
@@ -91,8 +99,8 @@ public class PooledNettyClientResourceManager implements PooledResourceManager<P
     private boolean _destroyed = false;
 
     public PooledClientConnection(KeyedPool<PooledClientConnection> pool, ServerInstance server,
-        EventLoopGroup eventGroup, Timer timer, NettyClientMetrics metric) {
-      super(server, eventGroup, timer, metric);
+        EventLoopGroup eventGroup, Timer timer, NettyClientMetrics metric, NettyChannelConfig channelConfig) {
+      super(server, eventGroup, timer, metric, channelConfig);
       _pool = pool;
       init();
     }
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.linkedin.pinot.transport.config.HedgeConfig;
+import com.yammer.metrics.stats.ExponentiallyDecayingSample;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Decides when hedged requests are sent.
+ * <ul>
+ *   <li>
+ *     The hedge delay of a table is the configured percentile of its recent server response latencies, kept in an
+ *     exponentially decaying sample (biased towards the last 5 minutes, same as the yammer histograms).
+ *   </li>
+ *   <li>
+ *     The number of hedged requests is capped by a global token budget: each request sent adds
+ *     <code>maxHedgeRatio</code> tokens, and each hedged request consumes one token.
+ *   </li>
+ * </ul>
+ */
+class HedgePolicy {
+  private static final int SAMPLE_SIZE = 1028;
+  private static final double SAMPLE_ALPHA = 0.015;
+  // Recompute the hedge delay of a table at most once per second as taking a snapshot requires sorting the sample
+  private static final long DELAY_REFRESH_INTERVAL_MS = 1000L;
+  // Maximum number of tokens in the budget, which bounds the burst of hedged requests
+  private static final double MAX_NUM_TOKENS = 10.0;
+
+  private final HedgeConfig _config;
+  private final long _delayRefreshIntervalMs;
+  private final ConcurrentMap<String, TableLatencyStats> _tableLatencyStatsMap = new ConcurrentHashMap<>();
+
+  // Guarded by this
+  private double _numTokens = 0.0;
+
+  HedgePolicy(HedgeConfig config) {
+    this(config, DELAY_REFRESH_INTERVAL_MS);
+  }
+
+  @VisibleForTesting
+  HedgePolicy(HedgeConfig config, long delayRefreshIntervalMs) {
+    _config = config;
+    _delayRefreshIntervalMs = delayRefreshIntervalMs;
+  }
+
+  /**
+   * Records the response latency of a (non-hedged) request sent for the given table.
+   */
+  void recordLatency(String tableName, long latencyMs) {
+    getTableLatencyStats(tableName).recordLatency(latencyMs);
+  }
+
+  /**
+   * Records a (non-hedged) request sent for the given table which got cancelled before its response arrived (e.g. lost
+   * to the hedged request). The time until the cancellation is a lower bound of the latency, and is recorded as such:
+   * requests are cancelled exactly when they are slow, so dropping them would systematically remove the slow tail from
+   * the sample and make the hedge delay drift down.
+   */
+  void recordCancelled(String tableName, long elapsedMs) {
+    getTableLatencyStats(tableName).recordLatency(elapsedMs);
+  }
+
+  /**
+   * Returns the delay after which a hedged request should be sent for the given table, or -1 if there are not enough
+   * latency samples for the table yet.
+   */
+  long getHedgeDelayMs(String tableName) {
+    return getTableLatencyStats(tableName).getHedgeDelayMs();
+  }
+
+  /**
+   * Adds tokens to the hedge budget for a request sent.
+   */
+  synchronized void onRequestSent() {
+    _numTokens = Math.min(_numTokens + _config.getMaxHedgeRatio(), MAX_NUM_TOKENS);
+  }
+
+  /**
+   * Consumes a token from the hedge budget if available.
+   *
+   * @return Whether a hedged request can be sent
+   */
+  synchronized boolean tryAcquire() {
+    if (_numTokens >= 1.0) {
+      _numTokens -= 1.0;
+      return true;
+    }
+    return false;
+  }
+
+  private TableLatencyStats getTableLatencyStats(String tableName) {
+    TableLatencyStats tableLatencyStats = _tableLatencyStatsMap.get(tableName);
+    if (tableLatencyStats == null) {
+      _tableLatencyStatsMap.putIfAbsent(tableName, new TableLatencyStats());
+      tableLatencyStats = _tableLatencyStatsMap.get(tableName);
+    }
+    return tableLatencyStats;
+  }
+
+  private class TableLatencyStats {
+    private final ExponentiallyDecayingSample _sample = new ExponentiallyDecayingSample(SAMPLE_SIZE, SAMPLE_ALPHA);
+    private volatile long _hedgeDelayMs = -1L;
+    private volatile long _lastRefreshTimeMs = 0L;
+
+    void recordLatency(long latencyMs) {
+      _sample.update(latencyMs);
+    }
+
+    long getHedgeDelayMs() {
+      long currentTimeMs = System.currentTimeMillis();
+      if (_hedgeDelayMs < 0 || currentTimeMs - _lastRefreshTimeMs >= _delayRefreshIntervalMs) {
+        _lastRefreshTimeMs = currentTimeMs;
+        if (_sample.size() >= _config.getMinNumSamples()) {
+          double latencyMs = _sample.getSnapshot().getValue(_config.getLatencyPercentile() / 100);
+          _hedgeDelayMs = Math.max((long) latencyMs, _config.getMinDelayMs());
+        } else {
+          _hedgeDelayMs = -1L;
+        }
+      }
+      return _hedgeDelayMs;
+    }
+  }
+}
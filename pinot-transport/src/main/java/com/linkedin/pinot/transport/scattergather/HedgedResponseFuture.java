@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.transport.common.AsyncResponseFuture;
+import com.linkedin.pinot.transport.common.Cancellable;
+import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+
+/**
+ * Response future wrapping the request sent to a server and, if any, the hedged request sent to another replica for
+ * the same segments. The first successful response wins and the other request gets cancelled. The future only fails
+ * if all the sent requests failed.
+ * <p>The future is keyed by the server the request was originally sent to, so that the responses can be gathered the
+ * same way as non-hedged requests.
+ */
+class HedgedResponseFuture extends AsyncResponseFuture<byte[]> {
+  private final ResponseFuture _primaryFuture;
+  private volatile ResponseFuture _hedgeFuture;
+
+  // Guarded by this
+  private int _numPendingRequests = 1;
+  private boolean _completed = false;
+
+  private volatile boolean _hedgeWon = false;
+
+  HedgedResponseFuture(ResponseFuture primaryFuture, String ctxt) {
+    super(primaryFuture.getServerInstance(), ctxt);
+    _primaryFuture = primaryFuture;
+    setCancellable(new Cancellable() {
+      @Override
+      public boolean cancel() {
+        synchronized (HedgedResponseFuture.this) {
+          _completed = true;
+        }
+        cancelRequests(null);
+        return true;
+      }
+    });
+    primaryFuture.addListener(new RequestCompletionListener(primaryFuture, false), null);
+  }
+
+  /**
+   * Adds the future of the hedged request.
+   *
+   * @return false if this future has already completed, in which case the hedged request gets cancelled
+   */
+  boolean addHedge(ResponseFuture hedgeFuture) {
+    synchronized (this) {
+      if (_completed || isDone()) {
+        hedgeFuture.cancel(true);
+        return false;
+      }
+      _hedgeFuture = hedgeFuture;
+      _numPendingRequests++;
+    }
+    // Add listener outside of the lock as it might be executed in the current thread
+    hedgeFuture.addListener(new RequestCompletionListener(hedgeFuture, true), null);
+    return true;
+  }
+
+  /**
+   * Returns whether the response was received from the hedged request.
+   */
+  boolean isHedgeWon() {
+    return _hedgeWon;
+  }
+
+  private void onRequestComplete(ResponseFuture future, boolean isHedge) {
+    byte[] response = null;
+    Throwable error = null;
+    try {
+      // The future is already done, so this does not block
+      response = future.getOne();
+    } catch (Exception e) {
+      error = e;
+    }
+
+    if (response != null) {
+      synchronized (this) {
+        if (_completed) {
+          return;
+        }
+        _completed = true;
+        _hedgeWon = isHedge;
+      }
+      onSuccess(response);
+      cancelRequests(future);
+    } else {
+      synchronized (this) {
+        if (--_numPendingRequests > 0 || _completed) {
+          return;
+        }
+        _completed = true;
+      }
+      if (error == null) {
+        Map<?, Throwable> errorMap = future.getError();
+        if (errorMap != null && !errorMap.isEmpty()) {
+          error = errorMap.values().iterator().next();
+        } else {
+          error = new CancellationException("Request to server " + future.getServerInstance() + " got cancelled");
+        }
+      }
+      onError(error);
+    }
+  }
+
+  /**
+   * Cancels the pending requests, except the given one.
+   */
+  private void cancelRequests(ResponseFuture except) {
+    if (_primaryFuture != except && !_primaryFuture.isDone()) {
+      _primaryFuture.cancel(true);
+    }
+    ResponseFuture hedgeFuture = _hedgeFuture;
+    if (hedgeFuture != null && hedgeFuture != except && !hedgeFuture.isDone()) {
+      hedgeFuture.cancel(true);
+    }
+  }
+
+  private class RequestCompletionListener implements Runnable {
+    private final ResponseFuture _future;
+    private final boolean _isHedge;
+
+    RequestCompletionListener(ResponseFuture future, boolean isHedge) {
+      _future = future;
+      _isHedge = isHedge;
+    }
+
+    @Override
+    public void run() {
+      onRequestComplete(_future, _isHedge);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.transport.common.CompositeFuture;
 import com.linkedin.pinot.transport.common.CompositeFuture.GatherModeOnError;
 import com.linkedin.pinot.transport.common.ServerResponseFuture;
+import com.linkedin.pinot.transport.config.HedgeConfig;
 import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
 import com.linkedin.pinot.transport.netty.PooledNettyClientResourceManager;
 import com.linkedin.pinot.transport.pool.KeyedPool;
@@ -34,6 +35,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -54,10 +56,45 @@ public class ScatterGatherImpl implements ScatterGather {
   private final KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> _connPool;
   private final ExecutorService _executorService;
 
+  // Used to send hedged requests, null if hedging is disabled
+  private final HedgePolicy _hedgePolicy;
+  private final ScheduledExecutorService _hedgeScheduler;
+
+  // Fed with the outcome of each request sent, null if not tracking the server performance
+  private final ServerPerformanceTracker _serverPerformanceTracker;
+
   public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
       @Nonnull ExecutorService executorService) {
+    this(connPool, executorService, null, null, null);
+  }
+
+  /**
+   * Constructor with hedged requests. If the hedge config is enabled, a request which is not answered within the hedge
+   * delay of the table is re-issued to another replica of the segments, scheduled on the given scheduler.
+   */
+  public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+      @Nonnull ExecutorService executorService, @Nullable HedgeConfig hedgeConfig,
+      @Nullable ScheduledExecutorService hedgeScheduler) {
+    this(connPool, executorService, hedgeConfig, hedgeScheduler, null);
+  }
+
+  /**
+   * Constructor with hedged requests and server performance tracking. The given tracker gets updated with the
+   * latency, error and in-flight status of each request sent.
+   */
+  public ScatterGatherImpl(@Nonnull KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
+      @Nonnull ExecutorService executorService, @Nullable HedgeConfig hedgeConfig,
+      @Nullable ScheduledExecutorService hedgeScheduler, @Nullable ServerPerformanceTracker serverPerformanceTracker) {
     _connPool = connPool;
     _executorService = executorService;
+    _serverPerformanceTracker = serverPerformanceTracker;
+    if (hedgeConfig != null && hedgeConfig.isEnabled() && hedgeScheduler != null) {
+      _hedgePolicy = new HedgePolicy(hedgeConfig);
+      _hedgeScheduler = hedgeScheduler;
+    } else {
+      _hedgePolicy = null;
+      _hedgeScheduler = null;
+    }
   }
 
   @Nonnull
@@ -110,7 +147,7 @@ public class ScatterGatherImpl implements ScatterGather {
       }
       scatterGatherStats.initServer(shortServerName);
       SingleRequestHandler handler =
-          new SingleRequestHandler(_connPool, serverInstance, scatterGatherRequest, entry.getValue(),
+          new SingleRequestHandler(_connPool, entry.getKey(), scatterGatherRequest, entry.getValue(),
               scatterGatherRequestContext.getRemainingTimeMs(), requestDispatchLatch, brokerMetrics);
       // Submit to thread-pool for checking-out and sending request
       _executorService.submit(handler);
@@ -126,9 +163,25 @@ public class ScatterGatherImpl implements ScatterGather {
     boolean sentSuccessfully = requestDispatchLatch.await(timeRemaining, TimeUnit.MILLISECONDS);
 
     if (sentSuccessfully) {
+      String tableName = getTableName(scatterGatherRequest);
+      long hedgeDelayMs = _hedgePolicy != null ? _hedgePolicy.getHedgeDelayMs(tableName) : -1L;
       List<ServerResponseFuture<byte[]>> responseFutures = new ArrayList<>();
       for (SingleRequestHandler h : handlers) {
-        responseFutures.add(h.getResponseFuture());
+        ResponseFuture responseFuture = h.getResponseFuture();
+        if (_serverPerformanceTracker != null) {
+          trackServerPerformance(h.getServerName(), responseFuture);
+        }
+        if (_hedgePolicy != null && h.isSent()) {
+          _hedgePolicy.onRequestSent();
+          recordLatency(tableName, responseFuture);
+          if (hedgeDelayMs >= 0) {
+            responseFutures.add(scheduleHedge(scatterGatherRequestContext, h, hedgeDelayMs, brokerMetrics));
+          } else {
+            responseFutures.add(responseFuture);
+          }
+        } else {
+          responseFutures.add(responseFuture);
+        }
         String shortServerName = h.getServer().getShortHostName();
         if (isOfflineTable != null) {
           if (isOfflineTable) {
@@ -160,6 +213,114 @@ public class ScatterGatherImpl implements ScatterGather {
     return response;
   }
 
+  private static String getTableName(ScatterGatherRequest scatterGatherRequest) {
+    BrokerRequest brokerRequest = scatterGatherRequest.getBrokerRequest();
+    if (brokerRequest == null || brokerRequest.getQuerySource() == null) {
+      return "";
+    }
+    return brokerRequest.getQuerySource().getTableName();
+  }
+
+  /**
+   * Updates the server performance tracker with the request sent to the given server and, once completed, with its
+   * outcome.
+   */
+  private void trackServerPerformance(final String serverName, final ResponseFuture responseFuture) {
+    _serverPerformanceTracker.onRequestSent(serverName);
+    responseFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (responseFuture.isCancelled()) {
+          _serverPerformanceTracker.onCancelled(serverName, responseFuture.getDurationMillis());
+        } else if (responseFuture.getError() != null) {
+          _serverPerformanceTracker.onError(serverName, responseFuture.getDurationMillis());
+        } else {
+          _serverPerformanceTracker.onResponse(serverName, responseFuture.getDurationMillis());
+        }
+      }
+    }, null);
+  }
+
+  /**
+   * Records the latency of the response for the given table once it arrives, or the time until the cancellation as a
+   * lower bound of the latency if the request gets cancelled (e.g. lost to the hedged request).
+   */
+  private void recordLatency(final String tableName, final ResponseFuture responseFuture) {
+    responseFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (responseFuture.isCancelled()) {
+          _hedgePolicy.recordCancelled(tableName, responseFuture.getDurationMillis());
+        } else if (responseFuture.getError() == null) {
+          _hedgePolicy.recordLatency(tableName, responseFuture.getDurationMillis());
+        }
+      }
+    }, null);
+  }
+
+  /**
+   * Wraps the response future of the request in a {@link HedgedResponseFuture}, and schedules a hedged request to
+   * another replica of the segments if the response has not arrived after the hedge delay and there is hedge budget
+   * left.
+   */
+  private ServerResponseFuture<byte[]> scheduleHedge(final ScatterGatherRequestContext scatterGatherRequestContext,
+      final SingleRequestHandler handler, long hedgeDelayMs, final BrokerMetrics brokerMetrics) {
+    final ScatterGatherRequest scatterGatherRequest = scatterGatherRequestContext._request;
+    final HedgedResponseFuture hedgedFuture = new HedgedResponseFuture(handler.getResponseFuture(),
+        "Hedged response future for request " + scatterGatherRequest.getRequestId() + " to server "
+            + handler.getServer());
+    hedgedFuture.addListener(new Runnable() {
+      @Override
+      public void run() {
+        if (hedgedFuture.isHedgeWon()) {
+          brokerMetrics.addMeteredQueryValue(scatterGatherRequest.getBrokerRequest(),
+              BrokerMeter.HEDGED_REQUESTS_WON, 1);
+        }
+      }
+    }, null);
+
+    // Checking out the connection might block, so only schedule on the scheduler and send from the executor
+    final Runnable hedgeTask = new Runnable() {
+      @Override
+      public void run() {
+        if (hedgedFuture.isDone()) {
+          return;
+        }
+        String hedgeServer = scatterGatherRequest.getHedgeServer(handler.getServerName(), handler.getSegments());
+        if (hedgeServer == null) {
+          return;
+        }
+        long timeoutMs = scatterGatherRequestContext.getRemainingTimeMs();
+        if (timeoutMs <= 0 || !_hedgePolicy.tryAcquire()) {
+          return;
+        }
+        SingleRequestHandler hedgeHandler =
+            new SingleRequestHandler(_connPool, hedgeServer, scatterGatherRequest, handler.getSegments(), timeoutMs,
+                new CountDownLatch(1), brokerMetrics);
+        hedgeHandler.run();
+        if (_serverPerformanceTracker != null) {
+          trackServerPerformance(hedgeServer, hedgeHandler.getResponseFuture());
+        }
+        if (hedgeHandler.isSent() && hedgedFuture.addHedge(hedgeHandler.getResponseFuture())) {
+          LOGGER.debug("Sent hedged request {} to server {} for server {}", scatterGatherRequest.getRequestId(),
+              hedgeServer, handler.getServer());
+          brokerMetrics.addMeteredQueryValue(scatterGatherRequest.getBrokerRequest(), BrokerMeter.HEDGED_REQUESTS,
+              1);
+        }
+      }
+    };
+    _hedgeScheduler.schedule(new Runnable() {
+      @Override
+      public void run() {
+        if (!hedgedFuture.isDone()) {
+          _executorService.submit(hedgeTask);
+        }
+      }
+    }, hedgeDelayMs, TimeUnit.MILLISECONDS);
+
+    return hedgedFuture;
+  }
+
   private static class ScatterGatherRequestContext {
     private final ScatterGatherRequest _request;
     private final long _startTimeMs;
@@ -191,7 +352,8 @@ public class ScatterGatherImpl implements ScatterGather {
     private final ScatterGatherRequest _request;
     // List Of Partitions to be queried on the server
     private final List<String> _segments;
-    // Server Instance to be queried
+    // Server to be queried
+    private final String _serverName;
     private final ServerInstance _server;
     // Latch to signal completion of dispatching request
     private final CountDownLatch _requestDispatchLatch;
@@ -216,10 +378,11 @@ public class ScatterGatherImpl implements ScatterGather {
     private long _endTime;
 
     public SingleRequestHandler(KeyedPool<PooledNettyClientResourceManager.PooledClientConnection> connPool,
-        ServerInstance server, ScatterGatherRequest request, List<String> segments, long timeoutMS,
+        String serverName, ScatterGatherRequest request, List<String> segments, long timeoutMS,
         CountDownLatch latch, final BrokerMetrics brokerMetrics) {
       _connPool = connPool;
-      _server = server;
+      _serverName = serverName;
+      _server = ServerInstance.forInstanceName(serverName);
       _request = request;
       _segments = segments;
       _requestDispatchLatch = latch;
@@ -368,10 +531,18 @@ public class ScatterGatherImpl implements ScatterGather {
       }
     }
 
+    public String getServerName() {
+      return _serverName;
+    }
+
     public ServerInstance getServer() {
       return _server;
     }
 
+    public List<String> getSegments() {
+      return _segments;
+    }
+
     public ResponseFuture getResponseFuture() {
       return _responseFuture;
     }
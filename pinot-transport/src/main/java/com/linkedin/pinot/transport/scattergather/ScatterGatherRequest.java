@@ -18,6 +18,7 @@ package com.linkedin.pinot.transport.scattergather;
 import com.linkedin.pinot.common.request.BrokerRequest;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -42,6 +43,17 @@ public interface ScatterGatherRequest {
    */
   byte[] getRequestForService(List<String> segments);
 
+  /**
+   * Get another server hosting all the given segments, to which a hedged request can be sent if the server the
+   * segments were routed to does not respond in time.
+   *
+   * @param server Server the segments were routed to
+   * @param segments List of segments queried on the server
+   * @return Another server hosting all the segments, or null if there is no such server
+   */
+  @Nullable
+  String getHedgeServer(String server, List<String> segments);
+
   /**
    * Get the request id for tracing purpose.
    *
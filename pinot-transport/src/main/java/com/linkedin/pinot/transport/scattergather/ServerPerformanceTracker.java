@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Tracks the recent performance of each server from the requests sent by the scatter-gather: exponentially weighted
+ * moving averages (EWMA) of the response latency and the error rate, and the number of in-flight requests.
+ * <p>The servers are keyed by instance name (the key of the routing table). The score of a server combines the three
+ * signals, and can be used to steer the queries away from slow or overloaded servers.
+ */
+public class ServerPerformanceTracker {
+  // Smoothing factor of the EWMAs
+  private static final double ALPHA = 0.2;
+  // Score multiplier for a server which fails all the requests
+  private static final double ERROR_PENALTY = 10.0;
+  // Stats of a server without any request for this long are considered stale (e.g. a server which has not been queried
+  // because it was slow), so that the server gets probed again
+  private static final long STATS_EXPIRATION_MS = 30_000L;
+
+  private final ConcurrentMap<String, ServerStats> _serverStatsMap = new ConcurrentHashMap<>();
+
+  public void onRequestSent(String server) {
+    getServerStats(server).onRequestSent();
+  }
+
+  public void onResponse(String server, long latencyMs) {
+    getServerStats(server).onRequestCompleted(latencyMs, false);
+  }
+
+  public void onError(String server, long latencyMs) {
+    getServerStats(server).onRequestCompleted(latencyMs, true);
+  }
+
+  /**
+   * Request cancelled (e.g. lost to a hedged request, or another server failed). The time until the cancellation is a
+   * lower bound of the latency, so it is only taken if higher than the current latency EWMA.
+   */
+  public void onCancelled(String server, long latencyMs) {
+    getServerStats(server).onRequestCancelled(latencyMs);
+  }
+
+  /**
+   * Returns the score of the server (lower is better), or -1 if there is no up-to-date stats for the server.
+   * <p>Score = (latency EWMA + 1) * (number of in-flight requests + 1) * (1 + ERROR_PENALTY * error rate EWMA)
+   */
+  public double getScore(String server) {
+    ServerStats serverStats = _serverStatsMap.get(server);
+    if (serverStats == null) {
+      return -1;
+    }
+    return serverStats.getScore();
+  }
+
+  private ServerStats getServerStats(String server) {
+    ServerStats serverStats = _serverStatsMap.get(server);
+    if (serverStats == null) {
+      _serverStatsMap.putIfAbsent(server, new ServerStats());
+      serverStats = _serverStatsMap.get(server);
+    }
+    return serverStats;
+  }
+
+  private static class ServerStats {
+    private boolean _hasStats = false;
+    private double _latencyMs;
+    private double _errorRate;
+    private int _numInFlightRequests;
+    private long _lastUpdateTimeMs;
+
+    synchronized void onRequestSent() {
+      _numInFlightRequests++;
+      _lastUpdateTimeMs = System.currentTimeMillis();
+    }
+
+    synchronized void onRequestCompleted(long latencyMs, boolean isError) {
+      // Latency is not available for requests which failed before being sent
+      latencyMs = Math.max(latencyMs, 0L);
+      if (_numInFlightRequests > 0) {
+        _numInFlightRequests--;
+      }
+      // Errors might be early failures (e.g. connection refused), so only take their latency if higher
+      if (!_hasStats) {
+        _hasStats = true;
+        _latencyMs = latencyMs;
+        _errorRate = isError ? 1.0 : 0.0;
+      } else {
+        if (!isError || latencyMs > _latencyMs) {
+          _latencyMs += ALPHA * (latencyMs - _latencyMs);
+        }
+        _errorRate += ALPHA * ((isError ? 1.0 : 0.0) - _errorRate);
+      }
+      _lastUpdateTimeMs = System.currentTimeMillis();
+    }
+
+    synchronized void onRequestCancelled(long latencyMs) {
+      if (_numInFlightRequests > 0) {
+        _numInFlightRequests--;
+      }
+      if (_hasStats && latencyMs > _latencyMs) {
+        _latencyMs += ALPHA * (latencyMs - _latencyMs);
+      }
+    }
+
+    synchronized double getScore() {
+      if (!_hasStats) {
+        return -1;
+      }
+      if (_numInFlightRequests == 0 && System.currentTimeMillis() - _lastUpdateTimeMs > STATS_EXPIRATION_MS) {
+        _hasStats = false;
+        return -1;
+      }
+      return (_latencyMs + 1) * (_numInFlightRequests + 1) * (1 + ERROR_PENALTY * _errorRate);
+    }
+  }
+}
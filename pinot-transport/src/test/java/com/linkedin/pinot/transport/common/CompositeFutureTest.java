@@ -583,6 +583,44 @@ public class CompositeFutureTest {
     }
   }
 
+  @Test
+  /**
+   * Responses arriving both before and after the response listener is set should be delivered exactly once.
+   * @throws Exception
+   */
+  public void testResponseListener() throws Exception {
+    int numFutures = 10;
+    Map<ServerInstance, ServerResponseFuture<String>> futureMap = new HashMap<>();
+    for (int i = 0; i < numFutures; i++) {
+      ServerInstance key = new ServerInstance("localhost:" + i);
+      futureMap.put(key, new AsyncResponseFuture<String>(key, ""));
+    }
+    CompositeFuture<String> compositeFuture = new CompositeFuture<String>("test", GatherModeOnError.AND);
+    compositeFuture.start(futureMap.values());
+
+    final Map<ServerInstance, String> receivedMessages = new HashMap<>();
+    CompositeFuture.ResponseListener<String> responseListener = new CompositeFuture.ResponseListener<String>() {
+      @Override
+      public void onResponse(ServerInstance server, String response) {
+        Assert.assertNull(receivedMessages.put(server, response), "Response delivered more than once");
+      }
+    };
+
+    Map<ServerInstance, String> expectedMessages = new HashMap<>();
+    for (int i = 0; i < numFutures; i++) {
+      if (i == numFutures / 2) {
+        compositeFuture.setResponseListener(responseListener);
+      }
+      String message = "dummy Message_" + i;
+      ServerInstance key = new ServerInstance("localhost:" + i);
+      ((AsyncResponseFuture<String>) futureMap.get(key)).onSuccess(message);
+      expectedMessages.put(key, message);
+    }
+
+    Assert.assertEquals(compositeFuture.get(), expectedMessages);
+    Assert.assertEquals(receivedMessages, expectedMessages);
+  }
+
   /**
    * Same class used both as a listener and the one that blocks on get().
    */
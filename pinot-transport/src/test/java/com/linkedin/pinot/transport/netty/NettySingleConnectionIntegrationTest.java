@@ -22,6 +22,7 @@ import com.linkedin.pinot.transport.common.Callback;
 import com.linkedin.pinot.transport.common.LinkedDequeue;
 import com.linkedin.pinot.transport.common.NoneType;
 import com.linkedin.pinot.transport.common.ServerResponseFuture;
+import com.linkedin.pinot.transport.config.NettyChannelConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import com.linkedin.pinot.transport.metrics.PoolStats;
 import com.linkedin.pinot.transport.netty.NettyClientConnection.ResponseFuture;
@@ -32,6 +33,7 @@ import com.linkedin.pinot.transport.pool.KeyedPool;
 import com.linkedin.pinot.transport.pool.KeyedPoolImpl;
 import com.yammer.metrics.core.MetricsRegistry;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import java.lang.reflect.Field;
@@ -42,6 +44,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang.RandomStringUtils;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
@@ -114,6 +118,54 @@ public class NettySingleConnectionIntegrationTest {
     }
   }
 
+  @Test
+  public void testConfiguredChannel()
+      throws Exception {
+    // Replace the default NIO server and client with the ones using the configured transport and socket options
+    NettyTestUtils.closeClientConnection(_nettyTCPClientConnection);
+    NettyTestUtils.closeServerConnection(_nettyTCPServer);
+
+    Configuration configuration = new PropertiesConfiguration();
+    configuration.setProperty(NettyChannelConfig.USE_EPOLL_KEY, true);
+    configuration.setProperty(NettyChannelConfig.NUM_WORKER_THREADS_KEY, 2);
+    configuration.setProperty(NettyChannelConfig.SO_RCVBUF_KEY, 64 * 1024);
+    configuration.setProperty(NettyChannelConfig.SO_SNDBUF_KEY, 64 * 1024);
+    configuration.setProperty(NettyChannelConfig.WRITE_BUFFER_LOW_WATER_MARK_KEY, 32 * 1024);
+    configuration.setProperty(NettyChannelConfig.WRITE_BUFFER_HIGH_WATER_MARK_KEY, 64 * 1024);
+    NettyChannelConfig channelConfig = new NettyChannelConfig();
+    channelConfig.init(configuration);
+    Assert.assertTrue(channelConfig.isUseEpoll());
+    Assert.assertEquals(channelConfig.getNumBossThreads(), 1);
+    Assert.assertEquals(channelConfig.getNumWorkerThreads(), 2);
+    Assert.assertTrue(channelConfig.isTcpNoDelay());
+
+    NettyTestUtils.LatchControlledRequestHandlerFactory handlerFactory =
+        new NettyTestUtils.LatchControlledRequestHandlerFactory(_requestHandler);
+    _nettyTCPServer = new NettyTCPServer(NettyTestUtils.DEFAULT_PORT, handlerFactory, null, 100L, channelConfig);
+    Thread serverThread = new Thread(_nettyTCPServer, "NettyTCPServer");
+    serverThread.start();
+    NettyTestUtils.waitForServerStarted(_nettyTCPServer, 10 * 1000L);
+
+    // Epoll is only used when available on the platform, otherwise falls back to NIO
+    EventLoopGroup eventLoopGroup =
+        NettyTransportUtils.newEventLoopGroup(0, NettyTransportUtils.useEpoll(channelConfig));
+    _nettyTCPClientConnection =
+        new NettyTCPClientConnection(_clientServer, eventLoopGroup, new HashedWheelTimer(),
+            new NettyClientMetrics(null, "abc"), channelConfig);
+
+    Assert.assertTrue(_nettyTCPClientConnection.connect());
+    for (int i = 0; i < NUM_SMALL_TESTS; i++) {
+      String request = NettyTestUtils.DUMMY_REQUEST + i;
+      String response = NettyTestUtils.DUMMY_RESPONSE + i;
+      _requestHandler.setResponse(response);
+      ResponseFuture responseFuture =
+          _nettyTCPClientConnection.sendRequest(Unpooled.wrappedBuffer(request.getBytes()), 1L, 5000L);
+      byte[] bytes = responseFuture.getOne();
+      Assert.assertEquals(new String(bytes), response);
+      Assert.assertEquals(_requestHandler.getRequest(), request);
+    }
+  }
+
   @Test
   public void testCancelOutstandingRequest()
       throws Exception {
@@ -408,6 +408,11 @@ public class ScatterGatherPerfClient implements Runnable {
       return _brokerRequest;
     }
 
+    @Override
+    public String getHedgeServer(String server, List<String> segments) {
+      return null;
+    }
+
     @Override
     public long getRequestTimeoutMs() {
       return 10000; //10 second timeout
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2014-2016 LinkedIn Corp. (pinot-core@linkedin.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.linkedin.pinot.transport.scattergather;
+
+import com.linkedin.pinot.transport.config.HedgeConfig;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for {@link HedgePolicy} class.
+ */
+public class HedgePolicyTest {
+  private static final String TABLE_NAME = "testTable_OFFLINE";
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  // Exponentially distributed server latencies, p95 = MEAN_LATENCY_MS * ln(20) ~= 300ms
+  private static final double MEAN_LATENCY_MS = 100.0;
+  private static final long TRUE_P95_LATENCY_MS = (long) (MEAN_LATENCY_MS * Math.log(20));
+  private static final long HEDGE_LATENCY_MS = 10L;
+  private static final int NUM_REQUESTS = 10_000;
+
+  /**
+   * Simulates requests where the hedged request always wins once sent, so that every slow request gets cancelled. The
+   * cancelled requests are recorded as lower bounds of their latencies, so the hedge delay should stay around the
+   * configured percentile of the actual latencies instead of drifting down to hedge (almost) every request.
+   */
+  @Test
+  public void testHedgeDelayWhenHedgesWin() {
+    HedgeConfig hedgeConfig = new HedgeConfig();
+    hedgeConfig.setEnabled(true);
+    hedgeConfig.setMinDelayMs(1L);
+    // Refresh the hedge delay on every request
+    HedgePolicy hedgePolicy = new HedgePolicy(hedgeConfig, 0L);
+
+    Random random = new Random(RANDOM_SEED);
+    int numHedged = 0;
+    for (int i = 0; i < NUM_REQUESTS; i++) {
+      long latencyMs = (long) (-MEAN_LATENCY_MS * Math.log(1.0 - random.nextDouble()));
+      long hedgeDelayMs = hedgePolicy.getHedgeDelayMs(TABLE_NAME);
+      if (hedgeDelayMs >= 0 && latencyMs > hedgeDelayMs + HEDGE_LATENCY_MS) {
+        // Hedged request wins, and the original request gets cancelled
+        numHedged++;
+        hedgePolicy.recordCancelled(TABLE_NAME, hedgeDelayMs + HEDGE_LATENCY_MS);
+      } else {
+        hedgePolicy.recordLatency(TABLE_NAME, latencyMs);
+      }
+    }
+
+    long hedgeDelayMs = hedgePolicy.getHedgeDelayMs(TABLE_NAME);
+    Assert.assertTrue(hedgeDelayMs > TRUE_P95_LATENCY_MS * 2 / 3,
+        ERROR_MESSAGE + ", hedge delay: " + hedgeDelayMs + "ms collapsed");
+    Assert.assertTrue(numHedged < NUM_REQUESTS * 0.1,
+        ERROR_MESSAGE + ", hedged " + numHedged + " out of " + NUM_REQUESTS + " requests");
+  }
+}
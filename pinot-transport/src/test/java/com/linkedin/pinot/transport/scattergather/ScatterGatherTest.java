@@ -24,6 +24,7 @@ import com.linkedin.pinot.common.request.BrokerRequest;
 import com.linkedin.pinot.common.response.ServerInstance;
 import com.linkedin.pinot.common.utils.CommonConstants;
 import com.linkedin.pinot.transport.common.CompositeFuture;
+import com.linkedin.pinot.transport.config.HedgeConfig;
 import com.linkedin.pinot.transport.metrics.NettyClientMetrics;
 import com.linkedin.pinot.transport.netty.NettyServer;
 import com.linkedin.pinot.transport.netty.NettyServer.RequestHandler;
@@ -240,6 +241,75 @@ public class ScatterGatherTest {
     }
   }
 
+  @Test
+  public void testHedge() throws Exception {
+    // Server 0 is slow, server 1 hosts the same segment
+    NettyServer[] nettyServers = new NettyServer[2];
+    String[] serverNames = new String[2];
+    ServerInstance[] serverInstances = new ServerInstance[2];
+    for (int i = 0; i < 2; i++) {
+      int serverPort = BASE_SERVER_PORT + i;
+      if (i == 0) {
+        nettyServers[i] = new NettyTCPServer(serverPort, new TestRequestHandlerFactory(5_000L, false), null);
+      } else {
+        nettyServers[i] = new NettyTCPServer(serverPort, new TestRequestHandlerFactory(0L, false), null);
+      }
+      new Thread(nettyServers[i]).start();
+
+      String serverName = CommonConstants.Helix.PREFIX_OF_SERVER_INSTANCE + LOCAL_HOST
+          + ServerInstance.NAME_PORT_DELIMITER_FOR_INSTANCE_NAME + serverPort;
+      serverNames[i] = serverName;
+      serverInstances[i] = ServerInstance.forInstanceName(serverName);
+    }
+    Map<String, String> hedgeServerMap = new HashMap<>();
+    hedgeServerMap.put(serverNames[0], serverNames[1]);
+
+    // Setup client
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    EventLoopGroup eventLoopGroup = new NioEventLoopGroup();
+    KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection> connectionPool =
+        setUpConnectionPool(metricsRegistry, eventLoopGroup);
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    ScheduledExecutorService hedgeScheduler = Executors.newSingleThreadScheduledExecutor();
+    HedgeConfig hedgeConfig = new HedgeConfig();
+    hedgeConfig.setEnabled(true);
+    hedgeConfig.setMinNumSamples(1);
+    hedgeConfig.setMaxHedgeRatio(1.0);
+    ScatterGather scatterGather = new ScatterGatherImpl(connectionPool, executorService, hedgeConfig, hedgeScheduler);
+    BrokerMetrics brokerMetrics = new BrokerMetrics(metricsRegistry);
+
+    // Warm up with the fast server to collect the latency samples and the hedge budget
+    Map<String, List<String>> routingTable =
+        Collections.singletonMap(serverNames[1], Collections.singletonList("segment_1"));
+    for (int i = 0; i < 2; i++) {
+      CompositeFuture<byte[]> future =
+          scatterGather.scatterGather(new TestScatterGatherRequest(routingTable, 10_000L, hedgeServerMap),
+              new ScatterGatherStats(), brokerMetrics);
+      Assert.assertEquals(future.get().size(), 1);
+    }
+
+    // Request to the slow server should be answered by the hedged request to the fast server
+    routingTable = Collections.singletonMap(serverNames[0], Collections.singletonList("segment_0"));
+    long startTimeMs = System.currentTimeMillis();
+    CompositeFuture<byte[]> future =
+        scatterGather.scatterGather(new TestScatterGatherRequest(routingTable, 10_000L, hedgeServerMap),
+            new ScatterGatherStats(), brokerMetrics);
+    Map<ServerInstance, byte[]> serverToResponseMap = future.get();
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs < 5_000L);
+    Assert.assertEquals(serverToResponseMap.size(), 1);
+    Assert.assertEquals(new String(serverToResponseMap.get(serverInstances[0])), "segment_0");
+    Assert.assertTrue(future.getError().isEmpty());
+
+    connectionPool.shutdown();
+    executorService.shutdown();
+    hedgeScheduler.shutdown();
+    eventLoopGroup.shutdownGracefully();
+
+    for (int i = 0; i < 2; i++) {
+      nettyServers[i].shutdownGracefully();
+    }
+  }
+
   private KeyedPoolImpl<PooledNettyClientResourceManager.PooledClientConnection> setUpConnectionPool(
       MetricsRegistry metricsRegistry, EventLoopGroup eventLoopGroup) {
     ScheduledExecutorService timedExecutor = new ScheduledThreadPoolExecutor(1);
@@ -256,10 +326,17 @@ public class ScatterGatherTest {
   private static class TestScatterGatherRequest implements ScatterGatherRequest {
     private final Map<String, List<String>> _routingTable;
     private final long _timeoutMs;
+    private final Map<String, String> _hedgeServerMap;
 
     public TestScatterGatherRequest(Map<String, List<String>> routingTable, long timeoutMs) {
+      this(routingTable, timeoutMs, Collections.<String, String>emptyMap());
+    }
+
+    public TestScatterGatherRequest(Map<String, List<String>> routingTable, long timeoutMs,
+        Map<String, String> hedgeServerMap) {
       _routingTable = routingTable;
       _timeoutMs = timeoutMs;
+      _hedgeServerMap = hedgeServerMap;
     }
 
     @Override
@@ -272,6 +349,11 @@ public class ScatterGatherTest {
       return segments.get(0).getBytes();
     }
 
+    @Override
+    public String getHedgeServer(String server, List<String> segments) {
+      return _hedgeServerMap.get(server);
+    }
+
     @Override
     public long getRequestId() {
       return 1L;